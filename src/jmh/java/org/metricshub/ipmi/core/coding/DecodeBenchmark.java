@@ -0,0 +1,136 @@
+package org.metricshub.ipmi.core.coding;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.metricshub.ipmi.core.coding.commands.IpmiVersion;
+import org.metricshub.ipmi.core.coding.commands.ResponseData;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSensorReading;
+import org.metricshub.ipmi.core.coding.payload.IpmiPayload;
+import org.metricshub.ipmi.core.coding.payload.PlainMessage;
+import org.metricshub.ipmi.core.coding.payload.lan.IpmiLanResponse;
+import org.metricshub.ipmi.core.coding.protocol.AuthenticationType;
+import org.metricshub.ipmi.core.coding.protocol.Ipmiv20Message;
+import org.metricshub.ipmi.core.coding.protocol.PayloadType;
+import org.metricshub.ipmi.core.coding.protocol.decoder.Protocolv20Decoder;
+import org.metricshub.ipmi.core.coding.protocol.encoder.Protocolv20Encoder;
+import org.metricshub.ipmi.core.coding.rmcp.RmcpDecoder;
+import org.metricshub.ipmi.core.coding.rmcp.RmcpMessage;
+import org.metricshub.ipmi.core.coding.security.CipherSuite;
+import org.metricshub.ipmi.core.coding.security.ConfidentialityAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding of an encrypted and authenticated Get Sensor Reading response held
+ * in a receive buffer. Run with <code>-Djmh.args="DecodeBenchmark -prof gc"</code>
+ * and read <code>gc.alloc.rate.norm</code> for the bytes allocated per decoded
+ * response. <code>legacy</code> reproduces the former copies of the datagram,
+ * of the RMCP data and of the payload before and after decryption.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+
+	@Param({ "legacy", "view" })
+	String decodePath;
+
+	private byte[] receiveBuffer;
+
+	private int length;
+
+	private Protocolv20Decoder decoder;
+
+	private GetSensorReading payloadCoder;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		CipherSuite cipherSuite = new CipherSuite((byte) 3, (byte) 1, (byte) 1, (byte) 1);
+		cipherSuite.initializeAlgorithms(new byte[20]);
+
+		byte[] packet = encodeResponse(cipherSuite, new byte[] { 0x2a, (byte) 0xc0, 0x00, 0x00 });
+
+		receiveBuffer = new byte[512];
+		System.arraycopy(packet, 0, receiveBuffer, 0, packet.length);
+		length = packet.length;
+
+		decoder = "legacy".equals(decodePath) ? new LegacyProtocolv20Decoder(cipherSuite)
+				: new Protocolv20Decoder(cipherSuite);
+		payloadCoder = new GetSensorReading(IpmiVersion.V20, cipherSuite, AuthenticationType.RMCPPlus, 1);
+	}
+
+	@Benchmark
+	public ResponseData decode() throws Exception {
+		if ("legacy".equals(decodePath)) {
+			byte[] datagram = Arrays.copyOf(receiveBuffer, length);
+			RmcpMessage rmcpMessage = RmcpDecoder.decode(datagram);
+			rmcpMessage.getData();
+			return payloadCoder.getResponseData(decoder.decode(rmcpMessage));
+		}
+		return Decoder.decode(receiveBuffer, 0, length, decoder, payloadCoder);
+	}
+
+	/**
+	 * Builds a Get Sensor Reading response as a BMC would send it.
+	 */
+	private static byte[] encodeResponse(CipherSuite cipherSuite, byte[] data) throws Exception {
+		byte[] lan = new byte[8 + data.length];
+		lan[0] = (byte) 0x81;
+		lan[1] = (byte) (0x05 << 2);
+		lan[2] = (byte) -(lan[0] + lan[1]);
+		lan[3] = 0x20;
+		lan[4] = (byte) (5 << 2);
+		lan[5] = 0x2d;
+		lan[6] = 0x00;
+		System.arraycopy(data, 0, lan, 7, data.length);
+		int checksum = 0;
+		for (int i = 3; i < lan.length - 1; i++) {
+			checksum += lan[i];
+		}
+		lan[lan.length - 1] = (byte) -checksum;
+
+		Ipmiv20Message message = new Ipmiv20Message(cipherSuite.getConfidentialityAlgorithm());
+		message.setAuthenticationType(AuthenticationType.RMCPPlus);
+		message.setPayloadType(PayloadType.Ipmi);
+		message.setSessionID(0x01020304);
+		message.setSessionSequenceNumber(9);
+		message.setPayloadEncrypted(true);
+		message.setPayloadAuthenticated(true);
+		message.setIntegrityAlgorithm(cipherSuite.getIntegrityAlgorithm());
+		message.setPayload(new PlainMessage(lan));
+
+		return new Protocolv20Encoder().encodeRmcpPacket(message);
+	}
+
+	/**
+	 * Payload decoding as it was before it worked on buffer views.
+	 */
+	static class LegacyProtocolv20Decoder extends Protocolv20Decoder {
+
+		LegacyProtocolv20Decoder(CipherSuite cipherSuite) {
+			super(cipherSuite);
+		}
+
+		@Override
+		protected IpmiPayload decodePayload(byte[] rawData, int offset, int length,
+				ConfidentialityAlgorithm confidentialityAlgorithm, PayloadType payloadType) {
+			byte[] payload = new byte[length];
+			System.arraycopy(rawData, offset, payload, 0, length);
+			return new IpmiLanResponse(confidentialityAlgorithm.decrypt(payload));
+		}
+	}
+}
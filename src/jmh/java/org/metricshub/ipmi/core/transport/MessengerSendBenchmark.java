@@ -0,0 +1,102 @@
+package org.metricshub.ipmi.core.transport;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Packets per second a single messenger sends when shared by several threads.
+ * <code>legacy</code> reproduces the former synchronized send with a 1 ms
+ * sleep after each packet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(4)
+public class MessengerSendBenchmark {
+
+	@Param({ "legacy", "udp", "nio" })
+	String messengerType;
+
+	private DatagramSocket sink;
+
+	private Messenger messenger;
+
+	private UdpMessage message;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		InetAddress loopback = InetAddress.getLoopbackAddress();
+
+		// Never read: the kernel drops what does not fit in its buffer
+		sink = new DatagramSocket(0, loopback);
+
+		switch (messengerType) {
+		case "legacy":
+			messenger = new LegacyUdpMessenger(loopback);
+			break;
+		case "udp":
+			messenger = new UdpMessenger(0, loopback);
+			break;
+		default:
+			messenger = new NioUdpMessenger(0, loopback);
+			break;
+		}
+
+		message = new UdpMessage();
+		message.setAddress(loopback);
+		message.setPort(sink.getLocalPort());
+		message.setMessage(new byte[64]);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		messenger.closeConnection();
+		sink.close();
+	}
+
+	@Benchmark
+	public void send() throws IOException {
+		messenger.send(message);
+	}
+
+	/**
+	 * Send path as it was before pacing was made per destination.
+	 */
+	static class LegacyUdpMessenger extends UdpMessenger {
+
+		LegacyUdpMessenger(InetAddress address) throws SocketException {
+			super(0, address);
+		}
+
+		@Override
+		public synchronized void send(UdpMessage message) throws IOException {
+			super.send(message);
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
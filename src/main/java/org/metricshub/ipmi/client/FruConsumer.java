@@ -0,0 +1,44 @@
+package org.metricshub.ipmi.client;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.metricshub.ipmi.client.model.Fru;
+
+/**
+ * Receives the FRUs one by one, as soon as they are decoded, so that the caller does not have to wait for the whole SDR
+ * repository to be processed. The FRUs delivered before an error or a timeout are not lost.
+ * <p>
+ * The consumer is called from the thread running the request, in the order of the SDR repository. It should return
+ * quickly, since the next FRUs are not processed in the meantime.
+ * </p>
+ */
+@FunctionalInterface
+public interface FruConsumer {
+
+	/**
+	 * Handle the next FRU
+	 *
+	 * @param fru The {@link Fru} with its records
+	 */
+	void accept(Fru fru);
+}
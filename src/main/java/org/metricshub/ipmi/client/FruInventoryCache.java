@@ -0,0 +1,290 @@
+package org.metricshub.ipmi.client;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.metricshub.ipmi.core.coding.commands.fru.ReadFruData;
+import org.metricshub.ipmi.core.coding.commands.fru.ReadFruDataResponseData;
+import org.metricshub.ipmi.core.coding.commands.fru.record.FruRecord;
+import org.metricshub.ipmi.core.common.PropertiesManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the FRU inventory areas of each BMC. FRU contents (board, product and chassis info) hardly ever change, so an
+ * area is only read again when its size or its common header (which ends with the header checksum) changed, or when it
+ * has been cached for longer than the time to live. The records are decoded once per change, not once per poll.
+ * <p>
+ * Areas are kept in memory and, if a directory is configured, in one file per BMC so that they survive restarts.
+ * </p>
+ */
+public class FruInventoryCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(FruInventoryCache.class);
+
+	/**
+	 * Size of the common header at the start of a FRU inventory area
+	 */
+	public static final int COMMON_HEADER_SIZE = 8;
+
+	/**
+	 * Default time in milliseconds after which an area is read again even if its header did not change
+	 */
+	private static final long DEFAULT_TTL = 86400000;
+
+	/**
+	 * Identifies the cache files, followed by the version of their format
+	 */
+	private static final int FILE_MAGIC = 0x46525543;
+	private static final int FILE_VERSION = 1;
+
+	private static FruInventoryCache defaultCache;
+
+	private static boolean defaultCacheLoaded;
+
+	private final File directory;
+
+	private final long ttl;
+
+	private final ConcurrentMap<String, ConcurrentMap<Integer, Area>> areas = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates the cache.
+	 *
+	 * @param directory Directory where the areas are stored, <code>null</code> to keep them in memory only
+	 * @param ttl       Time in milliseconds after which an area is read again, 0 to only read it again when its header
+	 *                  changes
+	 */
+	public FruInventoryCache(File directory, long ttl) {
+		this.directory = directory;
+		this.ttl = ttl;
+	}
+
+	/**
+	 * Returns the cache shared by the runners of the JVM, configured by the <code>fruCacheEnabled</code>,
+	 * <code>fruCacheDirectory</code> and <code>fruCacheTtl</code> properties.
+	 *
+	 * @return The default {@link FruInventoryCache} or <code>null</code> if caching is disabled
+	 */
+	public static synchronized FruInventoryCache getDefault() {
+		if (!defaultCacheLoaded) {
+			final PropertiesManager manager = PropertiesManager.getInstance();
+			final String enabled = manager.getProperty("fruCacheEnabled");
+			final String directory = manager.getProperty("fruCacheDirectory");
+			final String ttl = manager.getProperty("fruCacheTtl");
+
+			if (enabled == null || Boolean.parseBoolean(enabled)) {
+				defaultCache = new FruInventoryCache(Utils.isBlank(directory) ? null : new File(directory.trim()),
+						Utils.isBlank(ttl) ? DEFAULT_TTL : Long.parseLong(ttl.trim()));
+			}
+			defaultCacheLoaded = true;
+		}
+		return defaultCache;
+	}
+
+	/**
+	 * Returns the cached records of the FRU if its inventory area did not change since it was stored.
+	 *
+	 * @param hostname IP Address or host name of the BMC
+	 * @param port     UDP port number of the BMC
+	 * @param fruId    The unique identifier of the FRU
+	 * @param size     Current size of the inventory area, as returned by Get FRU Inventory Area Info
+	 * @param header   Current common header of the inventory area
+	 * @return The decoded records, or <code>null</code> if the area must be read again
+	 */
+	public List<FruRecord> get(final String hostname, final int port, final int fruId, final int size,
+			final byte[] header) {
+		final Area area = getAreas(key(hostname, port)).get(fruId);
+
+		if (area == null || !area.matches(size, header)
+				|| (ttl > 0 && System.currentTimeMillis() - area.readTime > ttl)) {
+			return null;
+		}
+
+		return area.getRecords();
+	}
+
+	/**
+	 * Stores the inventory area read from the FRU and decodes its records.
+	 *
+	 * @param hostname IP Address or host name of the BMC
+	 * @param port     UDP port number of the BMC
+	 * @param fruId    The unique identifier of the FRU
+	 * @param data     The whole inventory area
+	 * @return The decoded records
+	 * @throws IllegalArgumentException If the area cannot be decoded, in which case it is not stored
+	 */
+	public List<FruRecord> put(final String hostname, final int port, final int fruId, final byte[] data) {
+		final String key = key(hostname, port);
+		final Area area = new Area(data.clone(), System.currentTimeMillis());
+
+		// Decode first, invalid areas are not worth keeping
+		final List<FruRecord> records = area.getRecords();
+
+		final ConcurrentMap<Integer, Area> bmcAreas = getAreas(key);
+		bmcAreas.put(fruId, area);
+
+		if (directory != null) {
+			write(file(key), bmcAreas);
+		}
+
+		return records;
+	}
+
+	/**
+	 * Forgets the inventory areas of the BMC.
+	 *
+	 * @param hostname IP Address or host name of the BMC
+	 * @param port     UDP port number of the BMC
+	 */
+	public void invalidate(final String hostname, final int port) {
+		final String key = key(hostname, port);
+
+		areas.remove(key);
+
+		if (directory != null) {
+			try {
+				Files.deleteIfExists(file(key).toPath());
+			} catch (IOException e) {
+				logger.warn("Cannot delete FRU cache file of {}", key, e);
+			}
+		}
+	}
+
+	private ConcurrentMap<Integer, Area> getAreas(final String key) {
+		return areas.computeIfAbsent(key, k -> directory == null ? new ConcurrentHashMap<>() : read(file(k)));
+	}
+
+	private static String key(final String hostname, final int port) {
+		return hostname + ":" + port;
+	}
+
+	private File file(final String key) {
+		return new File(directory, key.replaceAll("[^A-Za-z0-9.-]", "_") + ".fru");
+	}
+
+	private static ConcurrentMap<Integer, Area> read(final File file) {
+		final ConcurrentMap<Integer, Area> result = new ConcurrentHashMap<>();
+
+		if (!file.isFile()) {
+			return result;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+				return result;
+			}
+
+			final int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				final int fruId = in.readInt();
+				final long readTime = in.readLong();
+				final byte[] data = new byte[in.readInt()];
+				in.readFully(data);
+				result.put(fruId, new Area(data, readTime));
+			}
+		} catch (IOException e) {
+			logger.warn("Cannot read FRU cache file {}", file, e);
+			result.clear();
+		}
+
+		return result;
+	}
+
+	private static synchronized void write(final File file, final Map<Integer, Area> bmcAreas) {
+		try {
+			Files.createDirectories(file.getParentFile().toPath());
+
+			// Write a temporary file first, so that readers never see a partial file
+			final File temp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp").toFile();
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				final Map<Integer, Area> snapshot = new HashMap<>(bmcAreas);
+				out.writeInt(FILE_MAGIC);
+				out.writeInt(FILE_VERSION);
+				out.writeInt(snapshot.size());
+				for (Map.Entry<Integer, Area> entry : snapshot.entrySet()) {
+					out.writeInt(entry.getKey());
+					out.writeLong(entry.getValue().readTime);
+					out.writeInt(entry.getValue().data.length);
+					out.write(entry.getValue().data);
+				}
+			}
+
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			logger.warn("Cannot write FRU cache file {}", file, e);
+		}
+	}
+
+	/**
+	 * Inventory area of a FRU along with the time it was read
+	 */
+	private static class Area {
+
+		private final byte[] data;
+		private final long readTime;
+		private volatile List<FruRecord> records;
+
+		Area(byte[] data, long readTime) {
+			this.data = data;
+			this.readTime = readTime;
+		}
+
+		boolean matches(final int size, final byte[] header) {
+			final int headerSize = Math.min(COMMON_HEADER_SIZE, data.length);
+			return data.length == size && header != null && header.length == headerSize
+					&& Arrays.equals(Arrays.copyOf(data, headerSize), header);
+		}
+
+		/**
+		 * @return The records of the area, decoded the first time they are needed
+		 */
+		List<FruRecord> getRecords() {
+			List<FruRecord> result = records;
+			if (result == null) {
+				final ReadFruDataResponseData fruData = new ReadFruDataResponseData();
+				fruData.setFruData(data);
+				result = Collections.unmodifiableList(ReadFruData.decodeFruData(Collections.singletonList(fruData)));
+				records = result;
+			}
+			return result;
+		}
+	}
+}
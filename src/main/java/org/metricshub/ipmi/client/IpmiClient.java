@@ -29,9 +29,12 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
 import org.metricshub.ipmi.client.model.Fru;
+import org.metricshub.ipmi.client.model.FrusAndSensors;
 import org.metricshub.ipmi.client.model.Sensor;
 import org.metricshub.ipmi.client.runner.GetChassisStatusRunner;
+import org.metricshub.ipmi.client.runner.GetFrusAndSensorsRunner;
 import org.metricshub.ipmi.client.runner.GetFrusRunner;
+import org.metricshub.ipmi.client.runner.GetSensorReadingsRunner;
 import org.metricshub.ipmi.client.runner.GetSensorsRunner;
 import org.metricshub.ipmi.core.coding.commands.chassis.GetChassisStatusResponseData;
 
@@ -55,9 +58,7 @@ public class IpmiClient {
 	 */
 	public static GetChassisStatusResponseData getChassisStatus(final IpmiClientConfiguration ipmiConfiguration)
 			throws InterruptedException, ExecutionException, TimeoutException {
-		try (GetChassisStatusRunner runner = new GetChassisStatusRunner(ipmiConfiguration)){
-			return execute(runner, ipmiConfiguration.getTimeout() * 1000);
-		}
+		return execute(new GetChassisStatusRunner(ipmiConfiguration), ipmiConfiguration.getTimeout() * 1000);
 	}
 
 	/**
@@ -72,9 +73,56 @@ public class IpmiClient {
 	 */
 	public static List<Sensor> getSensors(final IpmiClientConfiguration ipmiConfiguration)
 			throws InterruptedException, ExecutionException, TimeoutException {
-		try (GetSensorsRunner runner = new GetSensorsRunner(ipmiConfiguration)) {
-			return execute(runner, ipmiConfiguration.getTimeout() * 1000);
-		}
+		return execute(new GetSensorsRunner(ipmiConfiguration), ipmiConfiguration.getTimeout() * 1000);
+	}
+
+	/**
+	 * Get the sensors, handing each of them to the consumer as soon as its reading is available. The sensors delivered
+	 * before a timeout or an error are kept by the consumer, and the sensors are not accumulated in memory.
+	 *
+	 * @param ipmiConfiguration Wraps the IPMI device hostname and the credentials
+	 * @param consumer          Receives the {@link Sensor} instances, in the order of the SDR repository
+	 *
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	public static void getSensors(final IpmiClientConfiguration ipmiConfiguration, final SensorConsumer consumer)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		execute(new GetSensorsRunner(ipmiConfiguration, consumer), ipmiConfiguration.getTimeout() * 1000);
+	}
+
+	/**
+	 * Get the sensors, reading only their current values: the sensor records read by the last {@link #getSensors} or
+	 * {@link #getFrusAndSensors} call on the same host are reused, so the SDR repository is not read again. The first call on
+	 * a host reads the SDR repository like {@link #getSensors}.
+	 *
+	 * @param ipmiConfiguration Wraps the IPMI device hostname and the credentials
+	 * @return List of {@link Sensor} instances
+	 *
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	public static List<Sensor> getSensorReadings(final IpmiClientConfiguration ipmiConfiguration)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		return execute(new GetSensorReadingsRunner(ipmiConfiguration), ipmiConfiguration.getTimeout() * 1000);
+	}
+
+	/**
+	 * Get the sensors like {@link #getSensorReadings(IpmiClientConfiguration)}, handing each of them to the consumer as
+	 * soon as its reading is available.
+	 *
+	 * @param ipmiConfiguration Wraps the IPMI device hostname and the credentials
+	 * @param consumer          Receives the {@link Sensor} instances
+	 *
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	public static void getSensorReadings(final IpmiClientConfiguration ipmiConfiguration, final SensorConsumer consumer)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		execute(new GetSensorReadingsRunner(ipmiConfiguration, consumer), ipmiConfiguration.getTimeout() * 1000);
 	}
 
 	/**
@@ -89,9 +137,38 @@ public class IpmiClient {
 	 */
 	public static List<Fru> getFrus(final IpmiClientConfiguration ipmiConfiguration)
 			throws InterruptedException, ExecutionException, TimeoutException {
-		try (GetFrusRunner runner = new GetFrusRunner(ipmiConfiguration)) {
-			return execute(runner, ipmiConfiguration.getTimeout() * 1000);
-		}
+		return execute(new GetFrusRunner(ipmiConfiguration), ipmiConfiguration.getTimeout() * 1000);
+	}
+
+	/**
+	 * Get FRU information, handing each FRU to the consumer as soon as it is decoded. The FRUs delivered before a timeout
+	 * or an error are kept by the consumer.
+	 *
+	 * @param ipmiConfiguration Wraps the IPMI device hostname and the credentials
+	 * @param consumer          Receives the {@link Fru} instances, in the order of the SDR repository
+	 *
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	public static void getFrus(final IpmiClientConfiguration ipmiConfiguration, final FruConsumer consumer)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		execute(new GetFrusRunner(ipmiConfiguration, consumer), ipmiConfiguration.getTimeout() * 1000);
+	}
+
+	/**
+	 * Get FRU information and the sensors in a single walk of the SDR repository
+	 *
+	 * @param ipmiConfiguration Wraps the IPMI device hostname and the credentials
+	 * @return {@link FrusAndSensors} instance
+	 *
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	public static FrusAndSensors getFrusAndSensors(final IpmiClientConfiguration ipmiConfiguration)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		return execute(new GetFrusAndSensorsRunner(ipmiConfiguration), ipmiConfiguration.getTimeout() * 1000);
 	}
 
 	/**
@@ -119,6 +196,7 @@ public class IpmiClient {
 	 */
 	public static String getFrusAndSensorsAsStringResult(final IpmiClientConfiguration ipmiConfiguration)
 			throws InterruptedException, ExecutionException, TimeoutException {
-		return IpmiResultConverter.convertResult(getFrus(ipmiConfiguration), getSensors(ipmiConfiguration));
+		final FrusAndSensors frusAndSensors = getFrusAndSensors(ipmiConfiguration);
+		return IpmiResultConverter.convertResult(frusAndSensors.getFrus(), frusAndSensors.getSensors());
 	}
 }
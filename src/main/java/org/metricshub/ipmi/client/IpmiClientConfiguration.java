@@ -39,6 +39,13 @@ public class IpmiClientConfiguration {
 	private int port = Constants.IPMI_PORT;
 	private long timeout;
 	private long pingPeriod = -1;
+	private int pipelineWindow = DEFAULT_PIPELINE_WINDOW;
+
+	/**
+	 * Default number of requests kept in flight on a session, half of the requests a session can have outstanding so
+	 * that the keep-alive messages still go through
+	 */
+	public static final int DEFAULT_PIPELINE_WINDOW = 4;
 
 	/**
 	 * Instantiates a new {@link IpmiClientConfiguration} in order to query the IPMI host.
@@ -87,7 +94,9 @@ public class IpmiClientConfiguration {
 	 * @param skipAuth   Whether the client should skip authentication
 	 * @param timeout    Timeout used for each IPMI request.
 	 * @param pingPeriod The period in milliseconds used to send the keep alive messages.<br>
-	 *                   Set pingPeriod to 0 to turn off keep-alive messages sent to the remote host.
+	 *                   Set pingPeriod to 0 to turn off keep-alive messages sent to the remote host, which also
+	 *                   keeps the session out of the session pool. A negative value uses the <code>pingPeriod</code>
+	 *                   property.
 	 */
 	public IpmiClientConfiguration(String hostname, String username, char[] password,
 			byte[] bmcKey, boolean skipAuth, long timeout, long pingPeriod) {
@@ -241,7 +250,8 @@ public class IpmiClientConfiguration {
 
 	/**
 	 * Sets the period in milliseconds used to send the keep alive messages.<br>
-	 * Set pingPeriod to 0 to turn off keep-alive messages sent to the remote host.
+	 * Set pingPeriod to 0 to turn off keep-alive messages sent to the remote host, which also keeps the session out of
+	 * the session pool. A negative value (the default) uses the <code>pingPeriod</code> property.
 	 * 
 	 * @param pingPeriod The period in milliseconds used to send the keep alive messages.
 	 */
@@ -249,4 +259,23 @@ public class IpmiClientConfiguration {
 		this.pingPeriod = pingPeriod;
 	}
 
+	/**
+	 * Returns the number of requests, such as sensor readings, kept in flight on the session.
+	 * 
+	 * @return The number of requests kept in flight on the session.
+	 */
+	public int getPipelineWindow() {
+		return pipelineWindow;
+	}
+
+	/**
+	 * Sets the number of requests, such as sensor readings, kept in flight on the session.<br>
+	 * Set pipelineWindow to 1 to send the requests one at a time.
+	 * 
+	 * @param pipelineWindow The number of requests kept in flight on the session.
+	 */
+	public void setPipelineWindow(int pipelineWindow) {
+		this.pipelineWindow = pipelineWindow;
+	}
+
 }
@@ -0,0 +1,434 @@
+package org.metricshub.ipmi.client;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.metricshub.ipmi.client.model.FleetResult;
+import org.metricshub.ipmi.client.model.Fru;
+import org.metricshub.ipmi.client.model.FrusAndSensors;
+import org.metricshub.ipmi.client.model.Sensor;
+import org.metricshub.ipmi.client.runner.AbstractIpmiRunner;
+import org.metricshub.ipmi.client.runner.GetFrusAndSensorsRunner;
+import org.metricshub.ipmi.client.runner.GetFrusRunner;
+import org.metricshub.ipmi.client.runner.GetSensorReadingsRunner;
+import org.metricshub.ipmi.client.runner.GetSensorsRunner;
+import org.metricshub.ipmi.core.api.sync.IpmiConnector;
+import org.metricshub.ipmi.core.common.PropertiesManager;
+import org.metricshub.ipmi.core.transport.NioUdpMessenger;
+
+/**
+ * Entry point to poll many BMCs at once. Unlike the {@link IpmiClient} methods, which open a socket and start threads
+ * for each call, a fleet multiplexes the sessions to all the BMCs over a few shared connectors served by the shared
+ * selector threads, and runs the requests on a bounded set of worker threads:
+ * <ul>
+ * <li>at most <code>maxConcurrency</code> BMCs are queried at the same time,</li>
+ * <li>at most <code>maxPerHost</code> requests are sent to the same host at the same time,</li>
+ * <li>each BMC must answer within its own deadline, the timeout of its {@link IpmiClientConfiguration}.</li>
+ * </ul>
+ * Results are returned as a stream, in the order they complete. Sessions are kept open between the polls of the fleet.
+ */
+public class IpmiFleet implements AutoCloseable {
+
+	private static final int DEFAULT_CONNECTORS = 4;
+	private static final int DEFAULT_CONCURRENCY = 256;
+	private static final int DEFAULT_HOST_CONCURRENCY = 1;
+
+	private final int maxConcurrency;
+	private final int maxPerHost;
+
+	private final List<IpmiConnector> connectors = new ArrayList<>();
+	private final IpmiSessionPool sessionPool;
+	private final ExecutorService workers;
+
+	/**
+	 * Requests waiting for a free slot, by host
+	 */
+	private final Map<String, Deque<Task<?>>> waitingByHost = new HashMap<>();
+
+	/**
+	 * Number of requests running, by host
+	 */
+	private final Map<String, Integer> runningByHost = new HashMap<>();
+
+	/**
+	 * Hosts with waiting requests and fewer than <code>maxPerHost</code> running requests, served in turn
+	 */
+	private final Deque<String> readyHosts = new ArrayDeque<>();
+
+	private int running;
+
+	private boolean closed;
+
+	/**
+	 * Creates a fleet with the limits configured by the <code>fleetConnectors</code>, <code>fleetConcurrency</code> and
+	 * <code>fleetHostConcurrency</code> properties.
+	 *
+	 * @throws IOException If the sockets of the connectors cannot be opened
+	 */
+	public IpmiFleet() throws IOException {
+		this(getIntProperty("fleetConnectors", DEFAULT_CONNECTORS), getIntProperty("fleetConcurrency", DEFAULT_CONCURRENCY),
+				getIntProperty("fleetHostConcurrency", DEFAULT_HOST_CONCURRENCY));
+	}
+
+	/**
+	 * Creates a fleet.
+	 *
+	 * @param connectorCount Number of connectors (UDP sockets) shared by all the sessions
+	 * @param maxConcurrency Maximum number of BMCs queried at the same time
+	 * @param maxPerHost     Maximum number of requests sent to the same host at the same time
+	 * @throws IOException If the sockets of the connectors cannot be opened
+	 */
+	public IpmiFleet(int connectorCount, int maxConcurrency, int maxPerHost) throws IOException {
+		this(createConnectors(connectorCount), maxConcurrency, maxPerHost);
+	}
+
+	/**
+	 * Creates a fleet sharing the given connectors, which are torn down when the fleet is closed.
+	 *
+	 * @param connectors     The connectors shared by all the sessions
+	 * @param maxConcurrency Maximum number of BMCs queried at the same time
+	 * @param maxPerHost     Maximum number of requests sent to the same host at the same time
+	 */
+	IpmiFleet(List<IpmiConnector> connectors, int maxConcurrency, int maxPerHost) {
+		if (maxConcurrency < 1 || maxPerHost < 1) {
+			connectors.forEach(IpmiConnector::tearDown);
+			throw new IllegalArgumentException("The number of connectors and the concurrency limits must be positive");
+		}
+
+		this.maxConcurrency = maxConcurrency;
+		this.maxPerHost = maxPerHost;
+		this.connectors.addAll(connectors);
+
+		sessionPool = new IpmiSessionPool(IpmiSessionPool.getDefaultIdleTime(), this.connectors);
+
+		final AtomicInteger threadCount = new AtomicInteger();
+		workers = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+			final Thread thread = new Thread(runnable, "ipmi-fleet-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Get the sensors of each BMC
+	 *
+	 * @param configurations Wrap the hostname and the credentials of each BMC
+	 * @return Stream of the {@link FleetResult} of each BMC, in the order they complete
+	 */
+	public Stream<FleetResult<List<Sensor>>> getSensors(final Collection<IpmiClientConfiguration> configurations) {
+		return execute(configurations, GetSensorsRunner::new);
+	}
+
+	/**
+	 * Get the sensors of each BMC, reading only their current values once the SDR repository of the BMC has been read,
+	 * see {@link IpmiClient#getSensorReadings(IpmiClientConfiguration)}
+	 *
+	 * @param configurations Wrap the hostname and the credentials of each BMC
+	 * @return Stream of the {@link FleetResult} of each BMC, in the order they complete
+	 */
+	public Stream<FleetResult<List<Sensor>>> getSensorReadings(final Collection<IpmiClientConfiguration> configurations) {
+		return execute(configurations, GetSensorReadingsRunner::new);
+	}
+
+	/**
+	 * Get FRU information of each BMC
+	 *
+	 * @param configurations Wrap the hostname and the credentials of each BMC
+	 * @return Stream of the {@link FleetResult} of each BMC, in the order they complete
+	 */
+	public Stream<FleetResult<List<Fru>>> getFrus(final Collection<IpmiClientConfiguration> configurations) {
+		return execute(configurations, GetFrusRunner::new);
+	}
+
+	/**
+	 * Get FRU information and the sensors of each BMC
+	 *
+	 * @param configurations Wrap the hostname and the credentials of each BMC
+	 * @return Stream of the {@link FleetResult} of each BMC, in the order they complete
+	 */
+	public Stream<FleetResult<FrusAndSensors>> getFrusAndSensors(final Collection<IpmiClientConfiguration> configurations) {
+		return execute(configurations, GetFrusAndSensorsRunner::new);
+	}
+
+	/**
+	 * Run a request against each BMC within the limits of the fleet. The requests are queued right away; consuming the
+	 * stream waits for the results.
+	 *
+	 * @param <T>            The type of the result of the request
+	 * @param configurations Wrap the hostname and the credentials of each BMC
+	 * @param runnerFactory  Creates the runner of the request for a BMC
+	 * @return Stream of the {@link FleetResult} of each BMC, in the order they complete
+	 */
+	public <T> Stream<FleetResult<T>> execute(final Collection<IpmiClientConfiguration> configurations,
+			final Function<IpmiClientConfiguration, ? extends AbstractIpmiRunner<T>> runnerFactory) {
+		final BlockingQueue<FleetResult<T>> results = new LinkedBlockingQueue<>();
+
+		for (IpmiClientConfiguration configuration : configurations) {
+			submit(new Task<>(configuration, runnerFactory, results));
+		}
+
+		final int total = configurations.size();
+		final Iterator<FleetResult<T>> iterator = new Iterator<FleetResult<T>>() {
+
+			private int taken;
+
+			@Override
+			public boolean hasNext() {
+				return taken < total;
+			}
+
+			@Override
+			public FleetResult<T> next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				try {
+					final FleetResult<T> result = results.take();
+					taken++;
+					return result;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while waiting for the results of the fleet", e);
+				}
+			}
+		};
+
+		return StreamSupport.stream(Spliterators.spliterator(iterator, total, Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Stops the workers and closes the sessions and the shared connectors. Requests still waiting fail.
+	 */
+	@Override
+	public void close() {
+		final List<Task<?>> cancelled = new ArrayList<>();
+
+		synchronized (this) {
+			closed = true;
+			waitingByHost.values().forEach(cancelled::addAll);
+			waitingByHost.clear();
+			readyHosts.clear();
+		}
+
+		cancelled.forEach(task -> task.complete(null, new IllegalStateException("The fleet is closed")));
+
+		workers.shutdownNow();
+		try {
+			workers.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		sessionPool.close();
+		connectors.forEach(IpmiConnector::tearDown);
+	}
+
+	/**
+	 * @return The number of requests running
+	 */
+	synchronized int getRunningCount() {
+		return running;
+	}
+
+	private void submit(final Task<?> task) {
+		synchronized (this) {
+			if (!closed) {
+				final Deque<Task<?>> waiting = waitingByHost.computeIfAbsent(task.host, host -> new ArrayDeque<>());
+				waiting.add(task);
+				if (waiting.size() == 1 && runningByHost.getOrDefault(task.host, 0) < maxPerHost) {
+					readyHosts.add(task.host);
+				}
+				dispatch();
+				return;
+			}
+		}
+
+		task.complete(null, new IllegalStateException("The fleet is closed"));
+	}
+
+	/**
+	 * Start waiting requests, taking the ready hosts in turn, as long as the limits allow it. Must be called while
+	 * holding the lock of the fleet.
+	 */
+	private void dispatch() {
+		while (running < maxConcurrency && !readyHosts.isEmpty()) {
+			final String host = readyHosts.poll();
+			final Deque<Task<?>> waiting = waitingByHost.get(host);
+			final Task<?> task = waiting.poll();
+
+			final int hostRunning = runningByHost.merge(host, 1, Integer::sum);
+			running++;
+
+			if (waiting.isEmpty()) {
+				waitingByHost.remove(host);
+			} else if (hostRunning < maxPerHost) {
+				readyHosts.add(host);
+			}
+
+			workers.execute(task);
+		}
+	}
+
+	/**
+	 * Release the slots of a request that completed and start the next ones.
+	 */
+	private synchronized void finished(final Task<?> task) {
+		running--;
+
+		final int hostRunning = runningByHost.merge(task.host, -1, Integer::sum);
+		if (hostRunning == 0) {
+			runningByHost.remove(task.host);
+		}
+
+		// The host just got a free slot
+		if (hostRunning == maxPerHost - 1 && waitingByHost.containsKey(task.host)) {
+			readyHosts.add(task.host);
+		}
+
+		if (!closed) {
+			dispatch();
+		}
+	}
+
+	/**
+	 * @param connectorCount Number of connectors (UDP sockets) to open
+	 * @return The connectors, each one with its own socket
+	 * @throws IOException If the sockets cannot be opened
+	 */
+	private static List<IpmiConnector> createConnectors(final int connectorCount) throws IOException {
+		if (connectorCount < 1) {
+			throw new IllegalArgumentException("The number of connectors and the concurrency limits must be positive");
+		}
+
+		final List<IpmiConnector> connectors = new ArrayList<>();
+		try {
+			for (int i = 0; i < connectorCount; i++) {
+				connectors.add(new IpmiConnector(new NioUdpMessenger(0)));
+			}
+		} catch (IOException e) {
+			connectors.forEach(IpmiConnector::tearDown);
+			throw e;
+		}
+		return connectors;
+	}
+
+	private static int getIntProperty(final String name, final int defaultValue) {
+		final String value = PropertiesManager.getInstance().getProperty(name);
+		return Utils.isBlank(value) ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	/**
+	 * A request to one BMC
+	 */
+	private class Task<T> implements Runnable {
+
+		private final IpmiClientConfiguration configuration;
+		private final String host;
+		private final Function<IpmiClientConfiguration, ? extends AbstractIpmiRunner<T>> runnerFactory;
+		private final BlockingQueue<FleetResult<T>> results;
+
+		/**
+		 * Timeout of the request in milliseconds, 0 if there is none
+		 */
+		private final long timeout;
+
+		/**
+		 * Time by which the request must complete, as a {@link System#nanoTime()} value. The time spent waiting for a
+		 * worker counts in the timeout.
+		 */
+		private final long deadline;
+
+		Task(IpmiClientConfiguration configuration,
+				Function<IpmiClientConfiguration, ? extends AbstractIpmiRunner<T>> runnerFactory,
+				BlockingQueue<FleetResult<T>> results) {
+			this.configuration = configuration;
+			this.host = String.valueOf(configuration.getHostname());
+			this.runnerFactory = runnerFactory;
+			this.results = results;
+			this.timeout = Math.max(0, configuration.getTimeout() * 1000);
+			this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		}
+
+		@Override
+		public void run() {
+			T result = null;
+			Exception error = null;
+
+			// The runner gives up by itself at the deadline, the handshake included. The worker is never interrupted:
+			// an interrupt during a send would close the socket of the connector, which the other BMCs share.
+			if (!isExpired()) {
+				try (AbstractIpmiRunner<T> runner = runnerFactory.apply(configuration)) {
+					runner.setSessionPool(sessionPool);
+					if (timeout > 0) {
+						runner.setDeadline(deadline);
+					}
+					result = runner.callWithRelogin();
+				} catch (Exception e) {
+					error = e;
+				}
+			}
+
+			if (isExpired()) {
+				result = null;
+				error = new TimeoutException("No answer from " + host + " within " + timeout + " ms");
+			}
+
+			// Free the slot before publishing the result, the next requests start meanwhile
+			finished(this);
+			complete(result, error);
+		}
+
+		/**
+		 * @return Whether the deadline of the request has passed, e.g. while it was waiting for a worker
+		 */
+		private boolean isExpired() {
+			return timeout > 0 && System.nanoTime() - deadline > 0;
+		}
+
+		void complete(final T result, final Exception error) {
+			results.add(new FleetResult<>(configuration, result, error));
+		}
+	}
+}
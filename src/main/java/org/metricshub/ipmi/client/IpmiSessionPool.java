@@ -0,0 +1,395 @@
+package org.metricshub.ipmi.client;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.metricshub.ipmi.core.api.async.ConnectionHandle;
+import org.metricshub.ipmi.core.api.sync.IpmiConnector;
+import org.metricshub.ipmi.core.common.HashedWheelTimer;
+import org.metricshub.ipmi.core.common.PropertiesManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the IPMI sessions opened by the runners so that the following requests
+ * to the same BMC skip the RAKP handshake. Sessions are pooled by host, port
+ * and user (the credentials must match as well) and are used by one caller at
+ * a time.
+ * <p>
+ * While a session is idle in the pool, its connection keeps it up with the
+ * keep-alive messages sent every <code>pingPeriod</code>. Sessions whose
+ * connection sends no keep-alive messages are closed instead of being pooled,
+ * since the BMC drops them after its own session timeout (about a minute)
+ * without the client noticing. Sessions idle for longer than the idle time of
+ * the pool are closed.
+ * </p>
+ * <p>
+ * A pool may also lend a set of shared connectors to the runners, so that the
+ * sessions to many BMCs are multiplexed over a few sockets instead of one
+ * connector (socket and threads) per session. Shared connectors belong to
+ * the owner of the pool and are never torn down by the pool.
+ * </p>
+ */
+public class IpmiSessionPool {
+
+	private static final Logger logger = LoggerFactory.getLogger(IpmiSessionPool.class);
+
+	/**
+	 * Default time in milliseconds after which an idle session is closed
+	 */
+	private static final long DEFAULT_IDLE_TIME = 600000;
+
+	/**
+	 * Minimum period in milliseconds of the idle sessions eviction
+	 */
+	private static final long MIN_EVICTION_PERIOD = 1000;
+
+	private static IpmiSessionPool defaultPool;
+
+	private final long idleTime;
+
+	private final Map<Key, Deque<PooledSession>> idleSessions = new HashMap<>();
+
+	private final List<IpmiConnector> sharedConnectors;
+
+	private HashedWheelTimer.Timeout eviction;
+
+	private ExecutorService closer;
+
+	private boolean closed;
+
+	/**
+	 * Creates the pool.
+	 *
+	 * @param idleTime Time in milliseconds after which an idle session is closed.
+	 *                 0 to close the sessions as soon as they are released, which
+	 *                 disables pooling.
+	 */
+	public IpmiSessionPool(long idleTime) {
+		this(idleTime, Collections.emptyList());
+	}
+
+	/**
+	 * Creates a pool lending the given connectors to the runners.
+	 *
+	 * @param idleTime         Time in milliseconds after which an idle session is
+	 *                         closed, 0 to disable pooling.
+	 * @param sharedConnectors The connectors the sessions are opened with. Each
+	 *                         host is always served by the same connector.
+	 */
+	public IpmiSessionPool(long idleTime, List<IpmiConnector> sharedConnectors) {
+		this.idleTime = idleTime;
+		this.sharedConnectors = Collections.unmodifiableList(new ArrayList<>(sharedConnectors));
+	}
+
+	/**
+	 * Returns the pool shared by the runners of the JVM, configured by the
+	 * <code>sessionPoolIdleTime</code> property.
+	 *
+	 * @return The default {@link IpmiSessionPool}
+	 */
+	public static synchronized IpmiSessionPool getDefault() {
+		if (defaultPool == null) {
+			defaultPool = new IpmiSessionPool(getDefaultIdleTime());
+		}
+		return defaultPool;
+	}
+
+	/**
+	 * @return The idle time configured by the <code>sessionPoolIdleTime</code>
+	 *         property
+	 */
+	static long getDefaultIdleTime() {
+		final String idleTime = PropertiesManager.getInstance().getProperty("sessionPoolIdleTime");
+		return idleTime == null ? DEFAULT_IDLE_TIME : Long.parseLong(idleTime);
+	}
+
+	/**
+	 * Returns the shared connector new sessions with the configured host must be
+	 * opened with.
+	 *
+	 * @param ipmiConfiguration Wraps the IPMI device hostname and the credentials
+	 * @return The shared {@link IpmiConnector} or <code>null</code> if the caller
+	 *         must create its own connector
+	 */
+	public IpmiConnector getConnector(final IpmiClientConfiguration ipmiConfiguration) {
+		if (sharedConnectors.isEmpty()) {
+			return null;
+		}
+		final int index = Math.floorMod(Objects.hashCode(ipmiConfiguration.getHostname()), sharedConnectors.size());
+		return sharedConnectors.get(index);
+	}
+
+	/**
+	 * @param connector An {@link IpmiConnector}
+	 * @return Whether the connector is shared, in which case only the connection
+	 *         of a session may be closed, not the connector
+	 */
+	public boolean isShared(final IpmiConnector connector) {
+		for (IpmiConnector sharedConnector : sharedConnectors) {
+			if (sharedConnector == connector) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Takes an idle session matching the configuration out of the pool.
+	 *
+	 * @param ipmiConfiguration Wraps the IPMI device hostname and the credentials
+	 * @return The {@link PooledSession} or <code>null</code> if no open session is
+	 *         available
+	 */
+	public PooledSession acquire(final IpmiClientConfiguration ipmiConfiguration) {
+		final Key key = new Key(ipmiConfiguration);
+
+		while (true) {
+			final PooledSession session;
+
+			synchronized (this) {
+				final Deque<PooledSession> sessions = idleSessions.get(key);
+				session = sessions == null ? null : sessions.pollFirst();
+				if (sessions != null && sessions.isEmpty()) {
+					idleSessions.remove(key);
+				}
+			}
+
+			if (session == null) {
+				return null;
+			}
+
+			if (session.getConnector().isSessionValid(session.getHandle())) {
+				session.setReused(true);
+				return session;
+			}
+
+			closeLater(session);
+		}
+	}
+
+	/**
+	 * Wraps a session that has just been opened by the caller so that it can be
+	 * released to the pool.
+	 *
+	 * @param ipmiConfiguration Wraps the IPMI device hostname and the credentials
+	 * @param connector         The {@link IpmiConnector} the session was opened with
+	 * @param handle            The {@link ConnectionHandle} of the session
+	 * @return The leased {@link PooledSession}
+	 */
+	public PooledSession create(final IpmiClientConfiguration ipmiConfiguration, final IpmiConnector connector,
+			final ConnectionHandle handle) {
+		return new PooledSession(new Key(ipmiConfiguration), connector, handle);
+	}
+
+	/**
+	 * Hands a session back to the pool once the caller is done with it.
+	 *
+	 * @param session The {@link PooledSession} to release
+	 */
+	public void release(final PooledSession session) {
+		if (!session.getConnector().isKeptAlive(session.getHandle())) {
+			close(session);
+			return;
+		}
+
+		synchronized (this) {
+			if (!closed && idleTime > 0) {
+				session.setLastUsed(System.nanoTime());
+				idleSessions.computeIfAbsent(session.getKey(), k -> new ArrayDeque<>()).addFirst(session);
+				startEviction();
+				return;
+			}
+		}
+
+		close(session);
+	}
+
+	/**
+	 * Closes a session that cannot be trusted anymore, e.g. because a request
+	 * timed out.
+	 *
+	 * @param session The {@link PooledSession} to close
+	 */
+	public void invalidate(final PooledSession session) {
+		close(session);
+	}
+
+	/**
+	 * Closes all the idle sessions. Sessions released afterwards are closed
+	 * right away.
+	 */
+	public void close() {
+		final List<PooledSession> sessions = new ArrayList<>();
+
+		synchronized (this) {
+			closed = true;
+			if (eviction != null) {
+				eviction.cancel();
+				eviction = null;
+			}
+			for (Deque<PooledSession> deque : idleSessions.values()) {
+				sessions.addAll(deque);
+			}
+			idleSessions.clear();
+			if (closer != null) {
+				closer.shutdown();
+			}
+		}
+
+		for (PooledSession session : sessions) {
+			close(session);
+		}
+	}
+
+	/**
+	 * @return The number of idle sessions in the pool
+	 */
+	public synchronized int getIdleCount() {
+		int count = 0;
+		for (Deque<PooledSession> sessions : idleSessions.values()) {
+			count += sessions.size();
+		}
+		return count;
+	}
+
+	/**
+	 * Closes the sessions that stayed idle for longer than the idle time.
+	 */
+	synchronized void evictIdle() {
+		final long now = System.nanoTime();
+		final long maxIdle = TimeUnit.MILLISECONDS.toNanos(idleTime);
+
+		final Iterator<Deque<PooledSession>> iterator = idleSessions.values().iterator();
+		while (iterator.hasNext()) {
+			final Deque<PooledSession> sessions = iterator.next();
+
+			// Most recently used sessions are at the head of the deque
+			while (!sessions.isEmpty() && now - sessions.peekLast().getLastUsed() > maxIdle) {
+				closeLater(sessions.pollLast());
+			}
+
+			if (sessions.isEmpty()) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Runs the eviction periodically on the shared timer. Must be called while
+	 * holding the lock of the pool.
+	 */
+	private void startEviction() {
+		if (eviction == null) {
+			final long period = Math.max(idleTime / 2, MIN_EVICTION_PERIOD);
+			eviction = HashedWheelTimer.getDefault().scheduleAtFixedRate(this::evictIdle, period, period,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Closes the session on the closer thread: closing a session waits for the
+	 * answer of the BMC, which must not hold up the timer or the caller.
+	 */
+	private synchronized void closeLater(final PooledSession session) {
+		if (closer == null || closer.isShutdown()) {
+			closer = Executors.newSingleThreadExecutor(runnable -> {
+				final Thread thread = new Thread(runnable, "ipmi-session-pool");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		closer.execute(() -> close(session));
+	}
+
+	private void close(final PooledSession session) {
+		try {
+			session.getConnector().closeSession(session.getHandle());
+		} catch (Exception e) {
+			logger.debug("Failed to close the IPMI session", e);
+		}
+
+		if (isShared(session.getConnector())) {
+			// Other sessions go through this connector, only release the connection
+			session.getConnector().closeConnection(session.getHandle());
+		} else {
+			// Close connection manager and release the listener port.
+			session.getConnector().tearDown();
+		}
+	}
+
+	/**
+	 * Identifies the sessions that can be shared: same host, port and credentials.
+	 */
+	static class Key {
+
+		private final String hostname;
+		private final int port;
+		private final String username;
+		private final char[] password;
+		private final byte[] bmcKey;
+		private final boolean skipAuth;
+
+		Key(IpmiClientConfiguration ipmiConfiguration) {
+			hostname = ipmiConfiguration.getHostname();
+			port = ipmiConfiguration.getPort();
+			username = ipmiConfiguration.getUsername();
+			password = ipmiConfiguration.getPassword() == null ? null : ipmiConfiguration.getPassword().clone();
+			bmcKey = ipmiConfiguration.getBmcKey() == null ? null : ipmiConfiguration.getBmcKey().clone();
+			skipAuth = ipmiConfiguration.isSkipAuth();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return port == other.port && skipAuth == other.skipAuth && Objects.equals(hostname, other.hostname)
+					&& Objects.equals(username, other.username) && Arrays.equals(password, other.password)
+					&& Arrays.equals(bmcKey, other.bmcKey);
+		}
+
+		@Override
+		public int hashCode() {
+			// Credentials are left out of the hash on purpose
+			return Objects.hash(hostname, port, username);
+		}
+	}
+}
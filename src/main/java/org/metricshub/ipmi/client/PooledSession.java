@@ -0,0 +1,90 @@
+package org.metricshub.ipmi.client;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.metricshub.ipmi.core.api.async.ConnectionHandle;
+import org.metricshub.ipmi.core.api.sync.IpmiConnector;
+
+/**
+ * IPMI session leased from an {@link IpmiSessionPool}. A pooled session is
+ * used by a single caller at a time and must be handed back to the pool with
+ * {@link IpmiSessionPool#release(PooledSession)}, or
+ * {@link IpmiSessionPool#invalidate(PooledSession)} if it cannot be trusted
+ * anymore.
+ */
+public class PooledSession {
+
+	private final IpmiSessionPool.Key key;
+	private final IpmiConnector connector;
+	private final ConnectionHandle handle;
+	private boolean reused;
+	private long lastUsed;
+
+	PooledSession(IpmiSessionPool.Key key, IpmiConnector connector, ConnectionHandle handle) {
+		this.key = key;
+		this.connector = connector;
+		this.handle = handle;
+		this.lastUsed = System.nanoTime();
+	}
+
+	IpmiSessionPool.Key getKey() {
+		return key;
+	}
+
+	/**
+	 * @return The {@link IpmiConnector} the session was opened with
+	 */
+	public IpmiConnector getConnector() {
+		return connector;
+	}
+
+	/**
+	 * @return The {@link ConnectionHandle} of the session
+	 */
+	public ConnectionHandle getHandle() {
+		return handle;
+	}
+
+	/**
+	 * Returns whether the session was taken from the pool rather than opened for
+	 * the current caller. A reused session may have been closed by the BMC in the
+	 * meantime.
+	 *
+	 * @return <code>true</code> if the session was already used by a previous caller
+	 */
+	public boolean isReused() {
+		return reused;
+	}
+
+	void setReused(boolean reused) {
+		this.reused = reused;
+	}
+
+	long getLastUsed() {
+		return lastUsed;
+	}
+
+	void setLastUsed(long lastUsed) {
+		this.lastUsed = lastUsed;
+	}
+}
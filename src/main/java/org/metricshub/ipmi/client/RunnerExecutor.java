@@ -0,0 +1,122 @@
+package org.metricshub.ipmi.client;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.metricshub.ipmi.client.runner.AbstractIpmiRunner;
+import org.metricshub.ipmi.core.common.PropertiesManager;
+
+/**
+ * Runs the runners of the {@link IpmiClient} calls on a bounded set of threads shared by the JVM, instead of a new
+ * thread per call. Each runner is given the deadline of its call, so that it stops waiting for the BMC as soon as the
+ * caller gives up, and its thread is available for the next call right away.
+ */
+class RunnerExecutor {
+
+	/**
+	 * Default maximum number of runners executed at the same time
+	 */
+	private static final int DEFAULT_THREADS = 64;
+
+	/**
+	 * Time in seconds after which an idle thread stops
+	 */
+	private static final long KEEP_ALIVE_TIME = 60;
+
+	private static RunnerExecutor defaultExecutor;
+
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * Creates the executor.
+	 *
+	 * @param threads Maximum number of runners executed at the same time, the other ones wait for a free thread
+	 */
+	RunnerExecutor(int threads) {
+		final AtomicInteger threadCount = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_TIME, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				runnable -> {
+					final Thread thread = new Thread(runnable, "ipmi-runner-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Returns the executor shared by the {@link IpmiClient} calls, configured by the <code>runnerThreads</code> property.
+	 *
+	 * @return The default {@link RunnerExecutor}
+	 */
+	static synchronized RunnerExecutor getDefault() {
+		if (defaultExecutor == null) {
+			final String threads = PropertiesManager.getInstance().getProperty("runnerThreads");
+			defaultExecutor = new RunnerExecutor(Utils.isBlank(threads) ? DEFAULT_THREADS : Integer.parseInt(threads.trim()));
+		}
+		return defaultExecutor;
+	}
+
+	/**
+	 * Run the given runner, see {@link AbstractIpmiRunner#callWithRelogin()}, and wait for its result. The time spent
+	 * waiting for a free thread counts in the timeout. The runner is closed by the thread that runs it, once it stops,
+	 * so the caller must not close it: on timeout, it may still be running.
+	 *
+	 * @param <T>     The type of the result
+	 * @param runner  The runner to execute
+	 * @param timeout Timeout in milliseconds
+	 * @return The result of the runner
+	 * @throws InterruptedException If the calling thread is interrupted
+	 * @throws ExecutionException   If the runner failed
+	 * @throws TimeoutException     If the runner did not complete in time
+	 */
+	<T> T execute(final AbstractIpmiRunner<T> runner, final long timeout)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		runner.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout));
+
+		final Future<T> future = executor.submit(() -> {
+			try (AbstractIpmiRunner<T> running = runner) {
+				return running.callWithRelogin();
+			}
+		});
+
+		// The runner is never interrupted: an interrupt during a send would close the socket of its connector, which
+		// may be shared with other sessions. It stops by itself at the deadline instead, the handshake included.
+		try {
+			return future.get(timeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			future.cancel(false);
+			Thread.currentThread().interrupt();
+			throw e;
+		} catch (TimeoutException e) {
+			future.cancel(false);
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package org.metricshub.ipmi.client;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrRepositoryInfoResponseData;
+import org.metricshub.ipmi.core.common.PropertiesManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the raw records of the SDR (sensor data record) repository of each BMC, so that the repository is only walked
+ * again when it changed. The content of the repository is identified by the record count and the most recent addition
+ * and erase timestamps returned by Get SDR Repository Info.
+ * <p>
+ * Records are kept in memory and, if a directory is configured, in one file per BMC so that they survive restarts.
+ * </p>
+ */
+public class SdrRepositoryCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(SdrRepositoryCache.class);
+
+	/**
+	 * Identifies the cache files, followed by the version of their format
+	 */
+	private static final int FILE_MAGIC = 0x53445243;
+	private static final int FILE_VERSION = 1;
+
+	private static SdrRepositoryCache defaultCache;
+
+	private static boolean defaultCacheLoaded;
+
+	private final File directory;
+
+	private final ConcurrentMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates the cache.
+	 *
+	 * @param directory Directory where the records are stored, <code>null</code> to keep them in memory only
+	 */
+	public SdrRepositoryCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Returns the cache shared by the runners of the JVM, configured by the <code>sdrCacheEnabled</code> and
+	 * <code>sdrCacheDirectory</code> properties.
+	 *
+	 * @return The default {@link SdrRepositoryCache} or <code>null</code> if caching is disabled
+	 */
+	public static synchronized SdrRepositoryCache getDefault() {
+		if (!defaultCacheLoaded) {
+			final PropertiesManager manager = PropertiesManager.getInstance();
+			final String enabled = manager.getProperty("sdrCacheEnabled");
+			final String directory = manager.getProperty("sdrCacheDirectory");
+
+			if (enabled == null || Boolean.parseBoolean(enabled)) {
+				defaultCache = new SdrRepositoryCache(Utils.isBlank(directory) ? null : new File(directory.trim()));
+			}
+			defaultCacheLoaded = true;
+		}
+		return defaultCache;
+	}
+
+	/**
+	 * Returns the cached records of the BMC if the repository did not change since they were stored.
+	 *
+	 * @param hostname IP Address or host name of the BMC
+	 * @param port     UDP port number of the BMC
+	 * @param info     Current state of the repository
+	 * @return The raw records, in the order of the repository, or <code>null</code> if they must be read again
+	 */
+	public List<byte[]> get(final String hostname, final int port, final GetSdrRepositoryInfoResponseData info) {
+		final String key = key(hostname, port);
+
+		Snapshot snapshot = snapshots.get(key);
+		if (snapshot == null && directory != null) {
+			snapshot = read(file(key));
+			if (snapshot != null) {
+				snapshots.putIfAbsent(key, snapshot);
+			}
+		}
+
+		if (snapshot == null || !snapshot.matches(info)) {
+			return null;
+		}
+
+		return snapshot.records;
+	}
+
+	/**
+	 * Stores the records read from the repository of the BMC.
+	 *
+	 * @param hostname IP Address or host name of the BMC
+	 * @param port     UDP port number of the BMC
+	 * @param info     State of the repository before the records were read
+	 * @param records  The raw records, in the order of the repository
+	 */
+	public void put(final String hostname, final int port, final GetSdrRepositoryInfoResponseData info,
+			final List<byte[]> records) {
+		final String key = key(hostname, port);
+		final Snapshot snapshot = new Snapshot(info.getRecordCount(), info.getAddTimestamp(), info.getDelTimestamp(),
+				Collections.unmodifiableList(new ArrayList<>(records)));
+
+		snapshots.put(key, snapshot);
+
+		if (directory != null) {
+			write(file(key), snapshot);
+		}
+	}
+
+	/**
+	 * Forgets the records of the BMC.
+	 *
+	 * @param hostname IP Address or host name of the BMC
+	 * @param port     UDP port number of the BMC
+	 */
+	public void invalidate(final String hostname, final int port) {
+		final String key = key(hostname, port);
+
+		snapshots.remove(key);
+
+		if (directory != null) {
+			try {
+				Files.deleteIfExists(file(key).toPath());
+			} catch (IOException e) {
+				logger.warn("Cannot delete SDR cache file of {}", key, e);
+			}
+		}
+	}
+
+	private static String key(final String hostname, final int port) {
+		return hostname + ":" + port;
+	}
+
+	private File file(final String key) {
+		return new File(directory, key.replaceAll("[^A-Za-z0-9.-]", "_") + ".sdr");
+	}
+
+	private static Snapshot read(final File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+				return null;
+			}
+
+			final int recordCount = in.readInt();
+			final int addTimestamp = in.readInt();
+			final int delTimestamp = in.readInt();
+			final int size = in.readInt();
+
+			final List<byte[]> records = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				final byte[] record = new byte[in.readUnsignedShort()];
+				in.readFully(record);
+				records.add(record);
+			}
+
+			return new Snapshot(recordCount, addTimestamp, delTimestamp, Collections.unmodifiableList(records));
+		} catch (IOException e) {
+			logger.warn("Cannot read SDR cache file {}", file, e);
+			return null;
+		}
+	}
+
+	private static void write(final File file, final Snapshot snapshot) {
+		try {
+			Files.createDirectories(file.getParentFile().toPath());
+
+			// Write a temporary file first, so that readers never see a partial file
+			final File temp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp").toFile();
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				out.writeInt(FILE_MAGIC);
+				out.writeInt(FILE_VERSION);
+				out.writeInt(snapshot.recordCount);
+				out.writeInt(snapshot.addTimestamp);
+				out.writeInt(snapshot.delTimestamp);
+				out.writeInt(snapshot.records.size());
+				for (byte[] record : snapshot.records) {
+					out.writeShort(record.length);
+					out.write(record);
+				}
+			}
+
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			logger.warn("Cannot write SDR cache file {}", file, e);
+		}
+	}
+
+	/**
+	 * Records of a repository along with the state of the repository when they were read
+	 */
+	private static class Snapshot {
+
+		private final int recordCount;
+		private final int addTimestamp;
+		private final int delTimestamp;
+		private final List<byte[]> records;
+
+		Snapshot(int recordCount, int addTimestamp, int delTimestamp, List<byte[]> records) {
+			this.recordCount = recordCount;
+			this.addTimestamp = addTimestamp;
+			this.delTimestamp = delTimestamp;
+			this.records = records;
+		}
+
+		boolean matches(final GetSdrRepositoryInfoResponseData info) {
+			return recordCount == info.getRecordCount() && addTimestamp == info.getAddTimestamp()
+					&& delTimestamp == info.getDelTimestamp();
+		}
+	}
+}
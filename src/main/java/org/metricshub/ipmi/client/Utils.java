@@ -22,12 +22,7 @@ package org.metricshub.ipmi.client;
  * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
  */
 
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.metricshub.ipmi.client.runner.AbstractIpmiRunner;
@@ -72,7 +67,10 @@ public class Utils {
 	}
 
 	/**
-	 * Run the given {@link Callable} using the passed timeout in seconds.
+	 * Run the given runner using the passed timeout in milliseconds, on the threads shared by the client calls. The runner
+	 * is given the deadline of the call, so it stops waiting for the BMC when the call times out. A failure on a pooled
+	 * session is retried once with a new session, see {@link AbstractIpmiRunner#callWithRelogin()}. The runner is closed
+	 * once it stops, by the thread that runs it.
 	 *
 	 * @param <T>
 	 * @param callable
@@ -85,20 +83,6 @@ public class Utils {
 	 */
 	public static <T> T execute(final AbstractIpmiRunner<T> callable, long timeout)
 			throws InterruptedException, ExecutionException, TimeoutException {
-
-		final ExecutorService executorService = Executors.newSingleThreadExecutor();
-		final Future<T> future = executorService.submit(callable);
-
-		try {
-			return future.get(timeout, TimeUnit.MILLISECONDS);
-		} catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-			throw e;
-		} catch (TimeoutException e) {
-			future.cancel(true);
-			throw e;
-		} finally {
-			executorService.shutdownNow();
-		}
+		return RunnerExecutor.getDefault().execute(callable, timeout);
 	}
 }
@@ -0,0 +1,77 @@
+package org.metricshub.ipmi.client.model;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.metricshub.ipmi.client.IpmiClientConfiguration;
+
+/**
+ * Outcome of a request sent to one BMC of a fleet: either the result of the request or the error that made it fail.
+ *
+ * @param <T> The type of the result
+ */
+public class FleetResult<T> {
+
+	private IpmiClientConfiguration configuration;
+	private T result;
+	private Exception error;
+
+	public FleetResult(IpmiClientConfiguration configuration, T result, Exception error) {
+		this.configuration = configuration;
+		this.result = result;
+		this.error = error;
+	}
+
+	/**
+	 *
+	 * @return The {@link IpmiClientConfiguration} of the BMC
+	 */
+	public IpmiClientConfiguration getConfiguration() {
+		return configuration;
+	}
+
+	/**
+	 *
+	 * @return The result of the request, <code>null</code> if it failed
+	 */
+	public T getResult() {
+		return result;
+	}
+
+	/**
+	 *
+	 * @return The error that made the request fail, e.g. a {@link java.util.concurrent.TimeoutException} if the deadline
+	 *         of the BMC was exceeded, <code>null</code> if it succeeded
+	 */
+	public Exception getError() {
+		return error;
+	}
+
+	/**
+	 *
+	 * @return Whether the request succeeded
+	 */
+	public boolean isSuccess() {
+		return error == null;
+	}
+
+}
@@ -0,0 +1,56 @@
+package org.metricshub.ipmi.client.model;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.List;
+
+/**
+ * Wraps the FRUs and the sensors collected in a single walk of the SDR repository.
+ */
+public class FrusAndSensors {
+
+	private List<Fru> frus;
+	private List<Sensor> sensors;
+
+	public FrusAndSensors(List<Fru> frus, List<Sensor> sensors) {
+		this.frus = frus;
+		this.sensors = sensors;
+	}
+
+	/**
+	 *
+	 * @return List of {@link Fru} instances
+	 */
+	public List<Fru> getFrus() {
+		return frus;
+	}
+
+	/**
+	 *
+	 * @return List of {@link Sensor} instances
+	 */
+	public List<Sensor> getSensors() {
+		return sensors;
+	}
+
+}
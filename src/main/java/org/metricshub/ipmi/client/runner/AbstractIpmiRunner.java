@@ -23,16 +23,28 @@ package org.metricshub.ipmi.client.runner;
  */
 
 import java.net.InetAddress;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.metricshub.ipmi.client.IpmiClientConfiguration;
+import org.metricshub.ipmi.client.IpmiSessionPool;
+import org.metricshub.ipmi.client.PooledSession;
+import org.metricshub.ipmi.client.SdrRepositoryCache;
 import org.metricshub.ipmi.core.api.async.ConnectionHandle;
 import org.metricshub.ipmi.core.api.sync.IpmiConnector;
 import org.metricshub.ipmi.core.coding.commands.IpmiVersion;
 import org.metricshub.ipmi.core.coding.commands.PrivilegeLevel;
 import org.metricshub.ipmi.core.coding.commands.sdr.GetSdr;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrRepositoryInfo;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrRepositoryInfoResponseData;
 import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrResponseData;
+import org.metricshub.ipmi.core.coding.commands.sdr.ReserveSdrRepository;
+import org.metricshub.ipmi.core.coding.commands.sdr.ReserveSdrRepositoryResponseData;
 import org.metricshub.ipmi.core.coding.commands.sdr.record.SensorRecord;
 import org.metricshub.ipmi.core.coding.payload.CompletionCode;
 import org.metricshub.ipmi.core.coding.payload.lan.IPMIException;
@@ -62,11 +74,26 @@ public abstract class AbstractIpmiRunner<T> implements AutoCloseable, Callable<T
 	protected static final int INITIAL_CHUNK_SIZE = 8;
 
 	/**
-	 * Chunk size depending on buffer size of the IPMI server. Bigger values will improve performance. If server is returning "Cannot return
-	 * number of requested data bytes." error during GetSdr command, CHUNK_SIZE should be decreased.
+	 * Initial chunk size, accepted by most IPMI servers. Larger chunks are then probed and the size decreases when the server is
+	 * returning "Cannot return number of requested data bytes." error during GetSdr command, see {@link ChunkSizeNegotiator}.
 	 */
 	protected static final int CHUNK_SIZE = 16;
 
+	/**
+	 * Smallest chunk size tried when the server cannot return the requested number of bytes
+	 */
+	protected static final int MIN_CHUNK_SIZE = 4;
+
+	/**
+	 * Largest chunk size of a GetSdr command, FFh meaning the whole record
+	 */
+	protected static final int MAX_CHUNK_SIZE = 0xfe;
+
+	/**
+	 * GetSdr chunk sizes learned for each BMC
+	 */
+	private static final ChunkSizeNegotiator SDR_CHUNK_SIZES = new ChunkSizeNegotiator(CHUNK_SIZE, MIN_CHUNK_SIZE, MAX_CHUNK_SIZE);
+
 	/**
 	 * Size of SDR record header
 	 */
@@ -80,21 +107,157 @@ public abstract class AbstractIpmiRunner<T> implements AutoCloseable, Callable<T
 
 	protected int nextRecId;
 
+	protected IpmiSessionPool sessionPool;
+
+	/**
+	 * Cache of the SDR records, <code>null</code> to read the SDR repository on each call
+	 */
+	protected SdrRepositoryCache sdrCache;
+
+	private PooledSession session;
+
+	/**
+	 * Whether the next call to {@link #startSession()} must open a new session instead of reusing a pooled one
+	 */
+	private boolean forceLogin;
+
+	/**
+	 * Whether the last call completed, leaving the session in a state where it can be reused
+	 */
+	private volatile boolean completed;
+
+	/**
+	 * Time by which the call must complete, as a {@link System#nanoTime()} value, 0 if there is none
+	 */
+	private volatile long deadline;
+
 	protected AbstractIpmiRunner(IpmiClientConfiguration ipmiConfiguration) {
+		this(ipmiConfiguration, IpmiSessionPool.getDefault());
+	}
+
+	protected AbstractIpmiRunner(IpmiClientConfiguration ipmiConfiguration, IpmiSessionPool sessionPool) {
 		this.ipmiConfiguration = ipmiConfiguration;
+		this.sessionPool = sessionPool;
+		this.sdrCache = SdrRepositoryCache.getDefault();
+	}
+
+	/**
+	 * Run {@link #call()}. If it fails on a session taken from the pool, the BMC may have closed that session in the
+	 * meantime: a new session is opened and {@link #call()} is run once more.
+	 * 
+	 * @return the result of {@link #call()}
+	 * @throws Exception If {@link #call()} fails
+	 */
+	public T callWithRelogin() throws Exception {
+		try {
+			return complete(call());
+		} catch (IPMIException e) {
+			// The BMC answered, so the session is fine
+			completed = true;
+			throw e;
+		} catch (Exception e) {
+			// The interrupt flag is cleared once InterruptedException is thrown
+			if (session == null || !session.isReused() || !isRetryable() || getRemainingTime() <= 0
+					|| e instanceof InterruptedException || Thread.currentThread().isInterrupted()) {
+				throw e;
+			}
+
+			sessionPool.invalidate(session);
+			session = null;
+			forceLogin = true;
+
+			return complete(call());
+		}
+	}
+
+	private T complete(T result) {
+		completed = true;
+		return result;
+	}
+
+	/**
+	 * Set the time by which the call must complete. The requests sent through the session stop waiting at that time, so
+	 * that the runner gives up by itself instead of waiting for the timeouts and retries of each request.
+	 * 
+	 * @param deadline The deadline as a {@link System#nanoTime()} value, 0 if there is none
+	 */
+	public void setDeadline(final long deadline) {
+		this.deadline = deadline;
+	}
+
+	/**
+	 * @return The time left before the deadline in milliseconds, {@link Long#MAX_VALUE} if there is no deadline
+	 */
+	protected long getRemainingTime() {
+		final long currentDeadline = deadline;
+		if (currentDeadline == 0) {
+			return Long.MAX_VALUE;
+		}
+		return Math.max(0, TimeUnit.NANOSECONDS.toMillis(currentDeadline - System.nanoTime()));
+	}
+
+	/**
+	 * Stop the call once its deadline has passed, e.g. before sending the next pipelined request
+	 * 
+	 * @throws TimeoutException If the deadline has passed
+	 */
+	protected void checkDeadline() throws TimeoutException {
+		if (getRemainingTime() <= 0) {
+			throw new TimeoutException("The deadline of the call has passed");
+		}
 	}
 
 	/**
-	 * Create the {@link IpmiConnector} instance, perform the authentication if required then start the session. <br>
-	 * This method will instantiate the internal fields: <em></em>
+	 * Wait for the response of a request sent asynchronously, no longer than the deadline of the call
+	 * 
+	 * @param <R>    The type of the response
+	 * @param future The future response
+	 * @return The response
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 * @throws ExecutionException   If the request failed
+	 * @throws TimeoutException     If the deadline has passed
+	 */
+	protected <R> R await(final Future<R> future) throws InterruptedException, ExecutionException, TimeoutException {
+		if (deadline == 0) {
+			return future.get();
+		}
+		return future.get(getRemainingTime(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @return Whether {@link #call()} can be run once more after a failure, which is not the case once part of its result
+	 *         has been handed to the caller
+	 */
+	protected boolean isRetryable() {
+		return true;
+	}
+
+	/**
+	 * Take an open session from the pool. If there is none, create the {@link IpmiConnector} instance, perform the
+	 * authentication if required then start the session. <br>
+	 * This method will instantiate the internal fields: <em>connector</em> and <em>handle</em>
 	 * 
 	 * @throws Exception If an error occurs when starting the session
 	 */
 	protected void startSession() throws Exception {
-		// Create the connector, specify port that will be used to communicate
-		// with the remote host. The UDP layer starts listening at this port, so
-		// no 2 connectors can work at the same time on the same port.
-		connector = new IpmiConnector(DEFAULT_LOCAL_UDP_PORT, ipmiConfiguration.getPingPeriod());
+		if (!forceLogin) {
+			session = sessionPool.acquire(ipmiConfiguration);
+			if (session != null) {
+				connector = session.getConnector();
+				handle = session.getHandle();
+				connector.setDeadline(handle, deadline);
+				return;
+			}
+		}
+
+		// Use the connector shared by the pool if any. Otherwise create the
+		// connector, specify port that will be used to communicate with the
+		// remote host. The UDP layer starts listening at this port, so no 2
+		// connectors can work at the same time on the same port.
+		connector = sessionPool.getConnector(ipmiConfiguration);
+		if (connector == null) {
+			connector = new IpmiConnector(DEFAULT_LOCAL_UDP_PORT, ipmiConfiguration.getPingPeriod());
+		}
 
 		// Should we perform the authentication
 		if (!ipmiConfiguration.isSkipAuth()) {
@@ -102,6 +265,7 @@ public abstract class AbstractIpmiRunner<T> implements AutoCloseable, Callable<T
 		} else {
 			handle = connector.createConnection(InetAddress.getByName(ipmiConfiguration.getHostname()),
 					ipmiConfiguration.getPort(), Connection.getDefaultCipherSuite(), PrivilegeLevel.User);
+			connector.setDeadline(handle, deadline);
 		}
 
 		// Start the session, provide user name and password, and optionally the
@@ -109,6 +273,8 @@ public abstract class AbstractIpmiRunner<T> implements AutoCloseable, Callable<T
 		// otherwise this parameter should be null)
 		connector.openSession(handle, ipmiConfiguration.getUsername(),
 				String.valueOf(ipmiConfiguration.getPassword()), ipmiConfiguration.getBmcKey());
+
+		session = sessionPool.create(ipmiConfiguration, connector, handle);
 	}
 
 	/**
@@ -125,6 +291,9 @@ public abstract class AbstractIpmiRunner<T> implements AutoCloseable, Callable<T
 		handle = connector.createConnection(InetAddress.getByName(ipmiConfiguration.getHostname()),
 				ipmiConfiguration.getPort());
 
+		// The handshake gives up at the deadline of the call, like the requests sent afterwards
+		connector.setDeadline(handle, deadline);
+
 		// Get available cipher suites list via getAvailableCipherSuites and
 		// pick one of them that will be used further in the session.
 		CipherSuite cs = getAvailableCipherSuite();
@@ -163,6 +332,24 @@ public abstract class AbstractIpmiRunner<T> implements AutoCloseable, Callable<T
 
 	@Override
 	public void close() {
+		// Hand the session over to the pool, unless the call did not complete (e.g. timeout)
+		if (session != null) {
+			// The next user of the session has its own deadline
+			connector.setDeadline(handle, 0);
+
+			if (completed) {
+				sessionPool.release(session);
+			} else {
+				sessionPool.invalidate(session);
+			}
+			session = null;
+			return;
+		}
+
+		if (connector == null) {
+			return;
+		}
+
 		if (handle != null) {
 			// Close the session
 			try {
@@ -172,10 +359,165 @@ public abstract class AbstractIpmiRunner<T> implements AutoCloseable, Callable<T
 			}
 		}
 
+		if (sessionPool.isShared(connector)) {
+			// Other runners use this connector, only release the connection
+			if (handle != null) {
+				connector.closeConnection(handle);
+			}
+			return;
+		}
+
 		// Close connection manager and release the listener port.
 		connector.tearDown();
 	}
 
+	/**
+	 * Use the given pool instead of the default one, e.g. to open the sessions with the connectors it shares. Must be
+	 * called before the runner is started.
+	 * 
+	 * @param sessionPool The {@link IpmiSessionPool} to take the sessions from and release them to
+	 */
+	public void setSessionPool(final IpmiSessionPool sessionPool) {
+		this.sessionPool = sessionPool;
+	}
+
+	/**
+	 * Make this runner send its requests through the session of the given runner.
+	 * 
+	 * @param owner The runner which started the session
+	 */
+	void shareSession(final AbstractIpmiRunner<?> owner) {
+		connector = owner.connector;
+		handle = owner.handle;
+		deadline = owner.deadline;
+	}
+
+	/**
+	 * Walk the whole SDR (sensor data record) repository and hand each record over to the given processor.<br>
+	 * If the repository did not change since it was last read, the records are taken from the {@link SdrRepositoryCache}
+	 * instead.
+	 * 
+	 * @param processor Handles each {@link SensorRecord} of the repository
+	 * @throws Exception If a record cannot be fetched or the processor fails
+	 */
+	protected void walkSdrRepository(final SdrRecordProcessor processor) throws Exception {
+		walkSdrRepository(processor, sdrCache == null ? null : getSdrRepositoryInfo());
+	}
+
+	/**
+	 * Walk the whole SDR (sensor data record) repository and hand each record over to the given processor, taking the
+	 * records from the {@link SdrRepositoryCache} if they match the given state of the repository.
+	 * 
+	 * @param processor Handles each {@link SensorRecord} of the repository
+	 * @param info      Current state of the repository, see {@link #getSdrRepositoryInfo()}, <code>null</code> if unknown
+	 * @throws Exception If a record cannot be fetched or the processor fails
+	 */
+	protected void walkSdrRepository(final SdrRecordProcessor processor, final GetSdrRepositoryInfoResponseData info)
+			throws Exception {
+		if (info == null || sdrCache == null) {
+			readSdrRepository(processor, null);
+			return;
+		}
+
+		final String hostname = ipmiConfiguration.getHostname();
+		final int port = ipmiConfiguration.getPort();
+
+		final List<byte[]> cachedRecords = sdrCache.get(hostname, port, info);
+		if (cachedRecords != null) {
+			for (byte[] recordData : cachedRecords) {
+				processor.process(SensorRecord.populateSensorRecord(recordData));
+			}
+			return;
+		}
+
+		final List<byte[]> records = new ArrayList<>(info.getRecordCount());
+		readSdrRepository(processor, records);
+		sdrCache.put(hostname, port, info, records);
+	}
+
+	/**
+	 * Get the current state of the SDR repository: its record count and its most recent addition and erase timestamps
+	 * change whenever its records change.
+	 * 
+	 * @return {@link GetSdrRepositoryInfoResponseData} instance or <code>null</code> if the BMC does not support the
+	 *         command
+	 * @throws Exception at sendMessage
+	 */
+	protected GetSdrRepositoryInfoResponseData getSdrRepositoryInfo() throws Exception {
+		try {
+			return (GetSdrRepositoryInfoResponseData) connector.sendMessage(handle,
+					new GetSdrRepositoryInfo(IpmiVersion.V20, handle.getCipherSuite(), AuthenticationType.RMCPPlus));
+		} catch (IPMIException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Read the SDR repository record by record.
+	 * 
+	 * @param processor Handles each {@link SensorRecord} of the repository
+	 * @param records   Collects the raw records, may be <code>null</code>
+	 * @throws Exception If a record cannot be fetched or the processor fails
+	 */
+	private void readSdrRepository(final SdrRecordProcessor processor, final List<byte[]> records) throws Exception {
+		// Id 0 indicates first record in SDR. Next IDs can be retrieved from
+		// records - they are organized in a list and there is no BMC command to
+		// get all of them.
+		nextRecId = 0;
+
+		// Some BMCs allow getting sensor records without reservation, so we try
+		// to do it that way first
+		int reservationId = 0;
+		int lastReservationId = -1;
+
+		// We get sensor data until we encounter ID = 65535 which means that
+		// this record is the last one.
+		while (nextRecId < MAX_REPO_RECORD_ID) {
+
+			try {
+				// Populate the sensor record and get ID of the next record in
+				// repository (see #getSensorData for details).
+				final byte[] recordData = getSensorRecordData(reservationId);
+				if (records != null) {
+					records.add(recordData);
+				}
+
+				processor.process(SensorRecord.populateSensorRecord(recordData));
+
+			} catch (IPMIException e) {
+
+				// If getting sensor data failed, we check if it already failed
+				// with this reservation ID, so that we avoid the infinite loop.
+				if (lastReservationId == reservationId || e.getCompletionCode() != CompletionCode.ReservationCanceled) {
+					throw e;
+				}
+
+				lastReservationId = reservationId;
+
+				// If the cause of the failure was canceling of the
+				// reservation, we get new reservationId and retry. This can
+				// happen many times during getting all sensors, since BMC can't
+				// manage parallel sessions and invalidates old one if new one
+				// appears.
+				reservationId = ((ReserveSdrRepositoryResponseData) connector.sendMessage(handle,
+						new ReserveSdrRepository(IpmiVersion.V20, handle.getCipherSuite(), AuthenticationType.RMCPPlus))).getReservationId();
+			}
+		}
+	}
+
+	/**
+	 * Handles the records read from the SDR repository
+	 */
+	@FunctionalInterface
+	protected interface SdrRecordProcessor {
+
+		/**
+		 * @param sensorRecord The record read from the SDR repository
+		 * @throws Exception If the record cannot be processed
+		 */
+		void process(SensorRecord sensorRecord) throws Exception;
+	}
+
 	/**
 	 * Using the reservation id, get the {@link SensorRecord} instance by running a GetSdr IPMI request.<br>
 	 * When the {@link SensorRecord} cannot be fetched using one request we try a second method, see <em>getSensorViaChunks</em>
@@ -185,6 +527,24 @@ public abstract class AbstractIpmiRunner<T> implements AutoCloseable, Callable<T
 	 * @throws Exception at sendMessage or if the error completion code is CannotRespond or UnspecifiedError
 	 */
 	protected SensorRecord getSensorData(int reservationId) throws Exception {
+		return SensorRecord.populateSensorRecord(getSensorRecordData(reservationId));
+	}
+
+	/**
+	 * Using the reservation id, get the raw data of the next record by running a GetSdr IPMI request.<br>
+	 * When the record cannot be fetched using one request we try a second method, see <em>getSensorRecordDataViaChunks</em>.
+	 * Once a BMC refused to return a whole record, the following records are directly read in chunks, the first chunk
+	 * having the size learned for that BMC.
+	 * 
+	 * @param reservationId The reservation identifier that needs to be sent to the BMC so that it handles correctly the request
+	 * @return The record bytes, header included
+	 * @throws Exception at sendMessage or if the error completion code is CannotRespond or UnspecifiedError
+	 */
+	protected byte[] getSensorRecordData(int reservationId) throws Exception {
+		if (SDR_CHUNK_SIZES.isWholeReadRejected(getBmcKey())) {
+			return getSensorRecordDataViaChunks(reservationId);
+		}
+
 		try {
 			// BMC capabilities are limited - that means that sometimes the
 			// record size exceeds maximum size of the message. Since we don't
@@ -192,64 +552,113 @@ public abstract class AbstractIpmiRunner<T> implements AutoCloseable, Callable<T
 			GetSdrResponseData data = (GetSdrResponseData) connector.sendMessage(handle,
 					new GetSdr(IpmiVersion.V20, handle.getCipherSuite(), AuthenticationType.RMCPPlus, reservationId, nextRecId));
 
-			// If getting whole record succeeded we create SensorRecord from
-			// received data...
-			SensorRecord sensorDataToPopulate = SensorRecord.populateSensorRecord(data.getSensorRecordData());
-
-			// ... and update the ID of the next record
+			// If getting whole record succeeded we update the ID of the next
+			// record
 			nextRecId = data.getNextRecordId();
-			return sensorDataToPopulate;
+			return data.getSensorRecordData();
 
 		} catch (IPMIException e) {
 
 			// The following error codes mean that record is too large to be
 			// sent in one chunk. This means we need to split the data in
 			// smaller parts.
-			if (e.getCompletionCode() != CompletionCode.CannotRespond && e.getCompletionCode() != CompletionCode.UnspecifiedError) {
+			if (!isChunkTooLarge(e)) {
 				throw e;
 			}
 
-			return getSensorViaChunks(reservationId);
+			SDR_CHUNK_SIZES.wholeReadRejected(getBmcKey());
 
-		} catch (Exception e) {
-			throw e;
+			return getSensorRecordDataViaChunks(reservationId);
 		}
 	}
 
 	/**
-	 * Get SDR (sensor data record) by chunks of {@link #CHUNK_SIZE} bytes. We get the full record size from the first request, then
-	 * we query the IPMI interface to get the remaining parts.
+	 * Get SDR (sensor data record) by chunks, see <em>getSensorRecordDataViaChunks</em>.
 	 * 
 	 * @param reservationId The reservation identifier that needs to be sent to the BMC so that it handles correctly the request
 	 * @return {@link SensorRecord} instance
 	 * @throws Exception if one of the sendMessage calls fails
 	 */
 	protected SensorRecord getSensorViaChunks(int reservationId) throws Exception {
-		// First we get the header of the record to find out its size.
-		GetSdrResponseData data = (GetSdrResponseData) connector.sendMessage(handle, new GetSdr(IpmiVersion.V20, handle.getCipherSuite(),
-				AuthenticationType.RMCPPlus, reservationId, nextRecId, 0, INITIAL_CHUNK_SIZE));
+		return SensorRecord.populateSensorRecord(getSensorRecordDataViaChunks(reservationId));
+	}
+
+	/**
+	 * Get the raw data of the next record by chunks. The first request asks for as many bytes as the BMC accepts, so that
+	 * records which fit in one chunk are read at once, unless the BMC refuses to return more bytes than left in the
+	 * record. The full record size is given by its header, then we query the IPMI
+	 * interface to get the remaining parts, in chunks as large as the BMC accepts.
+	 * 
+	 * @param reservationId The reservation identifier that needs to be sent to the BMC so that it handles correctly the request
+	 * @return The record bytes, header included
+	 * @throws Exception if one of the sendMessage calls fails
+	 */
+	protected byte[] getSensorRecordDataViaChunks(int reservationId) throws Exception {
+		final String bmc = getBmcKey();
+
+		// The first chunk must at least hold the header, which gives the record size. It does not probe
+		// larger sizes, so that a rejection tells whether the chunk is too large or the record too short.
+		final int firstChunkSize = SDR_CHUNK_SIZES.isOverReadRejected(bmc) ? INITIAL_CHUNK_SIZE
+				: Math.max(SDR_CHUNK_SIZES.largestAccepted(bmc), INITIAL_CHUNK_SIZE);
+
+		GetSdrResponseData data;
+		boolean firstChunkRejected = false;
+		try {
+			data = (GetSdrResponseData) connector.sendMessage(handle, new GetSdr(IpmiVersion.V20, handle.getCipherSuite(),
+					AuthenticationType.RMCPPlus, reservationId, nextRecId, 0, firstChunkSize));
+		} catch (IPMIException e) {
+			if (!isChunkTooLarge(e) || firstChunkSize == INITIAL_CHUNK_SIZE) {
+				throw e;
+			}
+
+			// Read the header only, the size of the record tells why the chunk was rejected
+			firstChunkRejected = true;
+			data = (GetSdrResponseData) connector.sendMessage(handle, new GetSdr(IpmiVersion.V20, handle.getCipherSuite(),
+					AuthenticationType.RMCPPlus, reservationId, nextRecId, 0, INITIAL_CHUNK_SIZE));
+		}
+
+		final byte[] firstChunk = data.getSensorRecordData();
 
 		// The record size is 5th byte of the record. It does not take
 		// into account the size of the header, so we need to add it.
-		int recSize = TypeConverter.byteToInt(data.getSensorRecordData()[4]) + HEADER_SIZE;
-		int read = INITIAL_CHUNK_SIZE;
+		int recSize = TypeConverter.byteToInt(firstChunk[4]) + HEADER_SIZE;
+		int read = Math.min(firstChunk.length, recSize);
+
+		if (firstChunkRejected) {
+			if (recSize < firstChunkSize) {
+				// The BMC does not return more bytes than left in the record
+				SDR_CHUNK_SIZES.overReadRejected(bmc);
+			} else {
+				SDR_CHUNK_SIZES.rejected(bmc, firstChunkSize);
+			}
+		} else if (firstChunk.length == firstChunkSize) {
+			SDR_CHUNK_SIZES.accepted(bmc, firstChunkSize);
+		}
 
 		byte[] bytes = new byte[recSize];
 
-		System.arraycopy(data.getSensorRecordData(), 0, bytes, 0, data.getSensorRecordData().length);
+		System.arraycopy(firstChunk, 0, bytes, 0, read);
 
 		// We get the rest of the record in chunks (watch out for
 		// exceeding the record size, since this will result in BMC's
 		// error.
 		while (read < recSize) {
 
-			int bytesToRead = CHUNK_SIZE;
-			if (recSize - read < bytesToRead) {
-				bytesToRead = recSize - read;
+			int bytesToRead = Math.min(SDR_CHUNK_SIZES.next(bmc), recSize - read);
+
+			GetSdrResponseData part;
+			try {
+				part = (GetSdrResponseData) connector.sendMessage(handle, new GetSdr(IpmiVersion.V20, handle.getCipherSuite(),
+						AuthenticationType.RMCPPlus, reservationId, nextRecId, read, bytesToRead));
+			} catch (IPMIException e) {
+				// Back off and try again with a smaller chunk
+				if (!isChunkTooLarge(e) || !SDR_CHUNK_SIZES.rejected(bmc, bytesToRead)) {
+					throw e;
+				}
+				continue;
 			}
 
-			GetSdrResponseData part = (GetSdrResponseData) connector.sendMessage(handle, new GetSdr(IpmiVersion.V20, handle.getCipherSuite(),
-					AuthenticationType.RMCPPlus, reservationId, nextRecId, read, bytesToRead));
+			SDR_CHUNK_SIZES.accepted(bmc, bytesToRead);
 
 			// Append the new bytes
 			System.arraycopy(part.getSensorRecordData(), 0, bytes, read, bytesToRead);
@@ -257,13 +666,24 @@ public abstract class AbstractIpmiRunner<T> implements AutoCloseable, Callable<T
 			read += bytesToRead;
 		}
 
-		// Finally we populate the sensor record with the gathered
-		// data...
-		SensorRecord sensorDataToPopulate = SensorRecord.populateSensorRecord(bytes);
-
-		// ... and update the ID of the next record
+		// Finally we update the ID of the next record
 		nextRecId = data.getNextRecordId();
 
-		return sensorDataToPopulate;
+		return bytes;
+	}
+
+	/**
+	 * @param e The error returned by the BMC
+	 * @return Whether the error means that the BMC cannot return as many bytes as requested
+	 */
+	protected static boolean isChunkTooLarge(final IPMIException e) {
+		return e.getCompletionCode() == CompletionCode.CannotRespond || e.getCompletionCode() == CompletionCode.UnspecifiedError;
+	}
+
+	/**
+	 * @return The key identifying the BMC in the caches of the runners
+	 */
+	protected String getBmcKey() {
+		return ipmiConfiguration.getHostname() + ":" + ipmiConfiguration.getPort();
 	}
 }
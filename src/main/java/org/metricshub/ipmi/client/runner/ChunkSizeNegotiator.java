@@ -0,0 +1,185 @@
+package org.metricshub.ipmi.client.runner;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Learns, for each BMC, the largest number of bytes it accepts to return in a single read command (GetSdr, ReadFruData).
+ * The limit depends on the buffers of the BMC and is not advertised, so it is searched for: each BMC starts with a size
+ * known to work on most of them, larger sizes are probed by bisection between the largest accepted size and the
+ * smallest rejected one, and the size backs off when the BMC answers that it cannot return that many bytes.
+ * <p>
+ * What was learned is kept for the lifetime of the JVM, so that later reads from the same BMC use the best size right
+ * away.
+ * </p>
+ */
+class ChunkSizeNegotiator {
+
+	private final int initialSize;
+	private final int minSize;
+	private final int maxSize;
+
+	private final ConcurrentMap<String, Limits> limits = new ConcurrentHashMap<>();
+
+	/**
+	 * @param initialSize Size accepted by most BMCs, used until the BMC rejects it
+	 * @param minSize     Smallest size worth trying
+	 * @param maxSize     Largest size the read command allows
+	 */
+	ChunkSizeNegotiator(int initialSize, int minSize, int maxSize) {
+		this.initialSize = initialSize;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @param bmc Identifies the BMC
+	 * @return The number of bytes to request in the next read
+	 */
+	int next(final String bmc) {
+		return getLimits(bmc).next();
+	}
+
+	/**
+	 * @param bmc Identifies the BMC
+	 * @return The largest number of bytes known to be accepted by the BMC, without probing
+	 */
+	int largestAccepted(final String bmc) {
+		return getLimits(bmc).largestAccepted();
+	}
+
+	/**
+	 * Records that the BMC returned the requested number of bytes.
+	 *
+	 * @param bmc  Identifies the BMC
+	 * @param size Number of bytes requested
+	 */
+	void accepted(final String bmc, final int size) {
+		getLimits(bmc).accepted(size);
+	}
+
+	/**
+	 * Records that the BMC could not return the requested number of bytes.
+	 *
+	 * @param bmc  Identifies the BMC
+	 * @param size Number of bytes requested
+	 * @return <code>false</code> if the size cannot be reduced any further, in which case the error is not caused by the
+	 *         size
+	 */
+	boolean rejected(final String bmc, final int size) {
+		return getLimits(bmc).rejected(size);
+	}
+
+	/**
+	 * @param bmc Identifies the BMC
+	 * @return Whether the BMC already refused to return a whole record in one read
+	 */
+	boolean isWholeReadRejected(final String bmc) {
+		return getLimits(bmc).wholeReadRejected;
+	}
+
+	/**
+	 * Records that the BMC refused to return a whole record in one read, so that later records are read in chunks right
+	 * away.
+	 *
+	 * @param bmc Identifies the BMC
+	 */
+	void wholeReadRejected(final String bmc) {
+		getLimits(bmc).wholeReadRejected = true;
+	}
+
+	/**
+	 * @param bmc Identifies the BMC
+	 * @return Whether the BMC refused to return more bytes than left in a record, in which case the size of a record must
+	 *         be known before reading it
+	 */
+	boolean isOverReadRejected(final String bmc) {
+		return getLimits(bmc).overReadRejected;
+	}
+
+	/**
+	 * Records that the BMC refused to return more bytes than left in a record, so that later records start with a read of
+	 * their header.
+	 *
+	 * @param bmc Identifies the BMC
+	 */
+	void overReadRejected(final String bmc) {
+		getLimits(bmc).overReadRejected = true;
+	}
+
+	private Limits getLimits(final String bmc) {
+		return limits.computeIfAbsent(bmc, key -> new Limits());
+	}
+
+	/**
+	 * What is known of the limit of a BMC: it lies between the largest accepted size and the smallest rejected size.
+	 */
+	private class Limits {
+
+		private int largestAccepted = initialSize;
+		private int smallestRejected = maxSize + 1;
+		private volatile boolean wholeReadRejected;
+		private volatile boolean overReadRejected;
+
+		synchronized int next() {
+			if (smallestRejected - largestAccepted <= 1) {
+				return largestAccepted;
+			}
+
+			// Probe halfway between what works and what does not
+			return (largestAccepted + smallestRejected) / 2;
+		}
+
+		synchronized int largestAccepted() {
+			return largestAccepted;
+		}
+
+		synchronized void accepted(final int size) {
+			if (size > largestAccepted) {
+				largestAccepted = size;
+			}
+			if (smallestRejected <= largestAccepted) {
+				smallestRejected = largestAccepted + 1;
+			}
+		}
+
+		synchronized boolean rejected(final int size) {
+			if (size <= minSize) {
+				return false;
+			}
+
+			if (size < smallestRejected) {
+				smallestRejected = size;
+			}
+
+			// A size that used to work was rejected (e.g. the BMC is busier), back off
+			if (largestAccepted >= size) {
+				largestAccepted = Math.max(minSize, size / 2);
+			}
+
+			return true;
+		}
+	}
+}
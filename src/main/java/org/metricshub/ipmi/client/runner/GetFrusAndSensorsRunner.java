@@ -0,0 +1,74 @@
+package org.metricshub.ipmi.client.runner;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.metricshub.ipmi.client.IpmiClientConfiguration;
+import org.metricshub.ipmi.client.model.FrusAndSensors;
+import org.metricshub.ipmi.client.model.Fru;
+import org.metricshub.ipmi.core.coding.commands.fru.record.FruRecord;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrRepositoryInfoResponseData;
+import org.metricshub.ipmi.core.coding.commands.sdr.record.SensorRecord;
+
+/**
+ * Get FRU information and Full And Compact Sensor records in a single walk of the SDR repository. Each record is handed
+ * over to both the sensor reading and the FRU locator handling, so the records are fetched once instead of once per
+ * runner.
+ */
+public class GetFrusAndSensorsRunner extends AbstractIpmiRunner<FrusAndSensors> {
+
+	public GetFrusAndSensorsRunner(IpmiClientConfiguration ipmiConfiguration) {
+		super(ipmiConfiguration);
+	}
+
+	@Override
+	public FrusAndSensors call() throws Exception {
+		final List<Fru> frus = new ArrayList<>();
+		final List<SensorRecord> sensorRecords = new ArrayList<>();
+
+		super.startSession();
+
+		// Both runners send their requests through our session
+		final GetFrusRunner frusRunner = new GetFrusRunner(ipmiConfiguration);
+		frusRunner.shareSession(this);
+		final GetSensorsRunner sensorsRunner = new GetSensorsRunner(ipmiConfiguration);
+		sensorsRunner.shareSession(this);
+
+		final List<FruRecord> systemBoardFruRecords = frusRunner.getSystemBoardFruRecords();
+
+		final GetSdrRepositoryInfoResponseData info = getSdrRepositoryInfo();
+
+		walkSdrRepository(sensorRecord -> {
+			sensorsRunner.collectSensorRecord(sensorRecords, sensorRecord);
+			frusRunner.processFruRecord(frus::add, sensorRecord, systemBoardFruRecords);
+		}, info);
+
+		final SensorPollPlan plan = SensorPollPlan.compile(sensorRecords, info);
+		SensorPollPlan.put(getBmcKey(), plan);
+
+		return new FrusAndSensors(frus, sensorsRunner.pollReadings(plan));
+	}
+
+}
@@ -22,13 +22,22 @@ package org.metricshub.ipmi.client.runner;
  * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
  */
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
+import org.metricshub.ipmi.client.FruConsumer;
+import org.metricshub.ipmi.client.FruInventoryCache;
 import org.metricshub.ipmi.client.IpmiClientConfiguration;
 import org.metricshub.ipmi.client.model.Fru;
 import org.metricshub.ipmi.core.coding.commands.IpmiVersion;
+import org.metricshub.ipmi.core.coding.commands.ResponseData;
 import org.metricshub.ipmi.core.coding.commands.fru.BaseUnit;
 import org.metricshub.ipmi.core.coding.commands.fru.GetFruInventoryAreaInfo;
 import org.metricshub.ipmi.core.coding.commands.fru.GetFruInventoryAreaInfoResponseData;
@@ -38,8 +47,6 @@ import org.metricshub.ipmi.core.coding.commands.fru.record.BoardInfo;
 import org.metricshub.ipmi.core.coding.commands.fru.record.ChassisInfo;
 import org.metricshub.ipmi.core.coding.commands.fru.record.FruRecord;
 import org.metricshub.ipmi.core.coding.commands.fru.record.ProductInfo;
-import org.metricshub.ipmi.core.coding.commands.sdr.ReserveSdrRepository;
-import org.metricshub.ipmi.core.coding.commands.sdr.ReserveSdrRepositoryResponseData;
 import org.metricshub.ipmi.core.coding.commands.sdr.record.CompactSensorRecord;
 import org.metricshub.ipmi.core.coding.commands.sdr.record.EntityId;
 import org.metricshub.ipmi.core.coding.commands.sdr.record.FruDeviceLocatorRecord;
@@ -64,76 +71,95 @@ public class GetFrusRunner extends AbstractIpmiRunner<List<Fru>> {
 	 */
 	private static final int FRU_READ_PACKET_SIZE = 16;
 
+	/**
+	 * Learns the largest ReadFru chunk accepted by each BMC, starting from {@link #FRU_READ_PACKET_SIZE}
+	 */
+	private static final ChunkSizeNegotiator FRU_CHUNK_SIZES = new ChunkSizeNegotiator(FRU_READ_PACKET_SIZE, MIN_CHUNK_SIZE,
+			MAX_CHUNK_SIZE);
+
+	/**
+	 * Largest count of bytes encoded by ReadFruData, which multiplies the count by the size of the access unit
+	 */
+	private static final int MAX_FRU_READ_BYTES = 0xff;
+
 	private boolean systemBoardFruUpdated = false;
 
+	private final FruInventoryCache fruCache;
+
+	/**
+	 * Receives the FRUs as they are decoded, <code>null</code> to return them all at the end of the call
+	 */
+	private final FruConsumer consumer;
+
+	/**
+	 * Whether FRUs have already been handed to the consumer
+	 */
+	private volatile boolean delivered;
+
 	public GetFrusRunner(IpmiClientConfiguration ipmiConfiguration) {
+		this(ipmiConfiguration, null);
+	}
+
+	/**
+	 * Create a runner handing each FRU to the given consumer as soon as it is decoded. The FRUs are not kept by the
+	 * runner, {@link #call()} then returns an empty list.
+	 * 
+	 * @param ipmiConfiguration Wraps the IPMI device hostname and the credentials
+	 * @param consumer          Receives the FRUs
+	 */
+	public GetFrusRunner(IpmiClientConfiguration ipmiConfiguration, FruConsumer consumer) {
 		super(ipmiConfiguration);
+		this.fruCache = FruInventoryCache.getDefault();
+		this.consumer = consumer;
 	}
 
 	@Override
 	public List<Fru> call() throws Exception {
 		final List<Fru> result = new ArrayList<>();
+		final FruConsumer target;
+
+		if (consumer == null) {
+			target = result::add;
+		} else {
+			target = fru -> {
+				delivered = true;
+				consumer.accept(fru);
+			};
+		}
 
 		super.startSession();
 
-		// Id 0 indicates first record in SDR. Next IDs can be retrieved from
-		// records - they are organized in a list and there is no BMC command to
-		// get all of them.
-		nextRecId = 0;
-
-		// Some BMCs allow getting sensor records without reservation, so we try
-		// to do it that way first
-		int reservationId = 0;
-		int lastReservationId = -1;
-
-		List<FruRecord> systemBoardFruRecords = getFruRecords(DEFAULT_FRU_ID);
-
-		// We get sensor data until we encounter ID = 65535 which means that
-		// this record is the last one.
-		while (nextRecId < MAX_REPO_RECORD_ID) {
-
-			SensorRecord sensorRecord = null;
-
-			try {
-				// Populate the sensor record and get ID of the next record in
-				// repository (see #getSensorData for details).
-				sensorRecord = super.getSensorData(reservationId);
-
-				processFruRecord(result, sensorRecord, systemBoardFruRecords);
-
-			} catch (IPMIException e) {
-
-				// If getting sensor data failed, we check if it already failed
-				// with this reservation ID, so that we avoid the infinite loop.
-				if (lastReservationId == reservationId || e.getCompletionCode() != CompletionCode.ReservationCanceled) {
-					throw e;
-				}
+		final List<FruRecord> systemBoardFruRecords = getSystemBoardFruRecords();
 
-				lastReservationId = reservationId;
+		walkSdrRepository(sensorRecord -> processFruRecord(target, sensorRecord, systemBoardFruRecords));
 
-				// If the cause of the failure was canceling of the
-				// reservation, we get new reservationId and retry. This can
-				// happen many times during getting all sensors, since BMC can't
-				// manage parallel sessions and invalidates old one if new one
-				// appears.
-				reservationId = ((ReserveSdrRepositoryResponseData) connector.sendMessage(handle,
-						new ReserveSdrRepository(IpmiVersion.V20, handle.getCipherSuite(), AuthenticationType.RMCPPlus))).getReservationId();
-			}
+		return result;
+	}
 
-		}
+	@Override
+	protected boolean isRetryable() {
+		return !delivered;
+	}
 
-		return result;
+	/**
+	 * Get the FRU records of the built-in, default FRU
+	 * 
+	 * @return new List of {@link FruRecord} instances
+	 * @throws Exception
+	 */
+	List<FruRecord> getSystemBoardFruRecords() throws Exception {
+		return getFruRecords(DEFAULT_FRU_ID);
 	}
 
 	/**
-	 * Process the given sensor record and create the system board FRU record. The new {@link Fru} is added to th FRU list <code>result</code>
+	 * Process the given sensor record and create the system board FRU record. The new {@link Fru} is handed to <code>target</code>
 	 * 
-	 * @param result                List of {@link Fru} instance to append
+	 * @param target                Receives the new {@link Fru} instance
 	 * @param sensorRecord          The sensor record to process
 	 * @param systemBoardFruRecords The system board Fru records
 	 * @throws Exception
 	 */
-	private void processFruRecord(final List<Fru> result, final SensorRecord sensorRecord, final List<FruRecord> systemBoardFruRecords) throws Exception {
+	void processFruRecord(final FruConsumer target, final SensorRecord sensorRecord, final List<FruRecord> systemBoardFruRecords) throws Exception {
 		try {
 			// Process the FRU record
 			Fru fru = null;
@@ -180,9 +206,9 @@ public class GetFrusRunner extends AbstractIpmiRunner<List<Fru>> {
 				}
 			}
 
-			// Add the Fru instance
+			// Hand the Fru instance over
 			if (fru != null) {
-				result.add(fru);
+				target.accept(fru);
 			}
 
 		} catch (IPMIException e) {
@@ -199,8 +225,6 @@ public class GetFrusRunner extends AbstractIpmiRunner<List<Fru>> {
 	 * @throws Exception
 	 */
 	private List<FruRecord> getFruRecords(int fruId) throws Exception {
-		List<ReadFruDataResponseData> fruData = new ArrayList<>();
-
 		// get the FRU Inventory Area info
 		GetFruInventoryAreaInfoResponseData info = (GetFruInventoryAreaInfoResponseData) connector.sendMessage(handle,
 				new GetFruInventoryAreaInfo(IpmiVersion.V20, handle.getCipherSuite(), AuthenticationType.RMCPPlus, fruId));
@@ -208,35 +232,209 @@ public class GetFrusRunner extends AbstractIpmiRunner<List<Fru>> {
 		int size = info.getFruInventoryAreaSize();
 		BaseUnit unit = info.getFruUnit();
 
-		// since the size of single FRU entry can exceed maximum size of the
-		// message sent via IPMI, it has to be read in chunks
-		for (int i = 0; i < size; i += FRU_READ_PACKET_SIZE) {
-			int fruReadPacketSize = FRU_READ_PACKET_SIZE;
-			if (i + fruReadPacketSize > size) {
-				fruReadPacketSize = size % FRU_READ_PACKET_SIZE;
-			}
-			try {
-				// get single package od FRU data
-				ReadFruDataResponseData data = (ReadFruDataResponseData) connector.sendMessage(handle,
-						new ReadFruData(IpmiVersion.V20, handle.getCipherSuite(), AuthenticationType.RMCPPlus, fruId, unit, i, fruReadPacketSize));
-
-				fruData.add(data);
-
-			} catch (Exception e) {
-				// Nothing can be done
+		try {
+			List<FruRecord> fruRecords = getCachedFruRecords(fruId, size, unit);
+
+			if (fruRecords == null) {
+				FruArea area = readFruData(fruId, size, unit);
+
+				if (fruCache != null && area.complete) {
+					fruRecords = fruCache.put(ipmiConfiguration.getHostname(), ipmiConfiguration.getPort(), fruId, area.data);
+				} else {
+					// after collecting all the data, we can combine and parse it
+					ReadFruDataResponseData fruData = new ReadFruDataResponseData();
+					fruData.setFruData(area.data);
+					fruRecords = ReadFruData.decodeFruData(Collections.singletonList(fruData));
+				}
 			}
-		}
 
-		try {
-			// after collecting all the data, we can combine and parse it
-			return ReadFruData.decodeFruData(fruData).stream()
+			return fruRecords.stream()
 					.filter(fruRecord -> fruRecord instanceof BoardInfo || fruRecord instanceof ChassisInfo || fruRecord instanceof ProductInfo)
 					.collect(Collectors.toList());
 
+		} catch (TimeoutException | InterruptedException e) {
+			// No time left for the other FRUs either
+			throw e;
 		} catch (Exception e) {
 			// Nothing can be done
 		}
 
 		return new ArrayList<>();
 	}
+
+	/**
+	 * Get the records of the FRU from the cache, if its inventory area did not change. Reading the common header of the
+	 * area is enough to find out.
+	 * 
+	 * @param fruId The unique identifier of the FRU
+	 * @param size  The size of the FRU inventory area
+	 * @param unit  Whether the FRU is accessed by bytes or words
+	 * @return The cached records or <code>null</code> if the area must be read
+	 * @throws InterruptedException If the thread is interrupted while reading the header
+	 */
+	private List<FruRecord> getCachedFruRecords(final int fruId, final int size, final BaseUnit unit)
+			throws InterruptedException {
+		if (fruCache == null || size <= 0) {
+			return null;
+		}
+
+		final int headerSize = Math.min(FruInventoryCache.COMMON_HEADER_SIZE, size);
+
+		try {
+			final byte[] header = ((ReadFruDataResponseData) connector.sendMessage(handle, new ReadFruData(IpmiVersion.V20,
+					handle.getCipherSuite(), AuthenticationType.RMCPPlus, fruId, unit, 0, headerSize))).getFruData();
+
+			return fruCache.get(ipmiConfiguration.getHostname(), ipmiConfiguration.getPort(), fruId, size, header);
+		} catch (InterruptedException e) {
+			throw e;
+		} catch (Exception e) {
+			// Read the whole area
+			return null;
+		}
+	}
+
+	/**
+	 * Read the FRU inventory area of the given FRU. Since the size of single FRU entry can exceed maximum size of the
+	 * message sent via IPMI, it has to be read in chunks. All the offsets are known up front, so up to
+	 * {@link IpmiClientConfiguration#getPipelineWindow()} ReadFruData requests are kept in flight and the chunks are put
+	 * back together by offset. The chunk size grows as long as the BMC accepts it.
+	 * 
+	 * @param fruId The unique identifier of the FRU
+	 * @param size  The size of the FRU inventory area
+	 * @param unit  Whether the FRU is accessed by bytes or words
+	 * @return The content of the FRU inventory area. The chunks that could not be read are left zeroed.
+	 * @throws TimeoutException     If the deadline of the call has passed
+	 * @throws InterruptedException If the thread is interrupted, the requests in flight are then cancelled
+	 */
+	private FruArea readFruData(final int fruId, final int size, final BaseUnit unit)
+			throws TimeoutException, InterruptedException {
+		final String bmc = getBmcKey();
+		final int window = Math.max(1, ipmiConfiguration.getPipelineWindow());
+		final int maxCount = MAX_FRU_READ_BYTES / unit.getSize();
+		final FruArea area = new FruArea(size);
+
+		// Ranges [start, end) still to be requested, and the requests in flight
+		final Deque<int[]> ranges = new ArrayDeque<>();
+		final Deque<FruChunk> requests = new ArrayDeque<>();
+
+		if (size > 0) {
+			ranges.add(new int[] { 0, size });
+		}
+
+		try {
+			while (!ranges.isEmpty() || !requests.isEmpty()) {
+
+				// Keep the window full
+				while (requests.size() < window && !ranges.isEmpty()) {
+					checkDeadline();
+
+					final int[] range = ranges.poll();
+					final int count = Math.min(Math.min(FRU_CHUNK_SIZES.next(bmc), maxCount), range[1] - range[0]);
+
+					if (range[0] + count < range[1]) {
+						ranges.addFirst(new int[] { range[0] + count, range[1] });
+					}
+
+					requests.add(new FruChunk(range[0], count, connector.sendMessageAsync(handle, new ReadFruData(IpmiVersion.V20,
+							handle.getCipherSuite(), AuthenticationType.RMCPPlus, fruId, unit, range[0], count))));
+				}
+
+				final FruChunk chunk = requests.poll();
+				byte[] chunkData = null;
+
+				try {
+					chunkData = ((ReadFruDataResponseData) await(chunk.response)).getFruData();
+					FRU_CHUNK_SIZES.accepted(bmc, chunk.count);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IPMIException && isFruChunkTooLarge((IPMIException) e.getCause())
+							&& FRU_CHUNK_SIZES.rejected(bmc, chunk.count)) {
+						// Back off and request this range again with a smaller chunk
+						ranges.addFirst(new int[] { chunk.offset, chunk.offset + chunk.count });
+						continue;
+					}
+					chunkData = readFruChunk(fruId, unit, chunk);
+				} catch (InterruptedException | TimeoutException e) {
+					chunk.response.cancel(false);
+					throw e;
+				}
+
+				if (chunkData == null || chunkData.length == 0) {
+					// Nothing can be done
+					area.complete = false;
+					continue;
+				}
+
+				final int length = Math.min(chunkData.length, chunk.count);
+				System.arraycopy(chunkData, 0, area.data, chunk.offset, length);
+
+				// The BMC may return fewer bytes than requested, request the rest again
+				if (length < chunk.count) {
+					ranges.addFirst(new int[] { chunk.offset + length, chunk.offset + chunk.count });
+				}
+			}
+		} finally {
+			// Do not leave requests behind if the call gives up
+			requests.forEach(chunk -> chunk.response.cancel(false));
+		}
+
+		return area;
+	}
+
+	/**
+	 * Read a single chunk again the synchronous way, which retries as configured
+	 * 
+	 * @param fruId The unique identifier of the FRU
+	 * @param unit  Whether the FRU is accessed by bytes or words
+	 * @param chunk The chunk that failed
+	 * @return The FRU data of the chunk or <code>null</code> if it cannot be read
+	 * @throws InterruptedException If the thread is interrupted while waiting for the response
+	 */
+	private byte[] readFruChunk(final int fruId, final BaseUnit unit, final FruChunk chunk) throws InterruptedException {
+		try {
+			return ((ReadFruDataResponseData) connector.sendMessage(handle, new ReadFruData(IpmiVersion.V20,
+					handle.getCipherSuite(), AuthenticationType.RMCPPlus, fruId, unit, chunk.offset, chunk.count))).getFruData();
+		} catch (InterruptedException e) {
+			throw e;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param e The error returned by the BMC
+	 * @return Whether the error means that the BMC cannot return as many FRU bytes as requested
+	 */
+	private static boolean isFruChunkTooLarge(final IPMIException e) {
+		return isChunkTooLarge(e) || e.getCompletionCode() == CompletionCode.InvalidData
+				|| e.getCompletionCode() == CompletionCode.LengthLimitExceeded;
+	}
+
+	/**
+	 * The content of a FRU inventory area, which is only worth caching if all of its chunks could be read
+	 */
+	private static class FruArea {
+
+		private final byte[] data;
+		private boolean complete = true;
+
+		FruArea(int size) {
+			data = new byte[size];
+		}
+	}
+
+	/**
+	 * A ReadFruData request in flight
+	 */
+	private static class FruChunk {
+
+		private final int offset;
+		private final int count;
+		private final CompletableFuture<ResponseData> response;
+
+		FruChunk(int offset, int count, CompletableFuture<ResponseData> response) {
+			this.offset = offset;
+			this.count = count;
+			this.response = response;
+		}
+	}
 }
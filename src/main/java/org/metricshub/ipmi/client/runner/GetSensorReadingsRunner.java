@@ -0,0 +1,75 @@
+package org.metricshub.ipmi.client.runner;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.metricshub.ipmi.client.IpmiClientConfiguration;
+import org.metricshub.ipmi.client.SensorConsumer;
+import org.metricshub.ipmi.client.model.Sensor;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrRepositoryInfoResponseData;
+
+/**
+ * Get the readings of the Full and Compact sensors, without reading the SDR repository: the readings are polled against
+ * the {@link SensorPollPlan} compiled by the last {@link GetSensorsRunner} run on the BMC. The SDR repository is only
+ * walked when the BMC has no plan yet or when Get SDR Repository Info tells that the repository changed since the plan
+ * was compiled. The result is the same as the one of {@link GetSensorsRunner}.
+ */
+public class GetSensorReadingsRunner extends GetSensorsRunner {
+
+	public GetSensorReadingsRunner(IpmiClientConfiguration ipmiConfiguration) {
+		super(ipmiConfiguration);
+	}
+
+	/**
+	 * Create a runner handing each sensor to the given consumer as soon as its reading is available. The sensors are not
+	 * kept by the runner, {@link #call()} then returns an empty list.
+	 * 
+	 * @param ipmiConfiguration Wraps the IPMI device hostname and the credentials
+	 * @param consumer          Receives the sensors
+	 */
+	public GetSensorReadingsRunner(IpmiClientConfiguration ipmiConfiguration, SensorConsumer consumer) {
+		super(ipmiConfiguration, consumer);
+	}
+
+	@Override
+	public List<Sensor> call() throws Exception {
+		super.startSession();
+
+		final GetSdrRepositoryInfoResponseData info = getSdrRepositoryInfo();
+		final SensorPollPlan plan = SensorPollPlan.get(getBmcKey());
+
+		if (plan == null || !plan.matches(info)) {
+			// First poll of this BMC or its SDR repository changed: walk the SDR repository, which compiles the plan
+			return readSensors(info);
+		}
+
+		final List<Sensor> result = new ArrayList<>();
+
+		pollReadings(plan, getTarget(result));
+
+		return result;
+	}
+
+}
@@ -22,20 +22,25 @@ package org.metricshub.ipmi.client.runner;
  * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
  */
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import org.metricshub.ipmi.client.IpmiClientConfiguration;
+import org.metricshub.ipmi.client.SensorConsumer;
 import org.metricshub.ipmi.client.Utils;
 import org.metricshub.ipmi.client.model.ReadingTypeDescription;
 import org.metricshub.ipmi.client.model.Sensor;
 import org.metricshub.ipmi.core.coding.commands.IpmiVersion;
+import org.metricshub.ipmi.core.coding.commands.ResponseData;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrRepositoryInfoResponseData;
 import org.metricshub.ipmi.core.coding.commands.sdr.GetSensorReading;
 import org.metricshub.ipmi.core.coding.commands.sdr.GetSensorReadingResponseData;
-import org.metricshub.ipmi.core.coding.commands.sdr.ReserveSdrRepository;
-import org.metricshub.ipmi.core.coding.commands.sdr.ReserveSdrRepositoryResponseData;
 import org.metricshub.ipmi.core.coding.commands.sdr.record.CompactSensorRecord;
 import org.metricshub.ipmi.core.coding.commands.sdr.record.FullSensorRecord;
 import org.metricshub.ipmi.core.coding.commands.sdr.record.ReadingType;
@@ -52,74 +57,256 @@ public class GetSensorsRunner extends AbstractIpmiRunner<List<Sensor>> {
 
 	private static final int OEM_EVENT_READING_TYPE = 127;
 
+	/**
+	 * Receives the sensors as they are read, <code>null</code> to return them all at the end of the call
+	 */
+	private final SensorConsumer consumer;
+
+	/**
+	 * Whether sensors have already been handed to the consumer
+	 */
+	private volatile boolean delivered;
+
 	public GetSensorsRunner(IpmiClientConfiguration ipmiConfiguration) {
+		this(ipmiConfiguration, null);
+	}
+
+	/**
+	 * Create a runner handing each sensor to the given consumer as soon as its reading is available. The sensors are not
+	 * kept by the runner, {@link #call()} then returns an empty list.
+	 * 
+	 * @param ipmiConfiguration Wraps the IPMI device hostname and the credentials
+	 * @param consumer          Receives the sensors
+	 */
+	public GetSensorsRunner(IpmiClientConfiguration ipmiConfiguration, SensorConsumer consumer) {
 		super(ipmiConfiguration);
+		this.consumer = consumer;
 	}
 
 	@Override
 	public List<Sensor> call() throws Exception {
 
+		super.startSession();
+
+		return readSensors(getSdrRepositoryInfo());
+	}
+
+	/**
+	 * Walk the SDR repository, get the readings of its sensors and compile the {@link SensorPollPlan} of the BMC. The
+	 * session must be started.
+	 * 
+	 * @param info Current state of the SDR repository, <code>null</code> if unknown
+	 * @return List of {@link Sensor} instances, empty if they are handed to a consumer
+	 * @throws Exception If a record or a reading cannot be fetched
+	 */
+	List<Sensor> readSensors(final GetSdrRepositoryInfoResponseData info) throws Exception {
+
+		final List<SensorRecord> sensorRecords = new ArrayList<>();
 		final List<Sensor> result = new ArrayList<>();
 
-		super.startSession();
+		// Readings are requested while the SDR repository is walked, and each sensor goes out as soon as it is read
+		final ReadingWindow readings = new ReadingWindow(getTarget(result));
 
-		// Id 0 indicates first record in SDR. Next IDs can be retrieved from
-		// records - they are organized in a list and there is no BMC command to
-		// get all of them.
-		nextRecId = 0;
+		walkSdrRepository(sensorRecord -> {
+			if (collectSensorRecord(sensorRecords, sensorRecord)) {
+				readings.add(sensorRecord, getReadingId(sensorRecord));
+			}
+		}, info);
 
-		// Some BMCs allow getting sensor records without reservation, so we try
-		// to do it that way first
-		int reservationId = 0;
-		int lastReservationId = -1;
+		readings.flush();
 
-		// We get sensor data until we encounter ID = 65535 which means that
-		// this record is the last one.
-		while (nextRecId < MAX_REPO_RECORD_ID) {
+		// Later readings-only polls of this BMC will use these records, as long as the repository does not change
+		SensorPollPlan.put(getBmcKey(), SensorPollPlan.compile(sensorRecords, info));
 
-			SensorRecord sensorRecord = null;
+		return result;
+	}
 
-			try {
-				// Populate the sensor record and get ID of the next record in
-				// repository (see #getSensorData for details).
-				sensorRecord = super.getSensorData(reservationId);
+	@Override
+	protected boolean isRetryable() {
+		return !delivered;
+	}
 
-				if (sensorRecord instanceof FullSensorRecord || sensorRecord instanceof CompactSensorRecord) {
-					int recordReadingId = getReadingId(sensorRecord);
+	/**
+	 * @param result The list collecting the sensors when there is no consumer
+	 * @return Where the sensors of this call go
+	 */
+	SensorConsumer getTarget(final List<Sensor> result) {
+		if (consumer == null) {
+			return result::add;
+		}
 
-					// If our record has got a reading associated, we get request
-					// for it
-					GetSensorReadingResponseData data = getSensorRecordReading(recordReadingId);
+		return sensor -> {
+			delivered = true;
+			consumer.accept(sensor);
+		};
+	}
 
-					// Build the states e.g. deviceName=OK|deviceName=Device Present
-					String states = buildStates(data, sensorRecord);
+	/**
+	 * Add the given sensor record to the <code>sensorRecords</code> list if it is a Full or Compact sensor record, since
+	 * these types have readings associated with them
+	 * 
+	 * @param sensorRecords List of sensor records to append
+	 * @param sensorRecord  The sensor record to process
+	 * @return Whether the sensor record was added
+	 */
+	boolean collectSensorRecord(final List<SensorRecord> sensorRecords, final SensorRecord sensorRecord) {
+		if (sensorRecord instanceof FullSensorRecord || sensorRecord instanceof CompactSensorRecord) {
+			sensorRecords.add(sensorRecord);
+			return true;
+		}
+		return false;
+	}
 
-					// Add the sensor to the result
-					result.add(new Sensor(sensorRecord, data, states));
-				}
+	/**
+	 * Get the readings of all the sensors of the plan and build the resulting {@link Sensor} instances.
+	 * 
+	 * @param plan The {@link SensorPollPlan} of the BMC
+	 * @return List of {@link Sensor} instances, in the order of the plan
+	 * @throws Exception If a sensor reading request fails
+	 */
+	List<Sensor> pollReadings(final SensorPollPlan plan) throws Exception {
+		final List<Sensor> result = new ArrayList<>(plan.size());
 
-			} catch (IPMIException e) {
+		pollReadings(plan, result::add);
 
-				// If getting sensor data failed, we check if it already failed
-				// with this reservation ID, so that we avoid the infinite loop.
-				if (lastReservationId == reservationId || e.getCompletionCode() != CompletionCode.ReservationCanceled) {
-					throw e;
-				}
+		return result;
+	}
+
+	/**
+	 * Get the readings of all the sensors of the plan and hand the resulting {@link Sensor} instances to the consumer.
+	 * 
+	 * @param plan   The {@link SensorPollPlan} of the BMC
+	 * @param target Receives the sensors, in the order of the plan
+	 * @throws Exception If a sensor reading request fails
+	 */
+	void pollReadings(final SensorPollPlan plan, final SensorConsumer target) throws Exception {
+		final ReadingWindow readings = new ReadingWindow(target);
+
+		for (int i = 0; i < plan.size(); i++) {
+			readings.add(plan.getRecord(i), plan.getSensorNumber(i));
+		}
 
-				lastReservationId = reservationId;
+		readings.flush();
+	}
+
+	/**
+	 * Keeps up to {@link IpmiClientConfiguration#getPipelineWindow()} GetSensorReading requests in flight on the session,
+	 * so that a poll costs about <em>sensors / window</em> round trips instead of one per sensor. Sensors are handed to
+	 * the consumer in the order they were added, as soon as their reading is available.
+	 */
+	private class ReadingWindow {
+
+		private final int window = Math.max(1, ipmiConfiguration.getPipelineWindow());
+		private final Deque<PendingReading> pending = new ArrayDeque<>();
+		private final SensorConsumer target;
+
+		ReadingWindow(SensorConsumer target) {
+			this.target = target;
+		}
+
+		/**
+		 * Request the reading of the sensor, then process the oldest request if the window is full
+		 * 
+		 * @param sensorRecord The Full or Compact sensor record
+		 * @param sensorNumber The reading identifier of the sensor record, -1 if it has no reading
+		 * @throws Exception If a sensor reading request fails
+		 */
+		void add(final SensorRecord sensorRecord, final int sensorNumber) throws Exception {
+			checkDeadline();
+
+			pending.add(new PendingReading(sensorRecord, sensorNumber, sendSensorReadingRequest(sensorNumber)));
 
-				// If the cause of the failure was canceling of the
-				// reservation, we get new reservationId and retry. This can
-				// happen many times during getting all sensors, since BMC can't
-				// manage parallel sessions and invalidates old one if new one
-				// appears.
-				reservationId = ((ReserveSdrRepositoryResponseData) connector.sendMessage(handle,
-						new ReserveSdrRepository(IpmiVersion.V20, handle.getCipherSuite(), AuthenticationType.RMCPPlus))).getReservationId();
+			if (pending.size() >= window) {
+				processOldest();
 			}
+		}
 
+		/**
+		 * Process all the requests in flight
+		 * 
+		 * @throws Exception If a sensor reading request fails
+		 */
+		void flush() throws Exception {
+			while (!pending.isEmpty()) {
+				processOldest();
+			}
 		}
 
-		return result;
+		private void processOldest() throws Exception {
+			final PendingReading reading = pending.poll();
+
+			GetSensorReadingResponseData data = awaitSensorReading(reading.response, reading.sensorNumber);
+
+			// Build the states e.g. deviceName=OK|deviceName=Device Present
+			target.accept(new Sensor(reading.sensorRecord, data, buildStates(data, reading.sensorRecord)));
+		}
+	}
+
+	/**
+	 * A GetSensorReading request in flight
+	 */
+	private static class PendingReading {
+
+		private final SensorRecord sensorRecord;
+		private final int sensorNumber;
+		private final CompletableFuture<ResponseData> response;
+
+		PendingReading(SensorRecord sensorRecord, int sensorNumber, CompletableFuture<ResponseData> response) {
+			this.sensorRecord = sensorRecord;
+			this.sensorNumber = sensorNumber;
+			this.response = response;
+		}
+	}
+
+	/**
+	 * Send the GetSensorReading request without waiting for the response
+	 * 
+	 * @param recordReadingId the reading identifier of the sensor record
+	 * @return The future response or <code>null</code> if the sensor has no reading
+	 */
+	private CompletableFuture<ResponseData> sendSensorReadingRequest(final int recordReadingId) {
+		if (recordReadingId < 0) {
+			return null;
+		}
+
+		return connector.sendMessageAsync(handle,
+				new GetSensorReading(IpmiVersion.V20, handle.getCipherSuite(), AuthenticationType.RMCPPlus, recordReadingId));
+	}
+
+	/**
+	 * Wait for the response of a GetSensorReading request sent by {@link #sendSensorReadingRequest(int)}
+	 * 
+	 * @param request         The future response, <code>null</code> if the sensor has no reading
+	 * @param recordReadingId the reading identifier of the sensor record
+	 * @return {@link GetSensorReadingResponseData} instance or <code>null</code> if there is no reading
+	 * @throws Exception if the request failed
+	 */
+	private GetSensorReadingResponseData awaitSensorReading(final CompletableFuture<ResponseData> request,
+			final int recordReadingId) throws Exception {
+		if (request == null) {
+			return null;
+		}
+
+		try {
+			return (GetSensorReadingResponseData) await(request);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+
+			if (cause instanceof IPMIException) {
+				if (((IPMIException) cause).getCompletionCode() == CompletionCode.DataNotPresent) {
+					return null;
+				}
+
+				// The BMC may be busy, send the request again the synchronous way, which retries as configured
+				return getSensorRecordReading(recordReadingId);
+			}
+
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+
+			throw e;
+		}
 	}
 
 	/**
@@ -223,7 +410,7 @@ public class GetSensorsRunner extends AbstractIpmiRunner<List<Sensor>> {
 	 * @return {@link GetSensorReadingResponseData} instance
 	 * @throws Exception at sendMessage or if the error completion code is not DataNotPresent
 	 */
-	private GetSensorReadingResponseData getSensorRecordReading(final int recordReadingId) throws Exception {
+	GetSensorReadingResponseData getSensorRecordReading(final int recordReadingId) throws Exception {
 		try {
 			// If we have a reading id means the reading data (e.g. temperature) is potentially available so let's perform the re
 			if (recordReadingId >= 0) {
@@ -245,7 +432,7 @@ public class GetSensorsRunner extends AbstractIpmiRunner<List<Sensor>> {
 	 * @param sensorRecord {@link SensorRecord} instance expected as Full or Compact.
 	 * @return The sensor number of the record otherwise -1 if cannot determine the record type.
 	 */
-	private int getReadingId(final SensorRecord sensorRecord) {
+	static int getReadingId(final SensorRecord sensorRecord) {
 		// We check if the received record is either FullSensorRecord or
 		// CompactSensorRecord, since these types have readings
 		// associated with them (see IPMI specification for details).
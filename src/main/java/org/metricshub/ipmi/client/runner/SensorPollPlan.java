@@ -0,0 +1,133 @@
+package org.metricshub.ipmi.client.runner;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrRepositoryInfoResponseData;
+import org.metricshub.ipmi.core.coding.commands.sdr.record.SensorRecord;
+
+/**
+ * What is needed to poll the readings of the sensors of a BMC once its SDR repository has been read: the sensor numbers,
+ * in a primitive array, and the decoded Full and Compact sensor records, which carry the conversion factors, thresholds
+ * and event reading types used to interpret the readings. Polling against a plan sends GetSensorReading commands only.
+ * <p>
+ * The plans are kept for each BMC and replaced each time its SDR repository is walked by a sensors runner. A plan
+ * carries the state of the repository it was compiled from, as returned by Get SDR Repository Info, so that it is
+ * compiled again once the repository changed.
+ * </p>
+ */
+class SensorPollPlan {
+
+	private static final ConcurrentMap<String, SensorPollPlan> PLANS = new ConcurrentHashMap<>();
+
+	private final int[] sensorNumbers;
+	private final SensorRecord[] records;
+
+	/**
+	 * State of the SDR repository the plan was compiled from, <code>null</code> if unknown
+	 */
+	private final GetSdrRepositoryInfoResponseData info;
+
+	private SensorPollPlan(int[] sensorNumbers, SensorRecord[] records, GetSdrRepositoryInfoResponseData info) {
+		this.sensorNumbers = sensorNumbers;
+		this.records = records;
+		this.info = info;
+	}
+
+	/**
+	 * Compile the plan from the records collected by a walk of the SDR repository.
+	 *
+	 * @param sensorRecords The Full and Compact sensor records
+	 * @param info          State of the SDR repository before it was walked, <code>null</code> if unknown
+	 * @return new {@link SensorPollPlan} instance
+	 */
+	static SensorPollPlan compile(final List<SensorRecord> sensorRecords, final GetSdrRepositoryInfoResponseData info) {
+		final int size = sensorRecords.size();
+		final int[] sensorNumbers = new int[size];
+		final SensorRecord[] records = new SensorRecord[size];
+
+		for (int i = 0; i < size; i++) {
+			records[i] = sensorRecords.get(i);
+			sensorNumbers[i] = GetSensorsRunner.getReadingId(records[i]);
+		}
+
+		return new SensorPollPlan(sensorNumbers, records, info);
+	}
+
+	/**
+	 * @param currentInfo Current state of the SDR repository, <code>null</code> if the BMC does not tell it
+	 * @return Whether the plan was compiled from the current content of the repository. When the BMC does not tell the
+	 *         state of its repository, the plan is assumed to be up to date.
+	 */
+	boolean matches(final GetSdrRepositoryInfoResponseData currentInfo) {
+		if (currentInfo == null) {
+			return true;
+		}
+
+		return info != null && info.getRecordCount() == currentInfo.getRecordCount()
+				&& info.getAddTimestamp() == currentInfo.getAddTimestamp()
+				&& info.getDelTimestamp() == currentInfo.getDelTimestamp();
+	}
+
+	/**
+	 * @param bmc Identifies the BMC
+	 * @return The plan of the BMC or <code>null</code> if its SDR repository has not been walked yet
+	 */
+	static SensorPollPlan get(final String bmc) {
+		return PLANS.get(bmc);
+	}
+
+	/**
+	 * @param bmc  Identifies the BMC
+	 * @param plan The plan compiled from the last walk of the SDR repository of the BMC
+	 */
+	static void put(final String bmc, final SensorPollPlan plan) {
+		PLANS.put(bmc, plan);
+	}
+
+	/**
+	 * @return The number of sensors to poll
+	 */
+	int size() {
+		return sensorNumbers.length;
+	}
+
+	/**
+	 * @param index Index of the sensor in the plan
+	 * @return The sensor number to send in GetSensorReading, -1 if the sensor has no reading
+	 */
+	int getSensorNumber(final int index) {
+		return sensorNumbers[index];
+	}
+
+	/**
+	 * @param index Index of the sensor in the plan
+	 * @return The Full or Compact sensor record of the sensor
+	 */
+	SensorRecord getRecord(final int index) {
+		return records[index];
+	}
+}
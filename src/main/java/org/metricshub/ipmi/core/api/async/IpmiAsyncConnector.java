@@ -32,6 +32,7 @@ import org.metricshub.ipmi.core.coding.commands.session.GetChannelAuthentication
 import org.metricshub.ipmi.core.coding.payload.IpmiPayload;
 import org.metricshub.ipmi.core.coding.protocol.PayloadType;
 import org.metricshub.ipmi.core.coding.security.CipherSuite;
+import org.metricshub.ipmi.core.common.HashedWheelTimer;
 import org.metricshub.ipmi.core.common.PropertiesManager;
 import org.metricshub.ipmi.core.connection.Connection;
 import org.metricshub.ipmi.core.connection.ConnectionException;
@@ -39,12 +40,27 @@ import org.metricshub.ipmi.core.connection.ConnectionListener;
 import org.metricshub.ipmi.core.connection.ConnectionManager;
 import org.metricshub.ipmi.core.connection.Session;
 import org.metricshub.ipmi.core.connection.SessionManager;
+import org.metricshub.ipmi.core.transport.Messenger;
+import org.metricshub.ipmi.core.transport.NioUdpMessenger;
+import org.metricshub.ipmi.core.transport.SelectorGroup;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -72,7 +88,9 @@ import org.slf4j.LoggerFactory;
  * <p>
  * To send message register for receiving answers via
  * {@link #registerListener(IpmiResponseListener)} and send message via
- * {@link #sendMessage(ConnectionHandle, PayloadCoder, boolean)}
+ * {@link #sendMessage(ConnectionHandle, PayloadCoder, boolean)}, or get the
+ * answer of a single request as a {@link CompletableFuture} via
+ * {@link #submit(ConnectionHandle, PayloadCoder)}
  * </p>
  * <br>
  * <p>
@@ -85,9 +103,33 @@ public class IpmiAsyncConnector implements ConnectionListener {
     private ConnectionManager connectionManager;
     private SessionManager sessionManager;
     private int retries;
-    private final List<IpmiResponseListener> responseListeners;
+    private final List<IpmiResponseListener> responseListeners = new CopyOnWriteArrayList<IpmiResponseListener>();
     private final List<InboundMessageListener> inboundMessageListeners;
 
+    /**
+     * Handles of the open connections, attached to the responses passed to
+     * the {@link IpmiResponseListener}s.
+     */
+    private final ConcurrentMap<Integer, ConnectionHandle> connectionHandles = new ConcurrentHashMap<Integer, ConnectionHandle>();
+
+    /**
+     * Requests sent via {@link #submit(ConnectionHandle, PayloadCoder)} waiting
+     * for the response, keyed by connection handle and tag.
+     */
+    private final ConcurrentMap<Long, PendingRequest> pendingRequests = new ConcurrentHashMap<Long, PendingRequest>();
+
+    /**
+     * Runs the blocking session handshakes of {@link #openSessionAsync} and
+     * {@link #closeSessionAsync}.
+     */
+    private ExecutorService handshakeExecutor;
+
+    /**
+     * Delay before a request that found the message queue full is submitted
+     * again.
+     */
+    private static final long QUEUE_FULL_DELAY = 10;
+
     private static Logger logger = LoggerFactory.getLogger(IpmiAsyncConnector.class);
 
     /**
@@ -102,7 +144,6 @@ public class IpmiAsyncConnector implements ConnectionListener {
      *             when properties file was not found
      */
     public IpmiAsyncConnector(int port) throws IOException {
-        responseListeners = new ArrayList<IpmiResponseListener>();
         inboundMessageListeners = new ArrayList<InboundMessageListener>();
         connectionManager = new ConnectionManager(port);
         sessionManager = new SessionManager();
@@ -124,7 +165,6 @@ public class IpmiAsyncConnector implements ConnectionListener {
      *             when properties file was not found
      */
     public IpmiAsyncConnector(int port, InetAddress address) throws IOException {
-        responseListeners = new ArrayList<IpmiResponseListener>();
         inboundMessageListeners = new ArrayList<InboundMessageListener>();
         connectionManager = new ConnectionManager(port, address);
         sessionManager = new SessionManager();
@@ -143,13 +183,28 @@ public class IpmiAsyncConnector implements ConnectionListener {
 	 *                     error.
 	 */
 	public IpmiAsyncConnector(int port, long pingPeriod) throws IOException {
-		responseListeners = new ArrayList<>();
 		inboundMessageListeners = new ArrayList<>();
 		connectionManager = new ConnectionManager(port, pingPeriod);
 		sessionManager = new SessionManager();
 		loadProperties();
 	}
 
+	/**
+	 * Starts {@link IpmiAsyncConnector} and initiates the {@link ConnectionManager}
+	 * on top of the given {@link Messenger}, e.g. a {@link NioUdpMessenger} served
+	 * by a shared {@link SelectorGroup}.
+	 * 
+	 * @param messenger the {@link Messenger} that will be used by
+	 *                  {@link IpmiAsyncConnector} to communicate with the remote
+	 *                  hosts.
+	 */
+	public IpmiAsyncConnector(Messenger messenger) {
+		inboundMessageListeners = new ArrayList<>();
+		connectionManager = new ConnectionManager(messenger);
+		sessionManager = new SessionManager();
+		loadProperties();
+	}
+
 	/**
 	 * Loads properties from the properties file.
 	 */
@@ -172,7 +227,9 @@ public class IpmiAsyncConnector implements ConnectionListener {
             throws IOException {
         int handle = connectionManager.createConnection(address, port);
         connectionManager.getConnection(handle).registerListener(this);
-        return new ConnectionHandle(handle, address, port);
+        ConnectionHandle connectionHandle = new ConnectionHandle(handle, address, port);
+        connectionHandles.put(handle, connectionHandle);
+        return connectionHandle;
     }
 
     /**
@@ -194,6 +251,7 @@ public class IpmiAsyncConnector implements ConnectionListener {
         ConnectionHandle connectionHandle = new ConnectionHandle(handle, address, port);
         connectionHandle.setCipherSuite(cipherSuite);
         connectionHandle.setPrivilegeLevel(privilegeLevel);
+        connectionHandles.put(handle, connectionHandle);
 
         return connectionHandle;
     }
@@ -221,7 +279,8 @@ public class IpmiAsyncConnector implements ConnectionListener {
                         .getAvailableCipherSuites(connectionHandle.getHandle());
             } catch (Exception e) {
                 logger.warn(FAILED_TO_RECEIVE_ANSWER_CAUSE_MESSAGE, e);
-                if (tries > retries) {
+                // No use retrying once the deadline has passed
+                if (tries > retries || e instanceof TimeoutException) {
                     throw e;
                 }
             }
@@ -262,7 +321,8 @@ public class IpmiAsyncConnector implements ConnectionListener {
                 connectionHandle.setPrivilegeLevel(requestedPrivilegeLevel);
             } catch (Exception e) {
                 logger.warn(FAILED_TO_RECEIVE_ANSWER_CAUSE_MESSAGE, e);
-                if (tries > retries) {
+                // No use retrying once the deadline has passed
+                if (tries > retries || e instanceof TimeoutException) {
                     throw e;
                 }
             }
@@ -311,7 +371,8 @@ public class IpmiAsyncConnector implements ConnectionListener {
                 succeded = true;
             } catch (Exception e) {
                 logger.warn(FAILED_TO_RECEIVE_ANSWER_CAUSE_MESSAGE, e);
-                if (tries > retries) {
+                // No use retrying once the deadline has passed
+                if (tries > retries || e instanceof TimeoutException) {
                     throw e;
                 }
             }
@@ -335,6 +396,31 @@ public class IpmiAsyncConnector implements ConnectionListener {
         return sessionManager.getSessionForCriteria(remoteAddress, remotePort, user);
     }
 
+    /**
+     * Checks if the session of the connection is currently open.
+     *
+     * @param connectionHandle
+     *            - {@link ConnectionHandle} associated with the remote host.
+     * @return true if the session is open, false otherwise
+     */
+    public boolean isSessionValid(ConnectionHandle connectionHandle) {
+        Connection connection = connectionManager.getConnection(connectionHandle.getHandle());
+        return connection != null && connection.isActive() && connection.isSessionValid();
+    }
+
+    /**
+     * Checks if the connection sends keep-alive messages, so that its session
+     * stays open while no request is sent.
+     *
+     * @param connectionHandle
+     *            - {@link ConnectionHandle} associated with the remote host.
+     * @return true if keep-alive messages are sent, false otherwise
+     */
+    public boolean isKeptAlive(ConnectionHandle connectionHandle) {
+        Connection connection = connectionManager.getConnection(connectionHandle.getHandle());
+        return connection != null && connection.isActive() && connection.isKeptAlive();
+    }
+
     /**
      * Closes the session with the remote host if it is currently in open state.
      *
@@ -372,6 +458,101 @@ public class IpmiAsyncConnector implements ConnectionListener {
         return;
     }
 
+    /**
+     * Establishes the session with the remote host without blocking the
+     * caller. The handshake runs on a thread of the connector.
+     *
+     * @param connectionHandle
+     *            - {@link ConnectionHandle} associated with the remote host.
+     * @param username
+     *            - the username
+     * @param password
+     *            - password matching the username
+     * @param bmcKey
+     *            - the key that should be provided if the two-key
+     *            authentication is enabled, null otherwise.
+     * @return future completed with the {@link Session} or with the exception
+     *         {@link #openSession(ConnectionHandle, String, String, byte[])}
+     *         would throw
+     */
+    public CompletableFuture<Session> openSessionAsync(final ConnectionHandle connectionHandle,
+            final String username, final String password, final byte[] bmcKey) {
+        final CompletableFuture<Session> future = new CompletableFuture<Session>();
+
+        getHandshakeExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    future.complete(openSession(connectionHandle, username, password, bmcKey));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Closes the session with the remote host without blocking the caller.
+     *
+     * @param connectionHandle
+     *            - {@link ConnectionHandle} associated with the remote host.
+     * @return future completed when the session is closed or with the
+     *         exception {@link #closeSession(ConnectionHandle)} would throw
+     */
+    public CompletableFuture<Void> closeSessionAsync(final ConnectionHandle connectionHandle) {
+        final CompletableFuture<Void> future = new CompletableFuture<Void>();
+
+        getHandshakeExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    closeSession(connectionHandle);
+                    future.complete(null);
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Sends the IPMI request to the remote host without blocking the caller.
+     * The request is tagged and retried on timeout by the connection's message
+     * queue, up to the configured number of retries.
+     * <p>
+     * The future is completed on the thread receiving the response, so
+     * dependent stages doing more than a little work should use the
+     * <code>*Async</code> methods of {@link CompletableFuture}.
+     * </p>
+     *
+     * @param connectionHandle
+     *            - {@link ConnectionHandle} associated with the remote host.
+     * @param request
+     *            - {@link PayloadCoder} containing the request to be sent
+     * @return future completed with the {@link ResponseData} of the response,
+     *         or exceptionally when the request failed or timed out
+     */
+    public CompletableFuture<ResponseData> submit(ConnectionHandle connectionHandle, PayloadCoder request) {
+        PendingRequest pendingRequest = new PendingRequest(connectionHandle.getHandle(), request);
+        pendingRequest.send();
+        return pendingRequest.future;
+    }
+
+    private synchronized ExecutorService getHandshakeExecutor() {
+        if (handshakeExecutor == null) {
+            handshakeExecutor = Executors.newCachedThreadPool(new AsyncThreadFactory("ipmi-handshake-"));
+        }
+        return handshakeExecutor;
+    }
+
+    private static long pendingRequestKey(int handle, int tag) {
+        return ((long) handle << 32) | (tag & 0xffffffffL);
+    }
+
     /**
      * Sends the IPMI message to the remote host.
      *
@@ -447,9 +628,7 @@ public class IpmiAsyncConnector implements ConnectionListener {
      *            {@link IpmiResponseListener} to processResponse
      */
     public void registerListener(IpmiResponseListener listener) {
-        synchronized (responseListeners) {
-            responseListeners.add(listener);
-        }
+        responseListeners.add(listener);
     }
 
     /**
@@ -460,9 +639,7 @@ public class IpmiAsyncConnector implements ConnectionListener {
      *            - the {@link IpmiResponseListener} to unregister
      */
     public void unregisterListener(IpmiResponseListener listener) {
-        synchronized (responseListeners) {
-            responseListeners.remove(listener);
-        }
+        responseListeners.remove(listener);
     }
 
     /**
@@ -491,26 +668,52 @@ public class IpmiAsyncConnector implements ConnectionListener {
 
     @Override
     public void processResponse(ResponseData responseData, int handle, int tag, Exception exception) {
-        IpmiResponse response = null;
-        Connection connection = connectionManager.getConnection(handle);
+        PendingRequest pendingRequest = pendingRequests.get(pendingRequestKey(handle, tag));
+
+        if (pendingRequest != null) {
+            pendingRequest.processResponse(tag, responseData, exception);
+            return;
+        }
+
+        if (responseListeners.isEmpty()) {
+            return;
+        }
+
+        IpmiResponse response;
+        ConnectionHandle connectionHandle = getConnectionHandle(handle);
+        if (connectionHandle == null) {
+            // Late response on a connection which was closed since
+            return;
+        }
 
         if (responseData == null || exception != null) {
             Exception notNullException = exception != null ? exception : new Exception("Empty response");
 
-            response = new IpmiError(notNullException, tag, new ConnectionHandle(
-                    handle, connection.getRemoteMachineAddress(), connection.getRemoteMachinePort()));
+            response = new IpmiError(notNullException, tag, connectionHandle);
         } else {
-            response = new IpmiResponseData(responseData, tag,
-                    new ConnectionHandle(handle, connection.getRemoteMachineAddress(), connection.getRemoteMachinePort()));
+            response = new IpmiResponseData(responseData, tag, connectionHandle);
+        }
 
+        for (IpmiResponseListener listener : responseListeners) {
+            if (listener != null) {
+                listener.notify(response);
+            }
         }
-        synchronized (responseListeners) {
-            for (IpmiResponseListener listener : responseListeners) {
-                if (listener != null) {
-                    listener.notify(response);
-                }
+    }
+
+    private ConnectionHandle getConnectionHandle(int handle) {
+        ConnectionHandle connectionHandle = connectionHandles.get(handle);
+
+        if (connectionHandle == null) {
+            Connection connection = connectionManager.getConnection(handle);
+            if (connection == null) {
+                return null;
             }
+            connectionHandle = new ConnectionHandle(handle, connection.getRemoteMachineAddress(),
+                    connection.getRemoteMachinePort());
         }
+
+        return connectionHandle;
     }
 
     @Override
@@ -526,9 +729,13 @@ public class IpmiAsyncConnector implements ConnectionListener {
      * Closes the connection with the given handle
      */
     public void closeConnection(ConnectionHandle handle) {
-        connectionManager.getConnection(handle.getHandle()).unregisterListener(
-                this);
+        Connection connection = connectionManager.getConnection(handle.getHandle());
+        if (connection != null) {
+            connection.unregisterListener(this);
+        }
         connectionManager.closeConnection(handle.getHandle());
+        connectionHandles.remove(handle.getHandle());
+        failPendingRequests(handle.getHandle());
     }
 
     /**
@@ -536,6 +743,24 @@ public class IpmiAsyncConnector implements ConnectionListener {
      */
     public void tearDown() {
         connectionManager.close();
+        failPendingRequests(-1);
+        synchronized (this) {
+            if (handshakeExecutor != null) {
+                handshakeExecutor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Fails the requests submitted to the connection with the given handle, or
+     * to all connections if handle is -1.
+     */
+    private void failPendingRequests(int handle) {
+        for (PendingRequest pendingRequest : pendingRequests.values()) {
+            if (handle == -1 || pendingRequest.handle == handle) {
+                pendingRequest.fail(new ConnectionException("Connection closed"));
+            }
+        }
     }
 
     /**
@@ -549,4 +774,186 @@ public class IpmiAsyncConnector implements ConnectionListener {
         connectionManager.getConnection(handle.getHandle()).setTimeout(timeout);
     }
 
+    /**
+     * Sets the time by which the session with the given handle must be established. Once it has passed,
+     * {@link #getAvailableCipherSuites(ConnectionHandle)},
+     * {@link #getChannelAuthenticationCapabilities(ConnectionHandle, CipherSuite, PrivilegeLevel)} and
+     * {@link #openSession(ConnectionHandle, String, String, byte[])} stop waiting and retrying, and throw a
+     * {@link TimeoutException}.
+     * @param handle
+     * - {@link ConnectionHandle} associated with the remote host.
+     * @param deadline
+     * - the deadline as a {@link System#nanoTime()} value, or 0 to wait as long as the timeouts and retries allow
+     */
+    public void setDeadline(ConnectionHandle handle, long deadline) {
+        Connection connection = connectionManager.getConnection(handle.getHandle());
+        if (connection != null) {
+            connection.setDeadline(deadline);
+        }
+    }
+
+    /**
+     * Request sent via {@link IpmiAsyncConnector#submit(ConnectionHandle, PayloadCoder)}.
+     */
+    private class PendingRequest {
+
+        private final int handle;
+
+        private final PayloadCoder request;
+
+        private final CompletableFuture<ResponseData> future;
+
+        private volatile int tag = -1;
+
+        private volatile int tries;
+
+        private PendingRequest(int handle, PayloadCoder request) {
+            this.handle = handle;
+            this.request = request;
+            this.future = new CompletableFuture<ResponseData>();
+            this.future.whenComplete(new BiConsumer<ResponseData, Throwable>() {
+                @Override
+                public void accept(ResponseData responseData, Throwable throwable) {
+                    if (future.isCancelled()) {
+                        abandon();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Sends the request with a new tag. The request is registered under
+         * that tag before the message leaves, so the response cannot be missed.
+         */
+        private void send() {
+            if (future.isDone()) {
+                return;
+            }
+
+            ++tries;
+
+            try {
+                Connection connection = connectionManager.getConnection(handle);
+                if (connection == null) {
+                    fail(new ConnectionException("Connection " + handle + " is closed"));
+                    return;
+                }
+                int newTag = connection.sendMessage(request, false, new IntConsumer() {
+                    @Override
+                    public void accept(int assignedTag) {
+                        tag = assignedTag;
+                        pendingRequests.put(pendingRequestKey(handle, assignedTag), PendingRequest.this);
+
+                        // Cancelled before the tag was known
+                        if (future.isCancelled()) {
+                            abandon();
+                        }
+                    }
+                });
+
+                if (newTag < 0) {
+                    // MessageQueue is full so we need to wait and retry
+                    --tries;
+                    HashedWheelTimer.getDefault().schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            send();
+                        }
+                    }, QUEUE_FULL_DELAY, TimeUnit.MILLISECONDS);
+                } else {
+                    logger.debug("Sending message with tag " + newTag + ", try " + tries);
+                }
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+
+        private void processResponse(int responseTag, ResponseData responseData, Exception exception) {
+            if (exception == null && responseData != null) {
+                pendingRequests.remove(pendingRequestKey(handle, responseTag), this);
+                future.complete(responseData);
+            } else if (exception instanceof ConnectionException && tries <= retries) {
+                retry(responseTag);
+            } else {
+                fail(exception != null ? exception : new Exception("Empty response"));
+            }
+        }
+
+        /**
+         * Resends the message that timed out. If the message queue already
+         * dropped it, the request is sent again with a new tag.
+         */
+        private void retry(int timedOutTag) {
+            if (future.isDone()) {
+                return;
+            }
+
+            logger.warn(FAILED_TO_RECEIVE_ANSWER_CAUSE_MESSAGE + " message with tag " + timedOutTag
+                    + " timed out, retrying");
+            try {
+                Connection connection = connectionManager.getConnection(handle);
+                if (connection == null) {
+                    fail(new ConnectionException("Connection " + handle + " is closed"));
+                    return;
+                }
+                if (connection.retry(timedOutTag, request.getSupportedPayloadType()) >= 0) {
+                    ++tries;
+                    return;
+                }
+            } catch (Exception e) {
+                fail(e);
+                return;
+            }
+
+            pendingRequests.remove(pendingRequestKey(handle, timedOutTag), this);
+            send();
+        }
+
+        private void fail(Exception exception) {
+            if (tag >= 0) {
+                pendingRequests.remove(pendingRequestKey(handle, tag), this);
+            }
+            future.completeExceptionally(exception);
+        }
+
+        /**
+         * Forgets the request once its future was cancelled: its tag is freed
+         * in the message queue, so it is neither retried nor reported as timed
+         * out, and its response is dropped.
+         */
+        private void abandon() {
+            int currentTag = tag;
+            if (currentTag < 0) {
+                return;
+            }
+
+            pendingRequests.remove(pendingRequestKey(handle, currentTag), this);
+
+            Connection connection = connectionManager.getConnection(handle);
+            if (connection != null) {
+                connection.cancel(currentTag, request);
+            }
+        }
+    }
+
+    /**
+     * Creates daemon threads for the asynchronous operations.
+     */
+    private static class AsyncThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private AsyncThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
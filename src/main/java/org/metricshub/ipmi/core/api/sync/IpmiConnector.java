@@ -39,6 +39,7 @@ import org.metricshub.ipmi.core.connection.Connection;
 import org.metricshub.ipmi.core.connection.ConnectionException;
 import org.metricshub.ipmi.core.connection.ConnectionManager;
 import org.metricshub.ipmi.core.connection.Session;
+import org.metricshub.ipmi.core.transport.Messenger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +49,12 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * <p> Synchronous API for connecting to BMC via IPMI. </p> <br>Creating connection consists of the following steps:
@@ -78,6 +85,11 @@ public class IpmiConnector {
 
     private Random random = new Random(System.currentTimeMillis());
 
+    /**
+     * Deadlines of the connections, as {@link System#nanoTime()} values, by connection handle
+     */
+    private final ConcurrentMap<Integer, Long> deadlines = new ConcurrentHashMap<Integer, Long>();
+
     /**
      * Starts {@link IpmiConnector} and initiates the {@link ConnectionManager} at the given port. Wildcard IP address
      * will be used.
@@ -125,6 +137,19 @@ public class IpmiConnector {
 		loadProperties();
 	}
 
+	/**
+	 * Starts {@link IpmiConnector} and initiates the {@link ConnectionManager} on
+	 * top of the given {@link Messenger}.
+	 * 
+	 * @param messenger the {@link Messenger} that will be used by
+	 *                  {@link IpmiAsyncConnector} to communicate with the remote
+	 *                  hosts.
+	 */
+	public IpmiConnector(Messenger messenger) {
+		asyncConnector = new IpmiAsyncConnector(messenger);
+		loadProperties();
+	}
+
 	/**
 	 * Loads properties from the properties file.
 	 */
@@ -270,6 +295,27 @@ public class IpmiConnector {
         return asyncConnector.getExistingSessionForCriteria(remoteAddress, remotePort, user);
     }
 
+    /**
+     * Checks if the session with the remote host is currently open.
+     * @param connectionHandle
+     * - {@link ConnectionHandle} associated with the remote host.
+     * @return true if the session is open, false otherwise
+     */
+    public boolean isSessionValid(ConnectionHandle connectionHandle) {
+        return asyncConnector.isSessionValid(connectionHandle);
+    }
+
+    /**
+     * Checks if the connection sends keep-alive messages, so that its session
+     * stays open while no request is sent.
+     * @param connectionHandle
+     * - {@link ConnectionHandle} associated with the remote host.
+     * @return true if keep-alive messages are sent, false otherwise
+     */
+    public boolean isKeptAlive(ConnectionHandle connectionHandle) {
+        return asyncConnector.isKeptAlive(connectionHandle);
+    }
+
     /**
      * Closes the session with the remote host if it is currently in open state.
      * @param connectionHandle
@@ -299,6 +345,22 @@ public class IpmiConnector {
         return sendMessage(connectionHandle, request, true);
     }
 
+    /**
+     * Sends the IPMI message to the remote host without waiting for the response, so that several requests can be in
+     * flight on the same session. Responses are matched to their requests by sequence number. Unlike
+     * {@link #sendMessage(ConnectionHandle, PayloadCoder)}, error completion codes are not retried.
+     * @param connectionHandle
+     * - {@link ConnectionHandle} associated with the remote host.
+     * @param request
+     * - {@link PayloadCoder} containing the request to be sent
+     * @return future completed with the {@link ResponseData} for the <b>request</b>, or exceptionally with the
+     * {@link IPMIException} or {@link ConnectionException} that made it fail
+     * @see IpmiAsyncConnector#submit(ConnectionHandle, PayloadCoder)
+     */
+    public CompletableFuture<ResponseData> sendMessageAsync(ConnectionHandle connectionHandle, PayloadCoder request) {
+        return asyncConnector.submit(connectionHandle, request);
+    }
+
     /**
      * Sends the IPMI message to the remote host and doesn't wait for any response.
      * @param connectionHandle
@@ -341,83 +403,106 @@ public class IpmiConnector {
     }
 
     private ResponseData sendMessage(ConnectionHandle connectionHandle, PayloadCoder request, boolean waitForResponse) throws Exception {
-        MessageListener listener = new MessageListener(connectionHandle);
-
-        if (waitForResponse) {
-            asyncConnector.registerListener(listener);
+        if (!waitForResponse) {
+            asyncConnector.sendMessage(connectionHandle, request, true);
+            return null;
         }
 
-        ResponseData data = sendThroughAsyncConnector(request, connectionHandle, listener, waitForResponse);
-
-        if (waitForResponse) {
-            asyncConnector.unregisterListener(listener);
-        }
-
-        return data;
-    }
-
-    private ResponseData sendThroughAsyncConnector(PayloadCoder request, ConnectionHandle connectionHandle,
-                                                   MessageListener listener, boolean waitForResponse) throws Exception {
-        ResponseData responseData = null;
+        final Long deadline = deadlines.get(connectionHandle.getHandle());
 
         int tries = 0;
-        int tag = -1;
-        boolean messageSent = false;
-
-        while (!messageSent) {
-            try {
-                ++tries;
 
-                if (tag >= 0) {
-                    tag = asyncConnector.retry(connectionHandle, tag, request.getSupportedPayloadType());
-                }
-
-                if (tag < 0){
-                    tag = asyncConnector.sendMessage(connectionHandle, request, !waitForResponse);
-                }
+        while (true) {
+            ++tries;
 
-                logger.debug("Sending message with tag {}, try {}", tag, tries);
+            final CompletableFuture<ResponseData> response = asyncConnector.submit(connectionHandle, request);
 
-                if (waitForResponse) {
-                    responseData = listener.waitForAnswer(tag);
+            try {
+                if (deadline == null) {
+                    return response.get();
                 }
-
-                messageSent = true;
-            } catch (IllegalArgumentException e) {
+                return response.get(getRemainingTime(deadline), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | InterruptedException e) {
+                // Nobody waits for the response anymore, stop retrying the request
+                response.cancel(false);
                 throw e;
-            } catch (IPMIException e) {
-                handleErrorResponse(tries, e);
-            } catch (Exception e) {
-                handleRetriesWhenException(tries, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+
+                if (cause instanceof IPMIException) {
+                    handleErrorResponse(tries, (IPMIException) cause, deadline);
+                } else if (cause instanceof ConnectionException || cause instanceof IllegalArgumentException) {
+                    // timeouts were already retried by the async connector
+                    throw (Exception) cause;
+                } else if (cause instanceof Exception) {
+                    handleRetriesWhenException(tries, (Exception) cause, deadline);
+                } else {
+                    throw e;
+                }
             }
         }
-
-        return responseData;
     }
 
-    private void handleRetriesWhenException(int tries, Exception e) throws Exception {
+    private void handleRetriesWhenException(int tries, Exception e, Long deadline) throws Exception {
         if (tries > retries) {
             throw e;
         } else {
             long sleepTime = (random.nextLong() % (idleTime / 2)) + (idleTime / 2);
 
+            // Do not sleep past the deadline, the next attempt would not be waited for anyway
+            if (deadline != null && TimeUnit.MILLISECONDS.toNanos(sleepTime) >= getRemainingTime(deadline)) {
+                throw e;
+            }
+
             Thread.sleep(sleepTime);
             logger.warn("Receiving message failed, retrying", e);
         }
     }
 
-    private void handleErrorResponse(int tries, IPMIException e) throws Exception {
+    private void handleErrorResponse(int tries, IPMIException e, Long deadline) throws Exception {
         if (e.getCompletionCode() == CompletionCode.InitializationInProgress
                 || e.getCompletionCode() == CompletionCode.InsufficientResources
                 || e.getCompletionCode() == CompletionCode.NodeBusy
                 || e.getCompletionCode() == CompletionCode.Timeout) {
 
-            handleRetriesWhenException(tries, e);
+            handleRetriesWhenException(tries, e, deadline);
         } else {
             throw e;
         }
     }
 
+    /**
+     * @return the time left before the deadline in nanoseconds
+     * @throws TimeoutException
+     * when the deadline has passed
+     */
+    private static long getRemainingTime(long deadline) throws TimeoutException {
+        final long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw new TimeoutException("The deadline of the request has passed");
+        }
+        return remaining;
+    }
+
+    /**
+     * Sets the time by which the requests sent through the connection with the given handle must be answered. Once the
+     * deadline has passed, {@link #sendMessage(ConnectionHandle, PayloadCoder)} stops waiting, retrying and sending, and
+     * throws a {@link TimeoutException}. The same goes for the steps of the session establishment, see
+     * {@link IpmiAsyncConnector#setDeadline(ConnectionHandle, long)}.
+     * @param handle
+     * - {@link ConnectionHandle} associated with the remote host.
+     * @param deadline
+     * - the deadline as a {@link System#nanoTime()} value, or 0 to wait as long as the timeouts and retries allow
+     */
+    public void setDeadline(ConnectionHandle handle, long deadline) {
+        if (deadline == 0) {
+            deadlines.remove(handle.getHandle());
+        } else {
+            deadlines.put(handle.getHandle(), deadline);
+        }
+        asyncConnector.setDeadline(handle, deadline);
+    }
+
     /**
      * Registers {@link InboundMessageListener} that will react on any request sent from remote system to the application.
      *
@@ -432,6 +517,7 @@ public class IpmiConnector {
      * Closes the connection with the given handle
      */
     public void closeConnection(ConnectionHandle handle) {
+        deadlines.remove(handle.getHandle());
         asyncConnector.closeConnection(handle);
     }
 
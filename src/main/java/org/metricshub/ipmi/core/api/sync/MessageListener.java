@@ -33,6 +33,7 @@ import org.metricshub.ipmi.core.connection.Connection;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Listens to the {@link IpmiAsyncConnector} waiting for concrete message to
@@ -46,7 +47,10 @@ public class MessageListener implements IpmiResponseListener {
 
     private int tag;
 
-    private IpmiResponse response;
+    /**
+     * Completed when the message with the expected tag arrives.
+     */
+    private CompletableFuture<IpmiResponse> response;
 
     /**
      * Messages that have proper connection handle but arrived before tag was
@@ -69,7 +73,6 @@ public class MessageListener implements IpmiResponseListener {
         quickMessages = new ArrayList<IpmiResponse>();
         this.handle = handle;
         tag = -1;
-        response = null;
     }
 
     /**
@@ -86,20 +89,28 @@ public class MessageListener implements IpmiResponseListener {
         if (tag < 0 || tag > 63) {
             throw new IllegalArgumentException("Corrupted message tag");
         }
-        this.tag = tag;
-        for (IpmiResponse quickResponse : quickMessages) {
-            this.notify(quickResponse);
-        }
+        CompletableFuture<IpmiResponse> expected;
 
-        while (response == null) {
-            Thread.sleep(1);
+        synchronized (this) {
+            this.tag = tag;
+            response = new CompletableFuture<IpmiResponse>();
+            expected = response;
+            for (IpmiResponse quickResponse : quickMessages) {
+                this.notify(quickResponse);
+            }
         }
-        if (response instanceof IpmiResponseData) {
+
+        IpmiResponse answer = expected.get();
+
+        synchronized (this) {
             this.tag = -1;
             quickMessages.clear();
-            return ((IpmiResponseData) response).getResponseData();
-        } else /* response instanceof IpmiError */{
-            throw ((IpmiError) response).getException();
+        }
+
+        if (answer instanceof IpmiResponseData) {
+            return ((IpmiResponseData) answer).getResponseData();
+        } else /* answer instanceof IpmiError */{
+            throw ((IpmiError) answer).getException();
         }
     }
 
@@ -109,7 +120,7 @@ public class MessageListener implements IpmiResponseListener {
             if (tag == -1) {
                 quickMessages.add(response);
             } else if (response.getTag() == tag) {
-                this.response = response;
+                this.response.complete(response);
             }
         }
     }
@@ -69,8 +69,43 @@ public final class Decoder {
      */
     public static ResponseData decode(byte[] data, IpmiDecoder protocolDecoder,
             PayloadCoder payloadCoder) throws IPMIException, NoSuchAlgorithmException, InvalidKeyException {
+        return decode(data, 0, data.length, protocolDecoder, payloadCoder);
+    }
+
+    /**
+     * Decodes RMCP packet held in a buffer into {@link ResponseData}. The
+     * packet is decoded in place and only the response data is copied out of
+     * it.
+     *
+     * @param buffer
+     *            - buffer holding the RMCP packet to be decoded
+     * @param offset
+     *            - offset of the packet in the buffer
+     * @param length
+     *            - length of the packet
+     * @param protocolDecoder
+     *            - instance of {@link IpmiDecoder} class for decoding of the
+     *            IPMI session header and (if present) IPMI LAN packet.
+     * @param payloadCoder
+     *            - instance of {@link PayloadCoder} class used for wrapping
+     *            payload into message-dependent {@link ResponseData} object.
+     * @return {@link ResponseData}
+     * @throws IPMIException
+     *             when request to the server fails.
+     * @throws IllegalArgumentException
+     *             when data is corrupted
+     * @throws NoSuchAlgorithmException
+     *             - when authentication, confidentiality or integrity algorithm
+     *             fails.
+     * @throws InvalidKeyException
+     *             when creating of the authentication algorithm key fails
+     * @see #decode(byte[], IpmiDecoder, PayloadCoder)
+     */
+    public static ResponseData decode(byte[] buffer, int offset, int length,
+            IpmiDecoder protocolDecoder, PayloadCoder payloadCoder)
+            throws IPMIException, NoSuchAlgorithmException, InvalidKeyException {
         return payloadCoder.getResponseData(protocolDecoder.decode(RmcpDecoder
-                .decode(data)));
+                .decode(buffer, offset, length)));
     }
 
     private Decoder() {
@@ -22,9 +22,11 @@ package org.metricshub.ipmi.core.coding;
  * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
  */
 
+import org.metricshub.ipmi.core.coding.protocol.IpmiMessage;
 import org.metricshub.ipmi.core.coding.protocol.decoder.Protocolv15Decoder;
 import org.metricshub.ipmi.core.coding.protocol.decoder.Protocolv20Decoder;
 import org.metricshub.ipmi.core.coding.protocol.encoder.IpmiEncoder;
+import org.metricshub.ipmi.core.coding.protocol.encoder.Protocolv20Encoder;
 import org.metricshub.ipmi.core.coding.rmcp.RmcpEncoder;
 import org.metricshub.ipmi.core.coding.rmcp.RmcpIpmiMessage;
 
@@ -67,9 +69,14 @@ public final class Encoder {
     public static byte[] encode(IpmiEncoder protcolEncoder, PayloadCoder payloadCoder,
                                 int messageSequenceNumber, int sessionSequenceNumber, int sessionId)
             throws NoSuchAlgorithmException, InvalidKeyException {
-        return RmcpEncoder
-                .encode(new RmcpIpmiMessage(protcolEncoder.encode(payloadCoder
-                        .encodePayload(messageSequenceNumber, sessionSequenceNumber, sessionId))));
+        IpmiMessage message = payloadCoder.encodePayload(messageSequenceNumber,
+                sessionSequenceNumber, sessionId);
+
+        if (protcolEncoder instanceof Protocolv20Encoder) {
+            return ((Protocolv20Encoder) protcolEncoder).encodeRmcpPacket(message);
+        }
+
+        return RmcpEncoder.encode(new RmcpIpmiMessage(protcolEncoder.encode(message)));
     }
 
     private Encoder() {
@@ -31,7 +31,6 @@ import org.metricshub.ipmi.core.coding.protocol.IpmiMessage;
 import org.metricshub.ipmi.core.coding.protocol.Ipmiv15Message;
 import org.metricshub.ipmi.core.coding.protocol.Ipmiv20Message;
 import org.metricshub.ipmi.core.coding.protocol.PayloadType;
-import org.metricshub.ipmi.core.coding.protocol.encoder.Protocolv20Encoder;
 import org.metricshub.ipmi.core.coding.security.CipherSuite;
 import org.metricshub.ipmi.core.coding.security.SecurityConstants;
 
@@ -174,9 +173,8 @@ public abstract class PayloadCoder {
 
         message.setPayload(preparePayload(messageSequenceNumber));
 
-        message.setAuthCode(getCipherSuite()
-                .getIntegrityAlgorithm()
-                .generateAuthCode(message.getIntegrityAlgorithmBase(new Protocolv20Encoder())));
+        // AuthCode is generated over the encoded message by Protocolv20Encoder
+        message.setIntegrityAlgorithm(getCipherSuite().getIntegrityAlgorithm());
 
         return message;
     }
@@ -145,6 +145,24 @@ public class ReadFruData extends IpmiCommandCoder {
         // addressed in words (requires different server settings).
     }
 
+    public int getFruId() {
+        return fruId;
+    }
+
+    /**
+     * @return offset to read, in bytes
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return number of bytes to read
+     */
+    public int getSize() {
+        return size;
+    }
+
     @Override
     public byte getCommandCode() {
         return CommandCodes.READ_FRU_DATA;
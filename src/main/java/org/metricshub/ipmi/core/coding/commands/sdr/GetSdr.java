@@ -107,6 +107,22 @@ public class GetSdr extends IpmiCommandCoder {
         this.bytesToRead = bytesToRead;
     }
 
+    public int getReservationId() {
+        return reservationId;
+    }
+
+    public int getRecordId() {
+        return recordId;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getBytesToRead() {
+        return bytesToRead;
+    }
+
     @Override
     public byte getCommandCode() {
         return CommandCodes.GET_SDR;
@@ -115,17 +115,43 @@ public abstract class IpmiLanMessage extends IpmiPayload {
     public abstract byte[] getPayloadData();
         
     protected byte getChecksum1(byte[] message) {
+        return getChecksum1(message, 0);
+    }
+
+    /**
+     * Calculates checksum 1 of the message held in a buffer.
+     *
+     * @param buffer
+     *            - buffer holding the message
+     * @param offset
+     *            - offset of the message in the buffer
+     */
+    protected byte getChecksum1(byte[] buffer, int offset) {
         int checksum = 0;
         for(int i = 0; i < 2; ++i) {
-            checksum = (checksum + TypeConverter.byteToInt(message[i])) % 256;
+            checksum = (checksum + TypeConverter.byteToInt(buffer[offset + i])) % 256;
         }
         return (byte) -TypeConverter.intToByte(checksum);
     }
     
     protected byte getChecksum2(byte[] message) {
+        return getChecksum2(message, 0, message.length);
+    }
+
+    /**
+     * Calculates checksum 2 of the message held in a buffer.
+     *
+     * @param buffer
+     *            - buffer holding the message
+     * @param offset
+     *            - offset of the message in the buffer
+     * @param length
+     *            - length of the message
+     */
+    protected byte getChecksum2(byte[] buffer, int offset, int length) {
         int checksum = 0;
-        for(int i = 3; i < message.length-1; ++i) {
-            checksum = ((checksum + TypeConverter.byteToInt(message[i])) % 256);
+        for(int i = 3; i < length-1; ++i) {
+            checksum = ((checksum + TypeConverter.byteToInt(buffer[offset + i])) % 256);
         }
         return (byte)-TypeConverter.intToByte(checksum);
     }
@@ -49,31 +49,48 @@ public class IpmiLanResponse extends IpmiLanMessage {
      *             when checksum is corrupted
      */
     public IpmiLanResponse(byte[] rawData) {
-        setRequesterAddress(rawData[0]);
+        this(rawData, 0, rawData.length);
+    }
+
+    /**
+     * Builds IPMI LAN response message from a buffer, e.g. the decrypted
+     * payload or the received datagram. Only the response data is copied.
+     *
+     * @param buffer
+     *            - buffer holding the message
+     * @param offset
+     *            - offset of the message in the buffer
+     * @param length
+     *            - length of the message
+     * @throws IllegalArgumentException
+     *             when checksum is corrupted
+     */
+    public IpmiLanResponse(byte[] buffer, int offset, int length) {
+        setRequesterAddress(buffer[offset]);
         networkFunction = TypeConverter.intToByte((TypeConverter
-                .byteToInt(rawData[1]) & 0xfC) >> 2);
+                .byteToInt(buffer[offset + 1]) & 0xfC) >> 2);
         setRequesterLogicalUnitNumber(TypeConverter.intToByte(TypeConverter
-                .byteToInt(rawData[1]) & 0x03));
-        if (rawData[2] != getChecksum1(rawData)) {
+                .byteToInt(buffer[offset + 1]) & 0x03));
+        if (buffer[offset + 2] != getChecksum1(buffer, offset)) {
             throw new IllegalArgumentException("Checksum 1 failed");
         }
-        setResponderAddress(rawData[3]);
+        setResponderAddress(buffer[offset + 3]);
         setSequenceNumber(TypeConverter.intToByte((TypeConverter
-                .byteToInt(rawData[4]) & 0xfC) >> 2));
+                .byteToInt(buffer[offset + 4]) & 0xfC) >> 2));
         setResponderLogicalUnitNumber(TypeConverter.intToByte(TypeConverter
-                .byteToInt(rawData[4]) & 0x03));
-        setCommand(rawData[5]);
-        setCompletionCode(rawData[6]);
+                .byteToInt(buffer[offset + 4]) & 0x03));
+        setCommand(buffer[offset + 5]);
+        setCompletionCode(buffer[offset + 6]);
 
-        if (rawData.length > 8) {
-            byte[] data = new byte[rawData.length - 8];
+        if (length > 8) {
+            byte[] data = new byte[length - 8];
 
-            System.arraycopy(rawData, 7, data, 0, rawData.length - 8);
+            System.arraycopy(buffer, offset + 7, data, 0, length - 8);
 
             setData(data);
         }
 
-        if (rawData[rawData.length - 1] != getChecksum2(rawData)) {
+        if (buffer[offset + length - 1] != getChecksum2(buffer, offset, length)) {
             throw new IllegalArgumentException("Checksum 2 failed");
         }
     }
@@ -38,15 +38,30 @@ public class SolInboundMessage extends SolMessage {
     }
 
     public SolInboundMessage(byte[] rawData) {
-        super(rawData[0], rawData[1], rawData[2], rawData[3]);
+        this(rawData, 0, rawData.length);
+    }
+
+    /**
+     * Builds SOL inbound message from a buffer. Only the character data is
+     * copied.
+     *
+     * @param buffer
+     *            - buffer holding the message
+     * @param offset
+     *            - offset of the message in the buffer
+     * @param length
+     *            - length of the message
+     */
+    public SolInboundMessage(byte[] buffer, int offset, int length) {
+        super(buffer[offset], buffer[offset + 1], buffer[offset + 2], buffer[offset + 3]);
 
-        if (rawData.length > PAYLOAD_HEADER_LENGTH) {
-            byte[] characterData = new byte[rawData.length - PAYLOAD_HEADER_LENGTH];
-            System.arraycopy(rawData, PAYLOAD_HEADER_LENGTH, characterData, 0, characterData.length);
+        if (length > PAYLOAD_HEADER_LENGTH) {
+            byte[] characterData = new byte[length - PAYLOAD_HEADER_LENGTH];
+            System.arraycopy(buffer, offset + PAYLOAD_HEADER_LENGTH, characterData, 0, characterData.length);
             setData(characterData);
         }
 
-        this.statusField = new SolInboundStatusField(rawData[3]);
+        this.statusField = new SolInboundStatusField(buffer[offset + 3]);
     }
 
     public SolInboundStatusField getStatusField() {
@@ -26,6 +26,7 @@ import java.security.InvalidKeyException;
 
 import org.metricshub.ipmi.core.coding.protocol.encoder.IpmiEncoder;
 import org.metricshub.ipmi.core.coding.security.ConfidentialityAlgorithm;
+import org.metricshub.ipmi.core.coding.security.IntegrityAlgorithm;
 
 /**
  * Wrapper class for IPMI v2.0 message
@@ -41,6 +42,12 @@ public class Ipmiv20Message extends IpmiMessage {
 
     private Object oemPayloadID;
 
+    /**
+     * Integrity Algorithm generating the AuthCode field while the message is
+     * encoded. Used only when no AuthCode was set.
+     */
+    private IntegrityAlgorithm integrityAlgorithm;
+
     public void setPayloadEncrypted(boolean payloadEncrypted) {
         this.payloadEncrypted = payloadEncrypted;
     }
@@ -81,6 +88,14 @@ public class Ipmiv20Message extends IpmiMessage {
         return oemPayloadID;
     }
 
+    public void setIntegrityAlgorithm(IntegrityAlgorithm integrityAlgorithm) {
+        this.integrityAlgorithm = integrityAlgorithm;
+    }
+
+    public IntegrityAlgorithm getIntegrityAlgorithm() {
+        return integrityAlgorithm;
+    }
+
     public Ipmiv20Message(ConfidentialityAlgorithm confidentialityAlgorithm) {
         setConfidentialityAlgorithm(confidentialityAlgorithm);
     }
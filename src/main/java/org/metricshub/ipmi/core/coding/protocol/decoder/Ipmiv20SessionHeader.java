@@ -0,0 +1,138 @@
+package org.metricshub.ipmi.core.coding.protocol.decoder;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.metricshub.ipmi.core.coding.protocol.AuthenticationType;
+import org.metricshub.ipmi.core.coding.protocol.PayloadType;
+
+/**
+ * IPMI v2.0 session header fields of a received message, decoded by
+ * {@link Protocolv20Decoder#decodeHeader} so they can be checked before
+ * the payload is decrypted and decoded. Instances are meant to be reused
+ * for every message of a session and must not be shared between threads.
+ */
+public class Ipmiv20SessionHeader {
+
+    private AuthenticationType authenticationType;
+
+    private boolean payloadEncrypted;
+
+    private boolean payloadAuthenticated;
+
+    private PayloadType payloadType;
+
+    private int oemIANA;
+
+    private Object oemPayloadID;
+
+    private int sessionID;
+
+    private int sessionSequenceNumber;
+
+    private int payloadOffset;
+
+    private int payloadLength;
+
+    public AuthenticationType getAuthenticationType() {
+        return authenticationType;
+    }
+
+    void setAuthenticationType(AuthenticationType authenticationType) {
+        this.authenticationType = authenticationType;
+    }
+
+    public boolean isPayloadEncrypted() {
+        return payloadEncrypted;
+    }
+
+    void setPayloadEncrypted(boolean payloadEncrypted) {
+        this.payloadEncrypted = payloadEncrypted;
+    }
+
+    public boolean isPayloadAuthenticated() {
+        return payloadAuthenticated;
+    }
+
+    void setPayloadAuthenticated(boolean payloadAuthenticated) {
+        this.payloadAuthenticated = payloadAuthenticated;
+    }
+
+    public PayloadType getPayloadType() {
+        return payloadType;
+    }
+
+    void setPayloadType(PayloadType payloadType) {
+        this.payloadType = payloadType;
+    }
+
+    public int getOemIANA() {
+        return oemIANA;
+    }
+
+    void setOemIANA(int oemIANA) {
+        this.oemIANA = oemIANA;
+    }
+
+    public Object getOemPayloadID() {
+        return oemPayloadID;
+    }
+
+    void setOemPayloadID(Object oemPayloadID) {
+        this.oemPayloadID = oemPayloadID;
+    }
+
+    public int getSessionID() {
+        return sessionID;
+    }
+
+    void setSessionID(int sessionID) {
+        this.sessionID = sessionID;
+    }
+
+    public int getSessionSequenceNumber() {
+        return sessionSequenceNumber;
+    }
+
+    void setSessionSequenceNumber(int sessionSequenceNumber) {
+        this.sessionSequenceNumber = sessionSequenceNumber;
+    }
+
+    /**
+     * @return offset of the payload in the buffer of the RMCP message
+     */
+    public int getPayloadOffset() {
+        return payloadOffset;
+    }
+
+    void setPayloadOffset(int payloadOffset) {
+        this.payloadOffset = payloadOffset;
+    }
+
+    public int getPayloadLength() {
+        return payloadLength;
+    }
+
+    void setPayloadLength(int payloadLength) {
+        this.payloadLength = payloadLength;
+    }
+}
@@ -31,6 +31,7 @@ import org.metricshub.ipmi.core.coding.protocol.PayloadType;
 import org.metricshub.ipmi.core.coding.rmcp.RmcpClassOfMessage;
 import org.metricshub.ipmi.core.coding.rmcp.RmcpMessage;
 import org.metricshub.ipmi.core.coding.security.ConfidentialityAlgorithm;
+import org.metricshub.ipmi.core.coding.security.SecurityConstants;
 import org.metricshub.ipmi.core.common.TypeConverter;
 
 /**
@@ -109,7 +110,7 @@ public abstract class ProtocolDecoder implements IpmiDecoder {
      */
     public static AuthenticationType decodeAuthenticationType(
             RmcpMessage message) {
-        return decodeAuthenticationType(message.getData()[0]);
+        return decodeAuthenticationType(message.getDataBuffer()[message.getDataOffset()]);
     }
 
     /**
@@ -122,11 +123,7 @@ public abstract class ProtocolDecoder implements IpmiDecoder {
      * @return Decoded integer
      */
     protected static int decodeInt(byte[] rawMessage, int offset) {
-        byte[] result = new byte[4];
-
-        System.arraycopy(rawMessage, offset, result, 0, 4);
-
-        return TypeConverter.littleEndianByteArrayToInt(result);
+        return TypeConverter.littleEndianByteArrayToInt(rawMessage, offset);
     }
 
     /**
@@ -170,7 +167,8 @@ public abstract class ProtocolDecoder implements IpmiDecoder {
      * Decodes payload.
      *
      * @param rawData
-     *            - Byte array holding whole message data.
+     *            - Byte array holding whole message data. Unencrypted payloads
+     *            are decoded straight from it.
      * @param offset
      *            - Offset to payload.
      * @param length
@@ -182,19 +180,20 @@ public abstract class ProtocolDecoder implements IpmiDecoder {
      */
     protected IpmiPayload decodePayload(byte[] rawData, int offset, int length,
             ConfidentialityAlgorithm confidentialityAlgorithm, PayloadType payloadType) {
-        byte[] payload = null;
-        if (length > 0) {
-            payload = new byte[length];
-
-            System.arraycopy(rawData, offset, payload, 0, length);
+        byte[] payload = rawData;
+        int payloadOffset = offset;
+        int payloadLength = length;
 
-            payload = confidentialityAlgorithm.decrypt(payload);
+        if (length > 0 && confidentialityAlgorithm.getCode() != SecurityConstants.CA_NONE) {
+            payload = new byte[length];
+            payloadOffset = 0;
+            payloadLength = confidentialityAlgorithm.decrypt(rawData, offset, length, payload, 0);
         }
 
         if (payloadType == PayloadType.Sol) {
-            return new SolInboundMessage(payload);
+            return new SolInboundMessage(payload, payloadOffset, payloadLength);
         } else {
-            return new IpmiLanResponse(payload);
+            return new IpmiLanResponse(payload, payloadOffset, payloadLength);
         }
     }
 }
@@ -53,11 +53,11 @@ public class Protocolv15Decoder extends ProtocolDecoder {
     public IpmiMessage decode(RmcpMessage rmcpMessage) {
         Ipmiv15Message message = new Ipmiv15Message();
 
-        byte[] raw = rmcpMessage.getData();
+        byte[] raw = rmcpMessage.getDataBuffer();
 
-        message.setAuthenticationType(decodeAuthenticationType(raw[0]));
+        message.setAuthenticationType(decodeAuthenticationType(raw[rmcpMessage.getDataOffset()]));
 
-        int offset = 1;
+        int offset = rmcpMessage.getDataOffset() + 1;
 
         message.setSessionSequenceNumber(decodeSessionSequenceNumber(raw,
                 offset));
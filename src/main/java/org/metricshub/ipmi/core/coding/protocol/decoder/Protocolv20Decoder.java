@@ -33,7 +33,6 @@ import org.metricshub.ipmi.core.common.TypeConverter;
 
 
 import java.security.InvalidKeyException;
-import java.util.Arrays;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,38 +73,85 @@ public class Protocolv20Decoder extends ProtocolDecoder {
      */
     @Override
     public IpmiMessage decode(RmcpMessage rmcpMessage) throws InvalidKeyException {
-        Ipmiv20Message message = new Ipmiv20Message(
-                cipherSuite.getConfidentialityAlgorithm());
+        Ipmiv20SessionHeader header = new Ipmiv20SessionHeader();
 
-        byte[] raw = rmcpMessage.getData();
+        decodeHeader(rmcpMessage.getDataBuffer(), rmcpMessage.getDataOffset(), header);
 
-        message.setAuthenticationType(decodeAuthenticationType(raw[0]));
+        return decode(rmcpMessage, header);
+    }
 
-        message.setPayloadEncrypted(decodeEncryption(raw[1]));
+    /**
+     * Decodes IPMI v2.0 session header fields into a reusable context, leaving
+     * the payload and the session trailer untouched.
+     *
+     * @param rmcpMessage
+     *            - RMCP message to decode.
+     * @param header
+     *            - context receiving the session header fields
+     * @return false when the message is not an IPMI v2.0 message or is too
+     *         short to hold its session header, true otherwise.
+     * @throws IllegalArgumentException
+     *             when payload type is incorrect.
+     */
+    public boolean decodeHeader(RmcpMessage rmcpMessage, Ipmiv20SessionHeader header) {
+        byte[] raw = rmcpMessage.getDataBuffer();
+        int start = rmcpMessage.getDataOffset();
+        int length = rmcpMessage.getDataLength();
 
-        message.setPayloadAuthenticated(decodeAuthentication(raw[1]));
+        if (length < 2 || decodeAuthenticationType(raw[start]) != AuthenticationType.RMCPPlus) {
+            return false;
+        }
 
-        message.setPayloadType(decodePayloadType(raw[1]));
+        int headerLength = decodePayloadType(raw[start + 1]) == PayloadType.Oem ? 18 : 12;
+        if (length < headerLength) {
+            return false;
+        }
 
-        int offset = 2;
+        decodeHeader(raw, start, header);
 
-        if (message.getPayloadType() == PayloadType.Oem) {
-            message.setOemIANA(decodeOEMIANA(raw));
-            offset += 4;
+        return true;
+    }
 
-            message.setOemPayloadID(decodeOEMPayloadId(raw, offset));
-            offset += 2;
-        }
+    /**
+     * Decodes IPMI v2.0 message fields, taking the session header fields from
+     * a context filled by {@link #decodeHeader(RmcpMessage, Ipmiv20SessionHeader)}.
+     *
+     * @param rmcpMessage
+     *            - RMCP message to decode.
+     * @param header
+     *            - session header of the message
+     * @return decoded message
+     * @throws IllegalArgumentException
+     *             when AuthCode field is incorrect (integrity check fails).
+     * @throws InvalidKeyException
+     *             - when initiation of the integrity algorithm fails
+     */
+    public Ipmiv20Message decode(RmcpMessage rmcpMessage, Ipmiv20SessionHeader header)
+            throws InvalidKeyException {
+        Ipmiv20Message message = new Ipmiv20Message(
+                cipherSuite.getConfidentialityAlgorithm());
 
-        message.setSessionID(decodeSessionID(raw, offset));
-        offset += 4;
+        byte[] raw = rmcpMessage.getDataBuffer();
 
-        message.setSessionSequenceNumber(decodeSessionSequenceNumber(raw,
-                offset));
-        offset += 4;
+        int start = rmcpMessage.getDataOffset();
 
-        int payloadLength = decodePayloadLength(raw, offset);
-        offset += 2;
+        int end = start + rmcpMessage.getDataLength();
+
+        message.setAuthenticationType(header.getAuthenticationType());
+        message.setPayloadEncrypted(header.isPayloadEncrypted());
+        message.setPayloadAuthenticated(header.isPayloadAuthenticated());
+        message.setPayloadType(header.getPayloadType());
+
+        if (message.getPayloadType() == PayloadType.Oem) {
+            message.setOemIANA(header.getOemIANA());
+            message.setOemPayloadID(header.getOemPayloadID());
+        }
+
+        message.setSessionID(header.getSessionID());
+        message.setSessionSequenceNumber(header.getSessionSequenceNumber());
+
+        int offset = header.getPayloadOffset();
+        int payloadLength = header.getPayloadLength();
 
         if (message.isPayloadEncrypted()) {
             message.setPayload(decodePayload(raw, offset, payloadLength,
@@ -121,9 +167,9 @@ public class Protocolv20Decoder extends ProtocolDecoder {
                 && !(message.getAuthenticationType() == AuthenticationType.RMCPPlus && !message
                         .isPayloadAuthenticated())
                 && message.getSessionID() != 0) {
-            offset = skipIntegrityPAD(raw, offset);
-            message.setAuthCode(decodeAuthCode(raw, offset));
-            if (!validateAuthCode(raw, offset)) {
+            offset = skipIntegrityPAD(raw, offset, end);
+            message.setAuthCode(decodeAuthCode(raw, offset, end));
+            if (!validateAuthCode(raw, start, offset, end)) {
                 logger.warn("Integrity check failed");
             }
         }
@@ -131,6 +177,51 @@ public class Protocolv20Decoder extends ProtocolDecoder {
         return message;
     }
 
+    /**
+     * Decodes the session header of the message starting at given offset.
+     *
+     * @param raw
+     *            - buffer holding the message
+     * @param start
+     *            - offset of the message in the buffer
+     * @param header
+     *            - context receiving the session header fields
+     */
+    private void decodeHeader(byte[] raw, int start, Ipmiv20SessionHeader header) {
+        header.setAuthenticationType(decodeAuthenticationType(raw[start]));
+
+        header.setPayloadEncrypted(decodeEncryption(raw[start + 1]));
+
+        header.setPayloadAuthenticated(decodeAuthentication(raw[start + 1]));
+
+        header.setPayloadType(decodePayloadType(raw[start + 1]));
+
+        int offset = start + 2;
+
+        if (header.getPayloadType() == PayloadType.Oem) {
+            header.setOemIANA(decodeOEMIANA(raw, offset));
+            offset += 4;
+
+            header.setOemPayloadID(decodeOEMPayloadId(raw, offset));
+            offset += 2;
+        } else {
+            header.setOemIANA(0);
+            header.setOemPayloadID(null);
+        }
+
+        header.setSessionID(decodeSessionID(raw, offset));
+        offset += 4;
+
+        header.setSessionSequenceNumber(decodeSessionSequenceNumber(raw,
+                offset));
+        offset += 4;
+
+        header.setPayloadLength(decodePayloadLength(raw, offset));
+        offset += 2;
+
+        header.setPayloadOffset(offset);
+    }
+
     /**
      * Decodes first bit of Payload Type.
      *
@@ -161,15 +252,13 @@ public class Protocolv20Decoder extends ProtocolDecoder {
      *
      * @param rawMessage
      *            - Byte array holding whole message data.
+     * @param offset
+     *            - Offset to OEM IANA in header.
      * @return OEM IANA number.
      */
-    private int decodeOEMIANA(byte[] rawMessage) {
-        byte[] oemIANA = new byte[4];
-
-        System.arraycopy(rawMessage, 3, oemIANA, 0, 3);
-        oemIANA[3] = 0;
-
-        return TypeConverter.littleEndianByteArrayToInt(oemIANA);
+    private int decodeOEMIANA(byte[] rawMessage, int offset) {
+        return TypeConverter.littleEndianWordToInt(rawMessage, offset + 1)
+                | TypeConverter.byteToInt(rawMessage[offset + 3]) << 16;
     }
 
     /**
@@ -192,12 +281,7 @@ public class Protocolv20Decoder extends ProtocolDecoder {
 
     @Override
     protected int decodePayloadLength(byte[] rawData, int offset) {
-        byte[] payloadLength = new byte[4];
-        System.arraycopy(rawData, offset, payloadLength, 0, 2);
-        payloadLength[2] = 0;
-        payloadLength[3] = 0;
-
-        return TypeConverter.littleEndianByteArrayToInt(payloadLength);
+        return TypeConverter.littleEndianWordToInt(rawData, offset);
     }
 
     /**
@@ -207,12 +291,14 @@ public class Protocolv20Decoder extends ProtocolDecoder {
      *            - Byte array holding whole message data.
      * @param offset
      *            - Offset to integrity pad.
+     * @param end
+     *            - Offset pointing after the message.
      * @return Offset to Auth Code
      * @throws IndexOutOfBoundsException
      *             when message is corrupted and pad length does not appear
      *             after integrity pad or length is incorrect.
      */
-    private int skipIntegrityPAD(final byte[] rawMessage, final int offset) {
+    private int skipIntegrityPAD(final byte[] rawMessage, final int offset, final int end) {
         int skip = 0;
         while (TypeConverter.byteToInt(rawMessage[offset + skip]) == 0xff) {
             ++skip;
@@ -223,7 +309,7 @@ public class Protocolv20Decoder extends ProtocolDecoder {
         }
 
         int currentOffset = offset + skip + 2; // skip pad length and next header fields
-        if (currentOffset >= rawMessage.length) {
+        if (currentOffset >= end) {
             throw new IndexOutOfBoundsException("Message is corrupted.");
         }
         return currentOffset;
@@ -236,13 +322,15 @@ public class Protocolv20Decoder extends ProtocolDecoder {
      *            - Byte array holding whole message data.
      * @param offset
      *            - Offset to auth code.
+     * @param end
+     *            - Offset pointing after the message.
      * @return Auth Code
      * @throws IndexOutOfBoundsException
      *             when message is corrupted and pad length does not appear
      *             after integrity pad or length is incorrect.
      */
-    private byte[] decodeAuthCode(byte[] rawMessage, int offset) {
-        byte[] authCode = new byte[rawMessage.length - offset];
+    private byte[] decodeAuthCode(byte[] rawMessage, int offset, int end) {
+        byte[] authCode = new byte[end - offset];
         System.arraycopy(rawMessage, offset, authCode, 0, authCode.length);
         return authCode;
     }
@@ -251,27 +339,18 @@ public class Protocolv20Decoder extends ProtocolDecoder {
      * Checks if Auth Code of the received message is valid
      *
      * @param rawMessage
-     *            - received message
+     *            - buffer holding the received message
+     * @param start
+     *            - offset to the beginning of the message in the buffer
      * @param offset
      *            - offset to the AuthCode field in the message
+     * @param end
+     *            - offset pointing after the message
      * @return True if AuthCode is correct, false otherwise.
-     * @throws InvalidKeyException
-     *             - when initiation of the integrity algorithm fails
      */
-    private boolean validateAuthCode(byte[] rawMessage, int offset) {
-        byte[] base = new byte[offset];
-
-        System.arraycopy(rawMessage, 0, base, 0, offset);
-
-        byte[] authCode = null;
-
-        if (rawMessage.length > offset) {
-            authCode = new byte[rawMessage.length - offset];
-            System.arraycopy(rawMessage, offset, authCode, 0, authCode.length);
-        }
-
-        return Arrays.equals(authCode, cipherSuite.getIntegrityAlgorithm()
-                .generateAuthCode(base));
+    private boolean validateAuthCode(byte[] rawMessage, int start, int offset, int end) {
+        return cipherSuite.getIntegrityAlgorithm().checkAuthCode(rawMessage,
+                start, offset - start, rawMessage, offset, end - offset);
     }
 
     /**
@@ -282,10 +361,11 @@ public class Protocolv20Decoder extends ProtocolDecoder {
      * @return Session ID.
      */
     public static int decodeSessionID(RmcpMessage message) {
-        int offset = 2;
-        if (decodePayloadType(message.getData()[1]) == PayloadType.Oem) {
+        byte[] raw = message.getDataBuffer();
+        int offset = message.getDataOffset() + 2;
+        if (decodePayloadType(raw[offset - 1]) == PayloadType.Oem) {
             offset += 6;
         }
-        return decodeSessionID(message.getData(), offset);
+        return decodeSessionID(raw, offset);
     }
 }
@@ -26,6 +26,12 @@ import org.metricshub.ipmi.core.coding.protocol.AuthenticationType;
 import org.metricshub.ipmi.core.coding.protocol.IpmiMessage;
 import org.metricshub.ipmi.core.coding.protocol.Ipmiv20Message;
 import org.metricshub.ipmi.core.coding.protocol.PayloadType;
+import org.metricshub.ipmi.core.coding.rmcp.RmcpClassOfMessage;
+import org.metricshub.ipmi.core.coding.rmcp.RmcpEncoder;
+import org.metricshub.ipmi.core.coding.rmcp.RmcpIpmiMessage;
+import org.metricshub.ipmi.core.coding.rmcp.RmcpVersion;
+import org.metricshub.ipmi.core.coding.security.ConfidentialityAlgorithm;
+import org.metricshub.ipmi.core.coding.security.IntegrityAlgorithm;
 import org.metricshub.ipmi.core.common.TypeConverter;
 
 import java.security.InvalidKeyException;
@@ -46,6 +52,38 @@ public class Protocolv20Encoder extends ProtocolEncoder {
      */
     @Override
     public byte[] encode(IpmiMessage ipmiMessage) throws InvalidKeyException {
+        return encode(ipmiMessage, 0);
+    }
+
+    /**
+     * Encodes IPMI message into a ready to send RMCP packet. RMCP header,
+     * session header, payload and session trailer are written into a single
+     * buffer and the AuthCode is generated over that buffer.
+     *
+     * @param ipmiMessage
+     *            - IPMI message to be encoded. Must be {@link Ipmiv20Message}.
+     * @return byte data containing ready to send RMCP packet
+     * @throws IllegalArgumentException
+     *             when IPMI protocol version or authentication type is
+     *             incorrect.
+     * @throws InvalidKeyException
+     *             - when initiation of the confidentiality algorithm fails
+     * @see RmcpIpmiMessage
+     */
+    public byte[] encodeRmcpPacket(IpmiMessage ipmiMessage) throws InvalidKeyException {
+        byte[] raw = encode(ipmiMessage, RmcpEncoder.HEADER_LENGTH);
+
+        RmcpEncoder.encodeHeader(RmcpVersion.RMCP1_0, TypeConverter.intToByte(0xff),
+                RmcpClassOfMessage.Ipmi, raw);
+
+        return raw;
+    }
+
+    /**
+     * Encodes IPMI message leaving headerLength bytes free at the beginning
+     * of the result for the enclosing protocol header.
+     */
+    private byte[] encode(IpmiMessage ipmiMessage, int headerLength) throws InvalidKeyException {
         if (!(ipmiMessage instanceof Ipmiv20Message)) {
             throw new IllegalArgumentException(
                     "IPMIMessage must be in 2.0 version.");
@@ -54,22 +92,16 @@ public class Protocolv20Encoder extends ProtocolEncoder {
 
         byte[] payload = message.getPayload().getEncryptedPayload();
 
-        if (payload == null) {
-            message.getPayload().encryptPayload(
-                    message.getConfidentialityAlgorithm());
-            payload = message.getPayload().getEncryptedPayload();
-        }
-
-        byte[] raw = new byte[getMessageLength(message)];
-
         if (message.getAuthenticationType() != AuthenticationType.RMCPPlus) {
             throw new IllegalArgumentException(
                     "Authentication type must be RMCP+ for IPMI v2.0");
         }
 
-        raw[0] = encodeAuthenticationType(message.getAuthenticationType());
+        byte[] raw = new byte[headerLength + getMessageLength(message)];
+
+        raw[headerLength] = encodeAuthenticationType(message.getAuthenticationType());
 
-        int offset = 1;
+        int offset = headerLength + 1;
 
         raw[offset] = encodePayloadType(message.isPayloadEncrypted(),
                 message.isPayloadAuthenticated(), message.getPayloadType());
@@ -91,13 +123,36 @@ public class Protocolv20Encoder extends ProtocolEncoder {
                 offset);
         offset += 4;
 
-        encodePayloadLength(payload.length, raw, offset);
-        offset += 2;
+        if (payload != null) {
+            encodePayloadLength(payload.length, raw, offset);
+            offset += 2;
 
-        offset = encodePayload(payload, raw, offset);
+            offset = encodePayload(payload, raw, offset);
+        } else {
+            // Encrypt straight into the packet instead of caching the
+            // encrypted payload on the message
+            byte[] data = message.getPayload().getPayloadData();
+            ConfidentialityAlgorithm confidentialityAlgorithm = message.getConfidentialityAlgorithm();
+            int length = data.length
+                    + confidentialityAlgorithm.getConfidentialityOverheadSize(data.length);
+
+            encodePayloadLength(length, raw, offset);
+            offset += 2;
+
+            offset += confidentialityAlgorithm.encrypt(data, 0, data.length, raw, offset);
+        }
 
         if (message.isPayloadAuthenticated() && message.getSessionID() != 0) {
-            encodeSessionTrailer(message.getAuthCode(), raw, offset);
+            if (message.getAuthCode() == null && message.getIntegrityAlgorithm() != null) {
+                IntegrityAlgorithm integrityAlgorithm = message.getIntegrityAlgorithm();
+                int authCodeOffset = encodeSessionTrailer(
+                        integrityAlgorithm.getAuthCodeLength(), headerLength,
+                        raw, offset);
+                integrityAlgorithm.generateAuthCode(raw, headerLength,
+                        authCodeOffset - headerLength, raw, authCodeOffset);
+            } else {
+                encodeSessionTrailer(message.getAuthCode(), headerLength, raw, offset);
+            }
         }
 
         return raw;
@@ -122,11 +177,12 @@ public class Protocolv20Encoder extends ProtocolEncoder {
 
         if (ipmiMessage.isPayloadAuthenticated()
                 && ipmiMessage.getSessionID() != 0) {
-            if (ipmiMessage.getAuthCode() != null) {
-                if ((length + ipmiMessage.getAuthCode().length + 2) % 4 != 0) {
-                    length += 4 - (length + ipmiMessage.getAuthCode().length + 2) % 4;
+            int authCodeLength = getAuthCodeLength(ipmiMessage);
+            if (authCodeLength > 0) {
+                if ((length + authCodeLength + 2) % 4 != 0) {
+                    length += 4 - (length + authCodeLength + 2) % 4;
                 }
-                length += ipmiMessage.getAuthCode().length;
+                length += authCodeLength;
             }
             length += 2;
         }
@@ -134,6 +190,20 @@ public class Protocolv20Encoder extends ProtocolEncoder {
         return length;
     }
 
+    /**
+     * Returns length of the AuthCode field that will be encoded for the
+     * message.
+     */
+    private int getAuthCodeLength(Ipmiv20Message ipmiMessage) {
+        if (ipmiMessage.getAuthCode() != null) {
+            return ipmiMessage.getAuthCode().length;
+        }
+        if (ipmiMessage.getIntegrityAlgorithm() != null) {
+            return ipmiMessage.getIntegrityAlgorithm().getAuthCodeLength();
+        }
+        return 0;
+    }
+
     private byte encodePayloadType(boolean isEncrypted,
             boolean isAuthenticated, PayloadType payloadType) {
         byte result = 0;
@@ -211,6 +281,8 @@ public class Protocolv20Encoder extends ProtocolEncoder {
      *
      * @param authCode
      *            - Value of the Authorization Code
+     * @param headerLength
+     *            - Offset of the IPMI message in the buffer
      * @param message
      *            - IPMI message being created
      * @param offset
@@ -219,21 +291,47 @@ public class Protocolv20Encoder extends ProtocolEncoder {
      *             when message is too short to hold value at given offset
      * @return Offset pointing after Authorization Code
      */
-    private int encodeSessionTrailer(final byte[] authCode, final byte[] message, final int offset) {
-        int pad = 0;
-
+    private int encodeSessionTrailer(final byte[] authCode, final int headerLength,
+            final byte[] message, final int offset) {
         if (authCode != null && authCode.length + offset > message.length) {
             throw new IndexOutOfBoundsException("Message is too short");
         }
 
+        int currentOffset = encodeSessionTrailer(authCode != null ? authCode.length : 0,
+                headerLength, message, offset);
+
         if (authCode != null) {
-            pad = (offset + authCode.length + 2) % 4;
+            System.arraycopy(authCode, 0, message, currentOffset, authCode.length);
+            currentOffset += authCode.length;
+        }
+
+        return currentOffset;
+    }
+
+    /**
+     * Encodes Integrity Pad, Pad Length and Next Header fields of the session
+     * trailer, leaving room for an Authorization Code of the given length.
+     *
+     * @param authCodeLength
+     *            - Length of the Authorization Code, 0 if there is none
+     * @param headerLength
+     *            - Offset of the IPMI message in the buffer
+     * @param message
+     *            - IPMI message being created
+     * @param offset
+     *            - Should point at the beginning of the session trailer.
+     * @return Offset pointing at the Authorization Code
+     */
+    private int encodeSessionTrailer(final int authCodeLength, final int headerLength,
+            final byte[] message, final int offset) {
+        int pad = 0;
+
+        if (authCodeLength > 0) {
+            pad = (offset - headerLength + authCodeLength + 2) % 4;
         }
 
         if (pad > 0) {
             pad = 4 - pad;
-        } else {
-            pad = 0;
         }
 
         int currentOffset = offset;
@@ -249,10 +347,6 @@ public class Protocolv20Encoder extends ProtocolEncoder {
         // Next header - reserved
         message[currentOffset] = TypeConverter.intToByte(0x07);
         ++currentOffset;
-        if (authCode != null) {
-            System.arraycopy(authCode, 0, message, currentOffset, authCode.length);
-            currentOffset += authCode.length;
-        }
 
         return currentOffset;
     }
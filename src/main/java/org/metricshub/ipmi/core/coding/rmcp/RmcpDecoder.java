@@ -41,21 +41,57 @@ public final class RmcpDecoder {
      * - occurs when message is too short or contains invalid data
      */
     public static RmcpMessage decode(byte[] rawMessage) {
-        RmcpMessage message = new RmcpMessage();
+        return decode(rawMessage, 0, rawMessage.length);
+    }
+
+    /**
+     * Decodes the RMCP packet held in a buffer. The data of the returned
+     * message is a view on the buffer, which must not be reused while the
+     * message is in use.
+     * @param buffer
+     * - buffer holding the packet
+     * @param offset
+     * - offset of the packet in the buffer
+     * @param length
+     * - length of the packet
+     * @return RMCPMessage
+     * @throws IllegalArgumentException
+     * - occurs when message is too short or contains invalid data
+     */
+    public static RmcpMessage decode(byte[] buffer, int offset, int length) {
+        return decode(buffer, offset, length, new RmcpMessage());
+    }
 
-        if (rawMessage.length < 4) {
+    /**
+     * Decodes the RMCP packet held in a buffer into an existing message, so
+     * that one {@link RmcpMessage} can be reused for every received packet.
+     * @param buffer
+     * - buffer holding the packet
+     * @param offset
+     * - offset of the packet in the buffer
+     * @param length
+     * - length of the packet
+     * @param message
+     * - message receiving the decoded fields
+     * @return the message passed as an argument
+     * @throws IllegalArgumentException
+     * - occurs when message is too short or contains invalid data
+     */
+    public static RmcpMessage decode(byte[] buffer, int offset, int length, RmcpMessage message) {
+        if (length < RmcpEncoder.HEADER_LENGTH) {
             throw new IllegalArgumentException("Message is corrupted");
         }
 
-        message.setVersion(decodeVersion(rawMessage[0]));
+        message.setVersion(decodeVersion(buffer[offset]));
 
         // byte 1 is reserved
 
-        message.setSequenceNumber(decodeSequenceNumber(rawMessage[2]));
+        message.setSequenceNumber(decodeSequenceNumber(buffer[offset + 2]));
 
-        message.setClassOfMessage(decodeClassOfMessage(rawMessage[3]));
+        message.setClassOfMessage(decodeClassOfMessage(buffer[offset + 3]));
 
-        message.setData(decodeData(rawMessage));
+        message.setData(buffer, offset + RmcpEncoder.HEADER_LENGTH,
+                length - RmcpEncoder.HEADER_LENGTH);
 
         return message;
     }
@@ -76,11 +112,4 @@ public final class RmcpDecoder {
         return RmcpClassOfMessage.parseInt(TypeConverter.byteToInt(classOfMessage) & 0x9f); 
         // bits 5 and 6 are reserved so we need to get rid of them
     }
-
-    private static byte[] decodeData(byte[] rawMessage) {
-        byte[] data = new byte[rawMessage.length - 4];
-        System.arraycopy(rawMessage, 4, data, 0, data.length);
-        return data;
-    }
-
 }
@@ -29,6 +29,11 @@ import org.metricshub.ipmi.core.common.TypeConverter;
  */
 public final class RmcpEncoder {
 
+    /**
+     * Length of the RMCP header preceding the message data.
+     */
+    public static final int HEADER_LENGTH = 4;
+
     private RmcpEncoder() {
     }
 
@@ -40,19 +45,38 @@ public final class RmcpEncoder {
      * @return byte data containing ready to send RMCP packet
      */
     public static byte[] encode(RmcpMessage message) {
-        byte[] data = new byte[message.getData().length + 4];
+        byte[] data = new byte[message.getData().length + HEADER_LENGTH];
 
-        data[0] = encodeVersion(message.getVersion());
+        encodeHeader(message.getVersion(), message.getSequenceNumber(),
+                message.getClassOfMessage(), data);
 
-        data[1] = 0; // reserved
+        encodeData(message.getData(), data);
+
+        return data;
+    }
 
-        data[2] = encodeSequenceNumber(message.getSequenceNumber());
+    /**
+     * Writes the RMCP header into the first {@link #HEADER_LENGTH} bytes of a
+     * packet whose data has been or will be encoded directly after it.
+     *
+     * @param version
+     *            - RMCP version
+     * @param sequenceNumber
+     *            - RMCP sequence number
+     * @param classOfMessage
+     *            - class of the message carried in the packet
+     * @param packet
+     *            - packet being created
+     */
+    public static void encodeHeader(RmcpVersion version, byte sequenceNumber,
+            RmcpClassOfMessage classOfMessage, byte[] packet) {
+        packet[0] = encodeVersion(version);
 
-        data[3] = encodeRMCPClassOfMessage(message.getClassOfMessage());
+        packet[1] = 0; // reserved
 
-        encodeData(message.getData(), data);
+        packet[2] = encodeSequenceNumber(sequenceNumber);
 
-        return data;
+        packet[3] = encodeRMCPClassOfMessage(classOfMessage);
     }
 
     private static byte encodeVersion(RmcpVersion version) {
@@ -82,6 +106,6 @@ public final class RmcpEncoder {
      *            - result message
      */
     private static void encodeData(byte[] data, byte[] message) {
-        System.arraycopy(data, 0, message, 4, data.length);
+        System.arraycopy(data, 0, message, HEADER_LENGTH, data.length);
     }
 }
@@ -24,6 +24,8 @@ package org.metricshub.ipmi.core.coding.rmcp;
 
 import org.metricshub.ipmi.core.common.TypeConverter;
 
+import java.util.Arrays;
+
 /**
  * A wrapper class for RMCP message.
  */
@@ -32,6 +34,8 @@ public class RmcpMessage {
     private byte sequenceNumber;
     private RmcpClassOfMessage classOfMessage;
     private byte[] data;
+    private int dataOffset;
+    private int dataLength;
 
     public RmcpMessage() {
         setSequenceNumber(0xff);
@@ -71,9 +75,52 @@ public class RmcpMessage {
 
     public void setData(byte[] data) {
         this.data = data;
+        this.dataOffset = 0;
+        this.dataLength = data == null ? 0 : data.length;
+    }
+
+    /**
+     * Sets the message data as a view on a buffer, e.g. the received datagram.
+     *
+     * @param buffer
+     *            - buffer holding the data
+     * @param offset
+     *            - offset of the data in the buffer
+     * @param length
+     *            - length of the data
+     */
+    public void setData(byte[] buffer, int offset, int length) {
+        this.data = buffer;
+        this.dataOffset = offset;
+        this.dataLength = length;
     }
 
+    /**
+     * Returns the message data. If the data is a view on a larger buffer, it
+     * is copied out of it on the first call. Decoders should use
+     * {@link #getDataBuffer()}, {@link #getDataOffset()} and
+     * {@link #getDataLength()} instead.
+     */
     public byte[] getData() {
+        if (data != null && (dataOffset != 0 || dataLength != data.length)) {
+            setData(Arrays.copyOfRange(data, dataOffset, dataOffset + dataLength));
+        }
+        return data;
+    }
+
+    /**
+     * @return buffer holding the message data, starting at
+     *         {@link #getDataOffset()}
+     */
+    public byte[] getDataBuffer() {
         return data;
     }
+
+    public int getDataOffset() {
+        return dataOffset;
+    }
+
+    public int getDataLength() {
+        return dataLength;
+    }
 }
@@ -22,8 +22,10 @@ package org.metricshub.ipmi.core.coding.security;
  * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
  */
 
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.Arrays;
 
 import javax.crypto.Cipher;
@@ -35,7 +37,9 @@ import javax.crypto.spec.SecretKeySpec;
 import org.metricshub.ipmi.core.common.TypeConverter;
 
 /**
- * AES-CBC-128 confidentiality algorithm
+ * AES-CBC-128 confidentiality algorithm. The ciphers are created once per
+ * session and pooled, each message re-initializing one with its own
+ * initialization vector, so no cipher is looked up per message.
  */
 public class ConfidentialityAesCbc128 extends ConfidentialityAlgorithm {
 
@@ -44,10 +48,14 @@ public class ConfidentialityAesCbc128 extends ConfidentialityAlgorithm {
 		Arrays.fill(CONST2, (byte) 2);
 	}
 
-    private Cipher cipher;
+    private static final int BLOCK_SIZE = 16;
+
+    private final SecureRandom random = new SecureRandom();
 
     private SecretKeySpec cipherKey;
 
+    private CryptoContextPool<AesContext> ciphers;
+
     @Override
     public byte getCode() {
         return SecurityConstants.CA_AES_CBC128;
@@ -72,72 +80,102 @@ public class ConfidentialityAesCbc128 extends ConfidentialityAlgorithm {
 
         cipherKey = new SecretKeySpec(ciphKey, "AES");
 
-        cipher = Cipher.getInstance("AES/CBC/NoPadding");
+        ciphers = new CryptoContextPool<AesContext>(() -> {
+            try {
+                return new AesContext();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }, new AesContext());
     }
 
     @Override
     public byte[] encrypt(byte[] data) throws InvalidKeyException {
-        int length = data.length + 17;
-        int pad = 0;
-        if (length % 16 != 0) {
-            pad = 16 - length % 16;
+        byte[] result = new byte[data.length + getConfidentialityOverheadSize(data.length)];
+
+        encrypt(data, 0, data.length, result, 0);
+
+        return result;
+    }
+
+    @Override
+    public int encrypt(byte[] data, int offset, int length, byte[] output, int outputOffset)
+            throws InvalidKeyException {
+        if (cipherKey == null) {
+            throw new InvalidKeyException("Algorithm not initialized.");
         }
-        length += pad;
 
-        byte[] result = new byte[length - 16];
+        int size = length + 1;
+        int pad = 0;
+        if (size % BLOCK_SIZE != 0) {
+            pad = BLOCK_SIZE - size % BLOCK_SIZE;
+        }
+        size += pad;
 
-        cipher.init(Cipher.ENCRYPT_MODE, cipherKey);
+        int start = outputOffset + BLOCK_SIZE;
 
-        System.arraycopy(data, 0, result, 0, data.length);
+        System.arraycopy(data, offset, output, start, length);
 
         for (int i = 0; i < pad; ++i) {
-            result[i + data.length] = TypeConverter.intToByte(i + 1);
+            output[start + length + i] = TypeConverter.intToByte(i + 1);
         }
 
-        result[length - 17] = TypeConverter.intToByte(pad);
+        output[start + length + pad] = TypeConverter.intToByte(pad);
 
+        AesContext context = ciphers.borrow();
         try {
-            byte[] encrypted = cipher.doFinal(result);
-
-            result = new byte[encrypted.length + 16];
+            // Initialization vector
+            random.nextBytes(context.iv);
+            System.arraycopy(context.iv, 0, output, outputOffset, BLOCK_SIZE);
 
-            System.arraycopy(encrypted, 0, result, 16, encrypted.length); // encrypted
-                                                                            // payload
-            System.arraycopy(cipher.getIV(), 0, result, 0, 16); // Initialization
-                                                                // vector
-
-            return result;
+            context.encryptor.init(Cipher.ENCRYPT_MODE, cipherKey, new IvParameterSpec(context.iv));
+            context.encryptor.doFinal(output, start, size, output, start);
         } catch (Exception e) {
             throw new IllegalArgumentException(e.getMessage(), e);
+        } finally {
+            ciphers.release(context);
         }
+
+        return BLOCK_SIZE + size;
     }
 
     @Override
     public byte[] decrypt(byte[] data) {
+        byte[] decrypted = new byte[data.length];
 
-        byte[] decrypted = null;
-        try {
-            byte[] iv = new byte[16];
+        int length = decrypt(data, 0, data.length, decrypted, 0);
 
-            System.arraycopy(data, 0, iv, 0, 16);
+        return Arrays.copyOf(decrypted, length);
+    }
+
+    @Override
+    public int decrypt(byte[] data, int offset, int length, byte[] output, int outputOffset) {
+        int size = length - BLOCK_SIZE;
 
-            byte[] encrypted = new byte[data.length - 16];
+        if (cipherKey == null || size <= 0 || size % BLOCK_SIZE != 0) {
+            throw new IllegalArgumentException("Decryption failed");
+        }
 
-            System.arraycopy(data, 16, encrypted, 0, encrypted.length);
+        AesContext context = ciphers.borrow();
+        try {
+            // Initialization vector
+            System.arraycopy(data, offset, context.iv, 0, BLOCK_SIZE);
 
-            cipher.init(Cipher.DECRYPT_MODE, cipherKey, new IvParameterSpec(iv));
-            decrypted = cipher.doFinal(encrypted);
+            context.decryptor.init(Cipher.DECRYPT_MODE, cipherKey, new IvParameterSpec(context.iv));
+            context.decryptor.doFinal(data, offset + BLOCK_SIZE, size, output, outputOffset);
         } catch (Exception e) {
             throw new IllegalArgumentException("Decryption failed", e);
+        } finally {
+            ciphers.release(context);
         }
 
-        int pad = TypeConverter.byteToInt(decrypted[decrypted.length - 1]);
-
-        byte[] result = new byte[decrypted.length - pad - 1];
+        int pad = TypeConverter.byteToInt(output[outputOffset + size - 1]);
 
-        System.arraycopy(decrypted, 0, result, 0, result.length);
+        if (pad >= size) {
+            throw new IllegalArgumentException("Decryption failed");
+        }
 
-        return result;
+        return size - pad - 1;
     }
 
     @Override
@@ -149,4 +187,22 @@ public class ConfidentialityAesCbc128 extends ConfidentialityAlgorithm {
         return size;
     }
 
+    /**
+     * AES-CBC ciphers of the session and their initialization vector, used by
+     * one thread at a time.
+     */
+    private static final class AesContext {
+
+        private final Cipher encryptor;
+
+        private final Cipher decryptor;
+
+        private final byte[] iv = new byte[BLOCK_SIZE];
+
+        private AesContext() throws NoSuchAlgorithmException, NoSuchPaddingException {
+            encryptor = Cipher.getInstance("AES/CBC/NoPadding");
+            decryptor = Cipher.getInstance("AES/CBC/NoPadding");
+        }
+    }
+
 }
@@ -25,6 +25,7 @@ package org.metricshub.ipmi.core.coding.security;
 import javax.crypto.NoSuchPaddingException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
 /**
  * Interface for Confidentiality Algorithms. All classes extending this one must
@@ -70,6 +71,34 @@ public abstract class ConfidentialityAlgorithm {
      */
     public abstract byte[] encrypt(byte[] data) throws InvalidKeyException;
 
+    /**
+     * Encrypts the data held in a buffer into the output buffer, e.g. the
+     * packet being encoded. The output buffer must be able to hold length +
+     * {@link #getConfidentialityOverheadSize(int)} bytes and must not overlap
+     * the data.
+     *
+     * @param data
+     *            - buffer holding the payload to be encrypted
+     * @param offset
+     *            - offset of the payload in the buffer
+     * @param length
+     *            - length of the payload
+     * @param output
+     *            - buffer the encrypted data encapsulated in Confidentiality
+     *            Header and Trailer is written to
+     * @param outputOffset
+     *            - offset of the encrypted data in the output buffer
+     * @return length of the encrypted data.
+     * @throws InvalidKeyException
+     *             - when initiation of the algorithm fails
+     */
+    public int encrypt(byte[] data, int offset, int length, byte[] output, int outputOffset)
+            throws InvalidKeyException {
+        byte[] encrypted = encrypt(Arrays.copyOfRange(data, offset, offset + length));
+        System.arraycopy(encrypted, 0, output, outputOffset, encrypted.length);
+        return encrypted.length;
+    }
+
     /**
      * Decrypts the data.
      *
@@ -82,6 +111,32 @@ public abstract class ConfidentialityAlgorithm {
      */
     public abstract byte[] decrypt(byte[] data);
 
+    /**
+     * Decrypts the data held in a buffer into the output buffer. The output
+     * buffer must be able to hold length bytes, since the decrypted data is
+     * never longer than the encrypted one, and must not overlap the data.
+     *
+     * @param data
+     *            - buffer holding the encrypted data encapsulated in
+     *            Confidentiality Header and Trailer.
+     * @param offset
+     *            - offset of the encrypted data in the buffer
+     * @param length
+     *            - length of the encrypted data
+     * @param output
+     *            - buffer the decrypted data is written to
+     * @param outputOffset
+     *            - offset of the decrypted data in the output buffer
+     * @return length of the decrypted data.
+     * @throws IllegalArgumentException
+     *             - when initiation of the algorithm fails
+     */
+    public int decrypt(byte[] data, int offset, int length, byte[] output, int outputOffset) {
+        byte[] decrypted = decrypt(Arrays.copyOfRange(data, offset, offset + length));
+        System.arraycopy(decrypted, 0, output, outputOffset, decrypted.length);
+        return decrypted.length;
+    }
+
     /**
      * Calculates size of the confidentiality header and trailer specific for
      * the algorithm.
@@ -46,6 +46,18 @@ public class ConfidentialityNone extends ConfidentialityAlgorithm {
         return data;
     }
 
+    @Override
+    public int encrypt(byte[] data, int offset, int length, byte[] output, int outputOffset) {
+        System.arraycopy(data, offset, output, outputOffset, length);
+        return length;
+    }
+
+    @Override
+    public int decrypt(byte[] data, int offset, int length, byte[] output, int outputOffset) {
+        System.arraycopy(data, offset, output, outputOffset, length);
+        return length;
+    }
+
     @Override
     public int getConfidentialityOverheadSize(int payloadSize) {
         return 0;
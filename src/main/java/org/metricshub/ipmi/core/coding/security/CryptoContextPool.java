@@ -0,0 +1,88 @@
+package org.metricshub.ipmi.core.coding.security;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Idle {@link javax.crypto.Cipher} or {@link javax.crypto.Mac} contexts of one
+ * session's algorithm. A context is used by one thread at a time: senders and
+ * receivers borrow one, use it and release it, so concurrent messages on the
+ * session never share a context. Borrowing and releasing do not lock or
+ * allocate. Contexts are only created when more threads than
+ * {@link #SIZE} use the session at the same time.
+ *
+ * @param <T>
+ *            - type of the context
+ */
+final class CryptoContextPool<T> {
+
+    /**
+     * Maximum number of idle contexts kept per algorithm instance.
+     */
+    static final int SIZE = 4;
+
+    private final AtomicReferenceArray<T> idle = new AtomicReferenceArray<T>(SIZE);
+
+    private final Supplier<T> factory;
+
+    /**
+     * @param factory
+     *            - creates a new initialized context when none is idle
+     * @param first
+     *            - context already initialized by the algorithm
+     */
+    CryptoContextPool(Supplier<T> factory, T first) {
+        this.factory = factory;
+        idle.set(0, first);
+    }
+
+    /**
+     * @return an idle context, or a new one if all are in use
+     */
+    T borrow() {
+        for (int i = 0; i < SIZE; ++i) {
+            T context = idle.get(i);
+            if (context != null && idle.compareAndSet(i, context, null)) {
+                return context;
+            }
+        }
+        return factory.get();
+    }
+
+    /**
+     * Gives a borrowed context back. It is dropped if enough contexts are
+     * idle already.
+     *
+     * @param context
+     *            - context returned by {@link #borrow()}
+     */
+    void release(T context) {
+        for (int i = 0; i < SIZE; ++i) {
+            if (idle.get(i) == null && idle.compareAndSet(i, null, context)) {
+                return;
+            }
+        }
+    }
+}
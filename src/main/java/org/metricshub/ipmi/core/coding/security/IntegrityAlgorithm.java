@@ -29,6 +29,7 @@ import java.security.InvalidKeyException;
 import java.util.Arrays;
 
 import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.SecretKeySpec;
 
 /**
@@ -45,6 +46,12 @@ public abstract class IntegrityAlgorithm {
 	protected byte[] sik;
 	private final Mac mac;
 
+	/**
+	 * MACs keyed with K1 for this session, so that concurrent messages do not
+	 * share one.
+	 */
+	private CryptoContextPool<MacContext> macs;
+
 	/**
 	 * Constructs an integrity algorithm.
 	 */
@@ -74,9 +81,23 @@ public abstract class IntegrityAlgorithm {
 		SecretKeySpec k1 = new SecretKeySpec(sik, algorithmName);
 
 		mac.init(k1);
-		k1 = new SecretKeySpec(mac.doFinal(CONST1), algorithmName);
+		final SecretKeySpec key = new SecretKeySpec(mac.doFinal(CONST1), algorithmName);
 
-		mac.init(k1);
+		mac.init(key);
+		macs = new CryptoContextPool<MacContext>(() -> newMacContext(algorithmName, key), new MacContext(mac));
+	}
+
+	/**
+	 * Creates a MAC keyed for this session.
+	 */
+	private static MacContext newMacContext(final String algorithmName, final SecretKeySpec key) {
+		final Mac newMac = CipherSuite.newMacInstance(algorithmName);
+		try {
+			newMac.init(key);
+		} catch (InvalidKeyException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+		return new MacContext(newMac);
 	}
 
 	/**
@@ -109,11 +130,84 @@ public abstract class IntegrityAlgorithm {
 			updatedBase = base;
 		}
 
-		System.arraycopy(mac.doFinal(updatedBase), 0, result, 0, authCodeLength);
+		final MacContext context = macs.borrow();
+		try {
+			context.mac.update(updatedBase);
+			System.arraycopy(context.doFinal(), 0, result, 0, authCodeLength);
+		} finally {
+			macs.release(context);
+		}
 
 		return result;
 	}
 
+	/**
+	 * Creates AuthCode field for a message encoded with its session trailer in
+	 * place. The Integrity Pad, Pad Length and Next Header fields must already
+	 * be present in the base.
+	 *
+	 * @param message        - buffer holding the encoded message
+	 * @param offset         - offset of the AuthType/Format field in message
+	 * @param length         - length of the data up to and including the Next
+	 *                       Header field
+	 * @param authCode       - buffer the AuthCode field is written to
+	 * @param authCodeOffset - offset of the AuthCode field in authCode
+	 */
+	public void generateAuthCode(final byte[] message, final int offset, final int length,
+			final byte[] authCode, final int authCodeOffset) {
+
+		if (sik == null) {
+			throw new NullPointerException("Algorithm not initialized.");
+		}
+
+		final MacContext context = macs.borrow();
+		try {
+			context.mac.update(message, offset, length);
+			System.arraycopy(context.doFinal(), 0, authCode, authCodeOffset, getAuthCodeLength());
+		} finally {
+			macs.release(context);
+		}
+	}
+
+	/**
+	 * Checks the AuthCode field of a received message without copying it.
+	 *
+	 * @param message          - buffer holding the received message
+	 * @param offset           - offset of the AuthType/Format field in message
+	 * @param length           - length of the data up to and including the Next
+	 *                         Header field
+	 * @param authCode         - buffer holding the AuthCode field
+	 * @param authCodeOffset   - offset of the AuthCode field in authCode
+	 * @param authCodeLength   - length of the received AuthCode field
+	 * @return True if AuthCode is correct, false otherwise.
+	 */
+	public boolean checkAuthCode(final byte[] message, final int offset, final int length,
+			final byte[] authCode, final int authCodeOffset, final int authCodeLength) {
+
+		if (sik == null) {
+			throw new NullPointerException("Algorithm not initialized.");
+		}
+
+		if (authCodeLength != getAuthCodeLength()) {
+			return false;
+		}
+
+		final MacContext context = macs.borrow();
+		try {
+			context.mac.update(message, offset, length);
+			final byte[] expected = context.doFinal();
+
+			int difference = 0;
+			for (int i = 0; i < authCodeLength; ++i) {
+				difference |= expected[i] ^ authCode[authCodeOffset + i];
+			}
+
+			return difference == 0;
+		} finally {
+			macs.release(context);
+		}
+	}
+
 	/**
 	 * Modifies the algorithm base since with null Auth Code during encoding
 	 * Integrity Pad isn't calculated.
@@ -162,4 +256,32 @@ public abstract class IntegrityAlgorithm {
 	 */
 	public abstract int getAuthCodeLength();
 
+	/**
+	 * A MAC used by one thread at a time, with the buffer its result is
+	 * written to.
+	 */
+	private static final class MacContext {
+
+		private final Mac mac;
+
+		private final byte[] digest;
+
+		private MacContext(final Mac mac) {
+			this.mac = mac;
+			this.digest = new byte[mac.getMacLength()];
+		}
+
+		/**
+		 * Completes the MAC operation into {@link #digest}.
+		 */
+		private byte[] doFinal() {
+			try {
+				mac.doFinal(digest, 0);
+			} catch (ShortBufferException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+			return digest;
+		}
+	}
+
 }
@@ -51,6 +51,18 @@ public class IntegrityNone extends IntegrityAlgorithm {
 		return null;
 	}
 
+	@Override
+	public void generateAuthCode(byte[] message, int offset, int length, byte[] authCode,
+			int authCodeOffset) {
+		// No AuthCode field
+	}
+
+	@Override
+	public boolean checkAuthCode(byte[] message, int offset, int length, byte[] authCode,
+			int authCodeOffset, int authCodeLength) {
+		return authCodeLength == 0;
+	}
+
 	@Override
 	public String getAlgorithmName() {
 		return "";
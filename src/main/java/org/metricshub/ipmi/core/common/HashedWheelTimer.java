@@ -0,0 +1,402 @@
+package org.metricshub.ipmi.core.common;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timer backed by a hashed timing wheel, shared by all message queues and
+ * connections of the JVM, so that the number of timer threads does not grow
+ * with the number of managed systems.
+ * <p>
+ * Time is divided into ticks. Each task is put in the bucket of the tick in
+ * which it expires, along with the number of wheel rounds it has to wait.
+ * Scheduling and cancelling are O(1) and tasks expire with the precision of
+ * one tick. The timer thread only hands expired tasks over to an
+ * {@link Executor}, so tasks may block (e.g. send a message or call a
+ * listener) without delaying the other timeouts. A periodic task does not
+ * run again while its previous run is still in progress.
+ * </p>
+ */
+public class HashedWheelTimer {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private static final long DEFAULT_TICK_DURATION = 10;
+
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final int DEFAULT_TASK_THREADS = 8;
+
+    /**
+     * Time in seconds after which an idle task thread stops
+     */
+    private static final long TASK_THREAD_KEEP_ALIVE_TIME = 60;
+
+    private static HashedWheelTimer defaultTimer;
+
+    private final long tickDuration;
+
+    private final List<List<Timeout>> wheel;
+
+    private final int mask;
+
+    private final Queue<Timeout> newTimeouts;
+
+    private final long startTime;
+
+    private final Thread worker;
+
+    private final Executor executor;
+
+    /**
+     * Executor created by this timer, shut down when the timer stops. Null if
+     * the executor was given.
+     */
+    private final ExecutorService ownExecutor;
+
+    private volatile boolean running;
+
+    /**
+     * Starts the timer with its own pool of task threads.
+     *
+     * @param tickDuration
+     *            - duration of a tick
+     * @param unit
+     *            - unit of the tick duration
+     * @param wheelSize
+     *            - number of buckets of the wheel, rounded up to a power of 2
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize) {
+        this(tickDuration, unit, wheelSize, DEFAULT_TASK_THREADS);
+    }
+
+    /**
+     * Starts the timer with its own pool of task threads.
+     *
+     * @param tickDuration
+     *            - duration of a tick
+     * @param unit
+     *            - unit of the tick duration
+     * @param wheelSize
+     *            - number of buckets of the wheel, rounded up to a power of 2
+     * @param taskThreads
+     *            - maximum number of tasks running at the same time, the
+     *            other expired tasks wait for a free thread
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, int taskThreads) {
+        this(tickDuration, unit, wheelSize, newTaskExecutor(taskThreads), true);
+    }
+
+    /**
+     * Starts the timer.
+     *
+     * @param tickDuration
+     *            - duration of a tick
+     * @param unit
+     *            - unit of the tick duration
+     * @param wheelSize
+     *            - number of buckets of the wheel, rounded up to a power of 2
+     * @param executor
+     *            - executor running the expired tasks
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, Executor executor) {
+        this(tickDuration, unit, wheelSize, executor, false);
+    }
+
+    private HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, Executor executor,
+            boolean ownsExecutor) {
+        if (tickDuration <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+
+        this.tickDuration = unit.toNanos(tickDuration);
+        wheel = new ArrayList<List<Timeout>>(size);
+        for (int i = 0; i < size; ++i) {
+            wheel.add(new ArrayList<Timeout>());
+        }
+        this.executor = executor;
+        ownExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        mask = size - 1;
+        newTimeouts = new ConcurrentLinkedQueue<Timeout>();
+        startTime = System.nanoTime();
+        running = true;
+
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                work();
+            }
+        }, "ipmi-timer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private static ExecutorService newTaskExecutor(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Task thread count must be positive");
+        }
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, TASK_THREAD_KEEP_ALIVE_TIME,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), runnable -> {
+                    Thread thread = new Thread(runnable, "ipmi-timer-task-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Returns the timer shared by the whole library. Its tick duration (ms),
+     * wheel size and number of task threads are read from the
+     * <code>timerTickDuration</code>, <code>timerWheelSize</code> and
+     * <code>timerThreads</code> properties.
+     */
+    public static synchronized HashedWheelTimer getDefault() {
+        if (defaultTimer == null) {
+            PropertiesManager manager = PropertiesManager.getInstance();
+            String tick = manager.getProperty("timerTickDuration");
+            String size = manager.getProperty("timerWheelSize");
+            String threads = manager.getProperty("timerThreads");
+
+            defaultTimer = new HashedWheelTimer(
+                    tick == null ? DEFAULT_TICK_DURATION : Long.parseLong(tick), TimeUnit.MILLISECONDS,
+                    size == null ? DEFAULT_WHEEL_SIZE : Integer.parseInt(size),
+                    threads == null ? DEFAULT_TASK_THREADS : Integer.parseInt(threads));
+        }
+        return defaultTimer;
+    }
+
+    /**
+     * Runs the task once after the given delay.
+     *
+     * @param task
+     *            - task to run
+     * @param delay
+     *            - delay before the task runs
+     * @param unit
+     *            - unit of the delay
+     * @return handle allowing to cancel the task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(delay), 0);
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Runs the task periodically, each run being scheduled one period after
+     * the previous one started.
+     *
+     * @param task
+     *            - task to run
+     * @param initialDelay
+     *            - delay before the first run
+     * @param period
+     *            - period between runs
+     * @param unit
+     *            - unit of the delay and period
+     * @return handle allowing to cancel the task
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(initialDelay), unit.toNanos(period));
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the timer thread and the task threads it created. Tasks not run
+     * yet are dropped.
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        if (ownExecutor != null) {
+            ownExecutor.shutdownNow();
+        }
+    }
+
+    private void work() {
+        long tick = 0;
+
+        while (running) {
+            long deadline = startTime + (tick + 1) * tickDuration;
+            long sleep = deadline - System.nanoTime();
+
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                }
+                continue;
+            }
+
+            transferNewTimeouts(tick);
+            expire(wheel.get((int) (tick & mask)), deadline);
+            ++tick;
+        }
+    }
+
+    private void transferNewTimeouts(long currentTick) {
+        Timeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            if (!timeout.cancelled) {
+                place(timeout, currentTick);
+            }
+        }
+    }
+
+    private void place(Timeout timeout, long currentTick) {
+        long ticks = (timeout.deadline - startTime) / tickDuration;
+
+        // expired tasks go to the current bucket
+        long targetTick = Math.max(ticks, currentTick);
+
+        timeout.remainingRounds = (targetTick - currentTick) / wheel.size();
+        wheel.get((int) (targetTick & mask)).add(timeout);
+    }
+
+    private void expire(List<Timeout> bucket, long deadline) {
+        List<Timeout> rescheduled = null;
+        Iterator<Timeout> iterator = bucket.iterator();
+
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.remainingRounds > 0) {
+                --timeout.remainingRounds;
+            } else if (timeout.deadline - deadline <= 0) {
+                iterator.remove();
+                run(timeout);
+
+                if (timeout.period > 0 && !timeout.cancelled) {
+                    timeout.deadline += timeout.period;
+                    if (rescheduled == null) {
+                        rescheduled = new ArrayList<Timeout>();
+                    }
+                    rescheduled.add(timeout);
+                }
+            }
+        }
+
+        if (rescheduled != null) {
+            newTimeouts.addAll(rescheduled);
+        }
+    }
+
+    /**
+     * Hands the expired task over to the executor, unless its previous run is
+     * still in progress.
+     */
+    private void run(final Timeout timeout) {
+        if (!timeout.inProgress.compareAndSet(false, true)) {
+            logger.debug("Previous run of {} still in progress, skipped", timeout.task);
+            return;
+        }
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        timeout.task.run();
+                    } catch (Exception e) {
+                        logger.error(e.getMessage(), e);
+                    } finally {
+                        timeout.inProgress.set(false);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            timeout.inProgress.set(false);
+            if (running) {
+                logger.error("Timer task rejected by the executor", e);
+            }
+        }
+    }
+
+    /**
+     * Handle of a task scheduled in the {@link HashedWheelTimer}.
+     */
+    public static class Timeout {
+
+        private final Runnable task;
+
+        private final long period;
+
+        private long deadline;
+
+        private long remainingRounds;
+
+        private volatile boolean cancelled;
+
+        private final AtomicBoolean inProgress = new AtomicBoolean();
+
+        private Timeout(Runnable task, long deadline, long period) {
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        /**
+         * Cancels the task. A periodic task will not run again.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
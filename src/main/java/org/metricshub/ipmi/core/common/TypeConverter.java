@@ -121,6 +121,41 @@ public final class TypeConverter {
         return result;
     }
 
+    /**
+     * Reads an int in a little endian convention from a buffer without
+     * copying it.
+     *
+     * @param buffer
+     *            Byte array holding values.
+     * @param offset
+     *            Offset of the least significant byte.
+     * @return 4 bytes at offset converted to int in a little endian
+     *         convention.
+     * @throws IndexOutOfBoundsException
+     *             when buffer is too short to hold the value at offset.
+     */
+    public static int littleEndianByteArrayToInt(byte[] buffer, int offset) {
+        return byteToInt(buffer[offset])
+                | byteToInt(buffer[offset + 1]) << 8
+                | byteToInt(buffer[offset + 2]) << 16
+                | byteToInt(buffer[offset + 3]) << 24;
+    }
+
+    /**
+     * Reads a LittleEndian word from a buffer without copying it.
+     *
+     * @param buffer
+     *            Byte array holding values.
+     * @param offset
+     *            Offset of the least significant byte.
+     * @return 2 bytes at offset converted to int
+     * @throws IndexOutOfBoundsException
+     *             when buffer is too short to hold the value at offset.
+     */
+    public static int littleEndianWordToInt(byte[] buffer, int offset) {
+        return byteToInt(buffer[offset]) | byteToInt(buffer[offset + 1]) << 8;
+    }
+
     /**
      * Because Java doesn't support unsigned byte values, simple type casting
      * leads to overflows and wrong values. This function casts int to pseudo
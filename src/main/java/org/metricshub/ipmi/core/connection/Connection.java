@@ -39,6 +39,7 @@ import org.metricshub.ipmi.core.coding.security.CipherSuite;
 import org.metricshub.ipmi.core.coding.security.ConfidentialityAesCbc128;
 import org.metricshub.ipmi.core.coding.security.IntegrityHmacSha1_96;
 import org.metricshub.ipmi.core.common.Constants;
+import org.metricshub.ipmi.core.common.HashedWheelTimer;
 import org.metricshub.ipmi.core.common.PropertiesManager;
 import org.metricshub.ipmi.core.common.TypeConverter;
 import org.metricshub.ipmi.core.sm.MachineObserver;
@@ -74,20 +75,27 @@ import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 /**
  * A connection with the specific remote host.
  */
-public class Connection extends TimerTask implements MachineObserver {
+public class Connection implements MachineObserver, Runnable {
     private static final Logger logger = LoggerFactory.getLogger(Connection.class);
 
     private static final int DEFAULT_CIPHER_SUITE = 3;
     private static final int SESSION_SEQUENCE_NUMBER_UPPER_BOUND = Integer.MAX_VALUE / 4;
     private static final String ILLEGAL_CONNECTION_STATE_MESSAGE = "Illegal connection state: ";
 
+    /**
+     * Delay in ms before retrying a keep-alive message that could not be sent.
+     */
+    private static final long KEEP_ALIVE_RETRY_DELAY = 1000;
+
     private List<ConnectionListener> listeners;
     private StateMachine stateMachine;
 
@@ -95,7 +103,15 @@ public class Connection extends TimerTask implements MachineObserver {
      * Time in ms after which a message times out.
      */
     private int timeout = -1;
-    private StateMachineAction lastAction;
+    /**
+     * Time by which the session must be established, as a {@link System#nanoTime()} value, 0 if there is none.
+     */
+    private volatile long deadline;
+    /**
+     * Completed with the next action reported by the {@link StateMachine}
+     * while the session is being established.
+     */
+    private volatile CompletableFuture<StateMachineAction> pendingAction = new CompletableFuture<StateMachineAction>();
     private int sessionId;
     private int managedSystemSessionId;
     private byte[] sik;
@@ -108,7 +124,7 @@ public class Connection extends TimerTask implements MachineObserver {
 
     private Map<PayloadType, MessageHandler> messageHandlers;
 
-    private Timer timer;
+    private HashedWheelTimer.Timeout keepAlive;
 
     private AtomicInteger currentSessionSequenceNumber;
 
@@ -124,6 +140,17 @@ public class Connection extends TimerTask implements MachineObserver {
         }
     }
 
+    /**
+     * Sets the time by which the session must be established. Once it has passed, the steps of the session
+     * establishment stop waiting for the managed system and throw a {@link TimeoutException}, whatever the timeout.
+     *
+     * @param deadline
+     *            - the deadline as a {@link System#nanoTime()} value, 0 to wait up to the timeout
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
     /**
      * Creates the connection.
      *
@@ -206,8 +233,8 @@ public class Connection extends TimerTask implements MachineObserver {
 		// If the pingPeriod greater than 0, start the timer otherwise don't start it
 		// means that the connection won't be kept alive by sending no-op messages
 		if (pingPeriod > 0) {
-			timer = new Timer();
-			timer.schedule(this, pingPeriod, pingPeriod);
+			keepAlive = HashedWheelTimer.getDefault().scheduleAtFixedRate(this, pingPeriod, pingPeriod,
+					TimeUnit.MILLISECONDS);
 		}
 
         stateMachine.register(this);
@@ -226,8 +253,8 @@ public class Connection extends TimerTask implements MachineObserver {
      * @see #connect(InetAddress, int, int)
      */
     public void disconnect() {
-		if (timer != null) {
-			timer.cancel();
+		if (keepAlive != null) {
+			keepAlive.cancel();
 		}
 
         stateMachine.stop();
@@ -275,13 +302,11 @@ public class Connection extends TimerTask implements MachineObserver {
 
         while (process) {
 
-            lastAction = null;
+            expectResponse();
 
             stateMachine.doTransition(new GetChannelCipherSuitesPending(tag));
 
-            waitForResponse();
-
-            ResponseAction action = (ResponseAction) lastAction;
+            ResponseAction action = (ResponseAction) waitForResponse();
 
             if (!(action.getIpmiResponseData() instanceof GetChannelCipherSuitesResponseData)) {
                 stateMachine.doTransition(new Timeout());
@@ -319,29 +344,38 @@ public class Connection extends TimerTask implements MachineObserver {
         return CipherSuite.getCipherSuites(csRaw);
     }
 
-    private void waitForResponse() throws Exception {
-        int time = 0;
+    private void expectResponse() {
+        pendingAction = new CompletableFuture<StateMachineAction>();
+    }
 
-        while (time < timeout && lastAction == null) {
-            try {
-                Thread.sleep(1);
-            } catch (InterruptedException e) {
-                logger.error(e.getMessage(), e);
-            }
-            ++time;
+    private StateMachineAction waitForResponse() throws Exception {
+        StateMachineAction action;
+
+        final long currentDeadline = deadline;
+        long wait = TimeUnit.MILLISECONDS.toNanos(timeout);
+        if (currentDeadline != 0) {
+            wait = Math.min(wait, currentDeadline - System.nanoTime());
         }
 
-        if (lastAction == null) {
+        try {
+            action = pendingAction.get(wait, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
             stateMachine.doTransition(new Timeout());
+            if (currentDeadline != 0 && currentDeadline - System.nanoTime() <= 0) {
+                throw new TimeoutException("The deadline of the session establishment has passed");
+            }
             throw new ConnectionException("Command timed out");
         }
-        if (!(lastAction instanceof ResponseAction || lastAction instanceof GetSikAction)) {
-            if (lastAction instanceof ErrorAction) {
-                throw ((ErrorAction) lastAction).getException();
+
+        if (!(action instanceof ResponseAction || action instanceof GetSikAction)) {
+            if (action instanceof ErrorAction) {
+                throw ((ErrorAction) action).getException();
             }
             throw new ConnectionException("Invalid StateMachine response: "
-                    + lastAction.getClass().getSimpleName());
+                    + action.getClass().getSimpleName());
         }
+
+        return action;
     }
 
     /**
@@ -370,14 +404,12 @@ public class Connection extends TimerTask implements MachineObserver {
                     + stateMachine.getCurrent().getClass().getSimpleName());
         }
 
-        lastAction = null;
+        expectResponse();
 
         stateMachine.doTransition(new Default(cipherSuite, tag,
                 requestedPrivilegeLevel));
 
-        waitForResponse();
-
-        ResponseAction action = (ResponseAction) lastAction;
+        ResponseAction action = (ResponseAction) waitForResponse();
 
         if (!(action.getIpmiResponseData() instanceof GetChannelAuthenticationCapabilitiesResponseData)) {
             stateMachine.doTransition(new Timeout());
@@ -431,17 +463,13 @@ public class Connection extends TimerTask implements MachineObserver {
                     + stateMachine.getCurrent().getClass().getSimpleName());
         }
 
-        lastAction = null;
+        expectResponse();
 
         // Open Session
         stateMachine.doTransition(new Authorize(cipherSuite, tag,
                 privilegeLevel, sessionId));
 
-        waitForResponse();
-
-        ResponseAction action = (ResponseAction) lastAction;
-
-        lastAction = null;
+        ResponseAction action = (ResponseAction) waitForResponse();
 
         if (!(action.getIpmiResponseData() instanceof OpenSessionResponseData)) {
             stateMachine.doTransition(new Timeout());
@@ -454,16 +482,14 @@ public class Connection extends TimerTask implements MachineObserver {
 
         stateMachine.doTransition(new DefaultAck());
 
+        expectResponse();
+
         // RAKP 1
         stateMachine.doTransition(new OpenSessionAck(cipherSuite,
                 privilegeLevel, tag, managedSystemSessionId, username,
                 password, bmcKey));
 
-        waitForResponse();
-
-        action = (ResponseAction) lastAction;
-
-        lastAction = null;
+        action = (ResponseAction) waitForResponse();
 
         if (!(action.getIpmiResponseData() instanceof Rakp1ResponseData)) {
             stateMachine.doTransition(new Timeout());
@@ -478,13 +504,13 @@ public class Connection extends TimerTask implements MachineObserver {
 
         stateMachine.doTransition(new DefaultAck());
 
+        expectResponse();
+
         // RAKP 3
         stateMachine.doTransition(new Rakp2Ack(cipherSuite, tag, (byte) 0,
                 managedSystemSessionId, rakp1ResponseData));
 
-        waitForResponse();
-
-        action = (ResponseAction) lastAction;
+        action = (ResponseAction) waitForResponse();
 
         if (sik == null) {
             throw new ConnectionException("Session Integrity Key is null");
@@ -492,8 +518,6 @@ public class Connection extends TimerTask implements MachineObserver {
 
         cipherSuite.initializeAlgorithms(sik);
 
-        lastAction = null;
-
         if (!(action.getIpmiResponseData() instanceof Rakp3ResponseData)) {
             stateMachine.doTransition(new Timeout());
             throw new ConnectionException(
@@ -551,6 +575,34 @@ public class Connection extends TimerTask implements MachineObserver {
         return messageHandler.sendMessage(payloadCoder, stateMachine, managedSystemSessionId, isOneWay);
     }
 
+    /**
+     * Sends the IPMI message to the remote host, notifying the listener of the
+     * message's tag before the message is sent.
+     *
+     * @param payloadCoder
+     *            - {@link PayloadCoder} containing the request to be sent
+     * @param isOneWay
+     *            - tells whether this message is one way (needs response) or not.
+     * @param tagListener
+     *            - notified of the tag of the message before it is sent
+     * @return ID of the message that will be also attached to the response to
+     *         pair request with response if queue was not full and message was
+     *         sent, -1 if sending of the message failed.
+     * @throws ConnectionException
+     *             when connection isn't in state where sending commands is
+     *             allowed
+     */
+    public int sendMessage(PayloadCoder payloadCoder, boolean isOneWay, IntConsumer tagListener)
+            throws ConnectionException {
+        MessageHandler messageHandler = messageHandlers.get(payloadCoder.getSupportedPayloadType());
+
+        if (messageHandler == null) {
+            messageHandler = messageHandlers.get(PayloadType.Ipmi);
+        }
+
+        return messageHandler.sendMessage(payloadCoder, stateMachine, managedSystemSessionId, isOneWay, tagListener);
+    }
+
     /**
      * Attempts to retry sending a message.
      *
@@ -571,6 +623,24 @@ public class Connection extends TimerTask implements MachineObserver {
         return messageHandler.retryMessage(tag, stateMachine, managedSystemSessionId);
     }
 
+    /**
+     * Gives up the message with the given tag, e.g. when nobody waits for its
+     * response anymore. It is neither retried nor reported as timed out.
+     *
+     * @param tag
+     *            - tag of the message
+     * @param payloadCoder
+     *            - {@link PayloadCoder} of the message sent with that tag
+     */
+    public void cancel(int tag, PayloadCoder payloadCoder) {
+        MessageHandler messageHandler = messageHandlers.containsKey(payloadCoder.getSupportedPayloadType()) ?
+                messageHandlers.get(payloadCoder.getSupportedPayloadType()) : messageHandlers.get(PayloadType.Ipmi);
+
+        if (messageHandler != null) {
+            messageHandler.cancelMessage(tag, payloadCoder);
+        }
+    }
+
     private void handleIncomingMessage(Ipmiv20Message message) {
         MessageHandler messageHandler = messageHandlers.get(message.getPayloadType());
         messageHandler.handleIncomingMessage(message);
@@ -598,7 +668,7 @@ public class Connection extends TimerTask implements MachineObserver {
         if (action instanceof GetSikAction) {
             sik = ((GetSikAction) action).getSik();
         } else if (!(action instanceof MessageAction)) {
-            lastAction = action;
+            pendingAction.complete(action);
             if (action instanceof ErrorAction) {
                 ErrorAction errorAction = (ErrorAction) action;
                 logger.error(errorAction.getException().getMessage(), errorAction.getException());
@@ -609,33 +679,33 @@ public class Connection extends TimerTask implements MachineObserver {
     }
 
 	/**
-	 * {@link TimerTask} runner - periodically sends no-op messages to keep the
-	 * session up
+	 * Run periodically by the shared {@link HashedWheelTimer} - sends a no-op
+	 * message to keep the session up. If the message cannot be sent, another
+	 * attempt is scheduled shortly after.
 	 */
 	@Override
 	public void run() {
+		if (!isActive() || !(stateMachine.getCurrent() instanceof SessionValid)) {
+			return;
+		}
+
 		int result = -1;
-		while (
-			!Thread.currentThread().isInterrupted()
-			&& result <= 0
-			&& stateMachine.getCurrent() instanceof SessionValid
-		) {
-			try {
-
-				result = sendMessage(
-					new org.metricshub.ipmi.core.coding.commands.session.GetChannelAuthenticationCapabilities(
-						IpmiVersion.V20, IpmiVersion.V20,
-						((SessionValid) stateMachine.getCurrent()).getCipherSuite(), PrivilegeLevel.Callback,
-						TypeConverter.intToByte(0xe)
-					),
-					false
-				);
-
-				Thread.sleep(1000);
-
-			} catch (Exception e) {
-				logger.error(e.getMessage(), e);
-			}
+
+		try {
+			result = sendMessage(
+				new org.metricshub.ipmi.core.coding.commands.session.GetChannelAuthenticationCapabilities(
+					IpmiVersion.V20, IpmiVersion.V20,
+					((SessionValid) stateMachine.getCurrent()).getCipherSuite(), PrivilegeLevel.Callback,
+					TypeConverter.intToByte(0xe)
+				),
+				false
+			);
+		} catch (Exception e) {
+			logger.error(e.getMessage(), e);
+		}
+
+		if (result <= 0) {
+			HashedWheelTimer.getDefault().schedule(this, KEEP_ALIVE_RETRY_DELAY, TimeUnit.MILLISECONDS);
 		}
 	}
 
@@ -654,6 +724,14 @@ public class Connection extends TimerTask implements MachineObserver {
         return stateMachine.getCurrent() instanceof SessionValid;
     }
 
+    /**
+     * Checks if no-op messages are sent periodically to keep the session up.
+     */
+    public boolean isKeptAlive() {
+        HashedWheelTimer.Timeout timeout = keepAlive;
+        return timeout != null && !timeout.isCancelled();
+    }
+
     public int getNextSessionSequenceNumber() {
         int result = currentSessionSequenceNumber.incrementAndGet() % SESSION_SEQUENCE_NUMBER_UPPER_BOUND;
 
@@ -32,8 +32,9 @@ import org.metricshub.ipmi.core.transport.UdpMessenger;
 
 import java.io.IOException;
 import java.net.InetAddress;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -41,10 +42,18 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class ConnectionManager {
     private Messenger messenger;
-    private List<Connection> connections;
 
-    private static final AtomicInteger sessionlessTag = new AtomicInteger(0);
-    private static List<Integer> reservedTags = new ArrayList<Integer>();
+    /**
+     * Open connections by handle. Closed connections are removed, handles are
+     * never reused.
+     */
+    private Map<Integer, Connection> connections;
+
+    private final AtomicInteger nextHandle = new AtomicInteger();
+
+    private SessionlessTagAllocator tagAllocator;
+
+    private static final SessionlessTagAllocator defaultTagAllocator = new SessionlessTagAllocator();
 
     /**
      * Frequency of the no-op commands that will be sent to keep up the session
@@ -56,12 +65,15 @@ public class ConnectionManager {
 	 *
 	 * @param port       the port at which {@link UdpListener} will work
 	 * @param pingPeriod frequency of the no-op commands that will be sent to keep
-	 *                   up the session. 0 to disable ping requests.
+	 *                   up the session. 0 to disable ping requests, a negative
+	 *                   value to use the <code>pingPeriod</code> property.
 	 * @throws IOException If UdpMessenger encountered an error
 	 */
 	public ConnectionManager(int port, long pingPeriod) throws IOException {
 		this(port);
-		this.pingPeriod = pingPeriod;
+		if (pingPeriod >= 0) {
+			this.pingPeriod = pingPeriod;
+		}
 	}
 
     /**
@@ -102,8 +114,8 @@ public class ConnectionManager {
     }
 
     private void initialize() {
-        connections = new ArrayList<Connection>();
-        reservedTags = new ArrayList<Integer>();
+        connections = new ConcurrentHashMap<Integer, Connection>();
+        tagAllocator = SessionlessTagAllocator.forMessenger(messenger);
         if (pingPeriod == -1) {
             pingPeriod = Long.parseLong(PropertiesManager.getInstance().getProperty("pingPeriod"));
         }
@@ -113,11 +125,10 @@ public class ConnectionManager {
      * Closes all open connections and disconnects {@link UdpListener}.
      */
     public void close() {
-        synchronized (connections) {
-            for (Connection connection : connections) {
-                if (connection != null && connection.isActive()) {
-                    connection.disconnect();
-                }
+        for (Integer handle : connections.keySet()) {
+            Connection connection = connections.remove(handle);
+            if (connection != null && connection.isActive()) {
+                connection.disconnect();
             }
         }
         messenger.closeConnection();
@@ -125,32 +136,15 @@ public class ConnectionManager {
 
     /**
      * The tag for messages sent outside the session generated by the
-     * {@link ConnectionManager}. Auto-incremented.
+     * {@link ConnectionManager}. Tags generated this way are shared by the
+     * whole JVM.
+     *
+     * @deprecated tags only have to be unique per messenger and destination,
+     *             use {@link SessionlessTagAllocator} instead
      */
+    @Deprecated
     public static int generateSessionlessTag() {
-        synchronized (sessionlessTag) {
-            boolean wait = true;
-            while (wait) {
-                sessionlessTag.incrementAndGet();
-                sessionlessTag.set(sessionlessTag.get() % 60);
-                synchronized (reservedTags) {
-                    if (!reservedTags.contains(sessionlessTag.get())) {
-                        wait = false;
-                    }
-                }
-                if (wait) {
-                    try {
-                        sessionlessTag.wait(1);
-                    } catch (InterruptedException e) {
-                        // TODO log
-                    }
-                }
-            }
-            synchronized (reservedTags) {
-                reservedTags.add(sessionlessTag.get());
-            }
-            return sessionlessTag.get();
-        }
+        return defaultTagAllocator.allocate(null);
     }
 
     /**
@@ -158,11 +152,19 @@ public class ConnectionManager {
      *
      * @param tag
      *            - tag to free
+     * @deprecated use {@link SessionlessTagAllocator#free(InetAddress, int)}
      */
+    @Deprecated
     public static void freeTag(int tag) {
-        synchronized (reservedTags) {
-            reservedTags.remove((Integer) tag);
-        }
+        defaultTagAllocator.free(null, tag);
+    }
+
+    private int generateSessionlessTag(Connection connection) {
+        return tagAllocator.allocate(connection.getRemoteMachineAddress());
+    }
+
+    private void freeTag(Connection connection, int tag) {
+        tagAllocator.free(connection.getRemoteMachineAddress(), tag);
     }
 
     /**
@@ -170,16 +172,28 @@ public class ConnectionManager {
      *
      * @param index
      *            - index of the connection to return
+     * @return the {@link Connection} or null if it was closed
      */
     public Connection getConnection(int index) {
         return connections.get(index);
     }
 
+    private Connection getOpenConnection(int index) throws ConnectionException {
+        Connection connection = connections.get(index);
+        if (connection == null) {
+            throw new ConnectionException("Connection " + index + " is closed");
+        }
+        return connection;
+    }
+
     /**
      * Closes the connection with the given index.
      */
     public void closeConnection(int index) {
-        connections.get(index).disconnect();
+        Connection connection = connections.remove(index);
+        if (connection != null) {
+            connection.disconnect();
+        }
     }
 
     /**
@@ -191,13 +205,11 @@ public class ConnectionManager {
      * @return First {@link Connection} to the address or null if none found
      */
     public Connection getConnection(InetAddress address, int port) {
-        synchronized (connections) {
-            for (Connection connection : connections) {
-                if (connection != null && connection.isActive()
-                        && connection.getRemoteMachineAddress() == address
-                        && connection.getRemoteMachinePort() == port) {
-                    return connection;
-                }
+        for (Connection connection : connections.values()) {
+            if (connection.isActive()
+                    && connection.getRemoteMachineAddress() == address
+                    && connection.getRemoteMachinePort() == port) {
+                return connection;
             }
         }
         return null;
@@ -216,13 +228,11 @@ public class ConnectionManager {
      * - when properties file was not found
      */
     public int createConnection(InetAddress address, int port, int pingPeriod, boolean skipCiphers) throws IOException {
-        Connection connection = new Connection(messenger, 0);
+        int handle = nextHandle.getAndIncrement();
+        Connection connection = new Connection(messenger, handle);
         connection.connect(address, port, pingPeriod, skipCiphers);
-
-        synchronized (connections) {
-            connections.add(connection);
-            return connections.size() - 1;
-        }
+        connections.put(handle, connection);
+        return handle;
     }
 
     /**
@@ -238,13 +248,11 @@ public class ConnectionManager {
      *             - when properties file was not found
      */
     public int createConnection(InetAddress address, int port, int pingPeriod) throws IOException {
-        Connection connection = new Connection(messenger, 0);
+        int handle = nextHandle.getAndIncrement();
+        Connection connection = new Connection(messenger, handle);
         connection.connect(address, port, pingPeriod);
-
-        synchronized (connections) {
-            connections.add(connection);
-            return connections.size() - 1;
-        }
+        connections.put(handle, connection);
+        return handle;
     }
 
     /**
@@ -258,14 +266,11 @@ public class ConnectionManager {
      *             when properties file was not found
      */
     public int createConnection(InetAddress address, int port) throws IOException {
-
-        synchronized (connections) {
-            Connection connection = new Connection(messenger,
-                    connections.size());
-            connection.connect(address, port, pingPeriod);
-            connections.add(connection);
-            return connections.size() - 1;
-        }
+        int handle = nextHandle.getAndIncrement();
+        Connection connection = new Connection(messenger, handle);
+        connection.connect(address, port, pingPeriod);
+        connections.put(handle, connection);
+        return handle;
     }
 
     /**
@@ -279,12 +284,11 @@ public class ConnectionManager {
      * when properties file was not found
      */
     public int createConnection(InetAddress address, int port, boolean skipCiphers) throws IOException {
-        synchronized (connections) {
-            Connection connection = new Connection(messenger, connections.size());
-            connection.connect(address, port, pingPeriod, skipCiphers);
-            connections.add(connection);
-            return connections.size() - 1;
-        }
+        int handle = nextHandle.getAndIncrement();
+        Connection connection = new Connection(messenger, handle);
+        connection.connect(address, port, pingPeriod, skipCiphers);
+        connections.put(handle, connection);
+        return handle;
     }
 
     /**
@@ -303,15 +307,16 @@ public class ConnectionManager {
      */
     public List<CipherSuite> getAvailableCipherSuites(int connection)
             throws Exception {
-        int tag = generateSessionlessTag();
+        Connection openConnection = getOpenConnection(connection);
+        int tag = generateSessionlessTag(openConnection);
         List<CipherSuite> suites;
         try {
-            suites = connections.get(connection).getAvailableCipherSuites(tag);
+            suites = openConnection.getAvailableCipherSuites(tag);
         } catch (Exception e) {
-            freeTag(tag);
+            freeTag(openConnection, tag);
             throw e;
         }
-        freeTag(tag);
+        freeTag(openConnection, tag);
         return suites;
     }
 
@@ -336,17 +341,18 @@ public class ConnectionManager {
     public GetChannelAuthenticationCapabilitiesResponseData getChannelAuthenticationCapabilities(
             int connection, CipherSuite cipherSuite,
             PrivilegeLevel requestedPrivilegeLevel) throws Exception {
-        int tag = generateSessionlessTag();
+        Connection openConnection = getOpenConnection(connection);
+        int tag = generateSessionlessTag(openConnection);
         GetChannelAuthenticationCapabilitiesResponseData responseData;
         try {
-            responseData = connections.get(connection)
+            responseData = openConnection
                     .getChannelAuthenticationCapabilities(tag, cipherSuite,
                             requestedPrivilegeLevel);
         } catch (Exception e) {
-            freeTag(tag);
+            freeTag(openConnection, tag);
             throw e;
         }
-        freeTag(tag);
+        freeTag(openConnection, tag);
         return responseData;
     }
 
@@ -379,15 +385,16 @@ public class ConnectionManager {
             PrivilegeLevel privilegeLevel, String username, String password,
             byte[] bmcKey) throws Exception {
         int sessionId;
-        int tag = generateSessionlessTag();
+        Connection openConnection = getOpenConnection(connection);
+        int tag = generateSessionlessTag(openConnection);
         try {
-            sessionId = connections.get(connection).startSession(tag, cipherSuite,
+            sessionId = openConnection.startSession(tag, cipherSuite,
                     privilegeLevel, username, password, bmcKey);
         } catch (Exception e) {
-            freeTag(tag);
+            freeTag(openConnection, tag);
             throw e;
         }
-        freeTag(tag);
+        freeTag(openConnection, tag);
 
         return sessionId;
     }
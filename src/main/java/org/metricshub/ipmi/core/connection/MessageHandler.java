@@ -32,6 +32,8 @@ import org.metricshub.ipmi.core.sm.states.SessionValid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.function.IntConsumer;
+
 /**
  * Class used for handling outgoing and incoming messages for a {@link Connection}.
  */
@@ -65,10 +67,36 @@ public abstract class MessageHandler {
      */
     public int sendMessage(PayloadCoder payloadCoder, StateMachine stateMachine, int sessionId, boolean isOneWay)
             throws ConnectionException {
+        return sendMessage(payloadCoder, stateMachine, sessionId, isOneWay, null);
+    }
+
+    /**
+     * Attempts to send message encoded by given {@link PayloadCoder} to the remote system.
+     *
+     * @param payloadCoder
+     *          instance of {@link PayloadCoder} that will produce payload for the message being sent.
+     * @param stateMachine
+     *          {@link StateMachine} for the currenr connection.
+     * @param sessionId
+     *          ID of the current session.
+     * @param isOneWay
+     *          flag indicating, if message is one way and we shouldn't await response,
+     *          or it isn't and needs response from remote system
+     * @param tagListener
+     *          notified of the sequence number of the message before it is sent, so that the response
+     *          cannot arrive before the caller knows its tag. May be null.
+     * @return sequence number of the sent message
+     * @throws ConnectionException when could not send message due to some problems with connection
+     */
+    public int sendMessage(PayloadCoder payloadCoder, StateMachine stateMachine, int sessionId, boolean isOneWay,
+            IntConsumer tagListener) throws ConnectionException {
         validateSessionState(stateMachine);
 
         int seq = isOneWay ? messageQueue.getSequenceNumber() : messageQueue.add(payloadCoder);
         if (seq > 0) {
+            if (tagListener != null) {
+                tagListener.accept(seq);
+            }
             stateMachine.doTransition(new Sendv20Message(payloadCoder, sessionId, seq, connection.getNextSessionSequenceNumber()));
         }
 
@@ -101,6 +129,19 @@ public abstract class MessageHandler {
         return tag;
     }
 
+    /**
+     * Gives up the message with the given tag: its slot in the message queue is freed and its response, if it still
+     * comes, is dropped.
+     *
+     * @param tag
+     *          tag of the message
+     * @param payloadCoder
+     *          the message sent with that tag
+     */
+    public void cancelMessage(int tag, PayloadCoder payloadCoder) {
+        messageQueue.remove(tag, payloadCoder);
+    }
+
     private void validateSessionState(StateMachine stateMachine) throws ConnectionException {
         if (stateMachine.getCurrent().getClass() != SessionValid.class) {
             throw new ConnectionException("Illegal connection state: " + stateMachine.getCurrent().getClass().getSimpleName());
@@ -0,0 +1,181 @@
+package org.metricshub.ipmi.core.connection;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.metricshub.ipmi.core.transport.Messenger;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates the tags of the messages sent outside the session (the handshake
+ * messages). Responses are routed to the connections by remote endpoint, so
+ * tags only have to be unique among the messages sent through one
+ * {@link Messenger} to one remote host: each destination has its own set of
+ * {@link #TAG_COUNT} tags kept as a bitmap in a single {@link AtomicLong}.
+ * Reserving and freeing a tag is a compare-and-set, handshakes with different
+ * hosts never contend.
+ */
+public class SessionlessTagAllocator {
+
+    /**
+     * Number of sessionless tags available for a single destination.
+     */
+    public static final int TAG_COUNT = 60;
+
+    private static final long ALL_TAGS = (1L << TAG_COUNT) - 1;
+
+    private static final long WAIT_TIME = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Key of the tags reserved without a known destination.
+     */
+    private static final Object ANY_DESTINATION = new Object();
+
+    private static final Map<Messenger, SessionlessTagAllocator> allocators = new WeakHashMap<Messenger, SessionlessTagAllocator>();
+
+    /**
+     * Tag sets by destination. Entries are never removed: a set could be
+     * dropped while another thread is reserving a tag in it. Each of them
+     * costs a couple of words per monitored host.
+     */
+    private final ConcurrentMap<Object, TagSet> tagSets = new ConcurrentHashMap<Object, TagSet>();
+
+    /**
+     * Returns the allocator shared by all users of the messenger.
+     *
+     * @param messenger
+     *            - {@link Messenger} the sessionless messages are sent through
+     */
+    public static SessionlessTagAllocator forMessenger(Messenger messenger) {
+        synchronized (allocators) {
+            SessionlessTagAllocator allocator = allocators.get(messenger);
+            if (allocator == null) {
+                allocator = new SessionlessTagAllocator();
+                allocators.put(messenger, allocator);
+            }
+            return allocator;
+        }
+    }
+
+    /**
+     * Reserves a tag for a message sent to the destination. Tags are handed
+     * out in a round-robin fashion so that a freed tag is not reused right
+     * away. Waits for a tag to be freed if all of them are in use.
+     *
+     * @param destination
+     *            - address of the remote host
+     * @return tag in range [0, {@link #TAG_COUNT})
+     * @throws IllegalStateException
+     *             when the thread was interrupted while waiting for a free tag
+     */
+    public int allocate(InetAddress destination) {
+        TagSet tagSet = getTagSet(destination);
+
+        while (true) {
+            int tag = tagSet.tryAllocate();
+            if (tag >= 0) {
+                return tag;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(WAIT_TIME);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a sessionless tag", e);
+            }
+        }
+    }
+
+    /**
+     * Frees the tag for further use.
+     *
+     * @param destination
+     *            - address of the remote host the tag was reserved for
+     * @param tag
+     *            - tag to free
+     */
+    public void free(InetAddress destination, int tag) {
+        if (tag < 0 || tag >= TAG_COUNT) {
+            return;
+        }
+        getTagSet(destination).free(tag);
+    }
+
+    private TagSet getTagSet(InetAddress destination) {
+        Object key = destination == null ? ANY_DESTINATION : destination;
+        TagSet tagSet = tagSets.get(key);
+
+        if (tagSet == null) {
+            TagSet created = new TagSet();
+            tagSet = tagSets.putIfAbsent(key, created);
+            if (tagSet == null) {
+                tagSet = created;
+            }
+        }
+
+        return tagSet;
+    }
+
+    /**
+     * Tags reserved for a single destination.
+     */
+    private static class TagSet {
+
+        private final AtomicLong reserved = new AtomicLong();
+
+        private final AtomicInteger next = new AtomicInteger();
+
+        int tryAllocate() {
+            while (true) {
+                long current = reserved.get();
+                long free = ~current & ALL_TAGS;
+
+                if (free == 0) {
+                    return -1;
+                }
+
+                long fromNext = free & (-1L << next.get());
+                int tag = Long.numberOfTrailingZeros(fromNext != 0 ? fromNext : free);
+
+                if (reserved.compareAndSet(current, current | (1L << tag))) {
+                    next.set((tag + 1) % TAG_COUNT);
+                    return tag;
+                }
+            }
+        }
+
+        void free(int tag) {
+            long mask = 1L << tag;
+            long current;
+            do {
+                current = reserved.get();
+            } while ((current & mask) != 0 && !reserved.compareAndSet(current, current & ~mask));
+        }
+    }
+}
@@ -23,29 +23,60 @@ package org.metricshub.ipmi.core.connection.queue;
  */
 
 import org.metricshub.ipmi.core.coding.PayloadCoder;
+import org.metricshub.ipmi.core.common.HashedWheelTimer;
 import org.metricshub.ipmi.core.connection.Connection;
 import org.metricshub.ipmi.core.connection.ConnectionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
-import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Queues messages to send and checks for timeouts.
+ * <p>
+ * Messages are kept in a fixed array of slots indexed by sequence number, so
+ * adding, finding and removing a message does not depend on the number of
+ * messages in flight and does not allocate.
+ * </p>
+ * <p>
+ * The checks for timed out messages are run by the shared
+ * {@link HashedWheelTimer}; the queue remains a {@link TimerTask} for
+ * compatibility, {@link #cancel()} stops them like {@link #tearDown()}.
+ * </p>
  */
 public class MessageQueue extends TimerTask {
 
-    private List<QueueElement> queue;
-    private int timeout;
-    private Timer timer;
+    /**
+     * Slot is not used.
+     */
+    private static final int FREE = 0;
+
+    /**
+     * Slot is owned by a thread that is filling or clearing it. Messages move
+     * from {@link #PENDING} to {@link #TIMED_OUT} directly, so that a message
+     * is never hidden from lookups while it is still in flight.
+     */
+    private static final int RESERVED = 1;
+
+    /**
+     * Message was sent and waits for the response.
+     */
+    private static final int PENDING = 2;
+
+    /**
+     * Message timed out once and waits for the response to its retry.
+     */
+    private static final int TIMED_OUT = 3;
+
+    private final Slot[] slots;
+    private final AtomicInteger inFlight;
+    private volatile int timeout;
+    private final HashedWheelTimer.Timeout cleaning;
     private Connection connection;
-    private int lastSequenceNumber;
-    private Object lastSequenceNumberLock = new Object();
+    private final AtomicInteger lastSequenceNumber;
     private int minSequenceNumber = 1;
     private int sequenceNumberUpperBound = 64;
 
@@ -74,13 +105,16 @@ public class MessageQueue extends TimerTask {
     public MessageQueue(Connection connection, int timeout, int minSequenceNumber, int maxSequenceNumber) {
         this.minSequenceNumber = minSequenceNumber;
         sequenceNumberUpperBound = maxSequenceNumber + 1;
-        reservedTags = new ArrayList<Integer>();
-        lastSequenceNumber = minSequenceNumber - 1;
+        lastSequenceNumber = new AtomicInteger(minSequenceNumber - 1);
+        inFlight = new AtomicInteger(0);
+        slots = new Slot[maxSequenceNumber - minSequenceNumber + 1];
+        for (int i = 0; i < slots.length; ++i) {
+            slots[i] = new Slot(minSequenceNumber + i);
+        }
         this.connection = connection;
-        queue = new ArrayList<QueueElement>();
         setTimeout(timeout);
-        timer = new Timer();
-        timer.schedule(this, cleaningFrequency, cleaningFrequency);
+        cleaning = HashedWheelTimer.getDefault().scheduleAtFixedRate(this, cleaningFrequency, cleaningFrequency,
+                TimeUnit.MILLISECONDS);
     }
 
     private int incrementSequenceNumber(int currentSequenceNumber) {
@@ -93,39 +127,42 @@ public class MessageQueue extends TimerTask {
         return newSequenceNumber;
     }
 
+    private int nextSequenceNumber() {
+        while (true) {
+            int current = lastSequenceNumber.get();
+            int next = incrementSequenceNumber(current);
+            if (lastSequenceNumber.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
     /**
-     * Stops the MessageQueue
+     * Returns the slot of the message with the given sequence number or null
+     * if the number is out of range.
      */
-    public void tearDown() {
-        timer.cancel();
+    private Slot slot(int sequenceNumber) {
+        int index = sequenceNumber - minSequenceNumber;
+        return index >= 0 && index < slots.length ? slots[index] : null;
     }
 
-    private List<Integer> reservedTags;
-
     /**
-     * Check if the tag is reserved.
+     * Stops the MessageQueue
      */
-    private synchronized boolean isReserved(int tag) {
-        return reservedTags.contains(tag);
+    public void tearDown() {
+        cleaning.cancel();
     }
 
     /**
-     * Reserves given tag for the use of the invoker.
+     * Stops the MessageQueue, see {@link #tearDown()}
      *
-     * @param tag
-     *            - tag to reserve
-     * @return true if tag was reserved successfully, false otherwise
+     * @return true if the checks for timed out messages were running
      */
-    private synchronized boolean reserveTag(int tag) {
-        if (isReserved(tag)) {
-            reservedTags.add(tag);
-            return true;
-        }
-        return false;
-    }
-
-    private synchronized void releaseTag(int tag) {
-        reservedTags.remove((Integer) tag);
+    @Override
+    public boolean cancel() {
+        boolean running = !cleaning.isCancelled();
+        tearDown();
+        return running;
     }
 
     /**
@@ -136,74 +173,77 @@ public class MessageQueue extends TimerTask {
      *         that value.
      */
     public int add(PayloadCoder request) {
-        run();
-        boolean first = true;
-        synchronized (queue) {
-            synchronized (lastSequenceNumberLock) {
-                if (queue.size() < QUEUE_SIZE) {
-                    int sequenceNumber = incrementSequenceNumber(lastSequenceNumber);
-
-                    while (isReserved(sequenceNumber)) {
-                        sequenceNumber = incrementSequenceNumber(sequenceNumber);
-
-                        if (!first) {
-                            try {
-                                lastSequenceNumberLock.wait(1);
-                            } catch (InterruptedException e) {
-                                // TODO log
-                            }
-                        }
-
-                        if (sequenceNumber == lastSequenceNumber) {
-                            //we checked all available sequence numbers, so return -1 (no available sequence numbers)
-                            return -1;
-                        }
-
-                        first = false;
-                    }
-
-                    reserveTag(sequenceNumber);
-
-                    lastSequenceNumber = sequenceNumber;
-
-                    QueueElement element = new QueueElement(sequenceNumber, request);
-
-                    queue.add(element);
-                    return sequenceNumber;
-                }
+        int count;
+        do {
+            count = inFlight.get();
+            if (count >= QUEUE_SIZE) {
+                return -1;
+            }
+        } while (!inFlight.compareAndSet(count, count + 1));
+
+        // at most QUEUE_SIZE - 1 slots are taken, so a free one is found
+        // before the sequence numbers wrap around
+        for (int i = 0; i < slots.length; ++i) {
+            Slot slot = slot(nextSequenceNumber());
+
+            if (slot.state.compareAndSet(FREE, RESERVED)) {
+                slot.request = request;
+                slot.timestamp = System.nanoTime();
+                slot.state.set(PENDING);
+                return slot.sequenceNumber;
             }
         }
-        return -1;
 
+        inFlight.decrementAndGet();
+        return -1;
     }
 
     /**
      * Removes message with the given tag from the queue.
      */
     public void remove(int tag) {
-        run();
-        synchronized (queue) {
-            int i = 0;
-            int index = -1;
-            for (QueueElement element : queue) {
-                if (element.getId() == tag) {
-                    index = i;
-                    break;
-                }
-                ++i;
-            }
-            if (index == 0) {
-                queue.remove(0);
-                releaseTag(tag);
-                while (!queue.isEmpty() && queue.get(0).getRequest() == null) {
-                    int additionalTag = queue.get(0).getId();
-                    queue.remove(0);
-                    releaseTag(additionalTag);
-                }
-            } else if (index > 0) {
-                queue.get(index).setRequest(null);
+        Slot slot = slot(tag);
+
+        if (slot != null) {
+            release(slot);
+        }
+    }
+
+    /**
+     * Removes the given message from the queue, unless its tag was already
+     * freed and given to another message.
+     *
+     * @param tag
+     *            - tag of the message
+     * @param request
+     *            - the message that was added with that tag
+     * @return true if the message was removed by this call
+     */
+    public boolean remove(int tag, PayloadCoder request) {
+        Slot slot = slot(tag);
+
+        return slot != null && slot.request == request && release(slot);
+    }
+
+    /**
+     * Frees the slot if it holds a message.
+     *
+     * @return true if the slot was freed by this call
+     */
+    private boolean release(Slot slot) {
+        while (true) {
+            int state = slot.state.get();
+
+            if (state != PENDING && state != TIMED_OUT) {
+                return false;
             }
 
+            if (slot.state.compareAndSet(state, RESERVED)) {
+                slot.request = null;
+                slot.state.set(FREE);
+                inFlight.decrementAndGet();
+                return true;
+            }
         }
     }
 
@@ -211,44 +251,30 @@ public class MessageQueue extends TimerTask {
      * Removes message from queue at given index.
      *
      * @param index
+     *            - index of the slot, equal to the sequence number of the
+     *            message minus the lowest sequence number
      */
     public void removeAt(int index) {
-        if (index >= queue.size()) {
+        if (index < 0 || index >= slots.length) {
             throw new IndexOutOfBoundsException("Index out of bounds : "
                     + index);
         }
 
-        remove(queue.get(index).getId());
+        release(slots[index]);
     }
 
     /**
      * Checks if queue contains message with the given sequence number.
      */
     public boolean containsId(int sequenceNumber) {
-        synchronized (queue) {
-
-            for (QueueElement element : queue) {
-                if (element.getId() == sequenceNumber
-                        && element.getRequest() != null) {
-                    return true;
-                }
-            }
-
-        }
-        return false;
+        return getMessageFromQueue(sequenceNumber) != null;
     }
 
     /**
      * Returns valid session sequence number that cannot be used as a tag though
      */
     public int getSequenceNumber() {
-        synchronized (lastSequenceNumberLock) {
-            int sequenceNumber = incrementSequenceNumber(lastSequenceNumber);
-
-            lastSequenceNumber = sequenceNumber;
-
-            return sequenceNumber;
-        }
+        return nextSequenceNumber();
     }
 
     /**
@@ -256,31 +282,25 @@ public class MessageQueue extends TimerTask {
      * no message with the given tag is currently in the queue.
      */
     public PayloadCoder getMessageFromQueue(int tag) {
-        synchronized (queue) {
-            for (QueueElement element : queue) {
-                if (element.getId() == tag && element.getRequest() != null) {
-                    return element.getRequest();
-                }
-            }
+        Slot slot = slot(tag);
+
+        if (slot == null) {
+            return null;
         }
-        return null;
+
+        PayloadCoder request = slot.request;
+        int state = slot.state.get();
+
+        return state == PENDING || state == TIMED_OUT ? request : null;
     }
 
     /**
      * Returns index of the message with the given sequence number from the
      * queue or -1 if no message with the given tag is currently in the queue.
+     * The index is the sequence number minus the lowest sequence number.
      */
     public int getMessageIndexFromQueue(int tag) {
-        synchronized (queue) {
-            int i = 0;
-            for (QueueElement element : queue) {
-                if (element.getId() == tag && element.getRequest() != null) {
-                    return i;
-                }
-                ++i;
-            }
-        }
-        return -1;
+        return containsId(tag) ? tag - minSequenceNumber : -1;
     }
 
     /**
@@ -291,77 +311,71 @@ public class MessageQueue extends TimerTask {
      */
     @Deprecated
     public int getMessageRetries(int tag) {
-        synchronized (queue) {
-            for (QueueElement element : queue) {
-                if (element.getId() == tag && element.getRequest() != null) {
-                    return element.getRetries();
-                }
-            }
-        }
-        return -1;
+        return containsId(tag) ? 0 : -1;
     }
 
     /**
-     * Returns the ID of the {@link QueueElement} in the queue with the given
-     * tag.
+     * Returns the ID of the message in the queue with the given tag.
      *
      * @param tag
      *            Tag of the message to find
      */
     public int getMessageSequenceNumber(int tag) {
-        synchronized (queue) {
-            for (QueueElement element : queue) {
-                if (element.getId() == tag && element.getRequest() != null) {
-                    return element.getId();
-                }
-            }
-        }
-        return -1;
+        return containsId(tag) ? tag : -1;
     }
 
     /**
-     * {@link TimerTask} runner - periodically checks queue for timed out
-     * messages.
+     * Run periodically by the shared {@link HashedWheelTimer} - checks queue
+     * for timed out messages.
      */
     @Override
     public void run() {
-        if (queue != null) {
-            synchronized (queue) {
-                boolean process = true;
-                while (process && !queue.isEmpty()) {
-                    QueueElement oldestQueueElement = queue.get(0);
-                    boolean done = oldestQueueElement.getRequest() == null;
-
-                    if (messageJustTimedOut(oldestQueueElement) || done) {
-                        processObsoleteMessage(oldestQueueElement, done);
-                    } else {
-                        process = false;
-                    }
-                }
+        long now = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+
+        for (Slot slot : slots) {
+            int state = slot.state.get();
+
+            if ((state == PENDING || state == TIMED_OUT) && now - slot.timestamp > timeoutNanos) {
+                processObsoleteMessage(slot, state);
             }
         }
     }
 
-    private boolean messageJustTimedOut(QueueElement oldestQueueElement) {
-        Date now = new Date();
-
-        return now.getTime() - oldestQueueElement.getTimestamp().getTime() > (long) timeout;
-    }
+    private void processObsoleteMessage(Slot slot, int state) {
+        int tag = slot.sequenceNumber;
 
-    private void processObsoleteMessage(QueueElement message, boolean done) {
-        int tag = message.getId();
-        boolean previouslyTimedOut = message.isTimedOut();
-
-        if (previouslyTimedOut || done) {
-            queue.remove(0);
-            logger.info("Removing message after timeout, tag: " + tag);
-            releaseTag(tag);
-        } else {
-            message.makeTimedOut();
-            message.refreshTimestamp();
+        if (state == TIMED_OUT) {
+            if (release(slot)) {
+                logger.info("Removing message after timeout, tag: " + tag);
+                // the message was retried and timed out again
+                connection.notifyResponseListeners(connection.getHandle(), tag, null,
+                        new ConnectionException("Message timed out"));
+            }
+        } else if (slot.state.compareAndSet(PENDING, TIMED_OUT)) {
+            // the message stays visible, the response to its retry is still expected
+            slot.timestamp = System.nanoTime();
             connection.notifyResponseListeners(connection.getHandle(), tag, null,
                     new ConnectionException("Message timed out"));
         }
     }
 
+    /**
+     * Message in flight, identified by its sequence number.
+     */
+    private static class Slot {
+
+        private final int sequenceNumber;
+
+        private final AtomicInteger state = new AtomicInteger(FREE);
+
+        private volatile PayloadCoder request;
+
+        private volatile long timestamp;
+
+        private Slot(int sequenceNumber) {
+            this.sequenceNumber = sequenceNumber;
+        }
+    }
+
 }
@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.metricshub.ipmi.core.coding.rmcp.RmcpDecoder;
+import org.metricshub.ipmi.core.coding.rmcp.RmcpMessage;
 import org.metricshub.ipmi.core.common.Constants;
 import org.metricshub.ipmi.core.sm.actions.StateMachineAction;
 import org.metricshub.ipmi.core.sm.events.StateMachineEvent;
@@ -35,18 +36,18 @@ import org.metricshub.ipmi.core.sm.states.SessionValid;
 import org.metricshub.ipmi.core.sm.states.State;
 import org.metricshub.ipmi.core.sm.states.Uninitialized;
 import org.metricshub.ipmi.core.transport.Messenger;
-import org.metricshub.ipmi.core.transport.UdpListener;
+import org.metricshub.ipmi.core.transport.EndpointListener;
 import org.metricshub.ipmi.core.transport.UdpMessage;
 
 /**
  * State machine for connecting and acquiring session with the remote host via
  * IPMI v.2.0.
  */
-public class StateMachine implements UdpListener {
+public class StateMachine implements EndpointListener {
 
     private List<MachineObserver> observers;
 
-    private State current;
+    private volatile State current;
 
     private Messenger messenger;
     private InetAddress remoteMachineAddress;
@@ -54,6 +55,13 @@ public class StateMachine implements UdpListener {
 
     private boolean initialized;
 
+    /**
+     * Received packets are decoded into this message, which is only used by
+     * {@link #notifyMessage(UdpMessage)}. Messages of a connection are
+     * delivered one at a time, so it is never shared.
+     */
+    private final RmcpMessage inboundMessage = new RmcpMessage();
+
     public State getCurrent() {
         return current;
     }
@@ -92,14 +100,22 @@ public class StateMachine implements UdpListener {
         messenger.send(udpMessage);
     }
 
+    @Override
     public InetAddress getRemoteMachineAddress() {
         return remoteMachineAddress;
     }
 
+    @Override
     public int getRemoteMachinePort() {
         return remoteMachinePort;
     }
 
+    @Override
+    public int getConsoleSessionId() {
+        State state = current;
+        return state instanceof SessionValid ? ((SessionValid) state).getSessionId() : 0;
+    }
+
     /**
      * Sends a notification of an action to all {@link MachineObserver}s
      *
@@ -124,11 +140,11 @@ public class StateMachine implements UdpListener {
      * @see #stop()
      */
     public void start(InetAddress address, int port) {
-        messenger.register(this);
         remoteMachineAddress = address;
         this.remoteMachinePort = port;
         setCurrent(new Uninitialized());
         initialized = true;
+        messenger.register(this);
     }
 
     /**
@@ -170,7 +186,8 @@ public class StateMachine implements UdpListener {
     @Override
     public void notifyMessage(UdpMessage message) {
         if (message.getAddress().equals(getRemoteMachineAddress()) && message.getPort() == getRemoteMachinePort()) {
-            current.doAction(this, RmcpDecoder.decode(message.getMessage()));
+            current.doAction(this, RmcpDecoder.decode(message.getBuffer(),
+                    message.getOffset(), message.getLength(), inboundMessage));
         }
     }
 
@@ -28,9 +28,8 @@ import org.metricshub.ipmi.core.coding.commands.PrivilegeLevel;
 import org.metricshub.ipmi.core.coding.commands.session.CloseSession;
 import org.metricshub.ipmi.core.coding.commands.session.GetChannelAuthenticationCapabilities;
 import org.metricshub.ipmi.core.coding.protocol.AuthenticationType;
-import org.metricshub.ipmi.core.coding.protocol.Ipmiv20Message;
 import org.metricshub.ipmi.core.coding.protocol.PayloadType;
-import org.metricshub.ipmi.core.coding.protocol.decoder.ProtocolDecoder;
+import org.metricshub.ipmi.core.coding.protocol.decoder.Ipmiv20SessionHeader;
 import org.metricshub.ipmi.core.coding.protocol.decoder.Protocolv20Decoder;
 import org.metricshub.ipmi.core.coding.protocol.encoder.Protocolv20Encoder;
 import org.metricshub.ipmi.core.coding.rmcp.RmcpMessage;
@@ -61,10 +60,25 @@ public class SessionValid extends State {
 
     private int sessionId;
 
+    private final Protocolv20Decoder decoder;
+
+    /**
+     * Session header of the message being handled, reused for every message
+     * received during the session.
+     */
+    private final Ipmiv20SessionHeader header = new Ipmiv20SessionHeader();
+
     public CipherSuite getCipherSuite() {
         return cipherSuite;
     }
 
+    /**
+     * @return ID of the session as seen by the remote console
+     */
+    public int getSessionId() {
+        return sessionId;
+    }
+
     /**
      * Initiates the state.
      *
@@ -74,6 +88,7 @@ public class SessionValid extends State {
     public SessionValid(CipherSuite cipherSuite, int sessionId) {
         this.cipherSuite = cipherSuite;
         this.sessionId = sessionId;
+        this.decoder = new Protocolv20Decoder(cipherSuite);
     }
 
     @Override
@@ -124,26 +139,20 @@ public class SessionValid extends State {
 
     @Override
     public void doAction(StateMachine stateMachine, RmcpMessage message) {
-        if (ProtocolDecoder.decodeAuthenticationType(message) != AuthenticationType.RMCPPlus) {
+        if (!decoder.decodeHeader(message, header)) {
             return; // this isn't IPMI v2.0 message so we ignore it
         }
-        if (Protocolv20Decoder.decodeSessionID(message) == 0) {
+        if (header.getSessionID() == 0) {
             return; // this is a sessionless message so we drop it
         }
-        Protocolv20Decoder decoder = new Protocolv20Decoder(cipherSuite);
-        PayloadType payloadType = Protocolv20Decoder.decodePayloadType(message.getData()[1]);
-
-        if (payloadType != PayloadType.Ipmi && payloadType != PayloadType.Sol) {
+        if (header.getPayloadType() != PayloadType.Ipmi && header.getPayloadType() != PayloadType.Sol) {
             return;
         }
-        if (Protocolv20Decoder.decodeSessionID(message) != sessionId) {
+        if (header.getSessionID() != sessionId) {
             return; // this message belongs to other session so we ignore it
         }
         try {
-            Ipmiv20Message message20 = (Ipmiv20Message) decoder.decode(message);
-            if (message20.getSessionID() == sessionId) {
-                stateMachine.doExternalAction(new MessageAction(message20));
-            }
+            stateMachine.doExternalAction(new MessageAction(decoder.decode(message, header)));
         } catch (Exception e) {
             stateMachine.doExternalAction(new ErrorAction(e));
         }
@@ -0,0 +1,51 @@
+package org.metricshub.ipmi.core.transport;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.net.InetAddress;
+
+/**
+ * {@link UdpListener} bound to a single remote endpoint. A
+ * {@link UdpDemultiplexer} hands it only the datagrams received from that
+ * endpoint and, when several listeners share the endpoint, only those that
+ * belong to its session.
+ */
+public interface EndpointListener extends UdpListener {
+
+    /**
+     * @return IP address of the remote endpoint
+     */
+    InetAddress getRemoteMachineAddress();
+
+    /**
+     * @return UDP port of the remote endpoint
+     */
+    int getRemoteMachinePort();
+
+    /**
+     * @return ID of the session as seen by the remote console (the ID the
+     *         managed system puts in the session headers it sends), 0 if no
+     *         session is established
+     */
+    int getConsoleSessionId();
+}
@@ -0,0 +1,345 @@
+package org.metricshub.ipmi.core.transport;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * {@link Messenger} built on a non-blocking {@link DatagramChannel}. Unlike
+ * {@link UdpMessenger} it does not own a thread: datagrams are received by one
+ * of the I/O threads of a {@link SelectorGroup}, which may serve many
+ * messengers at once.
+ */
+public class NioUdpMessenger implements Messenger {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioUdpMessenger.class);
+
+    private static final String DEFAULT_ADDRESS = "0.0.0.0";
+
+    /**
+     * Maximum number of datagrams read from the channel in one selection, so
+     * that a busy socket does not starve the other sockets of the I/O thread.
+     */
+    private static final int MAX_READS_PER_SELECT = 64;
+
+    private final DatagramChannel channel;
+
+    private final SelectorLoop loop;
+
+    private final UdpDemultiplexer listeners;
+
+    /**
+     * Messages that could not be sent right away because the socket send
+     * buffer was full. Drained by the I/O thread when the channel becomes
+     * writable.
+     */
+    private final Queue<UdpMessage> pending;
+
+    private volatile SelectionKey selectionKey;
+
+    /**
+     * Limits the rate of packets sent to each remote host, null if the rate is
+     * not limited.
+     */
+    private volatile TokenBucketPacer pacer;
+
+    /**
+     * Initiates the messenger on the default {@link SelectorGroup} and binds it
+     * to the specified port. Wildcard IP address will be used.
+     *
+     * @param port
+     *            - port to bind socket to.
+     * @throws IOException
+     *             if the channel could not be opened, or the socket could not
+     *             bind to the specified local port.
+     */
+    public NioUdpMessenger(int port) throws IOException {
+        this(port, defaultAddress());
+    }
+
+    /**
+     * Initiates the messenger on the default {@link SelectorGroup} and binds it
+     * to the specified port and IP address.
+     *
+     * @param port
+     *            - port to bind socket to.
+     * @param address
+     *            - IP address to bind socket to.
+     * @throws IOException
+     *             if the channel could not be opened, or the socket could not
+     *             bind to the specified local port.
+     */
+    public NioUdpMessenger(int port, InetAddress address) throws IOException {
+        this(port, address, SelectorGroup.getDefault());
+    }
+
+    /**
+     * Initiates the messenger, binds it to the specified port and IP address
+     * and starts listening on one of the I/O threads of the group.
+     *
+     * @param port
+     *            - port to bind socket to.
+     * @param address
+     *            - IP address to bind socket to.
+     * @param group
+     *            - {@link SelectorGroup} that will serve the socket
+     * @throws IOException
+     *             if the channel could not be opened, or the socket could not
+     *             bind to the specified local port.
+     */
+    public NioUdpMessenger(int port, InetAddress address, SelectorGroup group) throws IOException {
+        listeners = new UdpDemultiplexer();
+        pending = new ConcurrentLinkedQueue<UdpMessage>();
+
+        channel = DatagramChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.bind(new InetSocketAddress(address, port));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        pacer = TokenBucketPacer.fromProperties();
+        listeners.setDispatcher(ReceiveDispatcher.getDefault());
+
+        loop = group.next();
+        loop.register(channel, this);
+    }
+
+    private static InetAddress defaultAddress() throws UnknownHostException {
+        return InetAddress.getByName(DEFAULT_ADDRESS);
+    }
+
+    /**
+     * @return local port the socket is bound to
+     */
+    public int getPort() {
+        return channel.socket().getLocalPort();
+    }
+
+    /**
+     * Sets the workers decoding received datagrams and notifying the
+     * listeners. Should be called before any listener is registered.
+     *
+     * @param dispatcher
+     *            - {@link ReceiveDispatcher} to use or null to notify the
+     *            listeners on the receiving thread
+     */
+    public void setDispatcher(ReceiveDispatcher dispatcher) {
+        listeners.setDispatcher(dispatcher);
+    }
+
+    /**
+     * Sets the pacer limiting the rate of packets sent to each remote host.
+     *
+     * @param pacer
+     *            - {@link TokenBucketPacer} to use or null to send without
+     *            limits
+     */
+    public void setPacer(TokenBucketPacer pacer) {
+        this.pacer = pacer;
+    }
+
+    void setSelectionKey(SelectionKey selectionKey) {
+        this.selectionKey = selectionKey;
+    }
+
+    /**
+     * Reads all datagrams currently available on the channel. Called by the
+     * I/O thread only. Each datagram is copied from the direct receive buffer
+     * into a pooled message handed to the listeners as a view, so reading
+     * does not allocate once the pool is warm.
+     *
+     * @param buffer
+     *            - receive buffer of the I/O thread
+     * @param pool
+     *            - pool of the received messages of the I/O thread
+     */
+    void read(ByteBuffer buffer, UdpMessagePool pool) {
+        for (int i = 0; i < MAX_READS_PER_SELECT; ++i) {
+            SocketAddress sender;
+
+            buffer.clear();
+
+            try {
+                sender = channel.receive(buffer);
+            } catch (IOException e) {
+                if (channel.isOpen()) {
+                    logger.error(e.getMessage(), e);
+                }
+                return;
+            }
+
+            if (sender == null) {
+                return;
+            }
+
+            buffer.flip();
+
+            UdpMessagePool.PooledUdpMessage message = pool.take();
+
+            int length = buffer.remaining();
+            buffer.get(message.getData(), 0, length);
+
+            InetSocketAddress socketAddress = (InetSocketAddress) sender;
+
+            message.setAddress(socketAddress.getAddress());
+            message.setPort(socketAddress.getPort());
+            message.setMessage(message.getData(), 0, length);
+
+            try {
+                listeners.notifyMessage(message);
+            } finally {
+                message.release();
+            }
+        }
+    }
+
+    /**
+     * Sends the messages that were waiting for space in the socket send
+     * buffer. Called by the I/O thread only.
+     */
+    void flush() {
+        try {
+            UdpMessage message;
+            while ((message = pending.peek()) != null) {
+                if (!write(message)) {
+                    return;
+                }
+                pending.poll();
+            }
+            selectionKey.interestOps(SelectionKey.OP_READ);
+        } catch (IOException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    private boolean write(UdpMessage message) throws IOException {
+        return channel.send(ByteBuffer.wrap(message.getMessage()),
+                new InetSocketAddress(message.getAddress(), message.getPort())) > 0;
+    }
+
+    /**
+     * Sends {@link UdpMessage}. If the socket send buffer is full, the message
+     * is queued and sent by the I/O thread as soon as the channel becomes
+     * writable. If a {@link TokenBucketPacer} is set and the destination
+     * exceeds its rate, the message is handed over to the I/O thread to be
+     * sent when the rate allows it, without blocking the caller.
+     *
+     * @param message
+     *            - {@link UdpMessage} to send.
+     * @throws IOException
+     *             when sending of the message fails
+     */
+    @Override
+    public void send(final UdpMessage message) throws IOException {
+        TokenBucketPacer currentPacer = pacer;
+        long delay = currentPacer == null ? 0 : currentPacer.reserve(message.getAddress());
+
+        if (delay > 0) {
+            loop.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    sendDelayed(message);
+                }
+            }, delay);
+            return;
+        }
+
+        if (pending.isEmpty() && write(message)) {
+            return;
+        }
+
+        enqueue(message);
+    }
+
+    private void sendDelayed(UdpMessage message) {
+        try {
+            if (pending.isEmpty() && write(message)) {
+                return;
+            }
+            enqueue(message);
+        } catch (IOException e) {
+            if (channel.isOpen()) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    private void enqueue(UdpMessage message) {
+        pending.add(message);
+
+        loop.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (selectionKey != null && selectionKey.isValid()) {
+                    selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void register(UdpListener listener) {
+        listeners.register(listener);
+    }
+
+    @Override
+    public void unregister(UdpListener listener) {
+        listeners.unregister(listener);
+    }
+
+    /**
+     * Closes the channel and releases port. The selection key is cancelled and
+     * the I/O thread woken up so that the socket is released right away. The
+     * I/O thread is left running for the other messengers of its group.
+     */
+    @Override
+    public void closeConnection() {
+        SelectionKey key = selectionKey;
+        if (key != null) {
+            key.cancel();
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.error(e.getMessage(), e);
+        }
+
+        loop.wakeup();
+    }
+}
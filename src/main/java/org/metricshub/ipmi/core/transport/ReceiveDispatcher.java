@@ -0,0 +1,208 @@
+package org.metricshub.ipmi.core.transport;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.metricshub.ipmi.core.common.PropertiesManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed set of worker threads delivering received datagrams to the
+ * {@link UdpListener}s, so that the I/O threads only receive and route them.
+ * Decoding, decryption, integrity checks and listener callbacks run on the
+ * workers. Datagrams are partitioned by listener: all datagrams of a listener
+ * are handled by the same worker in the order they were received, and a slow
+ * listener only delays the listeners sharing its worker.
+ */
+public class ReceiveDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiveDispatcher.class);
+
+    private static ReceiveDispatcher defaultDispatcher;
+
+    private static boolean defaultInitialized;
+
+    private final Worker[] workers;
+
+    private final AtomicLong dropped;
+
+    /**
+     * Starts the dispatcher.
+     *
+     * @param threadCount
+     *            - number of worker threads
+     * @param queueSize
+     *            - maximum number of datagrams waiting for each worker. When
+     *            the queue is full, new datagrams for that worker are dropped
+     *            rather than blocking the I/O thread.
+     */
+    public ReceiveDispatcher(int threadCount, int queueSize) {
+        if (threadCount <= 0 || queueSize <= 0) {
+            throw new IllegalArgumentException("Thread count and queue size must be positive");
+        }
+
+        workers = new Worker[threadCount];
+        dropped = new AtomicLong(0);
+
+        for (int i = 0; i < threadCount; ++i) {
+            workers[i] = new Worker("ipmi-receive-" + i, queueSize);
+        }
+    }
+
+    /**
+     * Returns the dispatcher shared by all messengers that were not given one
+     * explicitly. Its size is read from the <code>receiveThreads</code> and
+     * <code>receiveQueueSize</code> properties.
+     *
+     * @return dispatcher or null if <code>receiveThreads</code> is 0 and
+     *         listeners are notified on the I/O thread
+     */
+    public static synchronized ReceiveDispatcher getDefault() {
+        if (!defaultInitialized) {
+            PropertiesManager manager = PropertiesManager.getInstance();
+            String threads = manager.getProperty("receiveThreads");
+            String queueSize = manager.getProperty("receiveQueueSize");
+
+            if (threads != null && Integer.parseInt(threads) > 0) {
+                defaultDispatcher = new ReceiveDispatcher(Integer.parseInt(threads),
+                        queueSize == null ? 1024 : Integer.parseInt(queueSize));
+            }
+            defaultInitialized = true;
+        }
+        return defaultDispatcher;
+    }
+
+    /**
+     * Hands the datagram over to the worker of the listener. Called by the I/O
+     * threads, never blocks.
+     *
+     * @param listener
+     *            - {@link UdpListener} to notify
+     * @param message
+     *            - received datagram. Must not be modified afterwards.
+     */
+    void dispatch(final UdpListener listener, final UdpMessage message) {
+        Worker worker = workers[partition(listener)];
+
+        message.retain();
+
+        boolean queued = worker.queue.offer(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    listener.notifyMessage(message);
+                } finally {
+                    message.release();
+                }
+            }
+        });
+
+        if (!queued) {
+            message.release();
+            logger.warn("Receive queue of {} is full, datagram from {} dropped ({} dropped so far)",
+                    worker.thread.getName(), message.getAddress(), dropped.incrementAndGet());
+        }
+    }
+
+    /**
+     * Returns index of the worker handling the datagrams of the listener.
+     */
+    int partition(UdpListener listener) {
+        int hash = System.identityHashCode(listener);
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % workers.length;
+    }
+
+    /**
+     * Returns number of the worker threads of this dispatcher.
+     */
+    public int getThreadCount() {
+        return workers.length;
+    }
+
+    /**
+     * Returns number of datagrams dropped because the queue of their worker
+     * was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stops all worker threads. Datagrams still waiting in the queues are
+     * discarded.
+     */
+    public void shutdown() {
+        for (Worker worker : workers) {
+            worker.shutdown();
+        }
+    }
+
+    /**
+     * Single worker thread with its own queue.
+     */
+    private static class Worker implements Runnable {
+
+        private final BlockingQueue<Runnable> queue;
+
+        private final Thread thread;
+
+        private volatile boolean running;
+
+        private Worker(String name, int queueSize) {
+            queue = new ArrayBlockingQueue<Runnable>(queueSize);
+            running = true;
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void shutdown() {
+            running = false;
+            thread.interrupt();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                Runnable task;
+                try {
+                    task = queue.take();
+                } catch (InterruptedException e) {
+                    continue;
+                }
+
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    logger.error(e.getMessage(), e);
+                }
+            }
+            queue.clear();
+        }
+    }
+}
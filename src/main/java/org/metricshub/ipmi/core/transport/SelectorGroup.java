@@ -0,0 +1,121 @@
+package org.metricshub.ipmi.core.transport;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.metricshub.ipmi.core.common.PropertiesManager;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed set of I/O threads serving {@link NioUdpMessenger}s. Each thread owns a
+ * {@link java.nio.channels.Selector} and sockets are spread over the threads in
+ * a round-robin fashion, so the number of threads does not grow with the
+ * number of sockets.
+ */
+public class SelectorGroup {
+
+    private static final int DEFAULT_RECEIVE_BUFFER_SIZE = 512;
+
+    private static SelectorGroup defaultGroup;
+
+    private final SelectorLoop[] loops;
+
+    private final AtomicInteger nextLoop;
+
+    /**
+     * Starts the group.
+     *
+     * @param threadCount
+     *            - number of I/O threads
+     * @throws IOException
+     *             when a selector cannot be opened
+     */
+    public SelectorGroup(int threadCount) throws IOException {
+        this(threadCount, DEFAULT_RECEIVE_BUFFER_SIZE);
+    }
+
+    /**
+     * Starts the group.
+     *
+     * @param threadCount
+     *            - number of I/O threads
+     * @param receiveBufferSize
+     *            - size of the direct receive buffer of each I/O thread. Longer
+     *            datagrams are truncated.
+     * @throws IOException
+     *             when a selector cannot be opened
+     */
+    public SelectorGroup(int threadCount, int receiveBufferSize) throws IOException {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+
+        loops = new SelectorLoop[threadCount];
+        nextLoop = new AtomicInteger(0);
+
+        for (int i = 0; i < threadCount; ++i) {
+            loops[i] = new SelectorLoop("ipmi-selector-" + i, receiveBufferSize);
+        }
+    }
+
+    /**
+     * Returns the group shared by all {@link NioUdpMessenger}s that were not
+     * given one explicitly. Its size is read from the
+     * <code>selectorThreads</code> property.
+     *
+     * @throws IOException
+     *             when a selector cannot be opened
+     */
+    public static synchronized SelectorGroup getDefault() throws IOException {
+        if (defaultGroup == null) {
+            defaultGroup = new SelectorGroup(
+                    Integer.parseInt(PropertiesManager.getInstance().getProperty("selectorThreads")));
+        }
+        return defaultGroup;
+    }
+
+    /**
+     * Picks the I/O thread for a new channel.
+     */
+    SelectorLoop next() {
+        return loops[(nextLoop.getAndIncrement() & Integer.MAX_VALUE) % loops.length];
+    }
+
+    /**
+     * Returns number of the I/O threads in this group.
+     */
+    public int getThreadCount() {
+        return loops.length;
+    }
+
+    /**
+     * Stops all I/O threads. Messengers using this group will no longer
+     * receive messages.
+     */
+    public void shutdown() {
+        for (SelectorLoop loop : loops) {
+            loop.shutdown();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package org.metricshub.ipmi.core.transport;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single I/O thread of a {@link SelectorGroup}. Owns one {@link Selector},
+ * one direct receive buffer that is reused for every datagram read by this
+ * thread and a pool of the messages handed to the listeners.
+ */
+class SelectorLoop implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SelectorLoop.class);
+
+    private final Selector selector;
+
+    /**
+     * Maximum number of idle received messages kept for reuse.
+     */
+    private static final int MESSAGE_POOL_CAPACITY = 256;
+
+    private final ByteBuffer receiveBuffer;
+
+    private final UdpMessagePool messagePool;
+
+    private final Queue<Runnable> tasks;
+
+    /**
+     * Delayed tasks ordered by deadline. Accessed by the I/O thread only.
+     */
+    private final PriorityQueue<ScheduledTask> scheduled;
+
+    private long scheduledCount;
+
+    private final Thread thread;
+
+    private volatile boolean running;
+
+    SelectorLoop(String name, int receiveBufferSize) throws IOException {
+        selector = Selector.open();
+        receiveBuffer = ByteBuffer.allocateDirect(receiveBufferSize);
+        messagePool = new UdpMessagePool(MESSAGE_POOL_CAPACITY, receiveBufferSize);
+        tasks = new ConcurrentLinkedQueue<Runnable>();
+        scheduled = new PriorityQueue<ScheduledTask>();
+        running = true;
+        thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Runs the task on the I/O thread of this loop.
+     *
+     * @param task
+     *            - task to run
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Runs the task on the I/O thread of this loop after the given delay.
+     *
+     * @param task
+     *            - task to run
+     * @param delayNanos
+     *            - delay in nanoseconds
+     */
+    void schedule(final Runnable task, long delayNanos) {
+        final long deadline = System.nanoTime() + delayNanos;
+
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                scheduled.add(new ScheduledTask(deadline, scheduledCount++, task));
+            }
+        });
+    }
+
+    /**
+     * Registers the channel for reading. Registration is performed on the I/O
+     * thread, since {@link DatagramChannel#register(Selector, int, Object)}
+     * blocks while the selector is selecting.
+     *
+     * @param channel
+     *            - non-blocking channel to register
+     * @param messenger
+     *            - {@link NioUdpMessenger} that owns the channel
+     */
+    void register(final DatagramChannel channel, final NioUdpMessenger messenger) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!channel.isOpen()) {
+                    return; // closed before the registration
+                }
+                try {
+                    messenger.setSelectionKey(channel.register(selector, SelectionKey.OP_READ, messenger));
+                } catch (IOException e) {
+                    logger.error("Cannot register channel in selector", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Wakes the I/O thread up, so that the keys cancelled in the meantime are
+     * deregistered and their channels released.
+     */
+    void wakeup() {
+        selector.wakeup();
+    }
+
+    /**
+     * Stops the loop and closes the selector.
+     */
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                select();
+
+                runTasks();
+                runScheduledTasks();
+
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+
+                while (iterator.hasNext()) {
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+
+                    processKey(key);
+                }
+            } catch (ClosedSelectorException e) {
+                running = false;
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    private void select() throws IOException {
+        ScheduledTask first = scheduled.peek();
+
+        if (first == null) {
+            selector.select();
+            return;
+        }
+
+        long wait = first.deadline - System.nanoTime();
+
+        if (wait <= 0) {
+            selector.selectNow();
+        } else {
+            selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+        }
+    }
+
+    private void runScheduledTasks() {
+        long now = System.nanoTime();
+        ScheduledTask task;
+        while ((task = scheduled.peek()) != null && task.deadline - now <= 0) {
+            scheduled.poll();
+            try {
+                task.task.run();
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    private void processKey(SelectionKey key) {
+        NioUdpMessenger messenger = (NioUdpMessenger) key.attachment();
+
+        try {
+            if (key.isValid() && key.isWritable()) {
+                messenger.flush();
+            }
+            if (key.isValid() && key.isReadable()) {
+                messenger.read(receiveBuffer, messagePool);
+            }
+        } catch (CancelledKeyException e) {
+            // channel was closed in the meantime
+        }
+    }
+
+    private static class ScheduledTask implements Comparable<ScheduledTask> {
+
+        private final long deadline;
+
+        private final long order;
+
+        private final Runnable task;
+
+        ScheduledTask(long deadline, long order, Runnable task) {
+            this.deadline = deadline;
+            this.order = order;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            long diff = deadline - other.deadline;
+            if (diff == 0) {
+                diff = order - other.order;
+            }
+            return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+        }
+    }
+}
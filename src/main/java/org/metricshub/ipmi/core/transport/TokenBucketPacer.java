@@ -0,0 +1,132 @@
+package org.metricshub.ipmi.core.transport;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.metricshub.ipmi.core.common.PropertiesManager;
+
+import java.net.InetAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the rate of packets sent to each remote host with a token bucket per
+ * destination address. Only the packets sent to a host that exceeds its rate
+ * are delayed, other destinations sharing the same socket are not affected.
+ * <p>
+ * The bucket is kept as the theoretical time at which its next token becomes
+ * available, so reserving a token is a single compare-and-set.
+ */
+public class TokenBucketPacer {
+
+    private final long interval;
+
+    private final long tolerance;
+
+    private final ConcurrentMap<InetAddress, AtomicLong> buckets;
+
+    /**
+     * Creates the pacer.
+     *
+     * @param rate
+     *            - number of packets per second allowed for a single
+     *            destination
+     * @param burst
+     *            - number of packets that can be sent to a single destination
+     *            at once, before the rate limit applies
+     */
+    public TokenBucketPacer(int rate, int burst) {
+        if (rate <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        tolerance = interval * (burst - 1);
+        buckets = new ConcurrentHashMap<InetAddress, AtomicLong>();
+    }
+
+    /**
+     * Creates the pacer configured by the <code>sendRate</code> and
+     * <code>sendBurst</code> properties.
+     *
+     * @return pacer or null if pacing is disabled
+     */
+    public static TokenBucketPacer fromProperties() {
+        PropertiesManager manager = PropertiesManager.getInstance();
+        String rate = manager.getProperty("sendRate");
+        String burst = manager.getProperty("sendBurst");
+
+        if (rate == null || Integer.parseInt(rate) <= 0) {
+            return null;
+        }
+
+        return new TokenBucketPacer(Integer.parseInt(rate), burst == null ? 1 : Integer.parseInt(burst));
+    }
+
+    /**
+     * Takes a token from the bucket of the destination.
+     *
+     * @param address
+     *            - address of the remote host
+     * @return time in nanoseconds the packet must be held back before sending,
+     *         0 if it can be sent right away
+     */
+    public long reserve(InetAddress address) {
+        AtomicLong bucket = buckets.get(address);
+
+        if (bucket == null) {
+            AtomicLong created = new AtomicLong(Long.MIN_VALUE);
+            bucket = buckets.putIfAbsent(address, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+
+        while (true) {
+            long now = System.nanoTime();
+            long next = bucket.get();
+            long start = next == Long.MIN_VALUE || next - now < 0 ? now : next;
+
+            if (bucket.compareAndSet(next, start + interval)) {
+                long delay = start - tolerance - now;
+                return delay > 0 ? delay : 0;
+            }
+        }
+    }
+
+    /**
+     * Blocks the calling thread until a packet can be sent to the destination.
+     *
+     * @param address
+     *            - address of the remote host
+     * @throws InterruptedException
+     *             when the thread was interrupted while waiting
+     */
+    public void acquire(InetAddress address) throws InterruptedException {
+        long delay = reserve(address);
+
+        if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        }
+    }
+}
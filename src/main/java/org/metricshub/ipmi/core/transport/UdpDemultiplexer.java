@@ -0,0 +1,262 @@
+package org.metricshub.ipmi.core.transport;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import org.metricshub.ipmi.core.common.TypeConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Routes received datagrams to the registered {@link UdpListener}s.
+ * {@link EndpointListener}s are indexed by remote address and port and, within
+ * an endpoint, by console session ID, so a datagram is handed to the listener
+ * it belongs to without asking every listener of the messenger. Other
+ * listeners receive every datagram.
+ */
+public class UdpDemultiplexer implements UdpListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(UdpDemultiplexer.class);
+
+    private static final int RMCP_CLASS_OFFSET = 3;
+
+    private static final int RMCP_CLASS_IPMI = 0x07;
+
+    private static final int AUTHENTICATION_TYPE_OFFSET = 4;
+
+    private static final int AUTHENTICATION_TYPE_RMCP_PLUS = 0x06;
+
+    private static final int PAYLOAD_TYPE_OFFSET = 5;
+
+    private static final int PAYLOAD_TYPE_OEM = 0x02;
+
+    private static final int SESSION_ID_OFFSET = 6;
+
+    private final ConcurrentMap<InetSocketAddress, Endpoint> endpoints;
+
+    private final List<UdpListener> wildcardListeners;
+
+    /**
+     * Workers notifying the listeners, null if they are notified on the
+     * thread that received the datagram.
+     */
+    private volatile ReceiveDispatcher dispatcher;
+
+    public UdpDemultiplexer() {
+        endpoints = new ConcurrentHashMap<InetSocketAddress, Endpoint>();
+        wildcardListeners = new CopyOnWriteArrayList<UdpListener>();
+    }
+
+    /**
+     * Sets the workers notifying the listeners. Should be set before any
+     * listener is registered, so that the datagrams of a listener are always
+     * handled in order.
+     *
+     * @param dispatcher
+     *            - {@link ReceiveDispatcher} to use or null to notify the
+     *            listeners on the thread that received the datagram
+     */
+    public void setDispatcher(ReceiveDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Registers the listener. An {@link EndpointListener} must know its remote
+     * endpoint at this point.
+     *
+     * @param listener
+     *            - {@link UdpListener} to register
+     */
+    public void register(UdpListener listener) {
+        if (listener instanceof EndpointListener) {
+            EndpointListener endpointListener = (EndpointListener) listener;
+            InetSocketAddress key = new InetSocketAddress(endpointListener.getRemoteMachineAddress(),
+                    endpointListener.getRemoteMachinePort());
+
+            synchronized (endpoints) {
+                Endpoint endpoint = endpoints.get(key);
+                if (endpoint == null) {
+                    endpoint = new Endpoint();
+                    endpoints.put(key, endpoint);
+                }
+                endpoint.listeners.add(endpointListener);
+            }
+        } else {
+            wildcardListeners.add(listener);
+        }
+    }
+
+    /**
+     * Unregisters the listener so it no longer will be notified.
+     *
+     * @param listener
+     *            - {@link UdpListener} to unregister
+     */
+    public void unregister(UdpListener listener) {
+        if (listener instanceof EndpointListener) {
+            EndpointListener endpointListener = (EndpointListener) listener;
+            InetSocketAddress key = new InetSocketAddress(endpointListener.getRemoteMachineAddress(),
+                    endpointListener.getRemoteMachinePort());
+
+            synchronized (endpoints) {
+                Endpoint endpoint = endpoints.get(key);
+                if (endpoint != null) {
+                    endpoint.listeners.remove(endpointListener);
+                    endpoint.bySessionId.values().remove(endpointListener);
+                    if (endpoint.listeners.isEmpty()) {
+                        endpoints.remove(key);
+                    }
+                }
+            }
+        } else {
+            wildcardListeners.remove(listener);
+        }
+    }
+
+    @Override
+    public void notifyMessage(UdpMessage message) {
+        for (UdpListener listener : wildcardListeners) {
+            deliver(listener, message);
+        }
+
+        Endpoint endpoint = endpoints.get(new InetSocketAddress(message.getAddress(), message.getPort()));
+
+        if (endpoint == null) {
+            return;
+        }
+
+        List<EndpointListener> listeners = endpoint.listeners;
+
+        if (listeners.size() == 1) {
+            deliver(listeners.get(0), message);
+            return;
+        }
+
+        int sessionId = peekSessionId(message.getBuffer(), message.getOffset(), message.getLength());
+
+        if (sessionId == 0) {
+            for (EndpointListener listener : listeners) {
+                deliver(listener, message);
+            }
+            return;
+        }
+
+        EndpointListener listener = endpoint.find(sessionId);
+
+        if (listener != null) {
+            deliver(listener, message);
+        }
+    }
+
+    private void deliver(UdpListener listener, UdpMessage message) {
+        ReceiveDispatcher currentDispatcher = dispatcher;
+
+        if (currentDispatcher != null) {
+            currentDispatcher.dispatch(listener, message);
+            return;
+        }
+
+        try {
+            listener.notifyMessage(message);
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the session ID of an IPMI v2.0 datagram without decoding it.
+     *
+     * @param data
+     *            - raw datagram
+     * @return session ID or 0 if the datagram is sessionless or is not an
+     *         IPMI v2.0 message
+     */
+    static int peekSessionId(byte[] data) {
+        return peekSessionId(data, 0, data.length);
+    }
+
+    /**
+     * Reads the session ID of an IPMI v2.0 datagram held in a buffer without
+     * decoding it.
+     *
+     * @param buffer
+     *            - buffer holding the datagram
+     * @param offset
+     *            - offset of the datagram in the buffer
+     * @param length
+     *            - length of the datagram
+     * @return session ID or 0 if the datagram is sessionless or is not an
+     *         IPMI v2.0 message
+     */
+    static int peekSessionId(byte[] buffer, int offset, int length) {
+        if (length < SESSION_ID_OFFSET + 4
+                || (buffer[offset + RMCP_CLASS_OFFSET] & 0x1f) != RMCP_CLASS_IPMI
+                || (buffer[offset + AUTHENTICATION_TYPE_OFFSET] & 0x0f) != AUTHENTICATION_TYPE_RMCP_PLUS
+                || (buffer[offset + PAYLOAD_TYPE_OFFSET] & 0x3f) == PAYLOAD_TYPE_OEM) {
+            return 0;
+        }
+
+        return TypeConverter.littleEndianByteArrayToInt(buffer, offset + SESSION_ID_OFFSET);
+    }
+
+    /**
+     * Listeners sharing a remote endpoint.
+     */
+    private static class Endpoint {
+
+        private final List<EndpointListener> listeners = new CopyOnWriteArrayList<EndpointListener>();
+
+        /**
+         * Cache of the listeners by session ID. Session IDs are assigned after
+         * registration, so the entries are filled in on the first datagram of
+         * each session and checked on every hit.
+         */
+        private final ConcurrentMap<Integer, EndpointListener> bySessionId = new ConcurrentHashMap<Integer, EndpointListener>();
+
+        private EndpointListener find(int sessionId) {
+            EndpointListener listener = bySessionId.get(sessionId);
+
+            if (listener != null && listener.getConsoleSessionId() == sessionId) {
+                return listener;
+            }
+
+            for (EndpointListener candidate : listeners) {
+                if (candidate.getConsoleSessionId() == sessionId) {
+                    bySessionId.put(sessionId, candidate);
+                    return candidate;
+                }
+            }
+
+            if (listener != null) {
+                bySessionId.remove(sessionId, listener);
+            }
+
+            return null;
+        }
+    }
+}
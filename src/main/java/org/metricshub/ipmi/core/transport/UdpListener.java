@@ -27,7 +27,11 @@ package org.metricshub.ipmi.core.transport;
  */
 public interface UdpListener {
     /**
-     * Notifies listener of the UDP message that was received.
+     * Notifies listener of the UDP message that was received. Messages are
+     * delivered to a listener one at a time, in the order they were received,
+     * but not necessarily on the thread that received them. The buffer of the
+     * message may be reused once this method returns, so listeners keeping
+     * the data must copy it, e.g. with {@link UdpMessage#getMessage()}.
      *
      * @param message
      *            - message received
@@ -23,6 +23,7 @@ package org.metricshub.ipmi.core.transport;
  */
 
 import java.net.InetAddress;
+import java.util.Arrays;
 
 /**
  * Container for UDP message.
@@ -42,6 +43,10 @@ public class UdpMessage {
 
     private byte[] message;
 
+    private int offset;
+
+    private int length;
+
     /**
      * Target port when sending message. Sender port when receiving
      * message.
@@ -74,11 +79,69 @@ public class UdpMessage {
         this.address = address;
     }
 
+    /**
+     * Returns the datagram data. If the message is a view on a larger buffer,
+     * the data is copied out of it on the first call.
+     */
     public byte[] getMessage() {
+        if (message != null && (offset != 0 || length != message.length)) {
+            setMessage(Arrays.copyOfRange(message, offset, offset + length));
+        }
         return message;
     }
 
     public void setMessage(byte[] message) {
         this.message = message;
+        this.offset = 0;
+        this.length = message == null ? 0 : message.length;
+    }
+
+    /**
+     * Sets the datagram data as a view on a buffer. The buffer must not be
+     * reused while the message is in use.
+     *
+     * @param buffer
+     *            - buffer holding the datagram
+     * @param offset
+     *            - offset of the datagram in the buffer
+     * @param length
+     *            - length of the datagram
+     */
+    public void setMessage(byte[] buffer, int offset, int length) {
+        this.message = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @return buffer holding the datagram, starting at {@link #getOffset()}
+     */
+    public byte[] getBuffer() {
+        return message;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Takes a reference to a received message that is handled after
+     * {@link UdpListener#notifyMessage(UdpMessage)} returned, so that its
+     * buffer is not reused in the meantime.
+     */
+    void retain() {
+        // buffer is not pooled
+    }
+
+    /**
+     * Releases a reference taken by {@link #retain()}, or the initial one held
+     * by the thread that received the message.
+     */
+    void release() {
+        // buffer is not pooled
     }
 }
@@ -0,0 +1,117 @@
+package org.metricshub.ipmi.core.transport;
+
+/*-
+ * ╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲
+ * IPMI Java Client
+ * ჻჻჻჻჻჻
+ * Copyright 2023 Verax Systems, MetricsHub
+ * ჻჻჻჻჻჻
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * ╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱╲╱
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Received messages reused by the I/O thread of a {@link SelectorLoop}. Each
+ * message owns a heap buffer the datagrams are copied into from the direct
+ * receive buffer, and goes back to the pool once every listener it was handed
+ * to has returned.
+ */
+final class UdpMessagePool {
+
+    private final BlockingQueue<PooledUdpMessage> idle;
+
+    private final int bufferSize;
+
+    /**
+     * Creates the pool.
+     *
+     * @param capacity
+     *            - maximum number of idle messages kept in the pool
+     * @param bufferSize
+     *            - size of the buffer of each message
+     */
+    UdpMessagePool(int capacity, int bufferSize) {
+        this.idle = new ArrayBlockingQueue<PooledUdpMessage>(capacity);
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Takes a message from the pool, or creates one if the pool is empty. The
+     * caller holds the only reference to it and must
+     * {@link UdpMessage#release()} it.
+     */
+    PooledUdpMessage take() {
+        PooledUdpMessage message = idle.poll();
+
+        if (message == null) {
+            message = new PooledUdpMessage(this, new byte[bufferSize]);
+        }
+        message.references.set(1);
+
+        return message;
+    }
+
+    /**
+     * {@link UdpMessage} whose data is a view on a buffer owned by the pool.
+     */
+    static final class PooledUdpMessage extends UdpMessage {
+
+        private final UdpMessagePool pool;
+
+        private final byte[] data;
+
+        private final AtomicInteger references;
+
+        private PooledUdpMessage(UdpMessagePool pool, byte[] data) {
+            this.pool = pool;
+            this.data = data;
+            this.references = new AtomicInteger();
+        }
+
+        /**
+         * @return buffer the datagram is to be copied into
+         */
+        byte[] getData() {
+            return data;
+        }
+
+        /**
+         * Returns a copy of the datagram data, since the buffer is reused once
+         * the message is released.
+         */
+        @Override
+        public byte[] getMessage() {
+            return Arrays.copyOfRange(getBuffer(), getOffset(), getOffset() + getLength());
+        }
+
+        @Override
+        void retain() {
+            references.incrementAndGet();
+        }
+
+        @Override
+        void release() {
+            if (references.decrementAndGet() == 0) {
+                setAddress(null);
+                pool.idle.offer(this);
+            }
+        }
+    }
+}
@@ -26,13 +26,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Handles the UDP connection.
@@ -43,10 +43,16 @@ public class UdpMessenger extends Thread implements Messenger {
 
     private DatagramSocket socket;
 
-    private List<UdpListener> listeners;
+    private final UdpDemultiplexer listeners;
 
     private boolean closing = false;
 
+    /**
+     * Limits the rate of packets sent to each remote host, null if the rate is
+     * not limited.
+     */
+    private volatile TokenBucketPacer pacer;
+
     private static final String DEFAULT_ADDRESS = "0.0.0.0";
 
     /**
@@ -91,12 +97,14 @@ public class UdpMessenger extends Thread implements Messenger {
      *             bind to the specified local port.
      */
     public UdpMessenger(int port, InetAddress address) throws SocketException {
-        sentPackets = 0;
+        sentPackets.set(0);
         this.port = port;
-        listeners = new ArrayList<UdpListener>();
+        listeners = new UdpDemultiplexer();
         bufferSize = DEFAULTBUFFERSIZE;
         socket = new DatagramSocket(this.port, address);
         socket.setSoTimeout(0);
+        pacer = TokenBucketPacer.fromProperties();
+        listeners.setDispatcher(ReceiveDispatcher.getDefault());
         this.start();
     }
 
@@ -114,6 +122,29 @@ public class UdpMessenger extends Thread implements Messenger {
         return bufferSize;
     }
 
+    /**
+     * Sets the workers decoding received datagrams and notifying the
+     * listeners. Should be called before any listener is registered.
+     *
+     * @param dispatcher
+     *            - {@link ReceiveDispatcher} to use or null to notify the
+     *            listeners on the receiving thread
+     */
+    public void setDispatcher(ReceiveDispatcher dispatcher) {
+        listeners.setDispatcher(dispatcher);
+    }
+
+    /**
+     * Sets the pacer limiting the rate of packets sent to each remote host.
+     *
+     * @param pacer
+     *            - {@link TokenBucketPacer} to use or null to send without
+     *            limits
+     */
+    public void setPacer(TokenBucketPacer pacer) {
+        this.pacer = pacer;
+    }
+
     @Override
     public void run() {
         super.run();
@@ -128,10 +159,9 @@ public class UdpMessenger extends Thread implements Messenger {
                 UdpMessage message = new UdpMessage();
                 message.setAddress(response.getAddress());
                 message.setPort(response.getPort());
-                byte[] buffer = new byte[response.getLength()];
-                System.arraycopy(response.getData(), 0, buffer, 0,
-                        buffer.length);
-                message.setMessage(buffer);
+                // the receive buffer is not reused, so the message is a view on it
+                message.setMessage(response.getData(), response.getOffset(),
+                        response.getLength());
 
                 notifyListeners(message);
 
@@ -152,13 +182,7 @@ public class UdpMessenger extends Thread implements Messenger {
     }
 
     private void notifyListeners(UdpMessage message) {
-        synchronized (listeners) {
-            for (UdpListener listener : listeners) {
-                if (listener != null) {
-                    listener.notifyMessage(message);
-                }
-            }
-        }
+        listeners.notifyMessage(message);
     }
 
     /**
@@ -177,9 +201,7 @@ public class UdpMessenger extends Thread implements Messenger {
      *            - {@link UdpListener} to register.
      */
     public void register(UdpListener listener) {
-        synchronized (listeners) {
-            listeners.add(listener);
-        }
+        listeners.register(listener);
     }
 
     /**
@@ -189,39 +211,46 @@ public class UdpMessenger extends Thread implements Messenger {
      *            - {@link UdpListener} to unregister
      */
     public void unregister(UdpListener listener) {
-        synchronized (listeners) {
-            listeners.remove(listener);
-        }
+        listeners.unregister(listener);
     }
 
-    private static int sentPackets = 0;
+    private static final AtomicInteger sentPackets = new AtomicInteger();
 
     /**
      * Returns number of packets sent since last creation of the instance of
      * {@link UdpMessenger}. For debug/testing purposes only.
      */
     public static int getSentPackets() {
-        return sentPackets;
+        return sentPackets.get();
     }
 
     /**
-     * Sends {@link UdpMessage}.
+     * Sends {@link UdpMessage}. {@link DatagramSocket#send(DatagramPacket)} is
+     * safe to be called concurrently, so threads sending to different hosts
+     * do not wait for each other. If a {@link TokenBucketPacer} is set, the
+     * calling thread waits until the destination's rate allows the packet.
      *
      * @param message
      *            - {@link UdpMessage} to send.
      * @throws IOException
      *             when sending of the message fails
      */
-    public synchronized void send(UdpMessage message) throws IOException {
+    public void send(UdpMessage message) throws IOException {
+        TokenBucketPacer currentPacer = pacer;
+
+        if (currentPacer != null) {
+            try {
+                currentPacer.acquire(message.getAddress());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while pacing the message");
+            }
+        }
+
         DatagramPacket packet = new DatagramPacket(message.getMessage(),
                 message.getMessage().length, message.getAddress(),
                 message.getPort());
         socket.send(packet);
-        try {
-            Thread.sleep(1);
-        } catch (InterruptedException e) {
-            // TODO: log
-        }
-        ++sentPackets;
+        sentPackets.incrementAndGet();
     }
 }
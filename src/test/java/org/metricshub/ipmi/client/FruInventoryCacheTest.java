@@ -0,0 +1,87 @@
+package org.metricshub.ipmi.client;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.metricshub.ipmi.core.coding.commands.fru.record.FruRecord;
+
+class FruInventoryCacheTest {
+
+	private static final String HOSTNAME = "10.0.0.1";
+	private static final int PORT = 623;
+	private static final int FRU_ID = 0;
+
+	/**
+	 * Inventory area with a common header and no info area
+	 */
+	private static final byte[] AREA = { 1, 0, 0, 0, 0, 0, 0, -1, 0x55, 0x55 };
+
+	@TempDir
+	File directory;
+
+	@Test
+	void testRecordsAreValidatedBySizeAndHeader() {
+		final FruInventoryCache cache = new FruInventoryCache(null, 0);
+
+		assertNull(cache.get(HOSTNAME, PORT, FRU_ID, AREA.length, header(AREA)));
+
+		final List<FruRecord> records = cache.put(HOSTNAME, PORT, FRU_ID, AREA);
+		assertTrue(records.isEmpty());
+
+		// Decoded once
+		assertSame(records, cache.get(HOSTNAME, PORT, FRU_ID, AREA.length, header(AREA)));
+
+		// Another FRU, another BMC
+		assertNull(cache.get(HOSTNAME, PORT, 1, AREA.length, header(AREA)));
+		assertNull(cache.get(HOSTNAME, 624, FRU_ID, AREA.length, header(AREA)));
+
+		// Size or header changed
+		assertNull(cache.get(HOSTNAME, PORT, FRU_ID, AREA.length + 8, header(AREA)));
+		final byte[] header = header(AREA);
+		header[7] = 0;
+		assertNull(cache.get(HOSTNAME, PORT, FRU_ID, AREA.length, header));
+
+		cache.invalidate(HOSTNAME, PORT);
+		assertNull(cache.get(HOSTNAME, PORT, FRU_ID, AREA.length, header(AREA)));
+	}
+
+	@Test
+	void testRecordsExpire() throws InterruptedException {
+		final FruInventoryCache cache = new FruInventoryCache(null, 1);
+
+		cache.put(HOSTNAME, PORT, FRU_ID, AREA);
+		Thread.sleep(10);
+
+		assertNull(cache.get(HOSTNAME, PORT, FRU_ID, AREA.length, header(AREA)));
+	}
+
+	@Test
+	void testInvalidAreaIsNotStored() {
+		final FruInventoryCache cache = new FruInventoryCache(null, 0);
+		final byte[] area = new byte[16];
+
+		assertThrows(IllegalArgumentException.class, () -> cache.put(HOSTNAME, PORT, FRU_ID, area));
+		assertNull(cache.get(HOSTNAME, PORT, FRU_ID, area.length, header(area)));
+	}
+
+	@Test
+	void testRecordsSurviveRestart() {
+		new FruInventoryCache(directory, 0).put(HOSTNAME, PORT, FRU_ID, AREA);
+
+		assertNotNull(new FruInventoryCache(directory, 0).get(HOSTNAME, PORT, FRU_ID, AREA.length, header(AREA)));
+		assertNull(new FruInventoryCache(directory, 0).get(HOSTNAME, PORT, 1, AREA.length, header(AREA)));
+	}
+
+	private static byte[] header(final byte[] area) {
+		return Arrays.copyOf(area, FruInventoryCache.COMMON_HEADER_SIZE);
+	}
+}
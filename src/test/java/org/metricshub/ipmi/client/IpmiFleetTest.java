@@ -0,0 +1,210 @@
+package org.metricshub.ipmi.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.metricshub.ipmi.client.model.FleetResult;
+import org.metricshub.ipmi.client.runner.AbstractIpmiRunner;
+import org.metricshub.ipmi.core.api.sync.IpmiConnector;
+import org.metricshub.ipmi.core.transport.NioUdpMessenger;
+import org.metricshub.ipmi.core.transport.UdpMessage;
+
+class IpmiFleetTest {
+
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicInteger maxRunning = new AtomicInteger();
+	private final Map<String, AtomicInteger> runningByHost = new ConcurrentHashMap<>();
+	private final AtomicInteger maxRunningByHost = new AtomicInteger();
+	private final AtomicBoolean interrupted = new AtomicBoolean();
+
+	@Test
+	void testConcurrencyIsBounded() throws Exception {
+		final List<IpmiClientConfiguration> configurations = new ArrayList<>();
+		for (int i = 0; i < 24; i++) {
+			configurations.add(configuration("10.0.0." + (i % 4), 10));
+		}
+
+		try (IpmiFleet fleet = new IpmiFleet(1, 3, 1)) {
+			final List<FleetResult<String>> results = fleet
+					.execute(configurations, configuration -> new TestRunner(configuration, 20))
+					.collect(Collectors.toList());
+
+			assertEquals(24, results.size());
+			assertTrue(results.stream().allMatch(FleetResult::isSuccess));
+			assertEquals(0, fleet.getRunningCount());
+		}
+
+		assertEquals(3, maxRunning.get());
+		assertEquals(1, maxRunningByHost.get());
+	}
+
+	@Test
+	void testDeadlineIsPerBmc() throws Exception {
+		final List<IpmiClientConfiguration> configurations = new ArrayList<>();
+		configurations.add(configuration("10.0.0.1", 1));
+		configurations.add(configuration("10.0.0.2", 10));
+
+		try (IpmiFleet fleet = new IpmiFleet(1, 2, 1)) {
+			final Map<String, FleetResult<String>> results = fleet
+					.execute(configurations, configuration -> new TestRunner(configuration,
+							"10.0.0.1".equals(configuration.getHostname()) ? 60000 : 10))
+					.collect(Collectors.toMap(result -> result.getConfiguration().getHostname(), result -> result));
+
+			assertFalse(results.get("10.0.0.1").isSuccess());
+			assertTrue(results.get("10.0.0.1").getError() instanceof TimeoutException);
+			assertEquals("10.0.0.2", results.get("10.0.0.2").getResult());
+		}
+	}
+
+	@Test
+	void testQueuedRequestTimesOutWithoutRunning() throws Exception {
+		final List<IpmiClientConfiguration> configurations = new ArrayList<>();
+		configurations.add(configuration("10.0.2.1", 10));
+		configurations.add(configuration("10.0.2.2", 1));
+		final Set<String> called = ConcurrentHashMap.newKeySet();
+
+		try (IpmiFleet fleet = new IpmiFleet(1, 1, 1)) {
+			// The second host waits for the only worker longer than its timeout
+			final Map<String, FleetResult<String>> results = fleet
+					.execute(configurations, configuration -> new TestRunner(configuration,
+							"10.0.2.1".equals(configuration.getHostname()) ? 1500 : 10) {
+						@Override
+						public String call() throws Exception {
+							called.add(ipmiConfiguration.getHostname());
+							return super.call();
+						}
+					})
+					.collect(Collectors.toMap(result -> result.getConfiguration().getHostname(), result -> result));
+
+			assertEquals("10.0.2.1", results.get("10.0.2.1").getResult());
+			assertTrue(results.get("10.0.2.2").getError() instanceof TimeoutException);
+		}
+
+		assertEquals(Collections.singleton("10.0.2.1"), called);
+	}
+
+	@Test
+	void testTimeoutKeepsTheSharedConnectorOpen() throws Exception {
+		final List<IpmiClientConfiguration> configurations = new ArrayList<>();
+		configurations.add(configuration("10.0.1.1", 1));
+		for (int i = 2; i <= 4; i++) {
+			configurations.add(configuration("10.0.1." + i, 10));
+		}
+
+		final NioUdpMessenger messenger = new NioUdpMessenger(0);
+
+		try (DatagramSocket bmc = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+				IpmiFleet fleet = new IpmiFleet(Collections.singletonList(new IpmiConnector(messenger)), 4, 1)) {
+
+			// All the hosts send through the same socket, the first one still sending when its deadline is exceeded
+			final Map<String, FleetResult<String>> results = fleet
+					.execute(configurations, configuration -> new SendingRunner(configuration, messenger,
+							bmc.getLocalPort(), "10.0.1.1".equals(configuration.getHostname()) ? 1500 : 2000))
+					.collect(Collectors.toMap(result -> result.getConfiguration().getHostname(), result -> result));
+
+			assertTrue(results.get("10.0.1.1").getError() instanceof TimeoutException);
+
+			// The worker was not interrupted: on Java 8, an interrupt during a write closes the shared channel
+			assertFalse(interrupted.get());
+			for (int i = 2; i <= 4; i++) {
+				final FleetResult<String> result = results.get("10.0.1." + i);
+				assertTrue(result.isSuccess(), "error: " + result.getError());
+			}
+
+			// The socket is still open
+			bmc.setSoTimeout(5000);
+			final byte[] buffer = new byte[16];
+			final DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+			do {
+				messenger.send(datagram(bmc.getLocalPort(), (byte) 0x7f));
+				bmc.receive(packet);
+			} while (buffer[0] != 0x7f);
+		}
+	}
+
+	private static UdpMessage datagram(final int port, final byte content) {
+		final UdpMessage message = new UdpMessage();
+		message.setAddress(InetAddress.getLoopbackAddress());
+		message.setPort(port);
+		message.setMessage(new byte[] { content });
+		return message;
+	}
+
+	private static IpmiClientConfiguration configuration(final String hostname, final long timeout) {
+		return new IpmiClientConfiguration(hostname, "admin", "secret".toCharArray(), null, false, timeout);
+	}
+
+	private class TestRunner extends AbstractIpmiRunner<String> {
+
+		private final long duration;
+
+		TestRunner(IpmiClientConfiguration ipmiConfiguration, long duration) {
+			super(ipmiConfiguration);
+			this.duration = duration;
+		}
+
+		@Override
+		public String call() throws Exception {
+			final AtomicInteger hostRunning = runningByHost.computeIfAbsent(ipmiConfiguration.getHostname(),
+					host -> new AtomicInteger());
+
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			maxRunningByHost.accumulateAndGet(hostRunning.incrementAndGet(), Math::max);
+			try {
+				// Like the real runners, give up at the deadline
+				Thread.sleep(Math.min(duration, getRemainingTime()));
+				checkDeadline();
+			} finally {
+				hostRunning.decrementAndGet();
+				running.decrementAndGet();
+			}
+			return ipmiConfiguration.getHostname();
+		}
+	}
+
+	/**
+	 * Sends datagrams through the given messenger for the given duration, whatever the deadline
+	 */
+	private class SendingRunner extends AbstractIpmiRunner<String> {
+
+		private final NioUdpMessenger messenger;
+		private final int port;
+		private final long duration;
+
+		SendingRunner(IpmiClientConfiguration ipmiConfiguration, NioUdpMessenger messenger, int port, long duration) {
+			super(ipmiConfiguration);
+			this.messenger = messenger;
+			this.port = port;
+			this.duration = duration;
+		}
+
+		@Override
+		public String call() throws Exception {
+			final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(duration);
+			while (System.nanoTime() - end < 0) {
+				messenger.send(datagram(port, (byte) 1));
+				if (Thread.currentThread().isInterrupted()) {
+					interrupted.set(true);
+				}
+			}
+			return ipmiConfiguration.getHostname();
+		}
+	}
+}
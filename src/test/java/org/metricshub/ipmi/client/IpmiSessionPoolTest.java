@@ -0,0 +1,81 @@
+package org.metricshub.ipmi.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.metricshub.ipmi.core.api.sync.FakeIpmiConnector;
+
+class IpmiSessionPoolTest {
+
+	@Test
+	void testReleasedSessionIsReused() {
+		final IpmiSessionPool pool = new IpmiSessionPool(60000);
+		final IpmiClientConfiguration configuration = configuration("secret");
+		final FakeIpmiConnector connector = new FakeIpmiConnector();
+
+		assertNull(pool.acquire(configuration));
+
+		final PooledSession session = pool.create(configuration, connector, null);
+		assertFalse(session.isReused());
+		pool.release(session);
+		assertEquals(1, pool.getIdleCount());
+
+		// Different credentials never get the session
+		assertNull(pool.acquire(configuration("other")));
+
+		final PooledSession reused = pool.acquire(configuration);
+		assertSame(session, reused);
+		assertTrue(reused.isReused());
+		assertEquals(0, pool.getIdleCount());
+
+		pool.release(reused);
+		pool.close();
+		assertEquals(0, pool.getIdleCount());
+		assertTrue(connector.isTornDown());
+	}
+
+	@Test
+	void testLostSessionIsNotReused() {
+		final IpmiSessionPool pool = new IpmiSessionPool(60000);
+		final IpmiClientConfiguration configuration = configuration("secret");
+		final FakeIpmiConnector connector = new FakeIpmiConnector();
+
+		pool.release(pool.create(configuration, connector, null));
+		connector.setSessionValid(false);
+
+		assertNull(pool.acquire(configuration));
+		pool.close();
+	}
+
+	@Test
+	void testPoolingDisabled() {
+		final IpmiSessionPool pool = new IpmiSessionPool(0);
+		final FakeIpmiConnector connector = new FakeIpmiConnector();
+
+		pool.release(pool.create(configuration("secret"), connector, null));
+
+		assertEquals(0, pool.getIdleCount());
+		assertTrue(connector.isTornDown());
+	}
+
+	@Test
+	void testSessionWithoutKeepAliveIsNotPooled() {
+		final IpmiSessionPool pool = new IpmiSessionPool(60000);
+		final FakeIpmiConnector connector = new FakeIpmiConnector();
+		connector.setKeptAlive(false);
+
+		pool.release(pool.create(configuration("secret"), connector, null));
+
+		assertEquals(0, pool.getIdleCount());
+		assertTrue(connector.isTornDown());
+		pool.close();
+	}
+
+	private static IpmiClientConfiguration configuration(final String password) {
+		return new IpmiClientConfiguration("10.0.0.1", "admin", password.toCharArray(), null, false, 10);
+	}
+}
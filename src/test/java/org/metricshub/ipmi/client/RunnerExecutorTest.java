@@ -0,0 +1,60 @@
+package org.metricshub.ipmi.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.metricshub.ipmi.client.runner.AbstractIpmiRunner;
+
+class RunnerExecutorTest {
+
+	@Test
+	void testRunnerIsClosedByItsThread() throws Exception {
+		final RunnerExecutor executor = new RunnerExecutor(1);
+		final SlowRunner runner = new SlowRunner(500);
+
+		assertEquals("10.0.0.1", executor.execute(new SlowRunner(0), 1000));
+
+		// The caller gives up while the runner is still running
+		assertThrows(TimeoutException.class, () -> executor.execute(runner, 100));
+		assertNull(runner.closedBy.get());
+
+		// The runner is closed once it stops, by the thread which ran it
+		assertTrue(runner.closed.await(5, TimeUnit.SECONDS));
+		assertEquals(runner.calledBy.get(), runner.closedBy.get());
+	}
+
+	private static class SlowRunner extends AbstractIpmiRunner<String> {
+
+		private final long duration;
+		private final AtomicReference<Thread> calledBy = new AtomicReference<>();
+		private final AtomicReference<Thread> closedBy = new AtomicReference<>();
+		private final CountDownLatch closed = new CountDownLatch(1);
+
+		SlowRunner(long duration) {
+			super(new IpmiClientConfiguration("10.0.0.1", "admin", "secret".toCharArray(), null, false, 10));
+			this.duration = duration;
+		}
+
+		@Override
+		public String call() throws Exception {
+			calledBy.set(Thread.currentThread());
+			Thread.sleep(duration);
+			return ipmiConfiguration.getHostname();
+		}
+
+		@Override
+		public void close() {
+			super.close();
+			closedBy.set(Thread.currentThread());
+			closed.countDown();
+		}
+	}
+}
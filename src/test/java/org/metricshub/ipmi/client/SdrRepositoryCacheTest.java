@@ -0,0 +1,65 @@
+package org.metricshub.ipmi.client;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrRepositoryInfoResponseData;
+
+class SdrRepositoryCacheTest {
+
+	private static final String HOSTNAME = "10.0.0.1";
+	private static final int PORT = 623;
+
+	@TempDir
+	File directory;
+
+	@Test
+	void testRecordsAreValidatedByTimestamps() {
+		final SdrRepositoryCache cache = new SdrRepositoryCache(null);
+		final List<byte[]> records = Arrays.asList(new byte[] { 1, 2, 3 }, new byte[] { 4, 5 });
+
+		assertNull(cache.get(HOSTNAME, PORT, info(2, 100, 50)));
+
+		cache.put(HOSTNAME, PORT, info(2, 100, 50), records);
+		assertEquals(2, cache.get(HOSTNAME, PORT, info(2, 100, 50)).size());
+
+		// Another BMC
+		assertNull(cache.get(HOSTNAME, 624, info(2, 100, 50)));
+
+		// Record added, or deleted
+		assertNull(cache.get(HOSTNAME, PORT, info(3, 101, 50)));
+		assertNull(cache.get(HOSTNAME, PORT, info(1, 100, 102)));
+
+		cache.invalidate(HOSTNAME, PORT);
+		assertNull(cache.get(HOSTNAME, PORT, info(2, 100, 50)));
+	}
+
+	@Test
+	void testRecordsSurviveRestart() {
+		new SdrRepositoryCache(directory).put(HOSTNAME, PORT, info(2, 100, 50),
+				Arrays.asList(new byte[] { 1, 2, 3 }, new byte[] { 4, 5 }));
+
+		final List<byte[]> records = new SdrRepositoryCache(directory).get(HOSTNAME, PORT, info(2, 100, 50));
+		assertEquals(2, records.size());
+		assertArrayEquals(new byte[] { 1, 2, 3 }, records.get(0));
+		assertArrayEquals(new byte[] { 4, 5 }, records.get(1));
+
+		assertNull(new SdrRepositoryCache(directory).get(HOSTNAME, PORT, info(2, 101, 50)));
+	}
+
+	private static GetSdrRepositoryInfoResponseData info(final int recordCount, final int addTimestamp,
+			final int delTimestamp) {
+		final GetSdrRepositoryInfoResponseData info = new GetSdrRepositoryInfoResponseData();
+		info.setRecordCount(recordCount);
+		info.setAddTimestamp(addTimestamp);
+		info.setDelTimestamp(delTimestamp);
+		return info;
+	}
+}
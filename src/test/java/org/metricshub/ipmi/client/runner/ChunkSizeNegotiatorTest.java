@@ -0,0 +1,69 @@
+package org.metricshub.ipmi.client.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ChunkSizeNegotiatorTest {
+
+	private static final String BMC = "10.0.0.1:623";
+
+	@Test
+	void testConvergesToTheLimitOfTheBmc() {
+		final ChunkSizeNegotiator negotiator = new ChunkSizeNegotiator(16, 4, 254);
+		final int limit = 40;
+
+		int rejections = 0;
+		for (int i = 0; i < 20; i++) {
+			final int size = negotiator.next(BMC);
+			if (size <= limit) {
+				negotiator.accepted(BMC, size);
+			} else {
+				assertTrue(negotiator.rejected(BMC, size));
+				rejections++;
+			}
+		}
+
+		assertEquals(limit, negotiator.next(BMC));
+		assertTrue(rejections < 10, "rejections: " + rejections);
+
+		// Other BMCs are not affected
+		assertEquals((16 + 255) / 2, negotiator.next("10.0.0.2:623"));
+	}
+
+	@Test
+	void testBacksOffWhenAcceptedSizeIsRejected() {
+		final ChunkSizeNegotiator negotiator = new ChunkSizeNegotiator(16, 4, 254);
+
+		assertTrue(negotiator.rejected(BMC, 16));
+		assertEquals(12, negotiator.next(BMC));
+		assertTrue(negotiator.rejected(BMC, 8));
+		assertTrue(negotiator.rejected(BMC, 5));
+		assertEquals(4, negotiator.next(BMC));
+		assertFalse(negotiator.rejected(BMC, 4));
+	}
+
+	@Test
+	void testWholeReadRejected() {
+		final ChunkSizeNegotiator negotiator = new ChunkSizeNegotiator(16, 4, 254);
+
+		assertFalse(negotiator.isWholeReadRejected(BMC));
+		negotiator.wholeReadRejected(BMC);
+		assertTrue(negotiator.isWholeReadRejected(BMC));
+	}
+
+	@Test
+	void testLargestAcceptedDoesNotProbe() {
+		final ChunkSizeNegotiator negotiator = new ChunkSizeNegotiator(16, 4, 254);
+
+		assertEquals(16, negotiator.largestAccepted(BMC));
+		negotiator.accepted(BMC, negotiator.next(BMC));
+		assertEquals(135, negotiator.largestAccepted(BMC));
+
+		assertFalse(negotiator.isOverReadRejected(BMC));
+		negotiator.overReadRejected(BMC);
+		assertTrue(negotiator.isOverReadRejected(BMC));
+	}
+}
@@ -0,0 +1,281 @@
+package org.metricshub.ipmi.client.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.metricshub.ipmi.client.IpmiClientConfiguration;
+import org.metricshub.ipmi.core.api.async.ConnectionHandle;
+import org.metricshub.ipmi.core.api.async.FakeSessions;
+import org.metricshub.ipmi.core.api.async.IpmiAsyncConnector;
+import org.metricshub.ipmi.core.api.sync.FakeIpmiConnector;
+import org.metricshub.ipmi.core.coding.PayloadCoder;
+import org.metricshub.ipmi.core.coding.commands.ResponseData;
+import org.metricshub.ipmi.core.coding.commands.fru.BaseUnit;
+import org.metricshub.ipmi.core.coding.commands.fru.GetFruInventoryAreaInfoResponseData;
+import org.metricshub.ipmi.core.coding.commands.fru.ReadFruData;
+import org.metricshub.ipmi.core.coding.commands.fru.ReadFruDataResponseData;
+import org.metricshub.ipmi.core.coding.commands.fru.record.BoardInfo;
+import org.metricshub.ipmi.core.coding.commands.fru.record.FruRecord;
+import org.metricshub.ipmi.core.coding.payload.CompletionCode;
+import org.metricshub.ipmi.core.coding.payload.lan.IPMIException;
+
+class GetFrusRunnerTest {
+
+	private static final String MANUFACTURER = "ACME Computers Incorporated";
+	private static final String PRODUCT_NAME = "Server Board X1000 Rev B";
+	private static final String SERIAL_NUMBER = "SN-0123456789-ABCDEFGHIJ";
+	private static final String PART_NUMBER = "PN-9876543210-KLMNOPQRST";
+
+	/**
+	 * Inventory area with a common header and a board info area spanning many chunks
+	 */
+	private static final byte[] AREA = area();
+
+	private final List<FruBmc> bmcs = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		bmcs.forEach(FruBmc::tearDown);
+	}
+
+	@Test
+	void testOutOfOrderResponsesAreReassembled() throws Exception {
+		final FruBmc bmc = bmc(255, 255);
+		bmc.reverseOrder = true;
+
+		assertBoard(read("10.0.16.1", bmc, 4));
+		assertTrue(bmc.outOfOrder.get() > 0, "no response completed out of order");
+	}
+
+	@Test
+	void testShortReadsAreRequestedAgain() throws Exception {
+		final FruBmc bmc = bmc(255, 5);
+
+		assertBoard(read("10.0.16.2", bmc, 4));
+
+		// Each chunk was completed by requests starting where the short reads stopped
+		assertTrue(bmc.requests.size() >= AREA.length / 5, "requests: " + bmc.requests.size());
+	}
+
+	@Test
+	void testChunkSizeBacksOff() throws Exception {
+		final FruBmc bmc = bmc(12, 255);
+
+		assertBoard(read("10.0.16.3", bmc, 4));
+		assertTrue(bmc.rejected.get() > 0);
+
+		// The chunk size settled below the limit of the BMC
+		final ReadFruData last = bmc.requests.get(bmc.requests.size() - 1);
+		assertTrue(last.getSize() <= 12, "last chunk: " + last.getSize());
+	}
+
+	@Test
+	void testCountFitsInOneByteWithWords() throws Exception {
+		final FruBmc bmc = bmc(255, 255);
+		bmc.unit = BaseUnit.Words;
+
+		runner("10.0.16.5", bmc, 4).getSystemBoardFruRecords();
+
+		// The count is encoded in bytes, the number of words requested times the size of a word
+		assertTrue(bmc.requests.stream().allMatch(request -> request.getSize() <= 0xff),
+				"requests: " + bmc.requests.stream().map(ReadFruData::getSize).collect(Collectors.toList()));
+	}
+
+	@Test
+	void testInterruptIsPropagated() throws Exception {
+		final FruBmc bmc = bmc(255, 255);
+		bmc.answer = false;
+
+		// The chunks are read through a session without BMC, which never answers
+		final GetFrusRunner runner = runner("10.0.16.4", bmc, 4);
+		runner.handle = FakeSessions.openSession(bmc);
+		final IpmiAsyncConnector asyncConnector = FakeSessions.getAsyncConnector(bmc);
+
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		final Thread thread = new Thread(() -> {
+			try {
+				runner.getSystemBoardFruRecords();
+			} catch (Throwable t) {
+				failure.set(t);
+			}
+		});
+		thread.start();
+
+		while (FakeSessions.getPendingRequestCount(asyncConnector) < 4) {
+			Thread.sleep(1);
+		}
+		thread.interrupt();
+		thread.join(5000);
+
+		assertTrue(failure.get() instanceof InterruptedException, "failure: " + failure.get());
+
+		// The requests in flight were given up by the connector
+		assertEquals(0, FakeSessions.getPendingRequestCount(asyncConnector));
+	}
+
+	private FruBmc bmc(final int limit, final int shortRead) {
+		final FruBmc bmc = new FruBmc(limit, shortRead);
+		bmcs.add(bmc);
+		return bmc;
+	}
+
+	private static List<FruRecord> read(final String hostname, final FruBmc bmc, final int window) throws Exception {
+		return runner(hostname, bmc, window).getSystemBoardFruRecords();
+	}
+
+	private static GetFrusRunner runner(final String hostname, final FruBmc bmc, final int window) {
+		final IpmiClientConfiguration configuration = new IpmiClientConfiguration(hostname, "admin",
+				"secret".toCharArray(), null, false, 10);
+		configuration.setPipelineWindow(window);
+
+		final GetFrusRunner runner = new GetFrusRunner(configuration);
+		runner.connector = bmc;
+		runner.handle = new ConnectionHandle(0, InetAddress.getLoopbackAddress(), 623);
+		return runner;
+	}
+
+	private static void assertBoard(final List<FruRecord> records) {
+		assertEquals(1, records.size());
+
+		final BoardInfo board = (BoardInfo) records.get(0);
+		assertEquals(MANUFACTURER, board.getBoardManufacturer());
+		assertEquals(PRODUCT_NAME, board.getBoardProductName());
+		assertEquals(SERIAL_NUMBER, board.getBoardSerialNumber());
+		assertEquals(PART_NUMBER, board.getBoardPartNumber());
+	}
+
+	private static byte[] area() {
+		final byte[] area = new byte[1024];
+
+		// Common header: format version, board info area at offset 8
+		area[0] = 1;
+		area[3] = 1;
+
+		// Board info area: format version, length, English, manufacturing date
+		int offset = 8;
+		area[offset] = 1;
+		area[offset + 1] = 15;
+		offset += 6;
+
+		for (String field : new String[] { MANUFACTURER, PRODUCT_NAME, SERIAL_NUMBER, PART_NUMBER }) {
+			final byte[] bytes = field.getBytes(StandardCharsets.ISO_8859_1);
+			area[offset++] = (byte) (0xc0 | bytes.length);
+			System.arraycopy(bytes, 0, area, offset, bytes.length);
+			offset += bytes.length;
+		}
+		area[offset] = (byte) 0xc1;
+
+		return area;
+	}
+
+	/**
+	 * Serves {@link #AREA} as FRU 0, answering the requests asynchronously
+	 */
+	private static class FruBmc extends FakeIpmiConnector {
+
+		/**
+		 * Largest count accepted, larger requests are rejected
+		 */
+		private final int limit;
+
+		/**
+		 * Largest number of bytes returned, fewer than requested if smaller
+		 */
+		private final int shortRead;
+
+		private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		private final List<ReadFruData> requests = new CopyOnWriteArrayList<>();
+		private final AtomicInteger rejected = new AtomicInteger();
+		private final AtomicInteger outOfOrder = new AtomicInteger();
+		private final AtomicInteger lastCompleted = new AtomicInteger(-1);
+
+		private volatile boolean reverseOrder;
+		private volatile BaseUnit unit = BaseUnit.Bytes;
+
+		/**
+		 * Whether the chunks are answered, otherwise they are sent through the session of the connector
+		 */
+		private volatile boolean answer = true;
+
+		FruBmc(final int limit, final int shortRead) {
+			this.limit = limit;
+			this.shortRead = shortRead;
+		}
+
+		@Override
+		public ResponseData sendMessage(ConnectionHandle connectionHandle, PayloadCoder request) throws Exception {
+			if (request instanceof ReadFruData) {
+				return read((ReadFruData) request);
+			}
+
+			final GetFruInventoryAreaInfoResponseData info = new GetFruInventoryAreaInfoResponseData();
+			info.setFruInventoryAreaSize(AREA.length / unit.getSize());
+			info.setFruUnit(unit);
+			return info;
+		}
+
+		@Override
+		public CompletableFuture<ResponseData> sendMessageAsync(ConnectionHandle connectionHandle, PayloadCoder request) {
+			if (!answer) {
+				return super.sendMessageAsync(connectionHandle, request);
+			}
+
+			final ReadFruData readFruData = (ReadFruData) request;
+			final int sequence = requests.size();
+			requests.add(readFruData);
+
+			final CompletableFuture<ResponseData> future = new CompletableFuture<>();
+
+			// In reverse order, the later requests of each window are answered first
+			final long delay = reverseOrder ? 4 - sequence % 4 : 0;
+			scheduler.schedule(() -> {
+				if (sequence < lastCompleted.getAndSet(sequence)) {
+					outOfOrder.incrementAndGet();
+				}
+				try {
+					future.complete(read(readFruData));
+				} catch (IPMIException e) {
+					future.completeExceptionally(e);
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+
+			return future;
+		}
+
+		@Override
+		public void tearDown() {
+			scheduler.shutdownNow();
+			super.tearDown();
+		}
+
+		private ReadFruDataResponseData read(final ReadFruData request) throws IPMIException {
+			if (request.getSize() > limit) {
+				rejected.incrementAndGet();
+				throw new IPMIException(CompletionCode.InvalidData);
+			}
+
+			final int count = Math.min(Math.min(request.getSize(), shortRead), AREA.length - request.getOffset());
+			final byte[] data = new byte[count];
+			System.arraycopy(AREA, request.getOffset(), data, 0, count);
+
+			final ReadFruDataResponseData response = new ReadFruDataResponseData();
+			response.setFruData(data);
+			return response;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package org.metricshub.ipmi.client.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.metricshub.ipmi.client.IpmiClientConfiguration;
+import org.metricshub.ipmi.client.IpmiSessionPool;
+import org.metricshub.ipmi.client.model.Sensor;
+import org.metricshub.ipmi.core.api.async.ConnectionHandle;
+import org.metricshub.ipmi.core.api.sync.FakeIpmiConnector;
+import org.metricshub.ipmi.core.coding.PayloadCoder;
+import org.metricshub.ipmi.core.coding.commands.ResponseData;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdr;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrRepositoryInfo;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrRepositoryInfoResponseData;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrResponseData;
+import org.metricshub.ipmi.core.coding.payload.CompletionCode;
+import org.metricshub.ipmi.core.coding.payload.lan.IPMIException;
+
+class GetSensorReadingsRunnerTest {
+
+	@Test
+	void testPlanIsCompiledAgainWhenTheRepositoryChanges() throws Exception {
+		final SdrBmc bmc = new SdrBmc();
+		bmc.setSensors(2, 100);
+
+		assertEquals(2, poll(bmc).size());
+		assertEquals(2, bmc.getSdrCount);
+
+		// Same repository: the plan is reused, no record is read
+		bmc.getSdrCount = 0;
+		assertEquals(2, poll(bmc).size());
+		assertEquals(0, bmc.getSdrCount);
+
+		// A sensor was added: the repository is walked again
+		bmc.setSensors(3, 200);
+		assertEquals(3, poll(bmc).size());
+		assertEquals(3, bmc.getSdrCount);
+
+		bmc.getSdrCount = 0;
+		assertEquals(3, poll(bmc).size());
+		assertEquals(0, bmc.getSdrCount);
+	}
+
+	private static List<Sensor> poll(final SdrBmc bmc) throws Exception {
+		final IpmiClientConfiguration configuration = new IpmiClientConfiguration("10.0.14.1", "admin",
+				"secret".toCharArray(), null, false, 10);
+
+		// The runner takes the session opened on the fake BMC from the pool
+		final IpmiSessionPool pool = new IpmiSessionPool(60000);
+		pool.release(pool.create(configuration, bmc, new ConnectionHandle(0, InetAddress.getLoopbackAddress(), 623)));
+
+		try (GetSensorReadingsRunner runner = new GetSensorReadingsRunner(configuration)) {
+			runner.setSessionPool(pool);
+			runner.sdrCache = null;
+			return runner.call();
+		}
+	}
+
+	/**
+	 * @param sensorNumber Number of the sensor
+	 * @return A Compact sensor record named after its number
+	 */
+	private static byte[] compactRecord(final int sensorNumber) {
+		final byte[] name = ("Sensor " + sensorNumber).getBytes(StandardCharsets.ISO_8859_1);
+		final byte[] record = new byte[32 + name.length];
+		record[2] = 0x51;
+		record[3] = 0x02;
+		record[4] = (byte) (record.length - AbstractIpmiRunner.HEADER_SIZE);
+		record[7] = (byte) sensorNumber;
+		record[31] = (byte) (0xc0 | name.length);
+		System.arraycopy(name, 0, record, 32, name.length);
+		return record;
+	}
+
+	/**
+	 * Serves a repository of Compact sensor records whose readings are not available
+	 */
+	private static class SdrBmc extends FakeIpmiConnector {
+
+		private volatile List<byte[]> records;
+		private volatile int addTimestamp;
+		private volatile int getSdrCount;
+
+		void setSensors(final int count, final int addTimestamp) {
+			final List<byte[]> newRecords = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				newRecords.add(compactRecord(i + 1));
+			}
+			this.records = newRecords;
+			this.addTimestamp = addTimestamp;
+		}
+
+		@Override
+		public ResponseData sendMessage(ConnectionHandle connectionHandle, PayloadCoder request) throws Exception {
+			if (request instanceof GetSdrRepositoryInfo) {
+				final GetSdrRepositoryInfoResponseData info = new GetSdrRepositoryInfoResponseData();
+				info.setRecordCount(records.size());
+				info.setAddTimestamp(addTimestamp);
+				return info;
+			}
+
+			if (request instanceof GetSdr) {
+				getSdrCount++;
+				final int index = ((GetSdr) request).getRecordId();
+				final GetSdrResponseData data = new GetSdrResponseData();
+				data.setSensorRecordData(records.get(index));
+				data.setNextRecordId(index + 1 < records.size() ? index + 1 : AbstractIpmiRunner.MAX_REPO_RECORD_ID);
+				return data;
+			}
+
+			throw new IPMIException(CompletionCode.DataNotPresent);
+		}
+
+		@Override
+		public CompletableFuture<ResponseData> sendMessageAsync(ConnectionHandle connectionHandle, PayloadCoder request) {
+			final CompletableFuture<ResponseData> future = new CompletableFuture<>();
+			future.completeExceptionally(new IPMIException(CompletionCode.DataNotPresent));
+			return future;
+		}
+	}
+}
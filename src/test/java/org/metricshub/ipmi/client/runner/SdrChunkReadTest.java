@@ -0,0 +1,141 @@
+package org.metricshub.ipmi.client.runner;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.metricshub.ipmi.client.IpmiClientConfiguration;
+import org.metricshub.ipmi.core.api.async.ConnectionHandle;
+import org.metricshub.ipmi.core.api.sync.FakeIpmiConnector;
+import org.metricshub.ipmi.core.api.sync.IpmiConnector;
+import org.metricshub.ipmi.core.coding.PayloadCoder;
+import org.metricshub.ipmi.core.coding.commands.ResponseData;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdr;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrResponseData;
+import org.metricshub.ipmi.core.coding.payload.CompletionCode;
+import org.metricshub.ipmi.core.coding.payload.lan.IPMIException;
+
+class SdrChunkReadTest {
+
+	private static final int LIMIT = 24;
+
+	private static final byte[] LONG_RECORD = record(60);
+	private static final byte[] SHORT_RECORD = record(12);
+
+	@Test
+	void testShortRecordIsReadInOneChunk() throws Exception {
+		final SdrBmc bmc = new SdrBmc(false);
+		final TestRunner runner = new TestRunner("10.0.13.1", bmc);
+
+		assertArrayEquals(LONG_RECORD, runner.getSensorRecordData(0));
+		assertEquals(1, runner.nextRecId);
+
+		bmc.requests.clear();
+		assertArrayEquals(SHORT_RECORD, runner.getSensorRecordData(0));
+		assertEquals(AbstractIpmiRunner.MAX_REPO_RECORD_ID, runner.nextRecId);
+
+		// A single read of the learned size, no header read and no whole read attempt
+		assertEquals(1, bmc.requests.size());
+		assertEquals(0, bmc.requests.get(0).getOffset());
+		assertTrue(bmc.requests.get(0).getBytesToRead() <= LIMIT);
+	}
+
+	@Test
+	void testLongRecordStartsWithTheLearnedSize() throws Exception {
+		final SdrBmc bmc = new SdrBmc(false);
+		final TestRunner runner = new TestRunner("10.0.13.2", bmc);
+
+		runner.getSensorRecordData(0);
+		runner.nextRecId = 0;
+		final int firstReadRequests = bmc.requests.size();
+
+		bmc.requests.clear();
+		assertArrayEquals(LONG_RECORD, runner.getSensorRecordData(0));
+
+		// The learned size right away, instead of the header only
+		assertTrue(bmc.requests.get(0).getBytesToRead() > AbstractIpmiRunner.CHUNK_SIZE);
+		assertTrue(bmc.requests.get(0).getBytesToRead() <= LIMIT);
+		assertTrue(bmc.requests.size() < firstReadRequests);
+	}
+
+	@Test
+	void testBmcRejectingOverReads() throws Exception {
+		final SdrBmc bmc = new SdrBmc(true);
+		final TestRunner runner = new TestRunner("10.0.13.3", bmc);
+
+		assertArrayEquals(LONG_RECORD, runner.getSensorRecordData(0));
+		assertArrayEquals(SHORT_RECORD, runner.getSensorRecordData(0));
+
+		// The short record was rejected once, so the following records start with a header read
+		runner.nextRecId = 1;
+		bmc.requests.clear();
+		assertArrayEquals(SHORT_RECORD, runner.getSensorRecordData(0));
+		assertEquals(2, bmc.requests.size());
+		assertEquals(AbstractIpmiRunner.INITIAL_CHUNK_SIZE, bmc.requests.get(0).getBytesToRead());
+		assertEquals(SHORT_RECORD.length - AbstractIpmiRunner.INITIAL_CHUNK_SIZE, bmc.requests.get(1).getBytesToRead());
+	}
+
+	/**
+	 * @param size Size of the record, header included
+	 * @return A record whose header gives its size, filled with its offsets
+	 */
+	private static byte[] record(final int size) {
+		final byte[] record = new byte[size];
+		for (int i = 0; i < size; i++) {
+			record[i] = (byte) i;
+		}
+		record[4] = (byte) (size - AbstractIpmiRunner.HEADER_SIZE);
+		return record;
+	}
+
+	private static class TestRunner extends AbstractIpmiRunner<Void> {
+
+		TestRunner(final String hostname, final IpmiConnector connector) {
+			super(new IpmiClientConfiguration(hostname, "admin", "secret".toCharArray(), null, false, 10));
+			this.connector = connector;
+			this.handle = new ConnectionHandle(0, InetAddress.getLoopbackAddress(), 623);
+		}
+
+		@Override
+		public Void call() {
+			return null;
+		}
+	}
+
+	/**
+	 * Serves a long record then a short one, refusing whole reads and chunks larger than {@link #LIMIT}
+	 */
+	private static class SdrBmc extends FakeIpmiConnector {
+
+		private final boolean rejectOverReads;
+		private final List<GetSdr> requests = new ArrayList<>();
+
+		SdrBmc(final boolean rejectOverReads) {
+			this.rejectOverReads = rejectOverReads;
+		}
+
+		@Override
+		public ResponseData sendMessage(ConnectionHandle connectionHandle, PayloadCoder request) throws Exception {
+			final GetSdr getSdr = (GetSdr) request;
+			requests.add(getSdr);
+
+			final byte[] record = getSdr.getRecordId() == 0 ? LONG_RECORD : SHORT_RECORD;
+			final int bytesToRead = getSdr.getBytesToRead();
+			if (bytesToRead > LIMIT || rejectOverReads && getSdr.getOffset() + bytesToRead > record.length) {
+				throw new IPMIException(CompletionCode.CannotRespond);
+			}
+
+			final GetSdrResponseData data = new GetSdrResponseData();
+			data.setNextRecordId(record == LONG_RECORD ? 1 : AbstractIpmiRunner.MAX_REPO_RECORD_ID);
+			data.setSensorRecordData(Arrays.copyOfRange(record, getSdr.getOffset(),
+					Math.min(record.length, getSdr.getOffset() + bytesToRead)));
+			return data;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package org.metricshub.ipmi.client.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.metricshub.ipmi.core.coding.commands.sdr.GetSdrRepositoryInfoResponseData;
+import org.metricshub.ipmi.core.coding.commands.sdr.record.CompactSensorRecord;
+import org.metricshub.ipmi.core.coding.commands.sdr.record.FullSensorRecord;
+
+class SensorPollPlanTest {
+
+	@Test
+	void testCompile() {
+		final FullSensorRecord full = new FullSensorRecord();
+		full.setSensorNumber((byte) 0x30);
+		final CompactSensorRecord compact = new CompactSensorRecord();
+		compact.setSensorNumber((byte) 0xf1);
+
+		final SensorPollPlan plan = SensorPollPlan.compile(Arrays.asList(full, compact), null);
+
+		assertEquals(2, plan.size());
+		assertEquals(0x30, plan.getSensorNumber(0));
+		assertEquals(0xf1, plan.getSensorNumber(1));
+		assertSame(full, plan.getRecord(0));
+		assertSame(compact, plan.getRecord(1));
+	}
+
+	@Test
+	void testMatches() {
+		final SensorPollPlan plan = SensorPollPlan.compile(Collections.emptyList(), info(10, 100, 50));
+
+		assertTrue(plan.matches(info(10, 100, 50)));
+		assertFalse(plan.matches(info(11, 200, 50)));
+		assertFalse(plan.matches(info(9, 100, 300)));
+
+		// The BMC does not tell the state of its repository
+		assertTrue(plan.matches(null));
+
+		// The state was unknown when the plan was compiled
+		assertFalse(SensorPollPlan.compile(Collections.emptyList(), null).matches(info(10, 100, 50)));
+	}
+
+	private static GetSdrRepositoryInfoResponseData info(final int recordCount, final int addTimestamp,
+			final int delTimestamp) {
+		final GetSdrRepositoryInfoResponseData info = new GetSdrRepositoryInfoResponseData();
+		info.setRecordCount(recordCount);
+		info.setAddTimestamp(addTimestamp);
+		info.setDelTimestamp(delTimestamp);
+		return info;
+	}
+}
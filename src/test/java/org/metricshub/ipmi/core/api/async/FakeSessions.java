@@ -0,0 +1,87 @@
+package org.metricshub.ipmi.core.api.async;
+
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.util.Map;
+
+import org.metricshub.ipmi.core.api.sync.IpmiConnector;
+import org.metricshub.ipmi.core.coding.commands.PrivilegeLevel;
+import org.metricshub.ipmi.core.coding.security.CipherSuite;
+import org.metricshub.ipmi.core.connection.Connection;
+import org.metricshub.ipmi.core.connection.ConnectionManager;
+import org.metricshub.ipmi.core.sm.StateMachine;
+import org.metricshub.ipmi.core.sm.states.SessionValid;
+
+/**
+ * Opens sessions without a BMC, so that the requests go through the real queues and pending requests of an
+ * {@link IpmiAsyncConnector}
+ */
+public class FakeSessions {
+
+	private FakeSessions() {
+	}
+
+	/**
+	 * Create a connection and put it in the state of an open session without encryption, skipping the handshake
+	 *
+	 * @param connector The connector to create the connection with
+	 * @return The handle of the connection
+	 * @throws Exception If the connection cannot be created
+	 */
+	public static ConnectionHandle openSession(final IpmiAsyncConnector connector) throws Exception {
+		final ConnectionHandle handle = connector.createConnection(InetAddress.getLoopbackAddress(), 623,
+				CipherSuite.getEmpty(), PrivilegeLevel.User);
+
+		final ConnectionManager connectionManager = field(connector, "connectionManager");
+		final Connection connection = connectionManager.getConnection(handle.getHandle());
+		final StateMachine stateMachine = field(connection, "stateMachine");
+		stateMachine.setCurrent(new SessionValid(CipherSuite.getEmpty(), 1));
+
+		return handle;
+	}
+
+	/**
+	 * @param connector The connector
+	 * @return The number of requests submitted through the connector which still wait for their response
+	 * @throws Exception If the pending requests cannot be read
+	 */
+	public static int getPendingRequestCount(final IpmiAsyncConnector connector) throws Exception {
+		final Map<?, ?> pendingRequests = field(connector, "pendingRequests");
+		return pendingRequests.size();
+	}
+
+	/**
+	 * Create a connection through the asynchronous connector of the given connector, see
+	 * {@link #openSession(IpmiAsyncConnector)}
+	 *
+	 * @param connector The connector to create the connection with
+	 * @return The handle of the connection
+	 * @throws Exception If the connection cannot be created
+	 */
+	public static ConnectionHandle openSession(final IpmiConnector connector) throws Exception {
+		return openSession(getAsyncConnector(connector));
+	}
+
+	/**
+	 * @param connector The connector
+	 * @return The asynchronous connector which sends the requests of the given connector
+	 * @throws Exception If the field cannot be read
+	 */
+	public static IpmiAsyncConnector getAsyncConnector(final IpmiConnector connector) throws Exception {
+		return field(connector, "asyncConnector");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T field(final Object object, final String name) throws Exception {
+		for (Class<?> type = object.getClass(); type != null; type = type.getSuperclass()) {
+			try {
+				final Field field = type.getDeclaredField(name);
+				field.setAccessible(true);
+				return (T) field.get(object);
+			} catch (NoSuchFieldException e) {
+				// Declared by a super class
+			}
+		}
+		throw new NoSuchFieldException(name);
+	}
+}
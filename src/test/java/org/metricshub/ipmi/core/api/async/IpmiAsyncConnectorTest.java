@@ -0,0 +1,86 @@
+package org.metricshub.ipmi.core.api.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+import org.metricshub.ipmi.core.coding.commands.IpmiVersion;
+import org.metricshub.ipmi.core.coding.commands.ResponseData;
+import org.metricshub.ipmi.core.coding.commands.chassis.GetChassisStatus;
+import org.metricshub.ipmi.core.coding.protocol.AuthenticationType;
+import org.metricshub.ipmi.core.coding.security.CipherSuite;
+import org.metricshub.ipmi.core.transport.NoOpMessenger;
+
+class IpmiAsyncConnectorTest {
+
+	/**
+	 * Number of messages the message queue of a connection holds
+	 */
+	private static final int QUEUE_SIZE = 8;
+
+	@Test
+	void testCancelledRequestIsForgotten() throws Exception {
+		final NoOpMessenger messenger = new NoOpMessenger();
+		final IpmiAsyncConnector connector = new IpmiAsyncConnector(messenger);
+		try {
+			final ConnectionHandle handle = FakeSessions.openSession(connector);
+			connector.setTimeout(handle, 100);
+
+			final List<CompletableFuture<ResponseData>> first = submit(connector, handle);
+			assertEquals(QUEUE_SIZE, messenger.getSentCount());
+			assertEquals(QUEUE_SIZE, FakeSessions.getPendingRequestCount(connector));
+
+			first.forEach(future -> future.cancel(false));
+			assertEquals(0, FakeSessions.getPendingRequestCount(connector));
+
+			// The tags were released, so the queue takes as many requests right away
+			final List<CompletableFuture<ResponseData>> second = submit(connector, handle);
+			assertEquals(2 * QUEUE_SIZE, messenger.getSentCount());
+			second.forEach(future -> future.cancel(false));
+
+			// The cancelled requests are not sent again once they time out
+			Thread.sleep(1500);
+			assertEquals(2 * QUEUE_SIZE, messenger.getSentCount());
+			assertEquals(0, FakeSessions.getPendingRequestCount(connector));
+			assertTrue(first.stream().allMatch(CompletableFuture::isCancelled));
+		} finally {
+			connector.tearDown();
+		}
+	}
+
+	@Test
+	void testHandshakeStopsAtTheDeadline() throws Exception {
+		final NoOpMessenger messenger = new NoOpMessenger();
+		final IpmiAsyncConnector connector = new IpmiAsyncConnector(messenger);
+		try {
+			final ConnectionHandle handle = connector.createConnection(InetAddress.getLoopbackAddress(), 623);
+			final long start = System.nanoTime();
+			connector.setDeadline(handle, start + TimeUnit.MILLISECONDS.toNanos(300));
+
+			// The BMC never answers: the first attempt waits until the deadline, and is not retried
+			assertThrows(TimeoutException.class, () -> connector.getAvailableCipherSuites(handle));
+			assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+			assertEquals(1, messenger.getSentCount());
+		} finally {
+			connector.tearDown();
+		}
+	}
+
+	private static List<CompletableFuture<ResponseData>> submit(final IpmiAsyncConnector connector,
+			final ConnectionHandle handle) {
+		final List<CompletableFuture<ResponseData>> futures = new ArrayList<>();
+		for (int i = 0; i < QUEUE_SIZE; i++) {
+			futures.add(connector.submit(handle,
+					new GetChassisStatus(IpmiVersion.V20, CipherSuite.getEmpty(), AuthenticationType.RMCPPlus)));
+		}
+		return futures;
+	}
+}
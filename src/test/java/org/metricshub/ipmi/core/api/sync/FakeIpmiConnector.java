@@ -0,0 +1,54 @@
+package org.metricshub.ipmi.core.api.sync;
+
+import org.metricshub.ipmi.core.api.async.ConnectionHandle;
+import org.metricshub.ipmi.core.transport.NoOpMessenger;
+
+/**
+ * Connector which does not talk to any BMC: its sessions are valid and kept alive until told otherwise. Subclasses
+ * answer the requests by overriding {@link #sendMessage(ConnectionHandle, org.metricshub.ipmi.core.coding.PayloadCoder)}
+ * and {@link #sendMessageAsync(ConnectionHandle, org.metricshub.ipmi.core.coding.PayloadCoder)}.
+ */
+public class FakeIpmiConnector extends IpmiConnector {
+
+	private volatile boolean sessionValid = true;
+	private volatile boolean keptAlive = true;
+	private volatile boolean tornDown;
+
+	public FakeIpmiConnector() {
+		super(new NoOpMessenger());
+	}
+
+	@Override
+	public boolean isSessionValid(ConnectionHandle connectionHandle) {
+		return sessionValid;
+	}
+
+	@Override
+	public boolean isKeptAlive(ConnectionHandle connectionHandle) {
+		return keptAlive;
+	}
+
+	@Override
+	public void closeSession(ConnectionHandle connectionHandle) {}
+
+	@Override
+	public void tearDown() {
+		tornDown = true;
+		super.tearDown();
+	}
+
+	public void setSessionValid(final boolean sessionValid) {
+		this.sessionValid = sessionValid;
+	}
+
+	public void setKeptAlive(final boolean keptAlive) {
+		this.keptAlive = keptAlive;
+	}
+
+	/**
+	 * @return Whether {@link #tearDown()} was called
+	 */
+	public boolean isTornDown() {
+		return tornDown;
+	}
+}
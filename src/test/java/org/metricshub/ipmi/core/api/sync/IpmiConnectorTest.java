@@ -0,0 +1,38 @@
+package org.metricshub.ipmi.core.api.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+import org.metricshub.ipmi.core.api.async.ConnectionHandle;
+import org.metricshub.ipmi.core.api.async.FakeSessions;
+import org.metricshub.ipmi.core.coding.commands.IpmiVersion;
+import org.metricshub.ipmi.core.coding.commands.chassis.GetChassisStatus;
+import org.metricshub.ipmi.core.coding.protocol.AuthenticationType;
+import org.metricshub.ipmi.core.coding.security.CipherSuite;
+import org.metricshub.ipmi.core.transport.NoOpMessenger;
+
+class IpmiConnectorTest {
+
+	@Test
+	void testRequestIsCancelledAtTheDeadline() throws Exception {
+		final NoOpMessenger messenger = new NoOpMessenger();
+		final IpmiConnector connector = new IpmiConnector(messenger);
+		try {
+			final ConnectionHandle handle = FakeSessions.openSession(connector);
+			connector.setDeadline(handle, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200));
+
+			assertThrows(TimeoutException.class, () -> connector.sendMessage(handle,
+					new GetChassisStatus(IpmiVersion.V20, CipherSuite.getEmpty(), AuthenticationType.RMCPPlus)));
+
+			// The request given up is no longer waited for
+			assertEquals(1, messenger.getSentCount());
+			assertEquals(0, FakeSessions.getPendingRequestCount(FakeSessions.getAsyncConnector(connector)));
+		} finally {
+			connector.tearDown();
+		}
+	}
+}
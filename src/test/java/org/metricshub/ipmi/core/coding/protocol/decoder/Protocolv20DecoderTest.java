@@ -0,0 +1,144 @@
+package org.metricshub.ipmi.core.coding.protocol.decoder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.metricshub.ipmi.core.coding.payload.CompletionCode;
+import org.metricshub.ipmi.core.coding.payload.PlainMessage;
+import org.metricshub.ipmi.core.coding.payload.lan.IpmiLanResponse;
+import org.metricshub.ipmi.core.coding.protocol.AuthenticationType;
+import org.metricshub.ipmi.core.coding.protocol.Ipmiv20Message;
+import org.metricshub.ipmi.core.coding.protocol.PayloadType;
+import org.metricshub.ipmi.core.coding.protocol.encoder.Protocolv20Encoder;
+import org.metricshub.ipmi.core.coding.rmcp.RmcpDecoder;
+import org.metricshub.ipmi.core.coding.rmcp.RmcpEncoder;
+import org.metricshub.ipmi.core.coding.rmcp.RmcpMessage;
+import org.metricshub.ipmi.core.coding.security.CipherSuite;
+
+class Protocolv20DecoderTest {
+
+	private static final int SESSION_ID = 0x01020304;
+
+	private static final byte[] SENSOR_READING = { 0x2a, (byte) 0xc0, 0x00 };
+
+	/**
+	 * Builds a Get Sensor Reading response as a BMC would send it.
+	 */
+	static byte[] encodeResponse(final CipherSuite cipherSuite, final byte[] data) throws Exception {
+		final byte[] lan = new byte[8 + data.length];
+		lan[0] = (byte) 0x81;
+		lan[1] = (byte) (0x05 << 2);
+		lan[2] = (byte) -(lan[0] + lan[1]);
+		lan[3] = 0x20;
+		lan[4] = (byte) (5 << 2);
+		lan[5] = 0x2d;
+		lan[6] = 0x00;
+		System.arraycopy(data, 0, lan, 7, data.length);
+		int checksum = 0;
+		for (int i = 3; i < lan.length - 1; i++) {
+			checksum += lan[i];
+		}
+		lan[lan.length - 1] = (byte) -checksum;
+
+		final Ipmiv20Message message = new Ipmiv20Message(cipherSuite.getConfidentialityAlgorithm());
+		message.setAuthenticationType(AuthenticationType.RMCPPlus);
+		message.setPayloadType(PayloadType.Ipmi);
+		message.setSessionID(SESSION_ID);
+		message.setSessionSequenceNumber(9);
+		message.setPayloadEncrypted(true);
+		message.setPayloadAuthenticated(true);
+		message.setIntegrityAlgorithm(cipherSuite.getIntegrityAlgorithm());
+		message.setPayload(new PlainMessage(lan));
+
+		return new Protocolv20Encoder().encodeRmcpPacket(message);
+	}
+
+	static CipherSuite aesSuite() throws Exception {
+		final CipherSuite cipherSuite = new CipherSuite((byte) 3, (byte) 1, (byte) 1, (byte) 1);
+		cipherSuite.initializeAlgorithms(new byte[20]);
+		return cipherSuite;
+	}
+
+	@Test
+	void testDecodeFromReceiveBuffer() throws Exception {
+		final CipherSuite cipherSuite = aesSuite();
+		final byte[] packet = encodeResponse(cipherSuite, SENSOR_READING);
+
+		// The datagram sits in the middle of a larger receive buffer
+		final byte[] buffer = new byte[512];
+		System.arraycopy(packet, 0, buffer, 10, packet.length);
+
+		final RmcpMessage rmcpMessage = RmcpDecoder.decode(buffer, 10, packet.length);
+		assertEquals(packet.length - RmcpEncoder.HEADER_LENGTH, rmcpMessage.getDataLength());
+		assertEquals(SESSION_ID, Protocolv20Decoder.decodeSessionID(rmcpMessage));
+
+		final Ipmiv20Message message = (Ipmiv20Message) new Protocolv20Decoder(cipherSuite).decode(rmcpMessage);
+
+		assertEquals(SESSION_ID, message.getSessionID());
+		assertEquals(9, message.getSessionSequenceNumber());
+		assertTrue(message.isPayloadEncrypted());
+
+		final IpmiLanResponse response = (IpmiLanResponse) message.getPayload();
+		assertEquals(0x2d, response.getCommand());
+		assertEquals(5, response.getSequenceNumber());
+		assertEquals(CompletionCode.Ok, response.getCompletionCode());
+		assertArrayEquals(SENSOR_READING, response.getIpmiCommandData());
+	}
+
+	@Test
+	void testCheckAuthCode() throws Exception {
+		final CipherSuite cipherSuite = aesSuite();
+		final byte[] packet = encodeResponse(cipherSuite, SENSOR_READING);
+		final int authCodeOffset = packet.length - 12;
+
+		assertTrue(cipherSuite.getIntegrityAlgorithm().checkAuthCode(packet, RmcpEncoder.HEADER_LENGTH,
+				authCodeOffset - RmcpEncoder.HEADER_LENGTH, packet, authCodeOffset, 12));
+
+		packet[authCodeOffset + 3] ^= 1;
+		assertFalse(cipherSuite.getIntegrityAlgorithm().checkAuthCode(packet, RmcpEncoder.HEADER_LENGTH,
+				authCodeOffset - RmcpEncoder.HEADER_LENGTH, packet, authCodeOffset, 12));
+	}
+
+	@Test
+	void testDecodeHeaderOnceIntoReusedContext() throws Exception {
+		final CipherSuite cipherSuite = aesSuite();
+		final Protocolv20Decoder decoder = new Protocolv20Decoder(cipherSuite);
+		final Ipmiv20SessionHeader header = new Ipmiv20SessionHeader();
+		final RmcpMessage rmcpMessage = new RmcpMessage();
+
+		for (int i = 0; i < 2; i++) {
+			final byte[] packet = encodeResponse(cipherSuite, SENSOR_READING);
+			RmcpDecoder.decode(packet, 0, packet.length, rmcpMessage);
+
+			assertTrue(decoder.decodeHeader(rmcpMessage, header));
+			assertEquals(AuthenticationType.RMCPPlus, header.getAuthenticationType());
+			assertEquals(PayloadType.Ipmi, header.getPayloadType());
+			assertEquals(SESSION_ID, header.getSessionID());
+			assertEquals(9, header.getSessionSequenceNumber());
+			assertEquals(RmcpEncoder.HEADER_LENGTH + 12, header.getPayloadOffset());
+
+			final Ipmiv20Message message = decoder.decode(rmcpMessage, header);
+			assertEquals(SESSION_ID, message.getSessionID());
+			assertArrayEquals(SENSOR_READING, ((IpmiLanResponse) message.getPayload()).getIpmiCommandData());
+		}
+	}
+
+	@Test
+	void testDecodeHeaderIgnoresOtherMessages() throws Exception {
+		final Protocolv20Decoder decoder = new Protocolv20Decoder(aesSuite());
+		final Ipmiv20SessionHeader header = new Ipmiv20SessionHeader();
+
+		// IPMI v1.5 message with no authentication
+		final RmcpMessage v15 = new RmcpMessage();
+		v15.setData(new byte[] { 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00 });
+		assertFalse(decoder.decodeHeader(v15, header));
+
+		// Truncated IPMI v2.0 session header
+		final RmcpMessage truncated = new RmcpMessage();
+		truncated.setData(new byte[] { 0x06, 0x00, 0x01, 0x02 });
+		assertFalse(decoder.decodeHeader(truncated, header));
+	}
+}
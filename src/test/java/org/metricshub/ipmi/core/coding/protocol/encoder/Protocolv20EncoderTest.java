@@ -0,0 +1,74 @@
+package org.metricshub.ipmi.core.coding.protocol.encoder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+import org.metricshub.ipmi.core.coding.Encoder;
+import org.metricshub.ipmi.core.coding.commands.IpmiVersion;
+import org.metricshub.ipmi.core.coding.commands.chassis.GetChassisStatus;
+import org.metricshub.ipmi.core.coding.protocol.AuthenticationType;
+import org.metricshub.ipmi.core.coding.protocol.IpmiMessage;
+import org.metricshub.ipmi.core.coding.rmcp.RmcpEncoder;
+import org.metricshub.ipmi.core.coding.rmcp.RmcpIpmiMessage;
+import org.metricshub.ipmi.core.coding.security.CipherSuite;
+
+class Protocolv20EncoderTest {
+
+	private static final byte[] SIK = new byte[20];
+
+	private static CipherSuite hmacSha1Suite() throws Exception {
+		final CipherSuite cipherSuite = new CipherSuite((byte) 1, (byte) 1, (byte) 0, (byte) 1);
+		cipherSuite.initializeAlgorithms(SIK);
+		return cipherSuite;
+	}
+
+	@Test
+	void testAuthCodeIsGeneratedOverThePacket() throws Exception {
+		final byte[] packet = Encoder.encode(new Protocolv20Encoder(),
+				new GetChassisStatus(IpmiVersion.V20, hmacSha1Suite(), AuthenticationType.RMCPPlus), 5, 7, 0x1234);
+
+		// RMCP header
+		assertEquals(0x06, packet[0]);
+		assertEquals((byte) 0xff, packet[2]);
+		assertEquals(0x07, packet[3]);
+
+		// Session trailer is aligned on 4 bytes and ends with Next Header and a 12 bytes AuthCode
+		final int authCodeOffset = packet.length - 12;
+		assertEquals(0, (authCodeOffset - RmcpEncoder.HEADER_LENGTH) % 4);
+		assertEquals(0x07, packet[authCodeOffset - 1]);
+
+		final Mac mac = Mac.getInstance("HmacSHA1");
+		mac.init(new SecretKeySpec(SIK, "HmacSHA1"));
+		final byte[] const1 = new byte[20];
+		Arrays.fill(const1, (byte) 1);
+		mac.init(new SecretKeySpec(mac.doFinal(const1), "HmacSHA1"));
+		mac.update(packet, RmcpEncoder.HEADER_LENGTH, authCodeOffset - RmcpEncoder.HEADER_LENGTH);
+
+		assertArrayEquals(Arrays.copyOf(mac.doFinal(), 12), Arrays.copyOfRange(packet, authCodeOffset, packet.length));
+	}
+
+	@Test
+	void testRmcpPacketMatchesLayeredEncoding() throws Exception {
+		final Protocolv20Encoder encoder = new Protocolv20Encoder();
+		final IpmiMessage message = new GetChassisStatus(IpmiVersion.V20, hmacSha1Suite(), AuthenticationType.RMCPPlus)
+				.encodePayload(5, 7, 0x1234);
+
+		assertArrayEquals(RmcpEncoder.encode(new RmcpIpmiMessage(encoder.encode(message))),
+				encoder.encodeRmcpPacket(message));
+	}
+
+	@Test
+	void testSessionlessMessageHasNoTrailer() throws Exception {
+		final byte[] packet = Encoder.encode(new Protocolv20Encoder(),
+				new GetChassisStatus(IpmiVersion.V20, hmacSha1Suite(), AuthenticationType.RMCPPlus), 5, 0, 0);
+
+		// RMCP header, session header and the 7 bytes GetChassisStatus request
+		assertEquals(RmcpEncoder.HEADER_LENGTH + 12 + 7, packet.length);
+	}
+}
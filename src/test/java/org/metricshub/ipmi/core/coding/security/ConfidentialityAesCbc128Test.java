@@ -0,0 +1,99 @@
+package org.metricshub.ipmi.core.coding.security;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+
+class ConfidentialityAesCbc128Test {
+
+	private static final byte[] SIK = new byte[20];
+
+	private static ConfidentialityAesCbc128 aes() throws Exception {
+		final ConfidentialityAesCbc128 aes = new ConfidentialityAesCbc128();
+		aes.initialize(SIK, new AuthenticationRakpHmacSha1());
+		return aes;
+	}
+
+	private static byte[] data(int length) {
+		final byte[] data = new byte[length];
+		for (int i = 0; i < length; ++i) {
+			data[i] = (byte) (i * 7);
+		}
+		return data;
+	}
+
+	@Test
+	void testEncryptionMatchesAesCbc() throws Exception {
+		final byte[] data = data(21);
+		final byte[] encrypted = aes().encrypt(data);
+
+		assertEquals(16 + 32, encrypted.length);
+
+		final Mac mac = Mac.getInstance("HmacSHA1");
+		mac.init(new SecretKeySpec(SIK, "HmacSHA1"));
+		final byte[] const2 = new byte[20];
+		Arrays.fill(const2, (byte) 2);
+		final Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
+		cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(Arrays.copyOf(mac.doFinal(const2), 16), "AES"),
+				new IvParameterSpec(encrypted, 0, 16));
+		final byte[] decrypted = cipher.doFinal(encrypted, 16, 32);
+
+		// Payload, pad bytes 1..10 and the pad length
+		assertArrayEquals(data, Arrays.copyOf(decrypted, 21));
+		for (int i = 0; i < 10; ++i) {
+			assertEquals(i + 1, decrypted[21 + i]);
+		}
+		assertEquals(10, decrypted[31]);
+	}
+
+	@Test
+	void testEncryptIntoBuffer() throws Exception {
+		final ConfidentialityAesCbc128 aes = aes();
+		final byte[] data = data(15);
+		final byte[] packet = new byte[5 + 16 + 16];
+
+		assertEquals(32, aes.encrypt(data, 0, data.length, packet, 5));
+
+		final byte[] decrypted = new byte[32];
+		assertEquals(15, aes.decrypt(packet, 5, 32, decrypted, 0));
+		assertArrayEquals(data, Arrays.copyOf(decrypted, 15));
+	}
+
+	@Test
+	void testConcurrentUse() throws Exception {
+		final ConfidentialityAesCbc128 aes = aes();
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			final List<Callable<Void>> tasks = new ArrayList<>();
+			for (int t = 0; t < 8; ++t) {
+				final int length = t * 5;
+				tasks.add(() -> {
+					final byte[] data = data(length);
+					for (int i = 0; i < 500; ++i) {
+						assertArrayEquals(data, aes.decrypt(aes.encrypt(data)));
+					}
+					return null;
+				});
+			}
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package org.metricshub.ipmi.core.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HashedWheelTimerTest {
+
+	private HashedWheelTimer timer;
+
+	@BeforeEach
+	void setUp() {
+		// Small wheel so that delays span several rounds
+		timer = new HashedWheelTimer(1, TimeUnit.MILLISECONDS, 8);
+	}
+
+	@AfterEach
+	void tearDown() {
+		timer.stop();
+	}
+
+	@Test
+	void testSchedule() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final long start = System.nanoTime();
+
+		timer.schedule(latch::countDown, 50, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+	}
+
+	@Test
+	void testCancel() throws Exception {
+		final AtomicInteger runs = new AtomicInteger();
+		final CountDownLatch latch = new CountDownLatch(1);
+
+		timer.schedule(runs::incrementAndGet, 20, TimeUnit.MILLISECONDS).cancel();
+		timer.schedule(latch::countDown, 40, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+		assertEquals(0, runs.get());
+	}
+
+	@Test
+	void testScheduleAtFixedRate() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(3);
+
+		final HashedWheelTimer.Timeout timeout = timer.scheduleAtFixedRate(latch::countDown, 5, 10,
+				TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+		timeout.cancel();
+	}
+
+	@Test
+	void testBlockingTaskDoesNotDelayOtherTasks() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch latch = new CountDownLatch(1);
+		try {
+			timer.schedule(() -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}, 5, TimeUnit.MILLISECONDS);
+			timer.schedule(latch::countDown, 20, TimeUnit.MILLISECONDS);
+
+			assertTrue(latch.await(2, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void testPeriodicTaskDoesNotOverlap() throws Exception {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger overlaps = new AtomicInteger();
+		final CountDownLatch latch = new CountDownLatch(3);
+
+		final HashedWheelTimer.Timeout timeout = timer.scheduleAtFixedRate(() -> {
+			if (running.incrementAndGet() > 1) {
+				overlaps.incrementAndGet();
+			}
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			running.decrementAndGet();
+			latch.countDown();
+		}, 1, 2, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+		timeout.cancel();
+		assertEquals(0, overlaps.get());
+	}
+}
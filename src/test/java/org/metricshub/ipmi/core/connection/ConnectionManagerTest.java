@@ -0,0 +1,90 @@
+package org.metricshub.ipmi.core.connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.metricshub.ipmi.core.coding.security.CipherSuite;
+import org.metricshub.ipmi.core.transport.NoOpMessenger;
+
+class ConnectionManagerTest {
+
+	@Test
+	void testClosedConnectionIsRemoved() throws Exception {
+		final ConnectionManager manager = new ConnectionManager(new NoOpMessenger());
+		final InetAddress address = InetAddress.getByName("10.0.0.1");
+
+		final int first = manager.createConnection(address, 623, 0);
+		final int second = manager.createConnection(address, 623, 0);
+		assertEquals(first, manager.getConnection(first).getHandle());
+		assertEquals(second, manager.getConnection(second).getHandle());
+
+		manager.closeConnection(first);
+		assertNull(manager.getConnection(first));
+		assertNotNull(manager.getConnection(second));
+
+		// Closing twice does nothing
+		manager.closeConnection(first);
+
+		// The session phases report the closed connection
+		assertThrows(ConnectionException.class, () -> manager.getAvailableCipherSuites(first));
+		assertThrows(ConnectionException.class, () -> manager.startSession(first, CipherSuite.getEmpty(),
+				null, "admin", "secret", null));
+
+		// Handles are not reused
+		final int third = manager.createConnection(address, 623, 0);
+		assertEquals(3, new HashSet<>(Arrays.asList(first, second, third)).size());
+
+		manager.close();
+		assertNull(manager.getConnection(second));
+		assertNull(manager.getConnection(third));
+	}
+
+	@Test
+	void testConcurrentConnectionsHaveTheirOwnHandle() throws Exception {
+		final ConnectionManager manager = new ConnectionManager(new NoOpMessenger());
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			final List<Future<Integer>> handles = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				final InetAddress address = InetAddress.getByName("10.0.1." + (i % 250 + 1));
+				handles.add(executor.submit(() -> {
+					final int handle = manager.createConnection(address, 623, 0);
+					if (handle % 2 == 0) {
+						manager.closeConnection(handle);
+					}
+					return handle;
+				}));
+			}
+
+			final Set<Integer> distinct = new HashSet<>();
+			for (Future<Integer> handle : handles) {
+				distinct.add(handle.get());
+			}
+			assertEquals(200, distinct.size());
+
+			for (int handle : distinct) {
+				if (handle % 2 == 0) {
+					assertNull(manager.getConnection(handle));
+				} else {
+					assertEquals(handle, manager.getConnection(handle).getHandle());
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+			manager.close();
+		}
+	}
+}
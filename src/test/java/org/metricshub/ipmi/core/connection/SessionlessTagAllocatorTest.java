@@ -0,0 +1,45 @@
+package org.metricshub.ipmi.core.connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class SessionlessTagAllocatorTest {
+
+	@Test
+	void testTagsAreUniquePerDestination() throws Exception {
+		final SessionlessTagAllocator allocator = new SessionlessTagAllocator();
+		final InetAddress address = InetAddress.getByName("10.0.0.1");
+		final Set<Integer> tags = new HashSet<>();
+
+		for (int i = 0; i < SessionlessTagAllocator.TAG_COUNT; i++) {
+			final int tag = allocator.allocate(address);
+			assertTrue(tag >= 0 && tag < SessionlessTagAllocator.TAG_COUNT, "tag: " + tag);
+			tags.add(tag);
+		}
+		assertEquals(SessionlessTagAllocator.TAG_COUNT, tags.size());
+
+		// Another destination has its own tags
+		assertEquals(0, allocator.allocate(InetAddress.getByName("10.0.0.2")));
+
+		allocator.free(address, 42);
+		assertEquals(42, allocator.allocate(address));
+	}
+
+	@Test
+	void testFreedTagIsNotReusedRightAway() throws Exception {
+		final SessionlessTagAllocator allocator = new SessionlessTagAllocator();
+		final InetAddress address = InetAddress.getByName("10.0.0.1");
+
+		final int first = allocator.allocate(address);
+		allocator.free(address, first);
+		final int second = allocator.allocate(address);
+
+		assertEquals(first + 1, second);
+	}
+}
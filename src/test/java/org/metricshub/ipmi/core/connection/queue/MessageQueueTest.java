@@ -0,0 +1,125 @@
+package org.metricshub.ipmi.core.connection.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.metricshub.ipmi.core.coding.PayloadCoder;
+import org.metricshub.ipmi.core.coding.commands.ResponseData;
+import org.metricshub.ipmi.core.coding.payload.IpmiPayload;
+import org.metricshub.ipmi.core.coding.commands.IpmiVersion;
+import org.metricshub.ipmi.core.coding.commands.chassis.GetChassisStatus;
+import org.metricshub.ipmi.core.coding.protocol.AuthenticationType;
+import org.metricshub.ipmi.core.coding.security.CipherSuite;
+import org.metricshub.ipmi.core.connection.Connection;
+import org.metricshub.ipmi.core.connection.ConnectionListener;
+import org.metricshub.ipmi.core.transport.NoOpMessenger;
+
+class MessageQueueTest {
+
+	private MessageQueue queue;
+
+	@BeforeEach
+	void setUp() {
+		queue = new MessageQueue(null, 60000, 1, 15);
+	}
+
+	@AfterEach
+	void tearDown() {
+		queue.tearDown();
+	}
+
+	@Test
+	void testAddIsBoundedByWindow() {
+		final PayloadCoder request = request();
+		final Set<Integer> tags = new HashSet<>();
+
+		for (int i = 0; i < 8; i++) {
+			final int tag = queue.add(request);
+			assertTrue(tag >= 1 && tag <= 15, "tag: " + tag);
+			assertTrue(tags.add(tag));
+			assertSame(request, queue.getMessageFromQueue(tag));
+		}
+
+		assertEquals(-1, queue.add(request));
+
+		queue.remove(tags.iterator().next());
+		assertNotEquals(-1, queue.add(request));
+	}
+
+	@Test
+	void testRemove() {
+		final int tag = queue.add(request());
+
+		assertTrue(queue.containsId(tag));
+		assertEquals(tag - 1, queue.getMessageIndexFromQueue(tag));
+
+		queue.remove(tag);
+
+		assertFalse(queue.containsId(tag));
+		assertNull(queue.getMessageFromQueue(tag));
+		assertEquals(-1, queue.getMessageIndexFromQueue(tag));
+		assertNull(queue.getMessageFromQueue(0));
+		assertNull(queue.getMessageFromQueue(16));
+	}
+
+	@Test
+	void testTagsAreNotReusedWhileInFlight() {
+		final int first = queue.add(request());
+
+		for (int i = 0; i < 40; i++) {
+			final int tag = queue.add(request());
+			assertNotEquals(first, tag);
+			queue.remove(tag);
+		}
+	}
+
+	@Test
+	void testTimedOutMessageStaysInQueue() throws Exception {
+		final List<Integer> timedOut = new CopyOnWriteArrayList<>();
+		final Connection connection = new Connection(new NoOpMessenger(), 0);
+		connection.registerListener(new ConnectionListener() {
+			@Override
+			public void processResponse(ResponseData responseData, int handle, int tag, Exception exception) {
+				timedOut.add(tag);
+			}
+
+			@Override
+			public void processRequest(IpmiPayload payload) {}
+		});
+
+		final MessageQueue timingOut = new MessageQueue(connection, 0, 1, 15);
+		try {
+			final PayloadCoder request = request();
+			final int tag = timingOut.add(request);
+
+			// First timeout: the message is reported but remains, its retry is waited for
+			timingOut.run();
+			assertEquals(1, timedOut.size());
+			assertSame(request, timingOut.getMessageFromQueue(tag));
+
+			Thread.sleep(1);
+			timingOut.run();
+			assertEquals(2, timedOut.size());
+			assertNull(timingOut.getMessageFromQueue(tag));
+		} finally {
+			assertTrue(timingOut.cancel());
+			assertFalse(timingOut.cancel());
+		}
+	}
+
+	private static PayloadCoder request() {
+		return new GetChassisStatus(IpmiVersion.V20, CipherSuite.getEmpty(), AuthenticationType.RMCPPlus);
+	}
+}
@@ -0,0 +1,91 @@
+package org.metricshub.ipmi.core.transport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.BindException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NioUdpMessengerTest {
+
+	private static final InetAddress LOOPBACK = InetAddress.getLoopbackAddress();
+
+	private SelectorGroup group;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		group = new SelectorGroup(1);
+	}
+
+	@AfterEach
+	void tearDown() {
+		group.shutdown();
+	}
+
+	@Test
+	void testReceivedMessagesAreReused() throws Exception {
+		final NioUdpMessenger messenger = new NioUdpMessenger(0, LOOPBACK, group);
+		try {
+			messenger.setDispatcher(null);
+			final CountDownLatch received = new CountDownLatch(2);
+			final List<UdpMessage> messages = new ArrayList<>();
+			final List<byte[]> data = new ArrayList<>();
+			messenger.register(message -> {
+				messages.add(message);
+				data.add(Arrays.copyOfRange(message.getBuffer(), message.getOffset(),
+						message.getOffset() + message.getLength()));
+				received.countDown();
+			});
+
+			try (DatagramSocket socket = new DatagramSocket(0, LOOPBACK)) {
+				socket.send(new DatagramPacket(new byte[] { 1, 2, 3 }, 3, LOOPBACK, messenger.getPort()));
+				Thread.sleep(100);
+				socket.send(new DatagramPacket(new byte[] { 4, 5 }, 2, LOOPBACK, messenger.getPort()));
+			}
+
+			assertTrue(received.await(5, TimeUnit.SECONDS));
+			assertArrayEquals(new byte[] { 1, 2, 3 }, data.get(0));
+			assertArrayEquals(new byte[] { 4, 5 }, data.get(1));
+			// the first message went back to the pool before the second datagram
+			assertSame(messages.get(0), messages.get(1));
+			assertEquals(2, messages.get(1).getMessage().length);
+		} finally {
+			messenger.closeConnection();
+		}
+	}
+
+	@Test
+	void testCloseReleasesPort() throws Exception {
+		final NioUdpMessenger messenger = new NioUdpMessenger(0, LOOPBACK, group);
+		final int port = messenger.getPort();
+		// let the I/O thread register the channel
+		Thread.sleep(100);
+
+		messenger.closeConnection();
+
+		NioUdpMessenger reopened = null;
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+		while (reopened == null) {
+			try {
+				reopened = new NioUdpMessenger(port, LOOPBACK, group);
+			} catch (BindException e) {
+				assertTrue(System.nanoTime() < deadline, "Port was not released");
+				Thread.sleep(10);
+			}
+		}
+		reopened.closeConnection();
+	}
+}
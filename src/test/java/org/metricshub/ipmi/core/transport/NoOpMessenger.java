@@ -0,0 +1,32 @@
+package org.metricshub.ipmi.core.transport;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Messenger which sends nothing and never receives anything, counting the messages given to it
+ */
+public class NoOpMessenger implements Messenger {
+
+	private final AtomicInteger sent = new AtomicInteger();
+
+	@Override
+	public void send(UdpMessage message) {
+		sent.incrementAndGet();
+	}
+
+	@Override
+	public void register(UdpListener listener) {}
+
+	@Override
+	public void unregister(UdpListener listener) {}
+
+	@Override
+	public void closeConnection() {}
+
+	/**
+	 * @return The number of messages sent so far
+	 */
+	public int getSentCount() {
+		return sent.get();
+	}
+}
@@ -0,0 +1,147 @@
+package org.metricshub.ipmi.core.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class ReceiveDispatcherTest {
+
+	@Test
+	void testKeepsOrderPerListener() throws Exception {
+		final ReceiveDispatcher dispatcher = new ReceiveDispatcher(4, 1024);
+		try {
+			final List<RecordingListener> listeners = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				listeners.add(new RecordingListener(100));
+			}
+
+			for (int i = 0; i < 100; i++) {
+				for (RecordingListener listener : listeners) {
+					dispatcher.dispatch(listener, message(i));
+				}
+			}
+
+			for (RecordingListener listener : listeners) {
+				assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+				for (int i = 0; i < 100; i++) {
+					assertEquals(i, listener.received.get(i).getPort());
+				}
+				assertNotEquals(Thread.currentThread(), listener.thread);
+			}
+		} finally {
+			dispatcher.shutdown();
+		}
+	}
+
+	@Test
+	void testSlowListenerDoesNotBlockOtherWorkers() throws Exception {
+		final ReceiveDispatcher dispatcher = new ReceiveDispatcher(2, 16);
+		final CountDownLatch release = new CountDownLatch(1);
+		try {
+			final UdpListener slow = message -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			};
+			// find a listener that is served by the other worker
+			RecordingListener fast;
+			do {
+				fast = new RecordingListener(1);
+			} while (dispatcher.partition(fast) == dispatcher.partition(slow));
+
+			dispatcher.dispatch(slow, message(0));
+			dispatcher.dispatch(fast, message(1));
+
+			assertTrue(fast.done.await(5, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+			dispatcher.shutdown();
+		}
+	}
+
+	@Test
+	void testDropsWhenQueueIsFull() throws Exception {
+		final ReceiveDispatcher dispatcher = new ReceiveDispatcher(1, 2);
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		try {
+			final UdpListener slow = message -> {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			};
+
+			dispatcher.dispatch(slow, message(0));
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+
+			for (int i = 1; i <= 4; i++) {
+				dispatcher.dispatch(slow, message(i));
+			}
+
+			assertEquals(2, dispatcher.getDroppedCount());
+		} finally {
+			release.countDown();
+			dispatcher.shutdown();
+		}
+	}
+
+	@Test
+	void testDemultiplexerDeliversThroughDispatcher() throws Exception {
+		final ReceiveDispatcher dispatcher = new ReceiveDispatcher(2, 16);
+		try {
+			final UdpDemultiplexer demultiplexer = new UdpDemultiplexer();
+			demultiplexer.setDispatcher(dispatcher);
+			final RecordingListener listener = new RecordingListener(3);
+			demultiplexer.register(listener);
+
+			for (int i = 0; i < 3; i++) {
+				demultiplexer.notifyMessage(message(i));
+			}
+
+			assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+			assertEquals(2, listener.received.get(2).getPort());
+		} finally {
+			dispatcher.shutdown();
+		}
+	}
+
+	private static UdpMessage message(final int port) throws Exception {
+		final UdpMessage message = new UdpMessage();
+		message.setAddress(InetAddress.getLoopbackAddress());
+		message.setPort(port);
+		message.setMessage(new byte[] { 0x06, 0x00, (byte) 0xff, 0x07 });
+		return message;
+	}
+
+	private static class RecordingListener implements UdpListener {
+
+		private final List<UdpMessage> received = Collections.synchronizedList(new ArrayList<>());
+		private final CountDownLatch done;
+		private volatile Thread thread;
+
+		RecordingListener(final int expected) {
+			done = new CountDownLatch(expected);
+		}
+
+		@Override
+		public void notifyMessage(final UdpMessage message) {
+			thread = Thread.currentThread();
+			received.add(message);
+			done.countDown();
+		}
+	}
+}
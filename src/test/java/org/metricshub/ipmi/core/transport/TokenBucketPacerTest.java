@@ -0,0 +1,43 @@
+package org.metricshub.ipmi.core.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketPacerTest {
+
+	@Test
+	void testBurstIsSentRightAway() throws Exception {
+		final TokenBucketPacer pacer = new TokenBucketPacer(10, 3);
+		final InetAddress address = InetAddress.getByName("192.168.0.1");
+
+		assertEquals(0, pacer.reserve(address));
+		assertEquals(0, pacer.reserve(address));
+		assertEquals(0, pacer.reserve(address));
+
+		final long delay = pacer.reserve(address);
+		assertTrue(delay > TimeUnit.MILLISECONDS.toNanos(50), "delay: " + delay);
+		assertTrue(delay <= TimeUnit.MILLISECONDS.toNanos(100), "delay: " + delay);
+	}
+
+	@Test
+	void testDestinationsArePacedIndependently() throws Exception {
+		final TokenBucketPacer pacer = new TokenBucketPacer(1, 1);
+		final InetAddress first = InetAddress.getByName("192.168.0.1");
+		final InetAddress second = InetAddress.getByName("192.168.0.2");
+
+		assertEquals(0, pacer.reserve(first));
+		assertTrue(pacer.reserve(first) > 0);
+		assertEquals(0, pacer.reserve(second));
+	}
+
+	@Test
+	void testInvalidRate() {
+		assertThrows(IllegalArgumentException.class, () -> new TokenBucketPacer(0, 1));
+	}
+}
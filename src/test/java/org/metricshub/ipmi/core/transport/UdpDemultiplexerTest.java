@@ -0,0 +1,112 @@
+package org.metricshub.ipmi.core.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class UdpDemultiplexerTest {
+
+	private static final int PORT = 623;
+
+	@Test
+	void testRoutesByEndpoint() throws Exception {
+		final UdpDemultiplexer demultiplexer = new UdpDemultiplexer();
+		final TestListener first = new TestListener(InetAddress.getByName("10.0.0.1"), 0);
+		final TestListener second = new TestListener(InetAddress.getByName("10.0.0.2"), 0);
+		demultiplexer.register(first);
+		demultiplexer.register(second);
+
+		demultiplexer.notifyMessage(message(InetAddress.getByName("10.0.0.2"), 0x1234));
+		demultiplexer.notifyMessage(message(InetAddress.getByName("10.0.0.3"), 0x1234));
+
+		assertEquals(0, first.received.size());
+		assertEquals(1, second.received.size());
+	}
+
+	@Test
+	void testRoutesBySessionId() throws Exception {
+		final InetAddress address = InetAddress.getByName("10.0.0.1");
+		final UdpDemultiplexer demultiplexer = new UdpDemultiplexer();
+		final TestListener first = new TestListener(address, 0x01020304);
+		final TestListener second = new TestListener(address, 0x0a0b0c0d);
+		demultiplexer.register(first);
+		demultiplexer.register(second);
+
+		demultiplexer.notifyMessage(message(address, 0x0a0b0c0d));
+		demultiplexer.notifyMessage(message(address, 0x0a0b0c0d));
+		assertEquals(0, first.received.size());
+		assertEquals(2, second.received.size());
+
+		// Sessionless messages go to every listener of the endpoint
+		demultiplexer.notifyMessage(message(address, 0));
+		assertEquals(1, first.received.size());
+		assertEquals(3, second.received.size());
+
+		// Session IDs change when sessions are re-established
+		first.sessionId = 0x0a0b0c0d;
+		second.sessionId = 0;
+		demultiplexer.notifyMessage(message(address, 0x0a0b0c0d));
+		assertEquals(2, first.received.size());
+		assertEquals(3, second.received.size());
+
+		demultiplexer.unregister(first);
+		demultiplexer.notifyMessage(message(address, 0x0a0b0c0d));
+		assertEquals(2, first.received.size());
+		assertEquals(4, second.received.size());
+	}
+
+	@Test
+	void testPeekSessionId() {
+		assertEquals(0x0a0b0c0d, UdpDemultiplexer.peekSessionId(datagram(0x0a0b0c0d)));
+		assertEquals(0, UdpDemultiplexer.peekSessionId(new byte[] { 0x06, 0x00, (byte) 0xff, 0x07 }));
+	}
+
+	private static UdpMessage message(final InetAddress address, final int sessionId) {
+		final UdpMessage message = new UdpMessage();
+		message.setAddress(address);
+		message.setPort(PORT);
+		message.setMessage(datagram(sessionId));
+		return message;
+	}
+
+	private static byte[] datagram(final int sessionId) {
+		return new byte[] { 0x06, 0x00, (byte) 0xff, 0x07, 0x06, 0x00, (byte) sessionId, (byte) (sessionId >>> 8),
+				(byte) (sessionId >>> 16), (byte) (sessionId >>> 24), 0x00, 0x00, 0x00, 0x00 };
+	}
+
+	private static class TestListener implements EndpointListener {
+
+		private final InetAddress address;
+		private int sessionId;
+		private final List<UdpMessage> received = new ArrayList<>();
+
+		TestListener(final InetAddress address, final int sessionId) {
+			this.address = address;
+			this.sessionId = sessionId;
+		}
+
+		@Override
+		public void notifyMessage(final UdpMessage message) {
+			received.add(message);
+		}
+
+		@Override
+		public InetAddress getRemoteMachineAddress() {
+			return address;
+		}
+
+		@Override
+		public int getRemoteMachinePort() {
+			return PORT;
+		}
+
+		@Override
+		public int getConsoleSessionId() {
+			return sessionId;
+		}
+	}
+}